@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Resolving a parsed list entry against the {@link net.beardbot.myanimelist.catalog.SeriesCatalog}.
+ */
+@Name("net.beardbot.myanimelist.CatalogLookup")
+@Label("MAL Series Catalog Lookup")
+@Category("MyAnimeList")
+@Description("Resolving a list entry against the series catalog, a hit if the cataloged series was reused")
+@StackTrace(false)
+class CatalogLookupEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Series ID")
+    String seriesId;
+
+    @Label("Hit")
+    boolean hit;
+}
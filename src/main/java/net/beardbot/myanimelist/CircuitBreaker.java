@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.*;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServerErrorException;
+import java.util.Collection;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stops sending the calls of one {@link Endpoint} to MAL after consecutive failures and probes MAL in the background
+ * until it recovers. Server errors and calls that could not be completed are failures, any other answer of MAL is not.
+ */
+class CircuitBreaker {
+
+    private final Endpoint endpoint;
+    private final BooleanSupplier probe;
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final Collection<CircuitBreakerListener> listeners;
+
+    private volatile CircuitBreakerOptions options;
+
+    // Guarded by this
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private boolean trialInFlight;
+
+    private final LongAdder successfulCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder failedProbes = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+
+    /**
+     * @param probe     A cheap call to MAL, returns whether MAL is available again.
+     * @param scheduler The executor running the probes, requested when the circuit opens for the first time.
+     * @param listeners Notified about state transitions. Iterated without synchronization.
+     */
+    CircuitBreaker(Endpoint endpoint, CircuitBreakerOptions options, BooleanSupplier probe,
+                   Supplier<ScheduledExecutorService> scheduler, Collection<CircuitBreakerListener> listeners) {
+        this.endpoint = endpoint;
+        this.options = options;
+        this.probe = probe;
+        this.scheduler = scheduler;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Sends a call to MAL unless the circuit is open.
+     *
+     * @throws CircuitOpenException If the circuit is open or a trial call is already in flight.
+     */
+    <T> T call(Supplier<T> call) {
+        acquire();
+
+        T result;
+        try {
+            result = call.get();
+        } catch (ServerErrorException e) {
+            onFailure(e);
+            throw e;
+        } catch (ProcessingException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                // The caller gave up, that says nothing about MAL.
+                release();
+            } else {
+                onFailure(e);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            onSuccess();
+            throw e;
+        } catch (Error e) {
+            release();
+            throw e;
+        }
+
+        onSuccess();
+        return result;
+    }
+
+    private void acquire() {
+        synchronized (this) {
+            if (state == CircuitState.CLOSED) {
+                return;
+            }
+            if (state == CircuitState.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return;
+            }
+        }
+        rejectedCalls.increment();
+        throw new CircuitOpenException(endpoint);
+    }
+
+    private void onSuccess() {
+        successfulCalls.increment();
+        CircuitBreakerEvent event = null;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state == CircuitState.HALF_OPEN) {
+                trialInFlight = false;
+                event = transition(CircuitState.CLOSED, null);
+            }
+        }
+        publish(event);
+    }
+
+    private void onFailure(RuntimeException cause) {
+        failedCalls.increment();
+        CircuitBreakerEvent event = null;
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN
+                    || state == CircuitState.CLOSED && consecutiveFailures >= options.getFailureThreshold()) {
+                trialInFlight = false;
+                event = transition(CircuitState.OPEN, cause);
+            }
+        }
+        if (event != null) {
+            timesOpened.increment();
+            scheduleProbe();
+        }
+        publish(event);
+    }
+
+    private synchronized void release() {
+        if (state == CircuitState.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    private void scheduleProbe() {
+        try {
+            scheduler.get().schedule(this::runProbe, options.getProbeIntervalMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The client has been closed.
+        }
+    }
+
+    private void runProbe() {
+        synchronized (this) {
+            if (state != CircuitState.OPEN) {
+                return;
+            }
+        }
+
+        boolean available;
+        try {
+            available = probe.getAsBoolean();
+        } catch (RuntimeException e) {
+            available = false;
+        }
+
+        if (!available) {
+            failedProbes.increment();
+            scheduleProbe();
+            return;
+        }
+
+        CircuitBreakerEvent event = null;
+        synchronized (this) {
+            if (state == CircuitState.OPEN) {
+                event = transition(CircuitState.HALF_OPEN, null);
+            }
+        }
+        publish(event);
+    }
+
+    private CircuitBreakerEvent transition(CircuitState to, RuntimeException cause) {
+        CircuitBreakerEvent event = new CircuitBreakerEvent(endpoint, state, to, cause, System.currentTimeMillis());
+        state = to;
+        return event;
+    }
+
+    private void publish(CircuitBreakerEvent event) {
+        if (event == null) {
+            return;
+        }
+        for (CircuitBreakerListener listener : listeners) {
+            try {
+                listener.onStateTransition(event);
+            } catch (RuntimeException e) {
+                // A faulty listener must not fail the call that caused the transition.
+            }
+        }
+    }
+
+    CircuitBreakerOptions getOptions() {
+        return options;
+    }
+
+    void setOptions(CircuitBreakerOptions options) {
+        this.options = options;
+    }
+
+    synchronized CircuitBreakerMetrics getMetrics() {
+        return new CircuitBreakerMetrics(endpoint, state, successfulCalls.sum(), failedCalls.sum(), rejectedCalls.sum(),
+                failedProbes.sum(), timesOpened.sum(), consecutiveFailures);
+    }
+}
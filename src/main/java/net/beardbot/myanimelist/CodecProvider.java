@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.codec.Codecs;
+import net.beardbot.myanimelist.codec.XmlBinding;
+import net.beardbot.myanimelist.codec.XmlCodec;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reads XML responses with the generated {@link XmlCodec}s while the client uses {@link XmlBinding#GENERATED}.
+ * Jersey falls back to its JAXB providers for everything else.
+ * <p>
+ * The media types match those of the JAXB providers. Jersey orders readers by media type before it prefers custom
+ * ones, so without them the JAXB providers would always be chosen for {@code application/xml}.
+ */
+@Consumes({"application/xml", "text/xml", "*/*"})
+class CodecProvider implements MessageBodyReader<Object> {
+
+    private final Supplier<XmlBinding> binding;
+    private final UnmarshalListener listener;
+
+    CodecProvider(Supplier<XmlBinding> binding, UnmarshalListener listener) {
+        this.binding = binding;
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return binding.get() == XmlBinding.GENERATED && isXml(mediaType) && codecOf(type, genericType) != null;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+
+        XmlCodec<?> codec = codecOf(type, genericType);
+        Unmarshaller.Listener activeListener = listener.isActive() ? listener : null;
+
+        Object result;
+        try {
+            if (List.class.equals(type)) {
+                result = Codecs.readList(codec, entityStream, activeListener);
+            } else {
+                result = Codecs.readDocument(codec, entityStream, activeListener);
+            }
+        } catch (XMLStreamException e) {
+            throw new ProcessingException(e);
+        }
+
+        // The reader stops at the end of the root element. Whatever follows must be read as well,
+        // otherwise closing the stream closes the connection instead of returning it to the pool.
+        while (entityStream.read() != -1) {
+            // discard
+        }
+        return result;
+    }
+
+    private static XmlCodec<?> codecOf(Class<?> type, Type genericType) {
+        if (!List.class.equals(type)) {
+            return Codecs.forType(type);
+        }
+        if (genericType instanceof ParameterizedType) {
+            Type element = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (element instanceof Class) {
+                return Codecs.forType((Class<?>) element);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isXml(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return "xml".equalsIgnoreCase(subtype) || subtype.toLowerCase().endsWith("+xml");
+    }
+}
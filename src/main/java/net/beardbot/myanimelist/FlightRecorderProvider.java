@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.Endpoint;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.manga.MangaList;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * Emits {@link RequestEvent}s and {@link ParseEvent}s while a JFR recording enables them.
+ * Only registered if {@link JfrSupport#AVAILABLE}.
+ */
+class FlightRecorderProvider implements ClientRequestFilter, ClientResponseFilter, ReaderInterceptor {
+
+    private static final String REQUEST_EVENT = RequestEvent.class.getName();
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        RequestEvent event = new RequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            requestContext.setProperty(REQUEST_EVENT, event);
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        RequestEvent event = (RequestEvent) requestContext.getProperty(REQUEST_EVENT);
+        if (event == null) {
+            return;
+        }
+
+        String path = requestContext.getUri().getPath();
+        Endpoint endpoint = MAL.endpointOf(path);
+        event.endpoint = endpoint == null ? null : endpoint.name();
+        event.method = requestContext.getMethod();
+        event.path = path;
+        event.status = responseContext.getStatus();
+        if (responseContext.hasEntity()) {
+            responseContext.setEntityStream(new RecordingInputStream(responseContext.getEntityStream(), event));
+        } else {
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        if (context.getType() == InputStream.class) {
+            return context.proceed();
+        }
+        ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) {
+            return context.proceed();
+        }
+
+        event.begin();
+        Object result = context.proceed();
+        event.type = context.getType().getSimpleName();
+        event.entries = entries(result);
+        event.commit();
+        return result;
+    }
+
+    private static int entries(Object result) {
+        if (result instanceof AnimeList) {
+            return ((AnimeList) result).getEntries().size();
+        }
+        if (result instanceof MangaList) {
+            return ((MangaList) result).getEntries().size();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return 0;
+    }
+
+    /**
+     * Counts the bytes of a response body and commits the event of the request when the body is closed.
+     */
+    private static final class RecordingInputStream extends FilterInputStream {
+        private final RequestEvent event;
+        private boolean committed;
+
+        RecordingInputStream(InputStream in, RequestEvent event) {
+            super(in);
+            this.event = event;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                event.responseBytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                event.responseBytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            event.responseBytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!committed) {
+                    committed = true;
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A hedged search, from sending the second request until one of the requests has been answered.
+ */
+@Name("net.beardbot.myanimelist.Hedge")
+@Label("MAL Hedged Request")
+@Category("MyAnimeList")
+@Description("A search request sent again because the first one had not been answered in time")
+class HedgeEvent extends jdk.jfr.Event {
+
+    @Label("Delay")
+    @Description("How long the first request was waited for")
+    @Timespan(Timespan.NANOSECONDS)
+    long delay;
+
+    @Label("Hedge Won")
+    boolean hedgeWon;
+
+    /**
+     * @return A started event or {@code null} if the event is not recorded.
+     */
+    static HedgeEvent begin(long delayNanos) {
+        HedgeEvent event = new HedgeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.delay = delayNanos;
+        event.begin();
+        return event;
+    }
+
+    void end(boolean hedgeWon) {
+        this.hedgeWon = hedgeWon;
+        commit();
+    }
+}
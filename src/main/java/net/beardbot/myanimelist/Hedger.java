@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.hedge.HedgingMetrics;
+import net.beardbot.myanimelist.hedge.HedgingOptions;
+
+import javax.ws.rs.ProcessingException;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, identical request if the first one has not been answered after a percentile of the observed
+ * latencies and returns the answer that arrives first. The share of hedged requests is limited by a token bucket
+ * that earns {@link HedgingOptions#getMaxHedgeRatio()} tokens per request.
+ */
+class Hedger {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final double MAX_SAVED_HEDGES = 10;
+
+    private final Supplier<ExecutorService> executor;
+
+    private volatile HedgingOptions options;
+
+    // Guarded by this
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int latencyCount;
+    private int nextLatency;
+    private double tokens;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgedRequests = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    /**
+     * @param executor Runs the requests while hedging is enabled, requested on the first hedged call.
+     */
+    Hedger(Supplier<ExecutorService> executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a request, hedged if enabled. The request must be safe to send twice.
+     *
+     * @throws ProcessingException If the thread is interrupted while waiting for an answer.
+     */
+    <T> T call(Supplier<T> request) {
+        HedgingOptions options = this.options;
+        if (options == null) {
+            return request.get();
+        }
+
+        requests.increment();
+        long delay = delayNanos(options);
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor.get());
+        Attempt<T> primary = new Attempt<>(completion, request);
+        Attempt<T> hedge = null;
+        HedgeEvent event = null;
+        try {
+            Future<T> done = delay < 0 ? completion.take() : completion.poll(delay, TimeUnit.NANOSECONDS);
+            if (done == null) {
+                if (tryAcquireToken()) {
+                    hedgedRequests.increment();
+                    hedge = new Attempt<>(completion, request);
+                    if (JfrSupport.AVAILABLE) {
+                        event = HedgeEvent.begin(delay);
+                    }
+                } else {
+                    budgetExhausted.increment();
+                }
+                done = completion.take();
+            }
+
+            Attempt<T> winner = done == primary.future ? primary : hedge;
+            Attempt<T> other = winner == primary ? hedge : primary;
+            // An attempt that failed only wins if the other one fails as well.
+            if (winner.failed() && other != null) {
+                completion.take();
+                if (!other.failed()) {
+                    winner = other;
+                }
+            }
+            if (winner == hedge) {
+                hedgeWins.increment();
+            }
+            if (event != null) {
+                event.end(winner == hedge);
+            }
+            if (!winner.failed()) {
+                recordLatency(winner.elapsedNanos());
+            }
+            return winner.result();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for an answer.", e);
+        } finally {
+            primary.cancel();
+            if (hedge != null) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    private synchronized long delayNanos(HedgingOptions options) {
+        tokens = Math.min(tokens + options.getMaxHedgeRatio(), MAX_SAVED_HEDGES);
+        return percentileNanos(options);
+    }
+
+    // Guarded by this
+    private long percentileNanos(HedgingOptions options) {
+        if (latencyCount < options.getMinSamples()) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(options.getPercentile() * latencyCount) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private synchronized boolean tryAcquireToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[nextLatency] = nanos;
+        nextLatency = (nextLatency + 1) % WINDOW_SIZE;
+        latencyCount = Math.min(latencyCount + 1, WINDOW_SIZE);
+    }
+
+    HedgingOptions getOptions() {
+        return options;
+    }
+
+    void setOptions(HedgingOptions options) {
+        this.options = options;
+    }
+
+    synchronized HedgingMetrics getMetrics() {
+        long delay = options == null ? -1 : percentileNanos(options);
+        return new HedgingMetrics(requests.sum(), hedgedRequests.sum(), hedgeWins.sum(), budgetExhausted.sum(),
+                delay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delay));
+    }
+
+    private static class Attempt<T> {
+        private final long start = System.nanoTime();
+        private long end;
+        private final Future<T> future;
+
+        Attempt(CompletionService<T> completion, Supplier<T> request) {
+            this.future = completion.submit(() -> {
+                try {
+                    return request.get();
+                } finally {
+                    end = System.nanoTime();
+                }
+            });
+        }
+
+        boolean failed() {
+            try {
+                future.get();
+                return false;
+            } catch (ExecutionException | CancellationException e) {
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+
+        long elapsedNanos() {
+            return end - start;
+        }
+
+        T result() {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new ProcessingException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException("Interrupted while waiting for an answer.", e);
+            }
+        }
+
+        /**
+         * Interrupts a request that is still running. It is answered anyway if it is already waiting for MAL,
+         * the answer is discarded and the connection returned to the pool.
+         */
+        void cancel() {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.utils.XmlUtils;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Hands Jersey's JAXB providers the contexts cached by {@link XmlUtils}, so they are built only once per JVM
+ * instead of once per client and can be built ahead of time by {@link MALClient#warmUp()}.
+ */
+class JaxbContextResolver implements ContextResolver<JAXBContext> {
+
+    @Override
+    public JAXBContext getContext(Class<?> type) {
+        if (!type.isAnnotationPresent(XmlRootElement.class)) {
+            return null;
+        }
+        return XmlUtils.getContext(type);
+    }
+}
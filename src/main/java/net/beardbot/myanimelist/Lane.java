@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.lane.LaneOptions;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.WebTarget;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * A bulkhead serving the requests of one priority with its own HTTP client, connection pool and request budget.
+ */
+class Lane implements AutoCloseable {
+
+    /**
+     * Connections kept in addition to {@link LaneOptions#getMaxConnections()} for {@link #probe(Function)}.
+     * They stay free as long as the lane does not send more requests at a time than it has connections.
+     */
+    static final int RESERVED_CONNECTIONS = 1;
+
+    private final Function<LaneOptions, Client> clientFactory;
+    private final String url;
+
+    private volatile LaneOptions options;
+    private volatile Client client;
+    private volatile WebTarget target;
+    private volatile Semaphore permits;
+
+    Lane(Function<LaneOptions, Client> clientFactory, String url, LaneOptions options) {
+        this.clientFactory = clientFactory;
+        this.url = url;
+        this.options = options;
+        this.permits = new Semaphore(options.getMaxConcurrentRequests(), true);
+        setClient(clientFactory.apply(options));
+    }
+
+    /**
+     * Runs a request once the lane has a free slot. The request gets the target of the lane's base URL,
+     * which is immutable and shared, so the URL is parsed only once per client.
+     *
+     * @throws ProcessingException If the thread is interrupted while waiting for a slot.
+     */
+    <T> T call(Function<WebTarget, T> request) {
+        Semaphore permits = this.permits;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for a free request slot.", e);
+        }
+
+        try {
+            return request.apply(target);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a health probe right away, outside the request budget, so probes do not queue behind a busy lane.
+     * The connection pool holds a connection more than the lane's requests use, see {@link #RESERVED_CONNECTIONS}.
+     */
+    <T> T probe(Function<WebTarget, T> request) {
+        return request.apply(target);
+    }
+
+    LaneOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Replaces the client and the request budget. Requests in flight on the old client fail.
+     */
+    synchronized void configure(LaneOptions options) {
+        Client old = this.client;
+        this.options = options;
+        setClient(clientFactory.apply(options));
+        this.permits = new Semaphore(options.getMaxConcurrentRequests(), true);
+        old.close();
+    }
+
+    synchronized void recreateClient() {
+        Client old = this.client;
+        setClient(clientFactory.apply(options));
+        old.close();
+    }
+
+    private void setClient(Client client) {
+        this.client = client;
+        this.target = client.target(url);
+    }
+
+    @Override
+    public synchronized void close() {
+        client.close();
+    }
+}
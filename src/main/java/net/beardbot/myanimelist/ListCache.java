@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the last fetched anime or manga list of the client user and patches it with the changes made through the
+ * client. A cached list is never changed, each patch replaces it with a patched copy.
+ */
+class ListCache<L> {
+
+    // Guarded by this
+    private L list;
+    private long fetchedAt;
+    private long generation;
+
+    /**
+     * @return The cached list if it was fetched at most {@code maxAgeMillis} ago, otherwise {@code null}.
+     */
+    synchronized L get(long maxAgeMillis) {
+        if (list == null || System.nanoTime() - fetchedAt > TimeUnit.MILLISECONDS.toNanos(maxAgeMillis)) {
+            return null;
+        }
+        return list;
+    }
+
+    /**
+     * @return A token to pass to {@link #put(Object, long)}, taken before the list is fetched.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches a fetched list, unless the cache was patched or invalidated since the fetch started.
+     * The list might not contain those changes then.
+     */
+    synchronized void put(L fetched, long fetchGeneration) {
+        if (fetchGeneration != generation) {
+            return;
+        }
+        list = fetched;
+        fetchedAt = System.nanoTime();
+    }
+
+    /**
+     * Applies a change that MAL accepted to the cached list.
+     *
+     * @param patch Returns the patched copy of the list, or {@code null} if the change cannot be applied.
+     *              The list is dropped then.
+     */
+    synchronized void patch(UnaryOperator<L> patch) {
+        generation++;
+        if (list != null) {
+            list = patch.apply(list);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        list = null;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * The series on one list of the client user, kept as a bit set over the numeric series IDs.
+ * Unknown until the list has been fetched, afterwards maintained by the writes of the client.
+ * Changes made elsewhere, e.g. on the website, are only noticed with the next fetch.
+ */
+class ListMembership {
+
+    // Bounds the size of the bit set, MAL's IDs are far below
+    private static final int MAX_SERIES_ID = 1 << 24;
+
+    // Guarded by this, null while unknown
+    private BitSet members;
+
+    /**
+     * Replaces the members with the entries of a fetched list.
+     */
+    <E> void reset(Collection<E> entries, Function<E, String> seriesId) {
+        BitSet fetched = new BitSet();
+        if (entries != null) {
+            for (E entry : entries) {
+                int id = parse(seriesId.apply(entry));
+                if (id >= 0) {
+                    fetched.set(id);
+                }
+            }
+        }
+        synchronized (this) {
+            members = fetched;
+        }
+    }
+
+    /**
+     * @return Whether the series is on the list, or null if that is not known.
+     */
+    synchronized Boolean contains(String seriesId) {
+        int id = parse(seriesId);
+        if (members == null || id < 0) {
+            return null;
+        }
+        return members.get(id);
+    }
+
+    synchronized void add(String seriesId) {
+        int id = parse(seriesId);
+        if (members != null && id >= 0) {
+            members.set(id);
+        }
+    }
+
+    synchronized void remove(String seriesId) {
+        int id = parse(seriesId);
+        if (members != null && id >= 0) {
+            members.clear(id);
+        }
+    }
+
+    private static int parse(String seriesId) {
+        if (seriesId == null) {
+            return -1;
+        }
+        try {
+            int id = Integer.parseInt(seriesId);
+            return id <= MAX_SERIES_ID ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
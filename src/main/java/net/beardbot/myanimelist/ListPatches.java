@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.model.anime.*;
+import net.beardbot.myanimelist.model.manga.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Applies changes that MAL accepted to fetched lists, as MAL would show them when fetched again.
+ * The lists are not changed. The patched copies share all entries except the changed one.
+ * <p>
+ * Entries added to a list only contain the series ID and the given values. The series details and the values MAL
+ * derives itself appear with the next fetch.
+ */
+final class ListPatches {
+
+    private ListPatches() {
+    }
+
+    static AnimeList addAnime(AnimeList list, String seriesId, AnimeListEntryValues values) {
+        return putAnime(list, seriesId, values, true);
+    }
+
+    /**
+     * @return The patched list or {@code null} if the list does not contain the series.
+     */
+    static AnimeList updateAnime(AnimeList list, String seriesId, AnimeListEntryValues values) {
+        return putAnime(list, seriesId, values, false);
+    }
+
+    static AnimeList removeAnime(AnimeList list, String seriesId) {
+        List<AnimeListEntry> entries = entries(list.getEntries());
+        int index = indexOf(entries, seriesId, AnimeListEntry::getSeriesId);
+        if (index < 0) {
+            return list;
+        }
+        AnimeListInfo info = copy(list.getListInfo());
+        count(info, entries.get(index).getStatus(), -1);
+        return animeList(info, replace(entries, index, null));
+    }
+
+    static MangaList addManga(MangaList list, String seriesId, MangaListEntryValues values) {
+        return putManga(list, seriesId, values, true);
+    }
+
+    /**
+     * @return The patched list or {@code null} if the list does not contain the series.
+     */
+    static MangaList updateManga(MangaList list, String seriesId, MangaListEntryValues values) {
+        return putManga(list, seriesId, values, false);
+    }
+
+    static MangaList removeManga(MangaList list, String seriesId) {
+        List<MangaListEntry> entries = entries(list.getEntries());
+        int index = indexOf(entries, seriesId, MangaListEntry::getSeriesId);
+        if (index < 0) {
+            return list;
+        }
+        MangaListInfo info = copy(list.getListInfo());
+        count(info, entries.get(index).getStatus(), -1);
+        return mangaList(info, replace(entries, index, null));
+    }
+
+    private static AnimeList putAnime(AnimeList list, String seriesId, AnimeListEntryValues values, boolean add) {
+        List<AnimeListEntry> entries = entries(list.getEntries());
+        int index = indexOf(entries, seriesId, AnimeListEntry::getSeriesId);
+        if (index < 0 && !add) {
+            return null;
+        }
+        AnimeListEntry entry;
+        if (index < 0) {
+            entry = new AnimeListEntry();
+            entry.setSeriesId(seriesId);
+        } else {
+            entry = copy(entries.get(index));
+        }
+        AnimeListEntryStatus before = entry.getStatus();
+        values.applyTo(entry);
+        entry.setLastUpdated(new Date());
+
+        AnimeListInfo info = copy(list.getListInfo());
+        if (before != entry.getStatus()) {
+            count(info, before, -1);
+            count(info, entry.getStatus(), 1);
+        }
+        return animeList(info, replace(entries, index, entry));
+    }
+
+    private static MangaList putManga(MangaList list, String seriesId, MangaListEntryValues values, boolean add) {
+        List<MangaListEntry> entries = entries(list.getEntries());
+        int index = indexOf(entries, seriesId, MangaListEntry::getSeriesId);
+        if (index < 0 && !add) {
+            return null;
+        }
+        MangaListEntry entry;
+        if (index < 0) {
+            entry = new MangaListEntry();
+            entry.setSeriesId(seriesId);
+        } else {
+            entry = copy(entries.get(index));
+        }
+        MangaListEntryStatus before = entry.getStatus();
+        values.applyTo(entry);
+        entry.setLastUpdated(new Date());
+
+        MangaListInfo info = copy(list.getListInfo());
+        if (before != entry.getStatus()) {
+            count(info, before, -1);
+            count(info, entry.getStatus(), 1);
+        }
+        return mangaList(info, replace(entries, index, entry));
+    }
+
+    private static AnimeList animeList(AnimeListInfo info, List<AnimeListEntry> entries) {
+        AnimeList list = new AnimeList();
+        list.setListInfo(info);
+        list.setEntries(entries);
+        return list;
+    }
+
+    private static MangaList mangaList(MangaListInfo info, List<MangaListEntry> entries) {
+        MangaList list = new MangaList();
+        list.setListInfo(info);
+        list.setEntries(entries);
+        return list;
+    }
+
+    private static <E> List<E> entries(List<E> entries) {
+        return entries != null ? entries : Collections.emptyList();
+    }
+
+    private static <E> int indexOf(List<E> entries, String seriesId, Function<E, String> id) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (seriesId.equals(id.apply(entries.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index The entry to replace, or {@code -1} to append the entry.
+     * @param entry The new entry, or {@code null} to remove the entry at the index.
+     */
+    private static <E> List<E> replace(List<E> entries, int index, E entry) {
+        List<E> replaced = new ArrayList<>(entries.size() + 1);
+        replaced.addAll(entries);
+        if (index < 0) {
+            replaced.add(entry);
+        } else if (entry == null) {
+            replaced.remove(index);
+        } else {
+            replaced.set(index, entry);
+        }
+        return replaced;
+    }
+
+    private static void count(AnimeListInfo info, AnimeListEntryStatus status, int delta) {
+        if (info == null || status == null) {
+            return;
+        }
+        switch (status) {
+            case WATCHING:
+                info.setWatching(add(info.getWatching(), delta));
+                break;
+            case COMPLETED:
+                info.setCompleted(add(info.getCompleted(), delta));
+                break;
+            case ON_HOLD:
+                info.setOnHold(add(info.getOnHold(), delta));
+                break;
+            case DROPPED:
+                info.setDropped(add(info.getDropped(), delta));
+                break;
+            case PLAN_TO_WATCH:
+                info.setPlanToWatch(add(info.getPlanToWatch(), delta));
+                break;
+        }
+    }
+
+    private static void count(MangaListInfo info, MangaListEntryStatus status, int delta) {
+        if (info == null || status == null) {
+            return;
+        }
+        switch (status) {
+            case READING:
+                info.setReading(add(info.getReading(), delta));
+                break;
+            case COMPLETED:
+                info.setCompleted(add(info.getCompleted(), delta));
+                break;
+            case ON_HOLD:
+                info.setOnHold(add(info.getOnHold(), delta));
+                break;
+            case DROPPED:
+                info.setDropped(add(info.getDropped(), delta));
+                break;
+            case PLAN_TO_READ:
+                info.setPlanToRead(add(info.getPlanToRead(), delta));
+                break;
+        }
+    }
+
+    private static Integer add(Integer count, int delta) {
+        return count == null ? null : Math.max(0, count + delta);
+    }
+
+    private static AnimeListInfo copy(AnimeListInfo info) {
+        if (info == null) {
+            return null;
+        }
+        AnimeListInfo copy = new AnimeListInfo();
+        copy.setUserId(info.getUserId());
+        copy.setUserName(info.getUserName());
+        copy.setWatching(info.getWatching());
+        copy.setCompleted(info.getCompleted());
+        copy.setOnHold(info.getOnHold());
+        copy.setDropped(info.getDropped());
+        copy.setPlanToWatch(info.getPlanToWatch());
+        copy.setDaysSpendWatching(info.getDaysSpendWatching());
+        return copy;
+    }
+
+    private static MangaListInfo copy(MangaListInfo info) {
+        if (info == null) {
+            return null;
+        }
+        MangaListInfo copy = new MangaListInfo();
+        copy.setUserId(info.getUserId());
+        copy.setUserName(info.getUserName());
+        copy.setReading(info.getReading());
+        copy.setCompleted(info.getCompleted());
+        copy.setOnHold(info.getOnHold());
+        copy.setDropped(info.getDropped());
+        copy.setPlanToRead(info.getPlanToRead());
+        copy.setDaysSpendReading(info.getDaysSpendReading());
+        return copy;
+    }
+
+    private static AnimeListEntry copy(AnimeListEntry entry) {
+        AnimeListEntry copy = new AnimeListEntry();
+        if (entry.getSeries() != null) {
+            copy.setSeries(entry.getSeries());
+        } else {
+            copy.setSeriesId(entry.getSeriesId());
+            copy.setSeriesTitle(entry.getSeriesTitle());
+            copy.setSeriesSynonyms(entry.getSeriesSynonyms());
+            copy.setSeriesType(entry.getSeriesType());
+            copy.setSeriesEpisodes(entry.getSeriesEpisodes());
+            copy.setSeriesStatus(entry.getSeriesStatus());
+            copy.setSeriesStart(entry.getSeriesStart());
+            copy.setSeriesEnd(entry.getSeriesEnd());
+            copy.setSeriesImageUrl(entry.getSeriesImageUrl());
+        }
+        copy.setEntryId(entry.getEntryId());
+        copy.setWatchedEpisodes(entry.getWatchedEpisodes());
+        copy.setStartedWatching(entry.getStartedWatching());
+        copy.setFinishedWatching(entry.getFinishedWatching());
+        copy.setUserScore(entry.getUserScore());
+        copy.setStatus(entry.getStatus());
+        copy.setRewatching(entry.getRewatching());
+        copy.setRewatchingEpisodes(entry.getRewatchingEpisodes());
+        copy.setLastUpdated(entry.getLastUpdated());
+        copy.setTags(entry.getTags());
+        return copy;
+    }
+
+    private static MangaListEntry copy(MangaListEntry entry) {
+        MangaListEntry copy = new MangaListEntry();
+        if (entry.getSeries() != null) {
+            copy.setSeries(entry.getSeries());
+        } else {
+            copy.setSeriesId(entry.getSeriesId());
+            copy.setSeriesTitle(entry.getSeriesTitle());
+            copy.setSeriesSynonyms(entry.getSeriesSynonyms());
+            copy.setSeriesType(entry.getSeriesType());
+            copy.setSeriesChapters(entry.getSeriesChapters());
+            copy.setSeriesVolumes(entry.getSeriesVolumes());
+            copy.setSeriesStatus(entry.getSeriesStatus());
+            copy.setSeriesStart(entry.getSeriesStart());
+            copy.setSeriesEnd(entry.getSeriesEnd());
+            copy.setSeriesImageUrl(entry.getSeriesImageUrl());
+        }
+        copy.setEntryId(entry.getEntryId());
+        copy.setReadChapters(entry.getReadChapters());
+        copy.setReadVolumes(entry.getReadVolumes());
+        copy.setStartedReading(entry.getStartedReading());
+        copy.setFinishedReading(entry.getFinishedReading());
+        copy.setUserScore(entry.getUserScore());
+        copy.setStatus(entry.getStatus());
+        copy.setRereading(entry.getRereading());
+        copy.setRereadingChapters(entry.getRereadingChapters());
+        copy.setLastUpdated(entry.getLastUpdated());
+        copy.setTags(entry.getTags());
+        return copy;
+    }
+}
@@ -16,6 +16,8 @@
  */
 package net.beardbot.myanimelist;
 
+import net.beardbot.myanimelist.breaker.Endpoint;
+
 class MAL {
     static final String MAL_URI = "https://myanimelist.net";
 
@@ -32,4 +34,38 @@ class MAL {
     static final String PATH_VERIFY_CREDENTIALS = "/api/account/verify_credentials.xml";
 
     static final String PATH_MALAPPINFO = "/malappinfo.php";
+
+    private static final String ID_PLACEHOLDER = "%id";
+
+    /**
+     * Inserts an ID into a path with an {@code %id} placeholder.
+     * Unlike {@link String#replace(CharSequence, CharSequence)} on Java 8, this does not compile a pattern on each call.
+     */
+    static String withId(String path, String id) {
+        int index = path.indexOf(ID_PLACEHOLDER);
+        return new StringBuilder(path.length() - ID_PLACEHOLDER.length() + id.length())
+                .append(path, 0, index)
+                .append(id)
+                .append(path, index + ID_PLACEHOLDER.length(), path.length())
+                .toString();
+    }
+
+    /**
+     * @return The endpoint a path belongs to or {@code null} if it is none of MAL's API paths.
+     */
+    static Endpoint endpointOf(String path) {
+        if (PATH_ANIME_SEARCH.equals(path) || PATH_MANGA_SEARCH.equals(path)) {
+            return Endpoint.SEARCH;
+        }
+        if (PATH_MALAPPINFO.equals(path)) {
+            return Endpoint.MALAPPINFO;
+        }
+        if (PATH_VERIFY_CREDENTIALS.equals(path)) {
+            return Endpoint.VERIFY_CREDENTIALS;
+        }
+        if (path.startsWith("/api/animelist/") || path.startsWith("/api/mangalist/")) {
+            return Endpoint.LIST_WRITE;
+        }
+        return null;
+    }
 }
@@ -16,30 +16,101 @@
  */
 package net.beardbot.myanimelist;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.ServerErrorException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Form;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.core.MediaType.APPLICATION_FORM_URLENCODED_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML_TYPE;
 import static javax.ws.rs.core.MediaType.WILDCARD_TYPE;
 
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.reactivestreams.Publisher;
 
 import lombok.NonNull;
+import net.beardbot.myanimelist.breaker.*;
+import net.beardbot.myanimelist.bulk.BulkFetch;
+import net.beardbot.myanimelist.bulk.BulkFetchOptions;
+import net.beardbot.myanimelist.bulk.BulkResult;
+import net.beardbot.myanimelist.cache.ListCacheOptions;
+import net.beardbot.myanimelist.catalog.SeriesCatalog;
+import net.beardbot.myanimelist.codec.Codecs;
+import net.beardbot.myanimelist.codec.XmlBinding;
+import net.beardbot.myanimelist.codec.XmlCodec;
+import net.beardbot.myanimelist.hedge.HedgingMetrics;
+import net.beardbot.myanimelist.hedge.HedgingOptions;
+import net.beardbot.myanimelist.index.MatchOptions;
+import net.beardbot.myanimelist.index.SearchMode;
+import net.beardbot.myanimelist.index.TitleCandidate;
+import net.beardbot.myanimelist.index.TitleIndex;
+import net.beardbot.myanimelist.index.TitleMatch;
+import net.beardbot.myanimelist.journal.JournalOptions;
+import net.beardbot.myanimelist.journal.JournaledWriter;
+import net.beardbot.myanimelist.journal.Mutation;
+import net.beardbot.myanimelist.journal.MutationJournal;
+import net.beardbot.myanimelist.lane.LaneOptions;
+import net.beardbot.myanimelist.lane.Priority;
 import net.beardbot.myanimelist.model.User;
 import net.beardbot.myanimelist.model.anime.*;
 import net.beardbot.myanimelist.model.manga.*;
+import net.beardbot.myanimelist.ordered.OrderedWriteOptions;
+import net.beardbot.myanimelist.ordered.OrderedWriter;
+import net.beardbot.myanimelist.reconcile.ListOperation;
+import net.beardbot.myanimelist.reconcile.OperationResult;
+import net.beardbot.myanimelist.reconcile.OperationType;
+import net.beardbot.myanimelist.reconcile.ReconcileOptions;
+import net.beardbot.myanimelist.reconcile.ReconcilePlanner;
+import net.beardbot.myanimelist.reconcile.ReconcileReport;
+import net.beardbot.myanimelist.stream.ListEntryPublisher;
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.SpanNames;
+import net.beardbot.myanimelist.tracing.Tracer;
+import net.beardbot.myanimelist.utils.StringPool;
+import net.beardbot.myanimelist.watch.ListChange;
+import net.beardbot.myanimelist.watch.ListWatcher;
+import net.beardbot.myanimelist.watch.WatchOptions;
+import net.beardbot.myanimelist.writebehind.WriteBehindOptions;
+import net.beardbot.myanimelist.writebehind.WriteBehindQueue;
 import static net.beardbot.myanimelist.MAL.*;
 import static net.beardbot.myanimelist.utils.XmlUtils.*;
 
@@ -48,12 +119,48 @@ import static net.beardbot.myanimelist.utils.XmlUtils.*;
  */
 public class MALClient implements AutoCloseable {
 
-    private Client client;
+    // A list with one entry that has every field set, so reading it touches all converters and adapters once.
+    private static final byte[] WARM_UP_DOCUMENT = ("<myanimelist><myinfo><user_id>1</user_id><user_days_spent_watching>1.5</user_days_spent_watching></myinfo>" +
+            "<anime><series_animedb_id>1</series_animedb_id><series_title>A</series_title><series_synonyms>A; B</series_synonyms>" +
+            "<series_type>1</series_type><series_episodes>1</series_episodes><series_status>2</series_status>" +
+            "<series_start>2000-01-01</series_start><series_end>0000-00-00</series_end><series_image>A</series_image>" +
+            "<my_id>0</my_id><my_watched_episodes>1</my_watched_episodes><my_start_date>0000-00-00</my_start_date>" +
+            "<my_finish_date>2000-01-01</my_finish_date><my_score>1</my_score><my_status>2</my_status>" +
+            "<my_rewatching>0</my_rewatching><my_rewatching_ep>0</my_rewatching_ep><my_last_updated>946684800</my_last_updated>" +
+            "<my_tags>A, B</my_tags></anime></myanimelist>").getBytes(StandardCharsets.UTF_8);
+
+    private static final GenericType<List<Anime>> ANIME_RESULTS = new GenericType<List<Anime>>(){};
+    private static final GenericType<List<Manga>> MANGA_RESULTS = new GenericType<List<Manga>>(){};
+
+    private static final LaneOptions DEFAULT_INTERACTIVE_LANE = new LaneOptions(8, 8);
+    private static final LaneOptions DEFAULT_BACKGROUND_LANE = new LaneOptions(12, 12);
+    private static final CircuitBreakerOptions DEFAULT_CIRCUIT_BREAKER = new CircuitBreakerOptions(5, 5000);
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final ThreadLocal<Priority> priority = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private final Map<Endpoint, CircuitBreaker> circuitBreakers = new EnumMap<>(Endpoint.class);
+    private final List<CircuitBreakerListener> circuitBreakerListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService probeScheduler;
+
+    private final Hedger searchHedger = new Hedger(this::getHedgeExecutor);
+    private final ListMembership animeMembership = new ListMembership();
+    private final ListMembership mangaMembership = new ListMembership();
+    private final ListCache<AnimeList> animeListCache = new ListCache<>();
+    private final ListCache<MangaList> mangaListCache = new ListCache<>();
+    private volatile ListCacheOptions listCacheOptions;
+    private ExecutorService hedgeExecutor;
 
     private final ClientConfig clientConfig;
     private final String malUrl;
     private final String username;
 
+    private final Tracing tracing = new Tracing();
+
+    private final UnmarshalListener unmarshalListener = new UnmarshalListener();
+    private volatile XmlBinding xmlBinding = XmlBinding.GENERATED;
+    private volatile SearchMode searchMode = SearchMode.REMOTE;
+
     /**
      * Create a new instance of the MALClient from the given credentials.
      * <p>
@@ -79,18 +186,57 @@ public class MALClient implements AutoCloseable {
         this.username = username;
         this.malUrl = malUrl;
         this.clientConfig = createClientConfig(username,password);
-        this.client = ClientBuilder.newClient(clientConfig);
+        this.lanes.put(Priority.INTERACTIVE, new Lane(this::createClient, this.malUrl, DEFAULT_INTERACTIVE_LANE));
+        this.lanes.put(Priority.BACKGROUND, new Lane(this::createClient, this.malUrl, DEFAULT_BACKGROUND_LANE));
+        for (Endpoint endpoint : Endpoint.values()) {
+            this.circuitBreakers.put(endpoint, new CircuitBreaker(endpoint, DEFAULT_CIRCUIT_BREAKER,
+                    () -> probe(endpoint), this::getProbeScheduler, circuitBreakerListeners));
+        }
+    }
+
+    /**
+     * Prepares this client for its first request.
+     * <p>
+     * Creating a {@link MALClient} is cheap, the expensive initialization is deferred to the first request.
+     * This method does that work up front: It initializes the XML binding selected with {@link #setXmlBinding(XmlBinding)},
+     * starts the HTTP client and opens a connection to MAL, which is kept for subsequent requests.
+     * Calling it is optional and only useful to move the startup cost off the latency critical path.
+     * Only the lane of the current priority is warmed up, see {@link #withPriority(Priority, Supplier)}.
+     *
+     * @throws javax.ws.rs.ProcessingException If MAL cannot be reached.
+     */
+    public void warmUp() {
+        try {
+            if (xmlBinding == XmlBinding.JAXB) {
+                for (XmlCodec<?> codec : Codecs.getCodecs()) {
+                    getContext(codec.getType());
+                }
+                getContext(AnimeList.class).createUnmarshaller().unmarshal(new ByteArrayInputStream(WARM_UP_DOCUMENT));
+            } else {
+                Codecs.readDocument(Codecs.forType(AnimeList.class), new ByteArrayInputStream(WARM_UP_DOCUMENT), null);
+            }
+        } catch (XMLStreamException | JAXBException e) {
+            throw new ProcessingException(e);
+        }
+
+        currentLane().call(target -> {
+            target.request().head().close();
+            return null;
+        });
     }
 
     /**
      * Execute an anime search query against MAL.
      * <p>
+     * With {@link SearchMode#LOCAL_FIRST} the query is answered by the {@link TitleIndex} if it knows matching anime,
+     * see {@link #setSearchMode(SearchMode)}.
      *
      * @param query {@code [required]} The query to run against MAL. Example: "Fate Kaleid"
      * @return A list of {@link Anime} matching the query. Can be empty but not {@code null}.
      * @throws NullPointerException             If the query is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the cerdentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -98,29 +244,45 @@ public class MALClient implements AutoCloseable {
     public List<Anime> searchForAnime(
             @NonNull final String query) {
 
-        Response response = client.target(malUrl)
-                           .path(PATH_ANIME_SEARCH)
-                           .queryParam("q", query)
-                           .request(APPLICATION_XML_TYPE)
-                           .get();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-            return Collections.emptyList();
+        TitleIndex index = unmarshalListener.getTitleIndex();
+        if (index != null && searchMode == SearchMode.LOCAL_FIRST) {
+            List<Anime> results = index.searchAnime(query);
+            if (!results.isEmpty()) {
+                return results;
+            }
         }
 
-        return response.readEntity(new GenericType<List<Anime>>(){});
+        return searchAnimeRemotely(query);
+    }
+
+    private List<Anime> searchAnimeRemotely(final String query) {
+        return hedgedRequest("searchForAnime", Endpoint.SEARCH, target -> {
+            Response response = target.path(PATH_ANIME_SEARCH)
+                                      .queryParam("q", query)
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return Collections.emptyList();
+            }
+
+            return response.readEntity(ANIME_RESULTS);
+        });
     }
 
     /**
      * Execute a manga search query against MAL.
      * <p>
+     * With {@link SearchMode#LOCAL_FIRST} the query is answered by the {@link TitleIndex} if it knows matching manga,
+     * see {@link #setSearchMode(SearchMode)}.
      *
      * @param query {@code [required]} The query to run against MAL. Example: "Fate Zero"
      * @return A list of {@link Manga} matching the query. Can be empty but not {@code null}.
      * @throws NullPointerException             If the query is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -128,18 +290,31 @@ public class MALClient implements AutoCloseable {
     public List<Manga> searchForManga(
             @NonNull final String query) {
 
-        Response response = client.target(malUrl)
-                                  .path(PATH_MANGA_SEARCH)
-                                  .queryParam("q", query)
-                                  .request(APPLICATION_XML_TYPE)
-                                  .get();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-            return Collections.emptyList();
+        TitleIndex index = unmarshalListener.getTitleIndex();
+        if (index != null && searchMode == SearchMode.LOCAL_FIRST) {
+            List<Manga> results = index.searchManga(query);
+            if (!results.isEmpty()) {
+                return results;
+            }
         }
 
-        return response.readEntity(new GenericType<List<Manga>>(){});
+        return searchMangaRemotely(query);
+    }
+
+    private List<Manga> searchMangaRemotely(final String query) {
+        return hedgedRequest("searchForManga", Endpoint.SEARCH, target -> {
+            Response response = target.path(PATH_MANGA_SEARCH)
+                                      .queryParam("q", query)
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return Collections.emptyList();
+            }
+
+            return response.readEntity(MANGA_RESULTS);
+        });
     }
 
     /**
@@ -151,6 +326,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -171,6 +347,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -180,16 +357,21 @@ public class MALClient implements AutoCloseable {
             @NonNull final AnimeListEntryValues values) {
 
         final Form form = new Form();
-        form.param("data", objectToXml(values));
-
-        Response response = client.target(malUrl)
-                              .path(PATH_ANIME_ADD.replace("%id", animeId))
-                              .request(WILDCARD_TYPE)
-                              .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        form.param("data", toXml(values));
+
+        execute("addToAnimeList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_ANIME_ADD, animeId))
+                                      .request(WILDCARD_TYPE)
+                                      .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        animeMembership.add(animeId);
+        animeListCache.patch(list -> ListPatches.addAnime(list, animeId, values));
     }
 
     /**
@@ -201,6 +383,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -221,6 +404,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -230,16 +414,21 @@ public class MALClient implements AutoCloseable {
             @NonNull final MangaListEntryValues values) {
 
         final Form form = new Form();
-        form.param("data", objectToXml(values));
-
-        Response response = client.target(malUrl)
-                              .path(PATH_MANGA_ADD.replace("%id", mangaId))
-                              .request(WILDCARD_TYPE)
-                              .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        form.param("data", toXml(values));
+
+        execute("addToMangaList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_MANGA_ADD, mangaId))
+                                      .request(WILDCARD_TYPE)
+                                      .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        mangaMembership.add(mangaId);
+        mangaListCache.patch(list -> ListPatches.addManga(list, mangaId, values));
     }
 
     /**
@@ -251,6 +440,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -271,6 +461,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -291,6 +482,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -300,16 +492,21 @@ public class MALClient implements AutoCloseable {
             @NonNull final AnimeListEntryValues values) {
 
         final Form form = new Form();
-        form.param("data", objectToXml(values));
-
-        Response response = client.target(malUrl)
-                              .path(PATH_ANIME_UPDATE.replace("%id", animeId))
-                              .request(WILDCARD_TYPE)
-                              .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        form.param("data", toXml(values));
+
+        execute("updateAnimeList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_ANIME_UPDATE, animeId))
+                                      .request(WILDCARD_TYPE)
+                                      .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        animeMembership.add(animeId);
+        animeListCache.patch(list -> ListPatches.updateAnime(list, animeId, values));
     }
 
     /**
@@ -321,6 +518,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -341,6 +539,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -361,6 +560,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -370,16 +570,123 @@ public class MALClient implements AutoCloseable {
             @NonNull final MangaListEntryValues values) {
 
         final Form form = new Form();
-        form.param("data", objectToXml(values));
+        form.param("data", toXml(values));
+
+        execute("updateMangaList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_MANGA_UPDATE, mangaId))
+                                      .request(WILDCARD_TYPE)
+                                      .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        mangaMembership.add(mangaId);
+        mangaListCache.patch(list -> ListPatches.updateManga(list, mangaId, values));
+    }
 
-        Response response = client.target(malUrl)
-                              .path(PATH_MANGA_UPDATE.replace("%id", mangaId))
-                              .request(WILDCARD_TYPE)
-                              .post(entity(form, APPLICATION_FORM_URLENCODED_TYPE));
+    /**
+     * Adds an anime to the anime list or updates its entry if it is already on the list.
+     * <p>
+     *
+     * @param anime {@code [required]} The {@link Anime} you want to add or update.
+     * @param values {@code [required]} An {@link AnimeListEntryValues} object containing information about the entry such as the current status.
+     * @return {@link OperationType#ADD} if the anime was added, {@link OperationType#UPDATE} if its entry was updated.
+     * @throws NullPointerException             If any of the parameters are null.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
+     * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
+     *                                             To detect this beforehand use the {@code verifyCredentials} method.
+     */
+    public OperationType upsertAnimeList(
+            @NonNull final Anime anime,
+            @NonNull final AnimeListEntryValues values) {
 
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        return upsertAnimeList(anime.getId(),values);
+    }
+
+    /**
+     * Adds an anime to the anime list or updates its entry if it is already on the list.
+     * <p>
+     * Whether the anime is on the list is looked up in the anime list of the client user as last fetched with
+     * {@link #getAnimeList()}, kept up to date with the changes made through this client. The matching call is sent
+     * first. If the list has not been fetched yet or MAL rejects the call because the list changed elsewhere,
+     * the other call is sent as well. Other rejections are thrown right away. If the other call fails too, its
+     * exception is thrown with the first rejection attached as suppressed exception.
+     *
+     * @param animeId {@code [required]} The ID of the anime you want to add or update.
+     * @param values {@code [required]} An {@link AnimeListEntryValues} object containing information about the entry such as the current status.
+     * @return {@link OperationType#ADD} if the anime was added, {@link OperationType#UPDATE} if its entry was updated.
+     * @throws NullPointerException             If any of the parameters are null.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
+     * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
+     *                                             To detect this beforehand use the {@code verifyCredentials} method.
+     */
+    public OperationType upsertAnimeList(
+            @NonNull final String animeId,
+            @NonNull final AnimeListEntryValues values) {
+
+        return upsert(animeMembership.contains(animeId),
+                () -> addToAnimeList(animeId, values),
+                () -> updateAnimeList(animeId, values));
+    }
+
+    /**
+     * Adds an manga to the manga list or updates its entry if it is already on the list.
+     * <p>
+     *
+     * @param manga {@code [required]} The {@link Manga} you want to add or update.
+     * @param values {@code [required]} An {@link MangaListEntryValues} object containing information about the entry such as the current status.
+     * @return {@link OperationType#ADD} if the manga was added, {@link OperationType#UPDATE} if its entry was updated.
+     * @throws NullPointerException             If any of the parameters are null.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
+     * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
+     *                                             To detect this beforehand use the {@code verifyCredentials} method.
+     */
+    public OperationType upsertMangaList(
+            @NonNull final Manga manga,
+            @NonNull final MangaListEntryValues values) {
+
+        return upsertMangaList(manga.getId(),values);
+    }
+
+    /**
+     * Adds an manga to the manga list or updates its entry if it is already on the list.
+     * <p>
+     * Whether the manga is on the list is looked up in the manga list of the client user as last fetched with
+     * {@link #getMangaList()}, kept up to date with the changes made through this client. The matching call is sent
+     * first. If the list has not been fetched yet or MAL rejects the call because the list changed elsewhere,
+     * the other call is sent as well. Other rejections are thrown right away. If the other call fails too, its
+     * exception is thrown with the first rejection attached as suppressed exception.
+     *
+     * @param mangaId {@code [required]} The ID of the manga you want to add or update.
+     * @param values {@code [required]} An {@link MangaListEntryValues} object containing information about the entry such as the current status.
+     * @return {@link OperationType#ADD} if the manga was added, {@link OperationType#UPDATE} if its entry was updated.
+     * @throws NullPointerException             If any of the parameters are null.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
+     * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
+     *                                             To detect this beforehand use the {@code verifyCredentials} method.
+     */
+    public OperationType upsertMangaList(
+            @NonNull final String mangaId,
+            @NonNull final MangaListEntryValues values) {
+
+        return upsert(mangaMembership.contains(mangaId),
+                () -> addToMangaList(mangaId, values),
+                () -> updateMangaList(mangaId, values));
     }
 
     /**
@@ -390,6 +697,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -408,6 +716,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -426,6 +735,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -433,14 +743,19 @@ public class MALClient implements AutoCloseable {
     public void removeFromAnimeList(
             @NonNull final String animeId) {
 
-        Response response = client.target(malUrl)
-                                .path(PATH_ANIME_DELETE.replace("%id", animeId))
-                                .request(WILDCARD_TYPE)
-                                .delete();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        execute("removeFromAnimeList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_ANIME_DELETE, animeId))
+                                      .request(WILDCARD_TYPE)
+                                      .delete();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        animeMembership.remove(animeId);
+        animeListCache.patch(list -> ListPatches.removeAnime(list, animeId));
     }
 
     /**
@@ -451,6 +766,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -469,6 +785,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -487,6 +804,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If any of the parameters are null.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -494,14 +812,19 @@ public class MALClient implements AutoCloseable {
     public void removeFromMangaList(
             @NonNull final String mangaId) {
 
-        Response response = client.target(malUrl)
-                                .path(PATH_MANGA_DELETE.replace("%id", mangaId))
-                                .request(WILDCARD_TYPE)
-                                .delete();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-        }
+        execute("removeFromMangaList", Endpoint.LIST_WRITE, target -> {
+            Response response = target.path(withId(PATH_MANGA_DELETE, mangaId))
+                                      .request(WILDCARD_TYPE)
+                                      .delete();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return;
+            }
+            release(response);
+        });
+        mangaMembership.remove(mangaId);
+        mangaListCache.patch(list -> ListPatches.removeManga(list, mangaId));
     }
 
     /**
@@ -511,21 +834,23 @@ public class MALClient implements AutoCloseable {
      * @return A {@link User} object containing username and user ID.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the credentials provided with this {@link MALClient} are invalid.
      */
     public User verifyCredentials() {
-        Response response = client.target(malUrl)
-                                  .path(PATH_VERIFY_CREDENTIALS)
-                                  .request(APPLICATION_XML_TYPE)
-                                  .get();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-            return null;
-        }
-
-        return response.readEntity(User.class);
+        return request("verifyCredentials", Endpoint.VERIFY_CREDENTIALS, target -> {
+            Response response = target.path(PATH_VERIFY_CREDENTIALS)
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return null;
+            }
+
+            return response.readEntity(User.class);
+        });
     }
 
     /**
@@ -536,6 +861,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If the username is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the cerdentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -553,6 +879,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If the username is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the cerdentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -560,26 +887,43 @@ public class MALClient implements AutoCloseable {
     public AnimeList getAnimeList(
             @NonNull final String username) {
 
-        Response response = client.target(malUrl)
-                .path(PATH_MALAPPINFO)
-                .queryParam("u", username)
-                .queryParam("type", "anime")
-                .queryParam("status", "all")
-                .request(APPLICATION_XML_TYPE)
-                .get();
-
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
-            return null;
-        }
-
-        AnimeList result = response.readEntity(AnimeList.class);
-
-        if (result == null || result.getListInfo() == null){
-            return null;
+        final boolean clientUser = username.equalsIgnoreCase(this.username);
+        final ListCacheOptions cacheOptions = this.listCacheOptions;
+        if (clientUser && cacheOptions != null){
+            AnimeList cached = animeListCache.get(cacheOptions.getMaxAgeMillis());
+            if (cached != null){
+                return cached;
+            }
         }
-
-        return result;
+        final long cacheGeneration = animeListCache.generation();
+
+        return request("getAnimeList", Endpoint.MALAPPINFO, target -> {
+            Response response = target.path(PATH_MALAPPINFO)
+                                      .queryParam("u", username)
+                                      .queryParam("type", "anime")
+                                      .queryParam("status", "all")
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return null;
+            }
+
+            AnimeList result = response.readEntity(AnimeList.class);
+
+            if (result == null || result.getListInfo() == null){
+                return null;
+            }
+
+            if (clientUser){
+                animeMembership.reset(result.getEntries(), AnimeListEntry::getSeriesId);
+                if (cacheOptions != null){
+                    animeListCache.put(result, cacheGeneration);
+                }
+            }
+            return result;
+        });
     }
 
     /**
@@ -590,6 +934,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If the username is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the cerdentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -607,6 +952,7 @@ public class MALClient implements AutoCloseable {
      * @throws NullPointerException             If the username is not provided.
      * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code
      * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
      * @throws javax.ws.rs.ProcessingException  If the response from MAL cannot be interpreted.
      * @throws javax.ws.rs.NotAuthorizedException  If the cerdentials provided with this {@link MALClient} are invalid.
      *                                             To detect this beforehand use the {@code verifyCredentials} method.
@@ -614,26 +960,1010 @@ public class MALClient implements AutoCloseable {
     public MangaList getMangaList(
             @NonNull final String username) {
 
-        Response response = client.target(malUrl)
-                .path(PATH_MALAPPINFO)
-                .queryParam("u", username)
-                .queryParam("type", "manga")
-                .queryParam("status", "all")
-                .request(APPLICATION_XML_TYPE)
-                .get();
+        final boolean clientUser = username.equalsIgnoreCase(this.username);
+        final ListCacheOptions cacheOptions = this.listCacheOptions;
+        if (clientUser && cacheOptions != null){
+            MangaList cached = mangaListCache.get(cacheOptions.getMaxAgeMillis());
+            if (cached != null){
+                return cached;
+            }
+        }
+        final long cacheGeneration = mangaListCache.generation();
+
+        return request("getMangaList", Endpoint.MALAPPINFO, target -> {
+            Response response = target.path(PATH_MALAPPINFO)
+                                      .queryParam("u", username)
+                                      .queryParam("type", "manga")
+                                      .queryParam("status", "all")
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return null;
+            }
+
+            MangaList result = response.readEntity(MangaList.class);
+
+            if (result == null || result.getListInfo() == null){
+                return null;
+            }
+
+            if (clientUser){
+                mangaMembership.reset(result.getEntries(), MangaListEntry::getSeriesId);
+                if (cacheOptions != null){
+                    mangaListCache.put(result, cacheGeneration);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Fetches the anime lists of many users with the default {@link BulkFetchOptions}.
+     * <p>
+     *
+     * @param usernames {@code [required]} The users whose anime lists shall be fetched.
+     * @return A {@link BulkFetch} of the lists. See {@link #getAnimeLists(Collection, BulkFetchOptions)}.
+     * @throws NullPointerException If the usernames or any of them are not provided.
+     */
+    public BulkFetch<AnimeList> getAnimeLists(
+            @NonNull final Collection<String> usernames) {
+
+        return getAnimeLists(usernames, new BulkFetchOptions());
+    }
+
+    /**
+     * Fetches the anime lists of many users concurrently.
+     * <p>
+     * The lists are fetched as with {@link #getAnimeList(String)} on background threads, limited in concurrency and rate
+     * by the given options, in the lane of {@link BulkFetchOptions#getPriority()}. They are returned in the order
+     * they arrive by iterating over the returned {@link BulkFetch}. Errors are reported per user instead of being thrown.
+     * Users without a list get a result with a {@code null} value.
+     *
+     * @param usernames {@code [required]} The users whose anime lists shall be fetched.
+     * @param options   {@code [required]} Concurrency, rate limit, buffering and progress reporting of the fetch.
+     * @return A {@link BulkFetch} handing out the lists. Should be closed if it is abandoned before all results were consumed.
+     * @throws NullPointerException     If any of the parameters or usernames are not provided.
+     * @throws IllegalArgumentException If the options are invalid.
+     */
+    public BulkFetch<AnimeList> getAnimeLists(
+            @NonNull final Collection<String> usernames,
+            @NonNull final BulkFetchOptions options) {
+
+        Span parent = tracing.currentSpan();
+        return new BulkFetch<>(usernames, user -> tracing.withParent(parent, () ->
+                withPriority(options.getPriority(), () -> getAnimeList(user))), options);
+    }
+
+    /**
+     * Fetches the manga lists of many users with the default {@link BulkFetchOptions}.
+     * <p>
+     *
+     * @param usernames {@code [required]} The users whose manga lists shall be fetched.
+     * @return A {@link BulkFetch} of the lists. See {@link #getMangaLists(Collection, BulkFetchOptions)}.
+     * @throws NullPointerException If the usernames or any of them are not provided.
+     */
+    public BulkFetch<MangaList> getMangaLists(
+            @NonNull final Collection<String> usernames) {
+
+        return getMangaLists(usernames, new BulkFetchOptions());
+    }
+
+    /**
+     * Fetches the manga lists of many users concurrently.
+     * <p>
+     * The lists are fetched as with {@link #getMangaList(String)} on background threads, limited in concurrency and rate
+     * by the given options, in the lane of {@link BulkFetchOptions#getPriority()}. They are returned in the order
+     * they arrive by iterating over the returned {@link BulkFetch}. Errors are reported per user instead of being thrown.
+     * Users without a list get a result with a {@code null} value.
+     *
+     * @param usernames {@code [required]} The users whose manga lists shall be fetched.
+     * @param options   {@code [required]} Concurrency, rate limit, buffering and progress reporting of the fetch.
+     * @return A {@link BulkFetch} handing out the lists. Should be closed if it is abandoned before all results were consumed.
+     * @throws NullPointerException     If any of the parameters or usernames are not provided.
+     * @throws IllegalArgumentException If the options are invalid.
+     */
+    public BulkFetch<MangaList> getMangaLists(
+            @NonNull final Collection<String> usernames,
+            @NonNull final BulkFetchOptions options) {
+
+        Span parent = tracing.currentSpan();
+        return new BulkFetch<>(usernames, user -> tracing.withParent(parent, () ->
+                withPriority(options.getPriority(), () -> getMangaList(user))), options);
+    }
+
+    /**
+     * Opens a queue that delays list updates to merge rapid changes of the same series.
+     * <p>
+     * Updates queued within {@link WriteBehindOptions#getWindowMillis()} of the first pending change of a series are
+     * merged field by field and sent once, as with {@link #updateAnimeList(String, AnimeListEntryValues)} and
+     * {@link #updateMangaList(String, MangaListEntryValues)} in the lane of {@link WriteBehindOptions#getPriority()}.
+     * See {@link WriteBehindQueue} for the handling of failures.
+     *
+     * @param options {@code [required]} Window, priority and failure reporting of the queue.
+     * @return A new {@link WriteBehindQueue}. Must be closed to send the remaining updates before this client is closed.
+     * @throws NullPointerException     If the options or their priority are not provided.
+     * @throws IllegalArgumentException If the window or the maximum number of attempts is not positive.
+     */
+    public WriteBehindQueue openWriteBehindQueue(
+            @NonNull final WriteBehindOptions options) {
+
+        Priority queuePriority = options.getPriority();
+        return new WriteBehindQueue(
+                (animeId, values) -> withPriority(queuePriority, () -> {
+                    updateAnimeList(animeId, values);
+                    return null;
+                }),
+                (mangaId, values) -> withPriority(queuePriority, () -> {
+                    updateMangaList(mangaId, values);
+                    return null;
+                }),
+                options);
+    }
+
+    /**
+     * Makes the anime list match the desired entries with the default {@link ReconcileOptions}.
+     * <p>
+     *
+     * @param desired {@code [required]} The desired values of the list entries by anime ID.
+     * @return The planned changes and their outcome. See {@link #reconcileAnimeList(Map, ReconcileOptions)}.
+     * @throws NullPointerException If the desired entries or any of their values are not provided.
+     */
+    public ReconcileReport<AnimeListEntryValues> reconcileAnimeList(
+            @NonNull final Map<String, AnimeListEntryValues> desired) {
+
+        return reconcileAnimeList(desired, new ReconcileOptions());
+    }
 
-        if (response.getStatus() != Response.Status.OK.getStatusCode()){
-            handleError(response);
+    /**
+     * Makes the anime list of the user provided with the creation of the {@link MALClient} match the desired entries.
+     * <p>
+     * The list is fetched and compared with the desired entries by {@link ReconcilePlanner#planAnimeList(Collection, Map, boolean)},
+     * which only plans the changes needed. Unless {@link ReconcileOptions#isDryRun()} is set, the changes are then
+     * sent as with {@link BulkFetch}, limited in concurrency and rate by {@link ReconcileOptions#getExecutionOptions()}.
+     * Failed changes are reported per change instead of being thrown.
+     *
+     * @param desired {@code [required]} The desired values of the list entries by anime ID.
+     * @param options {@code [required]} Dry run, removals and scheduling of the changes.
+     * @return The planned changes and their outcome.
+     * @throws NullPointerException             If any of the parameters or desired values are not provided.
+     * @throws IllegalArgumentException         If the execution options are invalid.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code while fetching the list.
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code while fetching the list.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the list cannot be interpreted.
+     */
+    public ReconcileReport<AnimeListEntryValues> reconcileAnimeList(
+            @NonNull final Map<String, AnimeListEntryValues> desired,
+            @NonNull final ReconcileOptions options) {
+
+        AnimeList list = getAnimeList();
+        List<AnimeListEntry> entries = list == null || list.getEntries() == null ? Collections.emptyList() : list.getEntries();
+        return reconcile(ReconcilePlanner.planAnimeList(entries, desired, options.isRemoveMissing()), options, operation -> {
+            switch (operation.getType()) {
+                case ADD:
+                    addToAnimeList(operation.getSeriesId(), operation.getValues());
+                    break;
+                case UPDATE:
+                    updateAnimeList(operation.getSeriesId(), operation.getValues());
+                    break;
+                case REMOVE:
+                    removeFromAnimeList(operation.getSeriesId());
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Makes the manga list match the desired entries with the default {@link ReconcileOptions}.
+     * <p>
+     *
+     * @param desired {@code [required]} The desired values of the list entries by manga ID.
+     * @return The planned changes and their outcome. See {@link #reconcileMangaList(Map, ReconcileOptions)}.
+     * @throws NullPointerException If the desired entries or any of their values are not provided.
+     */
+    public ReconcileReport<MangaListEntryValues> reconcileMangaList(
+            @NonNull final Map<String, MangaListEntryValues> desired) {
+
+        return reconcileMangaList(desired, new ReconcileOptions());
+    }
+
+    /**
+     * Makes the manga list of the user provided with the creation of the {@link MALClient} match the desired entries,
+     * like {@link #reconcileAnimeList(Map, ReconcileOptions)}.
+     * <p>
+     *
+     * @param desired {@code [required]} The desired values of the list entries by manga ID.
+     * @param options {@code [required]} Dry run, removals and scheduling of the changes.
+     * @return The planned changes and their outcome.
+     * @throws NullPointerException             If any of the parameters or desired values are not provided.
+     * @throws IllegalArgumentException         If the execution options are invalid.
+     * @throws javax.ws.rs.ClientErrorException If MAL returns a HTTP {@code 4xx} status code while fetching the list.
+     * @throws javax.ws.rs.ServerErrorException If MAL returns a HTTP {@code 5xx} status code while fetching the list.
+     * @throws CircuitOpenException             If the circuit breaker of the endpoint is open because MAL is unavailable.
+     * @throws javax.ws.rs.ProcessingException  If the list cannot be interpreted.
+     */
+    public ReconcileReport<MangaListEntryValues> reconcileMangaList(
+            @NonNull final Map<String, MangaListEntryValues> desired,
+            @NonNull final ReconcileOptions options) {
+
+        MangaList list = getMangaList();
+        List<MangaListEntry> entries = list == null || list.getEntries() == null ? Collections.emptyList() : list.getEntries();
+        return reconcile(ReconcilePlanner.planMangaList(entries, desired, options.isRemoveMissing()), options, operation -> {
+            switch (operation.getType()) {
+                case ADD:
+                    addToMangaList(operation.getSeriesId(), operation.getValues());
+                    break;
+                case UPDATE:
+                    updateMangaList(operation.getSeriesId(), operation.getValues());
+                    break;
+                case REMOVE:
+                    removeFromMangaList(operation.getSeriesId());
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Opens a writer that sends list changes concurrently but keeps the changes of each series in order.
+     * <p>
+     * Calling the list methods of this client from several threads may let a later change of a series reach MAL
+     * before an earlier one. The {@link OrderedWriter} queues the changes of each series behind each other and sends
+     * changes of different series in parallel, in the lane of {@link OrderedWriteOptions#getPriority()}.
+     *
+     * @param options {@code [required]} Stripes, concurrency and priority of the writer.
+     * @return A new {@link OrderedWriter}. Must be closed before this client is closed.
+     * @throws NullPointerException     If the options or their priority are not provided.
+     * @throws IllegalArgumentException If the number of stripes or the concurrency is not positive.
+     */
+    public OrderedWriter openOrderedWriter(
+            @NonNull final OrderedWriteOptions options) {
+
+        return new OrderedWriter(this, options);
+    }
+
+    /**
+     * Opens a journal of list changes with the default {@link JournalOptions}.
+     * <p>
+     *
+     * @param file {@code [required]} The journal file. Created if it does not exist.
+     * @return A {@link JournaledWriter} sending the changes. See {@link #openJournal(Path, JournalOptions)}.
+     * @throws NullPointerException If the file is not provided.
+     * @throws IOException          If the journal cannot be opened.
+     */
+    public JournaledWriter openJournal(
+            @NonNull final Path file) throws IOException {
+
+        return openJournal(file, new JournalOptions());
+    }
+
+    /**
+     * Opens a journal of list changes to make them without waiting for MAL and without losing them if the process stops.
+     * <p>
+     * Every change made through the returned writer is recorded in the journal before the method returns and sent
+     * in the background as with {@link #addToAnimeList(String, AnimeListEntryValues)} and the other list methods, in
+     * the lane of {@link JournalOptions#getPriority()}. Changes which were journaled but not sent when the journal was
+     * last closed are sent again. See {@link JournaledWriter} and {@link MutationJournal}.
+     *
+     * @param file    {@code [required]} The journal file. Created if it does not exist.
+     * @param options {@code [required]} Durability, size, retries and failure reporting of the journal.
+     * @return A {@link JournaledWriter} sending the changes. Must be closed before this client is closed.
+     * @throws NullPointerException     If any of the parameters or the priority are not provided.
+     * @throws IllegalArgumentException If the options are invalid.
+     * @throws IOException              If the journal cannot be opened.
+     */
+    public JournaledWriter openJournal(
+            @NonNull final Path file,
+            @NonNull final JournalOptions options) throws IOException {
+
+        Priority journalPriority = options.getPriority();
+        if (journalPriority == null) {
+            throw new NullPointerException("priority");
+        }
+        MutationJournal journal = new MutationJournal(file, options);
+        return new JournaledWriter(journal, mutation -> withPriority(journalPriority, () -> {
+            send(mutation);
             return null;
+        }), options);
+    }
+
+    /**
+     * Watches the anime lists of many users and reports their changes.
+     * <p>
+     * Every list is polled as with {@link #getAnimeList(String)}, at intervals that follow how often the list changes.
+     * See {@link ListWatcher}. Add the users with {@link ListWatcher#watch(String)} and close the watcher when done.
+     *
+     * @param options  {@code [required]} Controls when the lists are polled.
+     * @param listener {@code [required]} Notified about the changes of a list. Called on the polling threads.
+     * @return A watcher without users.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the options are invalid, see {@link ListWatcher}.
+     */
+    public ListWatcher<AnimeListEntry> watchAnimeLists(
+            @NonNull final WatchOptions options,
+            @NonNull final Consumer<ListChange<AnimeListEntry>> listener) {
+
+        Priority watchPriority = options.getPriority();
+        return new ListWatcher<>(user -> withPriority(watchPriority, () -> {
+            AnimeList list = getAnimeList(user);
+            if (list == null) {
+                return null;
+            }
+            return list.getEntries() != null ? list.getEntries() : Collections.emptyList();
+        }), AnimeListEntry::getSeriesId, AnimeListEntry::getLastUpdated, options, listener);
+    }
+
+    /**
+     * Watches the manga lists of many users and reports their changes.
+     * <p>
+     * Every list is polled as with {@link #getMangaList(String)}, at intervals that follow how often the list changes.
+     * See {@link ListWatcher}. Add the users with {@link ListWatcher#watch(String)} and close the watcher when done.
+     *
+     * @param options  {@code [required]} Controls when the lists are polled.
+     * @param listener {@code [required]} Notified about the changes of a list. Called on the polling threads.
+     * @return A watcher without users.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the options are invalid, see {@link ListWatcher}.
+     */
+    public ListWatcher<MangaListEntry> watchMangaLists(
+            @NonNull final WatchOptions options,
+            @NonNull final Consumer<ListChange<MangaListEntry>> listener) {
+
+        Priority watchPriority = options.getPriority();
+        return new ListWatcher<>(user -> withPriority(watchPriority, () -> {
+            MangaList list = getMangaList(user);
+            if (list == null) {
+                return null;
+            }
+            return list.getEntries() != null ? list.getEntries() : Collections.emptyList();
+        }), MangaListEntry::getSeriesId, MangaListEntry::getLastUpdated, options, listener);
+    }
+
+    /**
+     * Matches many titles to anime with the default {@link MatchOptions}.
+     * <p>
+     *
+     * @param titles {@code [required]} The titles to match.
+     * @return The matches in the order of the titles. See {@link #matchAnimeTitles(Collection, MatchOptions)}.
+     * @throws NullPointerException If the titles or any of them are not provided.
+     */
+    public List<TitleMatch<Anime>> matchAnimeTitles(
+            @NonNull final Collection<String> titles) {
+
+        return matchAnimeTitles(titles, new MatchOptions());
+    }
+
+    /**
+     * Matches many titles to anime, for example to import a list kept somewhere else.
+     * <p>
+     * The titles are matched in parallel against the anime known to the {@link TitleIndex} of this client, see
+     * {@link TitleIndex#matchAnime(String, int, double)}. MAL is only searched for titles without a candidate reaching
+     * {@link MatchOptions#getResolvedScore()}, once for every distinct normalized title, as with
+     * {@link BulkFetch} in the lane of the priority of {@link MatchOptions#getSearchOptions()}. The anime found are
+     * added to the index and the searched titles are matched again. Without an index a temporary one is used,
+     * so every title is searched. Failed searches are reported per title instead of being thrown.
+     *
+     * @param titles  {@code [required]} The titles to match.
+     * @param options {@code [required]} Scores, number of candidates and scheduling of the searches.
+     * @return The matches in the order of the titles, one for every title including duplicates.
+     * @throws NullPointerException     If any of the parameters or titles are not provided.
+     * @throws IllegalArgumentException If the search options are invalid.
+     */
+    public List<TitleMatch<Anime>> matchAnimeTitles(
+            @NonNull final Collection<String> titles,
+            @NonNull final MatchOptions options) {
+
+        return matchTitles(titles, options, TitleIndex::matchAnime, this::searchAnimeRemotely, TitleIndex::add);
+    }
+
+    /**
+     * Matches many titles to manga with the default {@link MatchOptions}.
+     * <p>
+     *
+     * @param titles {@code [required]} The titles to match.
+     * @return The matches in the order of the titles. See {@link #matchMangaTitles(Collection, MatchOptions)}.
+     * @throws NullPointerException If the titles or any of them are not provided.
+     */
+    public List<TitleMatch<Manga>> matchMangaTitles(
+            @NonNull final Collection<String> titles) {
+
+        return matchMangaTitles(titles, new MatchOptions());
+    }
+
+    /**
+     * Matches many titles to manga, like {@link #matchAnimeTitles(Collection, MatchOptions)}.
+     * <p>
+     *
+     * @param titles  {@code [required]} The titles to match.
+     * @param options {@code [required]} Scores, number of candidates and scheduling of the searches.
+     * @return The matches in the order of the titles, one for every title including duplicates.
+     * @throws NullPointerException     If any of the parameters or titles are not provided.
+     * @throws IllegalArgumentException If the search options are invalid.
+     */
+    public List<TitleMatch<Manga>> matchMangaTitles(
+            @NonNull final Collection<String> titles,
+            @NonNull final MatchOptions options) {
+
+        return matchTitles(titles, options, TitleIndex::matchManga, this::searchMangaRemotely, TitleIndex::add);
+    }
+
+    /**
+     * Streams the anime list entries of the user provided with the creation of the {@link MALClient}.
+     * <p>
+     *
+     * @return A {@link Publisher} of the list's {@link AnimeListEntry} objects. See {@link #streamAnimeList(String)}.
+     */
+    public Publisher<AnimeListEntry> streamAnimeList() {
+        return streamAnimeList(this.username);
+    }
+
+    /**
+     * Streams the anime list entries of a given user.
+     * <p>
+     * Unlike {@link #getAnimeList(String)} the list is never materialized. Each subscription sends its own request
+     * and entries are parsed from the response only as the subscriber requests them, so a slow subscriber
+     * throttles the download. Entries are delivered on the thread that calls {@code request(n)}.
+     * Errors (see {@link #getAnimeList(String)}) are signalled through {@code onError}.
+     *
+     * @param username {@code [required]} The username of the user whose anime list shall be streamed.
+     * @return A {@link Publisher} of the list's {@link AnimeListEntry} objects. Completes without entries if the user has none.
+     * @throws NullPointerException If the username is not provided.
+     */
+    public Publisher<AnimeListEntry> streamAnimeList(
+            @NonNull final String username) {
+
+        ListEntryPublisher.Source source = () -> openList(username, "anime");
+        if (xmlBinding == XmlBinding.GENERATED) {
+            return new ListEntryPublisher<>(source, Codecs.forType(AnimeListEntry.class), unmarshalListener);
         }
+        return new ListEntryPublisher<>(source, "anime", AnimeListEntry.class, unmarshalListener);
+    }
 
-        MangaList result = response.readEntity(MangaList.class);
+    /**
+     * Streams the manga list entries of the user provided with the creation of the {@link MALClient}.
+     * <p>
+     *
+     * @return A {@link Publisher} of the list's {@link MangaListEntry} objects. See {@link #streamMangaList(String)}.
+     */
+    public Publisher<MangaListEntry> streamMangaList() {
+        return streamMangaList(this.username);
+    }
 
-        if (result == null || result.getListInfo() == null){
-            return null;
+    /**
+     * Streams the manga list entries of a given user.
+     * <p>
+     * Unlike {@link #getMangaList(String)} the list is never materialized. Each subscription sends its own request
+     * and entries are parsed from the response only as the subscriber requests them, so a slow subscriber
+     * throttles the download. Entries are delivered on the thread that calls {@code request(n)}.
+     * Errors (see {@link #getMangaList(String)}) are signalled through {@code onError}.
+     *
+     * @param username {@code [required]} The username of the user whose manga list shall be streamed.
+     * @return A {@link Publisher} of the list's {@link MangaListEntry} objects. Completes without entries if the user has none.
+     * @throws NullPointerException If the username is not provided.
+     */
+    public Publisher<MangaListEntry> streamMangaList(
+            @NonNull final String username) {
+
+        ListEntryPublisher.Source source = () -> openList(username, "manga");
+        if (xmlBinding == XmlBinding.GENERATED) {
+            return new ListEntryPublisher<>(source, Codecs.forType(MangaListEntry.class), unmarshalListener);
+        }
+        return new ListEntryPublisher<>(source, "manga", MangaListEntry.class, unmarshalListener);
+    }
+
+    private InputStream openList(String username, String type){
+        return request(type.equals("anime") ? "streamAnimeList" : "streamMangaList", Endpoint.MALAPPINFO, target -> {
+            Response response = target.path(PATH_MALAPPINFO)
+                                      .queryParam("u", username)
+                                      .queryParam("type", type)
+                                      .queryParam("status", "all")
+                                      .request(APPLICATION_XML_TYPE)
+                                      .get();
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode()){
+                handleError(response);
+                return null;
+            }
+
+            return response.readEntity(InputStream.class);
+        });
+    }
+
+    /**
+     * Sets a pool used to deduplicate the strings of fetched and streamed list entries.
+     * <p>
+     * Series titles, synonyms, image URLs and tags repeat across the lists of many users. With a pool set they are
+     * replaced by pooled instances while parsing, so holding many lists in memory keeps only few copies of them.
+     * A pool can be shared by several {@link MALClient} instances.
+     *
+     * @param stringPool {@code [optional]} The pool to use or {@code null} to disable deduplication, which is the default.
+     */
+    public void setStringPool(final StringPool stringPool) {
+        this.unmarshalListener.setStringPool(stringPool);
+    }
+
+    /**
+     * @return The pool set with {@link #setStringPool(StringPool)} or {@code null}.
+     */
+    public StringPool getStringPool() {
+        return this.unmarshalListener.getStringPool();
+    }
+
+    /**
+     * Sets a catalog the series metadata of fetched and streamed list entries is resolved against.
+     * <p>
+     * With a catalog set, all entries of the same series reference one shared, immutable {@link AnimeSeries} or
+     * {@link MangaSeries} instead of holding their own copy of the {@code series*} fields. Setting a series field
+     * of such an entry gives it its own copy again. A catalog can be shared by several {@link MALClient} instances.
+     *
+     * @param seriesCatalog {@code [optional]} The catalog to use or {@code null} to disable it, which is the default.
+     */
+    public void setSeriesCatalog(final SeriesCatalog seriesCatalog) {
+        this.unmarshalListener.setSeriesCatalog(seriesCatalog);
+    }
+
+    /**
+     * @return The catalog set with {@link #setSeriesCatalog(SeriesCatalog)} or {@code null}.
+     */
+    public SeriesCatalog getSeriesCatalog() {
+        return this.unmarshalListener.getSeriesCatalog();
+    }
+
+    /**
+     * Runs the given calls of this client with a priority.
+     * <p>
+     * Requests of each priority are sent through a separate lane with its own connections and its own budget
+     * of concurrent requests (see {@link #setLaneOptions(Priority, LaneOptions)}), so background work cannot
+     * delay interactive requests. Calls made outside of this method are {@link Priority#INTERACTIVE}.
+     * The priority applies to the current thread only. Entries of streamed lists are read after the call returned
+     * and therefore only use the lane's connections, not its request budget.
+     *
+     * @param priority {@code [required]} The priority of the requests sent by {@code calls}.
+     * @param calls    {@code [required]} Calls of this client. Example: {@code () -> client.getAnimeList(user)}
+     * @return The result of {@code calls}.
+     * @throws NullPointerException If any of the parameters are null.
+     */
+    public <T> T withPriority(
+            @NonNull final Priority priority,
+            @NonNull final Supplier<T> calls) {
+
+        Priority previous = this.priority.get();
+        this.priority.set(priority);
+        try {
+            return calls.get();
+        } finally {
+            this.priority.set(previous);
+        }
+    }
+
+    /**
+     * Sets the capacity of the lane serving the requests of a priority.
+     * <p>
+     * By default the interactive lane has 8 connections and requests, the background lane 12.
+     * Changing the options replaces the lane's connections, requests in flight in that lane fail.
+     *
+     * @param priority {@code [required]} The priority whose lane shall be configured.
+     * @param options  {@code [required]} The new capacity of the lane.
+     * @throws NullPointerException If any of the parameters are null.
+     */
+    public void setLaneOptions(
+            @NonNull final Priority priority,
+            @NonNull final LaneOptions options) {
+
+        lanes.get(priority).configure(options);
+    }
+
+    /**
+     * @param priority {@code [required]} The priority whose lane options shall be returned.
+     * @return The capacity of the lane serving the requests of the priority.
+     * @throws NullPointerException If the priority is null.
+     */
+    public LaneOptions getLaneOptions(
+            @NonNull final Priority priority) {
+
+        return lanes.get(priority).getOptions();
+    }
+
+    /**
+     * Sets when the circuit breaker of an endpoint opens and how often MAL is probed while it is open.
+     * <p>
+     * Each {@link Endpoint} has a circuit breaker. After {@link CircuitBreakerOptions#getFailureThreshold()} consecutive
+     * calls failed with a {@code 5xx} status code or could not be completed, calls to the endpoint fail immediately
+     * with a {@link CircuitOpenException} instead of waiting for MAL. Meanwhile a cheap {@code HEAD} request is sent
+     * in the background every {@link CircuitBreakerOptions#getProbeIntervalMillis()} milliseconds. Once MAL answers it,
+     * the next call is let through and closes the circuit if it succeeds.
+     * By default 5 failures open the circuit and MAL is probed every 5 seconds.
+     *
+     * @param endpoint {@code [required]} The endpoint whose circuit breaker shall be configured.
+     * @param options  {@code [required]} The new options, applied from the next failure or probe on.
+     * @throws NullPointerException If any of the parameters are null.
+     */
+    public void setCircuitBreakerOptions(
+            @NonNull final Endpoint endpoint,
+            @NonNull final CircuitBreakerOptions options) {
+
+        circuitBreakers.get(endpoint).setOptions(options);
+    }
+
+    /**
+     * @param endpoint {@code [required]} The endpoint whose circuit breaker options shall be returned.
+     * @return The options of the endpoint's circuit breaker.
+     * @throws NullPointerException If the endpoint is null.
+     */
+    public CircuitBreakerOptions getCircuitBreakerOptions(
+            @NonNull final Endpoint endpoint) {
+
+        return circuitBreakers.get(endpoint).getOptions();
+    }
+
+    /**
+     * @param endpoint {@code [required]} The endpoint whose circuit breaker metrics shall be returned.
+     * @return The current state and the counters of the endpoint's circuit breaker.
+     * @throws NullPointerException If the endpoint is null.
+     */
+    public CircuitBreakerMetrics getCircuitBreakerMetrics(
+            @NonNull final Endpoint endpoint) {
+
+        return circuitBreakers.get(endpoint).getMetrics();
+    }
+
+    /**
+     * Registers a listener notified about the state transitions of the circuit breakers of all endpoints.
+     *
+     * @param listener {@code [required]} The listener to register.
+     * @throws NullPointerException If the listener is null.
+     */
+    public void addCircuitBreakerListener(@NonNull final CircuitBreakerListener listener) {
+        circuitBreakerListeners.add(listener);
+    }
+
+    /**
+     * @param listener {@code [required]} The listener to remove.
+     * @throws NullPointerException If the listener is null.
+     */
+    public void removeCircuitBreakerListener(@NonNull final CircuitBreakerListener listener) {
+        circuitBreakerListeners.remove(listener);
+    }
+
+    /**
+     * Enables hedging of {@link #searchForAnime(String)} and {@link #searchForManga(String)}.
+     * <p>
+     * A hedged search sends a second, identical request if MAL has not answered the first one after a percentile of the
+     * latencies observed so far, and returns whichever answer arrives first. The other request is cancelled and its
+     * answer discarded. Searches then run on a separate thread pool, in the lane of the calling thread.
+     * To keep the additional load low, at most {@link HedgingOptions#getMaxHedgeRatio()} of the searches are hedged.
+     *
+     * @param hedgingOptions {@code [optional]} The options to use or {@code null} to disable hedging, which is the default.
+     */
+    public void setHedgingOptions(final HedgingOptions hedgingOptions) {
+        searchHedger.setOptions(hedgingOptions);
+    }
+
+    /**
+     * @return The options set with {@link #setHedgingOptions(HedgingOptions)} or {@code null}.
+     */
+    public HedgingOptions getHedgingOptions() {
+        return searchHedger.getOptions();
+    }
+
+    /**
+     * @return The counters of search hedging and the current hedge delay.
+     */
+    public HedgingMetrics getHedgingMetrics() {
+        return searchHedger.getMetrics();
+    }
+
+    /**
+     * Enables caching of the anime and manga list of the client user.
+     * <p>
+     * While enabled, {@link #getAnimeList()} and {@link #getMangaList()} return the last fetched list until it is older
+     * than {@link ListCacheOptions#getMaxAgeMillis()}. The changes made through this client are applied to the cached
+     * lists once MAL accepted them, so they are visible without fetching the list again. Entries added this way only
+     * contain the series ID and the sent values until the list is fetched again.
+     * <p>
+     * Cached lists are shared between callers and must not be modified.
+     *
+     * @param listCacheOptions {@code [optional]} The options to use or {@code null} to disable caching, which is the default.
+     */
+    public void setListCacheOptions(final ListCacheOptions listCacheOptions) {
+        this.listCacheOptions = listCacheOptions;
+        if (listCacheOptions == null) {
+            invalidateListCache();
+        }
+    }
+
+    /**
+     * @return The options set with {@link #setListCacheOptions(ListCacheOptions)} or {@code null}.
+     */
+    public ListCacheOptions getListCacheOptions() {
+        return listCacheOptions;
+    }
+
+    /**
+     * Drops the cached lists, e.g. after they were changed elsewhere. They are fetched again on the next read.
+     */
+    public void invalidateListCache() {
+        animeListCache.invalidate();
+        mangaListCache.invalidate();
+    }
+
+    /**
+     * Sets an index the titles of searched, fetched and streamed series are added to.
+     * <p>
+     * The index can be searched with {@link TitleIndex#searchAnime(String)} and {@link TitleIndex#searchManga(String)}
+     * without asking MAL, and answers the searches of this client with {@link SearchMode#LOCAL_FIRST}.
+     * An index can be shared by several {@link MALClient} instances.
+     *
+     * @param titleIndex {@code [optional]} The index to use or {@code null} to disable it, which is the default.
+     */
+    public void setTitleIndex(final TitleIndex titleIndex) {
+        this.unmarshalListener.setTitleIndex(titleIndex);
+    }
+
+    /**
+     * @return The index set with {@link #setTitleIndex(TitleIndex)} or {@code null}.
+     */
+    public TitleIndex getTitleIndex() {
+        return this.unmarshalListener.getTitleIndex();
+    }
+
+    /**
+     * Selects whether {@link #searchForAnime(String)} and {@link #searchForManga(String)} are answered by the
+     * {@link TitleIndex} set with {@link #setTitleIndex(TitleIndex)} before asking MAL.
+     * <p>
+     * With {@link SearchMode#LOCAL_FIRST} a search is only sent to MAL if the index knows no matching series.
+     * The answer of the index only contains the series the index has seen, which may be fewer than MAL would return.
+     *
+     * @param searchMode {@code [required]} The mode to use. {@link SearchMode#REMOTE} by default.
+     * @throws NullPointerException If the mode is not provided.
+     */
+    public void setSearchMode(@NonNull final SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    /**
+     * @return The mode set with {@link #setSearchMode(SearchMode)}.
+     */
+    public SearchMode getSearchMode() {
+        return this.searchMode;
+    }
+
+    /**
+     * Traces the operations of this client.
+     * <p>
+     * Every operation, e.g. {@link #getAnimeList()} or {@link #updateMangaList(String, MangaListEntryValues)}, is traced in a
+     * span named after the method, with the child spans {@value SpanNames#CONNECTION_ACQUISITION},
+     * {@value SpanNames#NETWORK_WAIT} and {@value SpanNames#UNMARSHAL}. The spans of an operation are children of the
+     * caller's current span. Hedged searches and the fetches of {@link #getAnimeLists(Collection, BulkFetchOptions)}
+     * and {@link #getMangaLists(Collection, BulkFetchOptions)} continue the caller's span on their threads.
+     * See {@link net.beardbot.myanimelist.tracing.opentelemetry.OpenTelemetryTracer} to report spans to OpenTelemetry.
+     * <p>
+     * Tracing is disabled by default and costs nothing then. Enabling or disabling it replaces the HTTP clients,
+     * which aborts requests in flight.
+     *
+     * @param tracer {@code [optional]} The tracer to report spans to or {@code null} to disable tracing.
+     */
+    public void setTracer(final Tracer tracer) {
+        boolean enabled = tracing.isEnabled();
+        tracing.setTracer(tracer);
+        if (enabled != tracing.isEnabled()) {
+            lanes.values().forEach(Lane::recreateClient);
         }
+    }
 
-        return result;
+    /**
+     * @return The tracer set with {@link #setTracer(Tracer)} or {@code null}.
+     */
+    public Tracer getTracer() {
+        return tracing.getTracer();
+    }
+
+    /**
+     * Selects how responses are read and request data is written.
+     * <p>
+     * By default the {@link XmlCodec}s generated at compile time are used, which avoid JAXB's reflection and
+     * its expensive first use. {@link XmlBinding#JAXB} restores the previous behaviour.
+     *
+     * @param xmlBinding {@code [required]} The binding to use.
+     * @throws NullPointerException If the binding is not provided.
+     */
+    public void setXmlBinding(@NonNull final XmlBinding xmlBinding) {
+        this.xmlBinding = xmlBinding;
+    }
+
+    /**
+     * @return The binding set with {@link #setXmlBinding(XmlBinding)}. {@link XmlBinding#GENERATED} by default.
+     */
+    public XmlBinding getXmlBinding() {
+        return this.xmlBinding;
+    }
+
+    private static OperationType upsert(final Boolean listed, final Runnable add, final Runnable update){
+        // Unknown series are added first, MAL rejects adding a series that is already on the list
+        OperationType first = Boolean.TRUE.equals(listed) ? OperationType.UPDATE : OperationType.ADD;
+        ClientErrorException conflict;
+        try {
+            (first == OperationType.ADD ? add : update).run();
+            return first;
+        } catch (ClientErrorException e) {
+            if (!isMembershipConflict(e)) {
+                throw e;
+            }
+            conflict = e;
+        }
+        try {
+            if (first == OperationType.ADD) {
+                update.run();
+                return OperationType.UPDATE;
+            }
+            add.run();
+            return OperationType.ADD;
+        } catch (RuntimeException e) {
+            e.addSuppressed(conflict);
+            throw e;
+        }
+    }
+
+    // MAL rejects adding a listed series and changing an unlisted one with a 400 and one of these messages. Any other
+    // rejection, e.g. of invalid values, would hit the other call as well.
+    private static boolean isMembershipConflict(ClientErrorException e){
+        String message = e.getMessage();
+        return e.getResponse().getStatus() == Response.Status.BAD_REQUEST.getStatusCode()
+                && message != null
+                && (message.contains("is already in the list") || message.contains("is not in the list"));
+    }
+
+    private <V> ReconcileReport<V> reconcile(
+            final List<ListOperation<V>> plan,
+            final ReconcileOptions options,
+            final Consumer<ListOperation<V>> apply) {
+
+        List<OperationResult<V>> results = new ArrayList<>(plan.size());
+        if (options.isDryRun() || plan.isEmpty()) {
+            plan.forEach(operation -> results.add(new OperationResult<>(operation, false, null)));
+            return new ReconcileReport<>(options.isDryRun(), results);
+        }
+
+        // The plan has one operation per series, so the series IDs identify the operations
+        Map<String, ListOperation<V>> operations = new LinkedHashMap<>();
+        plan.forEach(operation -> operations.put(operation.getSeriesId(), operation));
+        Map<String, RuntimeException> errors = new HashMap<>();
+        Span parent = tracing.currentSpan();
+        BulkFetchOptions executionOptions = options.getExecutionOptions();
+        try (BulkFetch<Void> execution = new BulkFetch<>(operations.keySet(), id -> tracing.withParent(parent, () ->
+                withPriority(executionOptions.getPriority(), () -> {
+                    apply.accept(operations.get(id));
+                    return null;
+                })), executionOptions)) {
+            while (execution.hasNext()) {
+                BulkResult<Void> result = execution.next();
+                if (!result.isSuccess()) {
+                    errors.put(result.getKey(), result.getError());
+                }
+            }
+        }
+
+        plan.forEach(operation -> results.add(new OperationResult<>(operation, true, errors.get(operation.getSeriesId()))));
+        return new ReconcileReport<>(false, results);
+    }
+
+    private interface TitleMatcher<T> {
+        List<TitleCandidate<T>> match(TitleIndex index, String title, int maxCandidates, double minScore);
+    }
+
+    private <T> List<TitleMatch<T>> matchTitles(
+            final Collection<String> titles,
+            final MatchOptions options,
+            final TitleMatcher<T> matcher,
+            final Function<String, List<T>> search,
+            final BiConsumer<TitleIndex, T> add) {
+
+        // Titles that normalize alike are matched and searched once, the first spelling is the one sent to MAL
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (String title : titles) {
+            if (title == null) {
+                throw new NullPointerException("title");
+            }
+            queries.putIfAbsent(TitleIndex.normalize(title), title);
+        }
+
+        TitleIndex configured = unmarshalListener.getTitleIndex();
+        TitleIndex index = configured != null ? configured : new TitleIndex();
+        Map<String, List<TitleCandidate<T>>> candidates = new ConcurrentHashMap<>();
+        queries.keySet().parallelStream().forEach(normalized -> candidates.put(normalized,
+                matcher.match(index, normalized, options.getMaxCandidates(), options.getMinScore())));
+
+        Map<String, String> unresolved = new LinkedHashMap<>();
+        if (options.isSearchUnresolved()) {
+            queries.forEach((normalized, title) -> {
+                if (!normalized.isEmpty() && !isResolved(candidates.get(normalized), options)) {
+                    unresolved.put(title, normalized);
+                }
+            });
+        }
+
+        Map<String, RuntimeException> errors = new HashMap<>();
+        if (!unresolved.isEmpty()) {
+            Span parent = tracing.currentSpan();
+            BulkFetchOptions searchOptions = options.getSearchOptions();
+            try (BulkFetch<List<T>> searches = new BulkFetch<>(unresolved.keySet(), query -> tracing.withParent(parent, () ->
+                    withPriority(searchOptions.getPriority(), () -> search.apply(query))), searchOptions)) {
+                while (searches.hasNext()) {
+                    BulkResult<List<T>> result = searches.next();
+                    if (result.isSuccess()) {
+                        result.getValue().forEach(series -> add.accept(index, series));
+                    } else {
+                        errors.put(unresolved.get(result.getKey()), result.getError());
+                    }
+                }
+            }
+            unresolved.values().parallelStream().forEach(normalized -> candidates.put(normalized,
+                    matcher.match(index, normalized, options.getMaxCandidates(), options.getMinScore())));
+        }
+
+        Set<String> searched = new HashSet<>(unresolved.values());
+        List<TitleMatch<T>> matches = new ArrayList<>(titles.size());
+        for (String title : titles) {
+            String normalized = TitleIndex.normalize(title);
+            List<TitleCandidate<T>> matched = candidates.get(normalized);
+            matches.add(new TitleMatch<>(title, matched, isResolved(matched, options),
+                    searched.contains(normalized), errors.get(normalized)));
+        }
+        return matches;
+    }
+
+    private static <T> boolean isResolved(final List<TitleCandidate<T>> candidates, final MatchOptions options) {
+        return !candidates.isEmpty() && candidates.get(0).getScore() >= options.getResolvedScore();
+    }
+
+    private void send(Mutation mutation){
+        String id = mutation.getSeriesId();
+        switch (mutation.getType()) {
+            case ADD_ANIME:
+                addToAnimeList(id, (AnimeListEntryValues) mutation.getValues());
+                break;
+            case UPDATE_ANIME:
+                updateAnimeList(id, (AnimeListEntryValues) mutation.getValues());
+                break;
+            case REMOVE_ANIME:
+                removeFromAnimeList(id);
+                break;
+            case ADD_MANGA:
+                addToMangaList(id, (MangaListEntryValues) mutation.getValues());
+                break;
+            case UPDATE_MANGA:
+                updateMangaList(id, (MangaListEntryValues) mutation.getValues());
+                break;
+            case REMOVE_MANGA:
+                removeFromMangaList(id);
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> String toXml(T values){
+        if (xmlBinding == XmlBinding.GENERATED) {
+            XmlCodec<T> codec = Codecs.forType((Class<T>) values.getClass());
+            if (codec != null) {
+                return Codecs.toXml(codec, values);
+            }
+        }
+        return objectToXml(values);
+    }
+
+    /**
+     * Reads the content of a successful response. Jersey closes the connection of a response closed with unread
+     * content, reading it returns the connection to the pool instead.
+     */
+    private static void release(Response response){
+        try (InputStream content = response.readEntity(InputStream.class)) {
+            while (content != null && content.read() != -1) {
+                // discard
+            }
+        } catch (IOException e) {
+            // The connection is closed instead of reused
+        }
     }
 
     private void handleError(Response response){
@@ -641,9 +1971,9 @@ public class MALClient implements AutoCloseable {
         String message = response.readEntity(String.class);
 
         if (status == Response.Status.NO_CONTENT.getStatusCode()){
-            // This is necessary because Jersey cannot handle MAL's 204 response correctly for whatever reason.
-            this.client.close();
-            this.client = ClientBuilder.newClient(this.clientConfig);
+            // Jersey does not release the connection of a 204 response by itself. Only this response is closed,
+            // the lane's client is shared with the requests in flight on other threads.
+            response.close();
         }
         if (status == Response.Status.UNAUTHORIZED.getStatusCode()){
             throw new NotAuthorizedException(message);
@@ -659,14 +1989,119 @@ public class MALClient implements AutoCloseable {
     private ClientConfig createClientConfig(String username, String password){
         ClientConfig clientConfig = new ClientConfig();
         clientConfig.connectorProvider(new ApacheConnectorProvider());
+        // Only XML is exchanged with MAL, so the optional providers discovered on the classpath (e.g. MOXy's JSON support)
+        // are not needed. The JAXB providers are registered regardless.
+        clientConfig.property(ClientProperties.FEATURE_AUTO_DISCOVERY_DISABLE, true);
         clientConfig.register(HttpAuthenticationFeature.basicBuilder().credentials(username,password).build());
+        clientConfig.register(new UnmarshallerResolver(unmarshalListener));
+        clientConfig.register(new JaxbContextResolver());
+        clientConfig.register(new CodecProvider(() -> xmlBinding, unmarshalListener));
+        if (JfrSupport.AVAILABLE) {
+            clientConfig.register(new FlightRecorderProvider());
+        }
         return clientConfig;
     }
 
+    private Client createClient(LaneOptions options){
+        // Every client gets its own connection pool, because closing a client also closes its pool.
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(options.getMaxConnections() + Lane.RESERVED_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(options.getMaxConnections() + Lane.RESERVED_CONNECTIONS);
+
+        ClientConfig config = new ClientConfig().loadFrom(clientConfig);
+        if (tracing.isEnabled()) {
+            config.register(new TracingProvider(tracing));
+            config.property(ApacheClientProperties.CONNECTION_MANAGER, new TracingConnectionManager(connectionManager, tracing));
+        } else {
+            config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        }
+        return ClientBuilder.newClient(config);
+    }
+
+    private Lane currentLane(){
+        return lanes.get(priority.get());
+    }
+
+    private <T> T request(String operation, Endpoint endpoint, Function<WebTarget, T> request){
+        return tracing.trace(operation, endpoint, priority.get(), () ->
+                circuitBreakers.get(endpoint).call(() -> currentLane().call(request)));
+    }
+
+    private <T> T hedgedRequest(String operation, Endpoint endpoint, Function<WebTarget, T> request){
+        Priority priority = this.priority.get();
+        return tracing.trace(operation, endpoint, priority, () -> {
+            Span span = tracing.currentSpan();
+            return circuitBreakers.get(endpoint).call(() -> searchHedger.call(() ->
+                    withPriority(priority, () -> tracing.withParent(span, () -> currentLane().call(request)))));
+        });
+    }
+
+    private void execute(String operation, Endpoint endpoint, Consumer<WebTarget> request){
+        request(operation, endpoint, target -> {
+            request.accept(target);
+            return null;
+        });
+    }
+
+    private boolean probe(Endpoint endpoint){
+        // Probes must not wait behind interactive requests, and MAL is probably not answering those anyway.
+        // They bypass the background lane's budget as well, so a crawl does not keep the circuit open.
+        return lanes.get(Priority.BACKGROUND).probe(target -> {
+            Response response = target.path(probePath(endpoint))
+                                      .request()
+                                      .head();
+            response.close();
+            return response.getStatus() < Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        });
+    }
+
+    private static String probePath(Endpoint endpoint){
+        switch (endpoint) {
+            case SEARCH:
+                return PATH_ANIME_SEARCH;
+            case MALAPPINFO:
+                return PATH_MALAPPINFO;
+            case LIST_WRITE:
+                // HEAD does not change the list, any ID will do.
+                return withId(PATH_ANIME_UPDATE, "0");
+            default:
+                return PATH_VERIFY_CREDENTIALS;
+        }
+    }
+
+    private synchronized ScheduledExecutorService getProbeScheduler(){
+        if (probeScheduler == null) {
+            probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mal-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return probeScheduler;
+    }
+
+    private synchronized ExecutorService getHedgeExecutor(){
+        if (hedgeExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "mal-hedge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return hedgeExecutor;
+    }
+
     @Override
     public void close() {
-        if (client != null) {
-            client.close();
+        synchronized (this) {
+            if (probeScheduler != null) {
+                probeScheduler.shutdownNow();
+            }
+            if (hedgeExecutor != null) {
+                hedgeExecutor.shutdownNow();
+            }
         }
+        lanes.values().forEach(Lane::close);
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading a response body into objects. Bodies read as streams are not recorded.
+ */
+@Name("net.beardbot.myanimelist.Parse")
+@Label("MAL Response Parsing")
+@Category("MyAnimeList")
+@Description("Reading a MAL response body into objects")
+@StackTrace(false)
+class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Type")
+    String type;
+
+    @Label("Entries")
+    @Description("The number of list entries or search results, 0 for other documents")
+    int entries;
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.Endpoint;
+import net.beardbot.myanimelist.lane.Priority;
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.SpanAttributes;
+import net.beardbot.myanimelist.tracing.SpanNames;
+import net.beardbot.myanimelist.tracing.Tracer;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the spans of a client's operations per thread. While no {@link Tracer} is set,
+ * no spans are started and the thread locals are not touched.
+ */
+class Tracing {
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final ThreadLocal<Span> networkWait = new ThreadLocal<>();
+
+    private volatile Tracer tracer;
+
+    Tracer getTracer() {
+        return tracer;
+    }
+
+    void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    boolean isEnabled() {
+        return tracer != null;
+    }
+
+    /**
+     * Runs a client operation in a span of its own, which becomes the current span of the thread.
+     */
+    <T> T trace(String operation, Endpoint endpoint, Priority priority, Supplier<T> call) {
+        Tracer tracer = this.tracer;
+        if (tracer == null) {
+            return call.get();
+        }
+
+        Span parent = current.get();
+        Span span = tracer.startSpan(operation, parent);
+        span.setAttribute(SpanAttributes.ENDPOINT, endpoint.name());
+        span.setAttribute(SpanAttributes.PRIORITY, priority.name());
+        current.set(span);
+        Throwable error = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            span.setError(e);
+            throw e;
+        } finally {
+            endNetworkWait(error);
+            restore(parent);
+            span.end();
+        }
+    }
+
+    /**
+     * @return The span to continue the current work in on other threads. The span of the operation running on this
+     *         thread or else the current span of the tracer. {@code null} while tracing is disabled.
+     */
+    Span currentSpan() {
+        Tracer tracer = this.tracer;
+        if (tracer == null) {
+            return null;
+        }
+        Span span = current.get();
+        return span != null ? span : tracer.currentSpan();
+    }
+
+    /**
+     * Runs calls with a span captured by {@link #currentSpan()} on another thread as current span.
+     */
+    <T> T withParent(Span parent, Supplier<T> calls) {
+        if (parent == null) {
+            return calls.get();
+        }
+
+        Span previous = current.get();
+        current.set(parent);
+        Throwable error = null;
+        try {
+            return calls.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            endNetworkWait(error);
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return A started child of the current span or {@code null} if there is no current span.
+     */
+    Span startChild(String name) {
+        Tracer tracer = this.tracer;
+        Span parent;
+        if (tracer == null || (parent = current.get()) == null) {
+            return null;
+        }
+        return tracer.startSpan(name, parent);
+    }
+
+    /**
+     * Starts waiting for the response once the request has a connection.
+     */
+    void connectionAcquired() {
+        Span span = startChild(SpanNames.NETWORK_WAIT);
+        if (span != null) {
+            networkWait.set(span);
+        }
+    }
+
+    void responseReceived(String method, int status) {
+        Span wait = networkWait.get();
+        if (wait != null) {
+            networkWait.remove();
+            wait.setAttribute(SpanAttributes.HTTP_METHOD, method);
+            wait.setAttribute(SpanAttributes.HTTP_STATUS_CODE, status);
+            wait.end();
+        }
+    }
+
+    /**
+     * Ends the network wait of a request that failed before a response arrived.
+     */
+    private void endNetworkWait(Throwable error) {
+        Span wait = networkWait.get();
+        if (wait != null) {
+            networkWait.remove();
+            if (error != null) {
+                wait.setError(error);
+            }
+            wait.end();
+        }
+    }
+
+    private void restore(Span span) {
+        if (span == null) {
+            current.remove();
+        } else {
+            current.set(span);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.SpanAttributes;
+import net.beardbot.myanimelist.tracing.SpanNames;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Ends the network wait when the response arrives and traces reading the body.
+ * Only registered while tracing is enabled.
+ */
+class TracingProvider implements ClientResponseFilter, ReaderInterceptor {
+
+    private final Tracing tracing;
+
+    TracingProvider(Tracing tracing) {
+        this.tracing = tracing;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        tracing.responseReceived(requestContext.getMethod(), responseContext.getStatus());
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        // Streamed bodies are read by the caller after the operation
+        Span span = context.getType() == InputStream.class ? null : tracing.startChild(SpanNames.UNMARSHAL);
+        if (span == null) {
+            return context.proceed();
+        }
+
+        CountingInputStream in = new CountingInputStream(context.getInputStream());
+        context.setInputStream(in);
+        try {
+            return context.proceed();
+        } catch (IOException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.setAttribute(SpanAttributes.RESPONSE_BYTES, in.count);
+            span.end();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.beardbot.myanimelist.catalog.SeriesCatalog;
+import net.beardbot.myanimelist.index.TitleIndex;
+import net.beardbot.myanimelist.model.anime.Anime;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeSeries;
+import net.beardbot.myanimelist.model.manga.Manga;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaSeries;
+import net.beardbot.myanimelist.utils.StringPool;
+
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Post-processes list entries right after JAXB has unmarshalled them.
+ */
+class UnmarshalListener extends Unmarshaller.Listener {
+
+    @Getter @Setter
+    private volatile StringPool stringPool;
+
+    @Getter @Setter
+    private volatile SeriesCatalog seriesCatalog;
+
+    @Getter @Setter
+    private volatile TitleIndex titleIndex;
+
+    boolean isActive() {
+        return stringPool != null || seriesCatalog != null || titleIndex != null;
+    }
+
+    @Override
+    public void afterUnmarshal(Object target, Object parent) {
+        if (target instanceof AnimeListEntry) {
+            afterUnmarshal((AnimeListEntry) target);
+        } else if (target instanceof MangaListEntry) {
+            afterUnmarshal((MangaListEntry) target);
+        } else if (target instanceof Anime) {
+            TitleIndex index = this.titleIndex;
+            if (index != null) {
+                index.add((Anime) target);
+            }
+        } else if (target instanceof Manga) {
+            TitleIndex index = this.titleIndex;
+            if (index != null) {
+                index.add((Manga) target);
+            }
+        }
+    }
+
+    private void afterUnmarshal(AnimeListEntry entry) {
+        StringPool pool = this.stringPool;
+        if (pool != null) {
+            entry.setSeriesTitle(pool.intern(entry.getSeriesTitle()));
+            entry.setSeriesImageUrl(pool.intern(entry.getSeriesImageUrl()));
+            pool.internAll(entry.getSeriesSynonyms());
+            pool.internAll(entry.getTags());
+        }
+
+        SeriesCatalog catalog = this.seriesCatalog;
+        if (catalog != null) {
+            resolve(catalog, entry);
+        }
+
+        TitleIndex index = this.titleIndex;
+        if (index != null) {
+            index.add(entry);
+        }
+    }
+
+    private void afterUnmarshal(MangaListEntry entry) {
+        StringPool pool = this.stringPool;
+        if (pool != null) {
+            entry.setSeriesTitle(pool.intern(entry.getSeriesTitle()));
+            entry.setSeriesImageUrl(pool.intern(entry.getSeriesImageUrl()));
+            pool.internAll(entry.getSeriesSynonyms());
+            pool.internAll(entry.getTags());
+        }
+
+        SeriesCatalog catalog = this.seriesCatalog;
+        if (catalog != null) {
+            resolve(catalog, entry);
+        }
+
+        TitleIndex index = this.titleIndex;
+        if (index != null) {
+            index.add(entry);
+        }
+    }
+
+    private static void resolve(SeriesCatalog catalog, AnimeListEntry entry) {
+        CatalogLookupEvent event = JfrSupport.AVAILABLE ? new CatalogLookupEvent() : null;
+        if (event == null || !event.isEnabled() || entry.getSeriesId() == null) {
+            catalog.resolve(entry);
+            return;
+        }
+
+        event.begin();
+        AnimeSeries cataloged = catalog.getAnime(entry.getSeriesId());
+        event.hit = catalog.resolve(entry) == cataloged;
+        event.kind = "anime";
+        event.seriesId = entry.getSeriesId();
+        event.commit();
+    }
+
+    private static void resolve(SeriesCatalog catalog, MangaListEntry entry) {
+        CatalogLookupEvent event = JfrSupport.AVAILABLE ? new CatalogLookupEvent() : null;
+        if (event == null || !event.isEnabled() || entry.getSeriesId() == null) {
+            catalog.resolve(entry);
+            return;
+        }
+
+        event.begin();
+        MangaSeries cataloged = catalog.getManga(entry.getSeriesId());
+        event.hit = catalog.resolve(entry) == cataloged;
+        event.kind = "manga";
+        event.seriesId = entry.getSeriesId();
+        event.commit();
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.utils.XmlUtils;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.ws.rs.ext.ContextResolver;
+
+/**
+ * Hands Jersey's JAXB providers unmarshallers that report to the {@link UnmarshalListener}.
+ * Jersey falls back to its own unmarshallers while the listener has nothing to do.
+ */
+class UnmarshallerResolver implements ContextResolver<Unmarshaller> {
+
+    private final UnmarshalListener listener;
+
+    UnmarshallerResolver(UnmarshalListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Unmarshaller getContext(Class<?> type) {
+        if (!listener.isActive() || !type.isAnnotationPresent(XmlRootElement.class)) {
+            return null;
+        }
+
+        try {
+            Unmarshaller unmarshaller = XmlUtils.getContext(type).createUnmarshaller();
+            unmarshaller.setListener(listener);
+            return unmarshaller;
+        } catch (JAXBException e) {
+            return null;
+        }
+    }
+}
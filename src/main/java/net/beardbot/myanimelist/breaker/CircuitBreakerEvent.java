@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+import lombok.Value;
+
+/**
+ * A state transition of the circuit breaker of an {@link Endpoint}.
+ */
+@Value
+public class CircuitBreakerEvent {
+    private final Endpoint endpoint;
+    private final CircuitState from;
+    private final CircuitState to;
+    /**
+     * The failure that caused the transition to {@link CircuitState#OPEN}, {@code null} for other transitions
+     * and when the circuit stays open because a probe failed.
+     */
+    private final RuntimeException cause;
+    /**
+     * The time of the transition in milliseconds since the epoch.
+     */
+    private final long timestamp;
+}
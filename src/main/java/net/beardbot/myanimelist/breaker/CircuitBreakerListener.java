@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+/**
+ * Notified about the state transitions of circuit breakers.
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    /**
+     * Called on the thread that caused the transition, which is either a calling thread or the probing thread.
+     * Exceptions thrown by the listener are ignored.
+     *
+     * @param event The transition.
+     */
+    void onStateTransition(CircuitBreakerEvent event);
+}
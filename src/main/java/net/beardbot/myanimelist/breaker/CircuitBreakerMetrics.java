@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the state and counters of the circuit breaker of an {@link Endpoint}.
+ * The counters are cumulative since the creation of the client.
+ */
+@Value
+public class CircuitBreakerMetrics {
+    private final Endpoint endpoint;
+    private final CircuitState state;
+    /**
+     * Calls that MAL answered, including answers with a {@code 4xx} status code.
+     */
+    private final long successfulCalls;
+    /**
+     * Calls that failed with a {@code 5xx} status code or could not be completed.
+     */
+    private final long failedCalls;
+    /**
+     * Calls that failed fast with a {@link CircuitOpenException}.
+     */
+    private final long rejectedCalls;
+    /**
+     * Probes that found MAL still unavailable.
+     */
+    private final long failedProbes;
+    /**
+     * How often the circuit has been opened.
+     */
+    private final long timesOpened;
+    /**
+     * The current number of consecutive failed calls.
+     */
+    private final int consecutiveFailures;
+}
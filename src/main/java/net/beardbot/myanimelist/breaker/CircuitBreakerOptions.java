@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+import lombok.Value;
+
+/**
+ * Controls when the circuit breaker of an {@link Endpoint} opens and how often MAL is probed while it is open.
+ */
+@Value
+public class CircuitBreakerOptions {
+    /**
+     * The number of consecutive failed calls that open the circuit.
+     */
+    private final int failureThreshold;
+    /**
+     * The time in milliseconds between two probes while the circuit is open.
+     */
+    private final long probeIntervalMillis;
+
+    /**
+     * @throws IllegalArgumentException If any of the values is not positive.
+     */
+    public CircuitBreakerOptions(final int failureThreshold, final long probeIntervalMillis) {
+        if (failureThreshold <= 0 || probeIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Failure threshold and probe interval must be positive but were "
+                    + failureThreshold + " and " + probeIntervalMillis);
+        }
+        this.failureThreshold = failureThreshold;
+        this.probeIntervalMillis = probeIntervalMillis;
+    }
+}
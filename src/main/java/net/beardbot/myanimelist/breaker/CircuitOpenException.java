@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+import lombok.Getter;
+
+import javax.ws.rs.ServiceUnavailableException;
+
+/**
+ * Thrown instead of sending a call to MAL while the circuit breaker of its {@link Endpoint} is open.
+ * It is a {@link javax.ws.rs.ServerErrorException} with the status code {@code 503}, so code handling MAL's
+ * server errors handles it as well.
+ */
+public class CircuitOpenException extends ServiceUnavailableException {
+
+    @Getter
+    private final Endpoint endpoint;
+
+    public CircuitOpenException(final Endpoint endpoint) {
+        super("The circuit breaker of " + endpoint + " is open, MAL is unavailable.");
+        this.endpoint = endpoint;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+/**
+ * The states of a circuit breaker.
+ */
+public enum CircuitState {
+    /**
+     * Calls are sent to MAL. Enough consecutive failures open the circuit.
+     */
+    CLOSED,
+    /**
+     * Calls fail fast with a {@link CircuitOpenException} while MAL is probed in the background.
+     */
+    OPEN,
+    /**
+     * A probe succeeded. A single trial call is sent to MAL, which closes the circuit if it succeeds and opens it again otherwise.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.breaker;
+
+/**
+ * The groups of MAL endpoints that are guarded by a circuit breaker of their own,
+ * so an outage of one part of MAL does not block calls to the others.
+ */
+public enum Endpoint {
+    /**
+     * The anime and manga search.
+     */
+    SEARCH,
+    /**
+     * {@code malappinfo.php}, which serves the anime and manga lists.
+     */
+    MALAPPINFO,
+    /**
+     * Adding, updating and removing list entries.
+     */
+    LIST_WRITE,
+    /**
+     * The verification of credentials.
+     */
+    VERIFY_CREDENTIALS
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.bulk;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.utils.RateLimiter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fetches the data of many keys concurrently and hands out the results in the order they complete. The keys are
+ * usually the names of users, but can be anything a request is made for, e.g. search queries or series IDs.
+ * <p>
+ * Fetching starts right away on dedicated threads, limited by the {@link BulkFetchOptions}. Results are consumed by
+ * iterating over this object. {@link #next()} blocks until the next result is available. The iteration ends once a
+ * result was returned for every key or the fetch was closed. Failures do not abort the fetch, they are reported
+ * as {@link BulkResult}s of the affected keys.
+ * <p>
+ * Closing the fetch cancels all fetches that have not been started yet. The iteration is meant for a single thread,
+ * {@link #getProgress()} and {@link #close()} can be called from any thread.
+ *
+ * @param <T> The type of the fetched data.
+ */
+public class BulkFetch<T> implements Iterator<BulkResult<T>>, AutoCloseable {
+
+    private static final AtomicInteger FETCH_COUNT = new AtomicInteger();
+
+    private final List<String> keys;
+    private final Function<String, T> fetch;
+    private final RateLimiter rateLimiter;
+    private final Consumer<BulkProgress> progressListener;
+    private final BlockingQueue<BulkResult<T>> results;
+    private final ExecutorService executor;
+
+    private final AtomicInteger nextKey = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean closed;
+    private int delivered;
+
+    /**
+     * Starts fetching.
+     *
+     * @param keys    {@code [required]} The keys to fetch the data of. Duplicates are fetched repeatedly.
+     * @param fetch   {@code [required]} Fetches the data of one key. Must be thread-safe.
+     * @param options {@code [required]} Controls the scheduling of the fetches.
+     * @throws NullPointerException     If any of the parameters, keys or the priority are null.
+     * @throws IllegalArgumentException If the concurrency or buffer size is not positive or the rate is invalid.
+     */
+    public BulkFetch(
+            @NonNull final Collection<String> keys,
+            @NonNull final Function<String, T> fetch,
+            @NonNull final BulkFetchOptions options) {
+
+        if (options.getConcurrency() <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive but was " + options.getConcurrency());
+        }
+        if (options.getPriority() == null) {
+            throw new NullPointerException("priority");
+        }
+        if (options.getBufferSize() <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive but was " + options.getBufferSize());
+        }
+        for (String key : keys) {
+            if (key == null) {
+                throw new NullPointerException("key");
+            }
+        }
+
+        this.keys = new ArrayList<>(keys);
+        this.fetch = fetch;
+        this.rateLimiter = new RateLimiter(options.getRequestsPerSecond());
+        this.progressListener = options.getProgressListener();
+        this.results = new ArrayBlockingQueue<>(options.getBufferSize());
+
+        int threads = Math.min(options.getConcurrency(), Math.max(this.keys.size(), 1));
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory(FETCH_COUNT.incrementAndGet()));
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::work);
+        }
+        executor.shutdown();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed && delivered < keys.size();
+    }
+
+    /**
+     * Waits for the next result.
+     *
+     * @return The result of the next key whose fetch has finished.
+     * @throws NoSuchElementException If every result was returned already or the fetch was closed.
+     * @throws IllegalStateException  If the thread is interrupted while waiting.
+     */
+    @Override
+    public BulkResult<T> next() {
+        try {
+            while (hasNext()) {
+                BulkResult<T> result = results.poll(100, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    delivered++;
+                    return result;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next result.", e);
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * @return The progress of the fetching, regardless of how many results were consumed yet.
+     */
+    public BulkProgress getProgress() {
+        return new BulkProgress(keys.size(), succeeded.get(), failed.get());
+    }
+
+    /**
+     * @return Whether all fetches have finished or the fetch was closed and its threads have stopped.
+     */
+    public boolean isDone() {
+        return executor.isTerminated();
+    }
+
+    /**
+     * Waits until all fetches have finished. Only useful if the results are consumed on another thread
+     * or the buffer is large enough to hold all of them.
+     *
+     * @return Whether the fetches finished before the timeout elapsed.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitDone(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Cancels all fetches that have not been started and ends the iteration. Requests in flight are completed
+     * but their results are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        results.clear();
+    }
+
+    private void work() {
+        try {
+            int index;
+            while (!closed && (index = nextKey.getAndIncrement()) < keys.size()) {
+                String key = keys.get(index);
+                rateLimiter.acquire();
+
+                // Every key gets exactly one result, otherwise the iteration would wait for it forever
+                BulkResult<T> result = fetch(key);
+                try {
+                    notifyProgress();
+                } finally {
+                    results.put(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed, the remaining keys are not fetched.
+        }
+    }
+
+    private BulkResult<T> fetch(String key) {
+        try {
+            BulkResult<T> result = BulkResult.success(key, fetch.apply(key));
+            succeeded.incrementAndGet();
+            return result;
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            return BulkResult.failure(key, e);
+        } catch (Throwable e) {
+            failed.incrementAndGet();
+            return BulkResult.failure(key, new CompletionException(e));
+        }
+    }
+
+    private void notifyProgress() {
+        if (progressListener == null) {
+            return;
+        }
+        try {
+            progressListener.accept(getProgress());
+        } catch (Throwable e) {
+            // A failing listener must not cost the result of the key
+        }
+    }
+
+    private static ThreadFactory threadFactory(int fetchNumber) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mal-bulk-" + fetchNumber + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
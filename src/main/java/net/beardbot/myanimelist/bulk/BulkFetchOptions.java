@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.bulk;
+
+import lombok.Data;
+import net.beardbot.myanimelist.lane.Priority;
+
+import java.util.function.Consumer;
+
+/**
+ * Controls how a {@link BulkFetch} schedules its requests.
+ */
+@Data
+public class BulkFetchOptions {
+    /**
+     * The maximum number of requests in flight at the same time.
+     */
+    private int concurrency = 4;
+    /**
+     * The maximum number of requests started per second. {@code 0} means unlimited.
+     */
+    private double requestsPerSecond = 0;
+    /**
+     * The maximum number of fetched results waiting to be consumed. Fetching pauses while the buffer is full,
+     * so a slow consumer never causes more than this many results to be held in memory.
+     */
+    private int bufferSize = 16;
+    /**
+     * The priority of the requests. By default they do not compete with interactive requests.
+     */
+    private Priority priority = Priority.BACKGROUND;
+    /**
+     * {@code [optional]} Notified after the fetch of each key has finished. Called on the fetching threads.
+     * Exceptions thrown by the listener are ignored.
+     */
+    private Consumer<BulkProgress> progressListener;
+}
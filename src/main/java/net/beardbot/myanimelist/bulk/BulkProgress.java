@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.bulk;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the progress of a {@link BulkFetch}.
+ */
+@Value
+public class BulkProgress {
+    /**
+     * The number of keys in the fetch.
+     */
+    private final int total;
+    /**
+     * The number of keys whose data was fetched successfully.
+     */
+    private final int succeeded;
+    /**
+     * The number of keys whose fetch failed.
+     */
+    private final int failed;
+
+    /**
+     * @return The number of keys whose fetch has finished, successfully or not.
+     */
+    public int getCompleted() {
+        return succeeded + failed;
+    }
+
+    /**
+     * @return The number of keys whose fetch has not finished yet.
+     */
+    public int getRemaining() {
+        return total - getCompleted();
+    }
+}
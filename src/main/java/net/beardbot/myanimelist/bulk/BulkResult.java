@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.bulk;
+
+import lombok.Value;
+
+/**
+ * The outcome of fetching the data of one key, e.g. a user, in a {@link BulkFetch}.
+ *
+ * @param <T> The type of the fetched data.
+ */
+@Value
+public class BulkResult<T> {
+    /**
+     * The key this result belongs to, e.g. the name of a user.
+     */
+    private final String key;
+    /**
+     * The fetched data. {@code null} if the fetch failed or there is no data for the key.
+     */
+    private final T value;
+    /**
+     * The exception the fetch failed with or {@code null} if it succeeded. Errors are wrapped in a
+     * {@link java.util.concurrent.CompletionException}.
+     */
+    private final RuntimeException error;
+
+    static <T> BulkResult<T> success(String key, T value) {
+        return new BulkResult<>(key, value, null);
+    }
+
+    static <T> BulkResult<T> failure(String key, RuntimeException error) {
+        return new BulkResult<>(key, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.cache;
+
+import lombok.Value;
+
+/**
+ * Controls how long the lists of the client user are served from memory.
+ */
+@Value
+public class ListCacheOptions {
+    /**
+     * How long a fetched list is served before it is fetched again, in milliseconds. Changes made through the client
+     * are applied to the cached list, so this only limits how long changes made elsewhere go unnoticed.
+     */
+    private final long maxAgeMillis;
+
+    /**
+     * @throws IllegalArgumentException If the maximum age is not positive.
+     */
+    public ListCacheOptions(final long maxAgeMillis) {
+        if (maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Maximum age must be positive but was " + maxAgeMillis);
+        }
+        this.maxAgeMillis = maxAgeMillis;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.catalog;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeSeries;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaSeries;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent registry of shared, immutable series metadata keyed by series ID.
+ * <p>
+ * Resolving a list entry against the catalog makes it reference the one {@link AnimeSeries} or {@link MangaSeries}
+ * instance known for its series, so series metadata is held once no matter how many users' lists contain it.
+ * If the metadata of an entry differs from the cataloged series (e.g. because the episode count changed on MAL),
+ * the catalog is updated and entries resolved before keep referencing the old instance.
+ * <p>
+ * The catalog is not bounded, it holds at most one instance per series known to MAL.
+ */
+public class SeriesCatalog {
+
+    private final ConcurrentMap<String, AnimeSeries> anime = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MangaSeries> manga = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the series metadata of the given entry by the shared instance of its series.
+     *
+     * @param entry {@code [required]} The entry to resolve. Entries without series ID are left untouched.
+     * @return The series the entry references now or {@code null} if the entry has no series ID.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public AnimeSeries resolve(@NonNull final AnimeListEntry entry) {
+        String id = entry.getSeriesId();
+        if (id == null) {
+            return null;
+        }
+
+        AnimeSeries series = anime.get(id);
+        if (series == null || !series.matches(entry)) {
+            AnimeSeries parsed = AnimeSeries.fromEntry(entry);
+            series = anime.merge(id, parsed, (cataloged, p) -> cataloged.equals(p) ? cataloged : p);
+        }
+
+        entry.setSeries(series);
+        return series;
+    }
+
+    /**
+     * Replaces the series metadata of the given entry by the shared instance of its series.
+     *
+     * @param entry {@code [required]} The entry to resolve. Entries without series ID are left untouched.
+     * @return The series the entry references now or {@code null} if the entry has no series ID.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public MangaSeries resolve(@NonNull final MangaListEntry entry) {
+        String id = entry.getSeriesId();
+        if (id == null) {
+            return null;
+        }
+
+        MangaSeries series = manga.get(id);
+        if (series == null || !series.matches(entry)) {
+            MangaSeries parsed = MangaSeries.fromEntry(entry);
+            series = manga.merge(id, parsed, (cataloged, p) -> cataloged.equals(p) ? cataloged : p);
+        }
+
+        entry.setSeries(series);
+        return series;
+    }
+
+    /**
+     * @param id {@code [required]} The ID of the anime.
+     * @return The cataloged series or {@code null} if it is unknown.
+     */
+    public AnimeSeries getAnime(@NonNull final String id) {
+        return anime.get(id);
+    }
+
+    /**
+     * @param id {@code [required]} The ID of the manga.
+     * @return The cataloged series or {@code null} if it is unknown.
+     */
+    public MangaSeries getManga(@NonNull final String id) {
+        return manga.get(id);
+    }
+
+    public int getAnimeCount() {
+        return anime.size();
+    }
+
+    public int getMangaCount() {
+        return manga.size();
+    }
+
+    public void clear() {
+        anime.clear();
+        manga.clear();
+    }
+}
@@ -0,0 +1,648 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.manga.MangaList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of list entry changes in a directory, read by any number of {@link ChangeLogConsumer}s.
+ * <p>
+ * Every appended change gets the next offset, starting at 0. Changes are stored in binary, checksummed records in
+ * segment files named after the offset of their first change. A new segment is started once the current one reaches
+ * {@link ChangeLogOptions#getSegmentBytes()}, and old segments are deleted as a whole once they are older than the
+ * retention time or the log is larger than the retention size. A sparse index of every segment is kept in memory, so
+ * reading from an offset only scans a few records before it. A record torn by a crash ends the log when it is opened.
+ * <p>
+ * Consumers track their own position and store it in the log directory with {@link ChangeLogConsumer#commit()}.
+ * Retention does not wait for consumers, a consumer behind the oldest segment continues with the oldest change kept.
+ * <p>
+ * A log can only be opened by one process at a time. It is thread-safe.
+ */
+public class ChangeLog implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D414C43;
+    private static final int VERSION = 1;
+    // magic, version, base offset
+    private static final int HEADER_SIZE = 16;
+    // length and checksum of the body
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d{20}\\.log");
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final Path directory;
+    private final boolean sync;
+    private final long segmentBytes;
+    private final long retentionMillis;
+    private final long retentionBytes;
+    private final int indexIntervalBytes;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private Segment active;
+    private long nextOffset;
+    private boolean closed;
+
+    /**
+     * Opens a log, creating the directory if it does not exist.
+     *
+     * @param directory {@code [required]} The directory of the segment files.
+     * @param options   {@code [required]} Durability, segment size and retention of the log.
+     * @throws NullPointerException     If any of the parameters are null.
+     * @throws IllegalArgumentException If the segment size, retention or index interval is not positive.
+     * @throws IOException              If the directory cannot be read, contains a file that is not a segment of a
+     *                                  log or is used by another process.
+     */
+    public ChangeLog(
+            @NonNull final Path directory,
+            @NonNull final ChangeLogOptions options) throws IOException {
+
+        if (options.getSegmentBytes() <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER_SIZE + " but was " + options.getSegmentBytes());
+        }
+        if (options.getRetentionMillis() <= 0) {
+            throw new IllegalArgumentException("Retention time must be positive but was " + options.getRetentionMillis());
+        }
+        if (options.getRetentionBytes() <= 0) {
+            throw new IllegalArgumentException("Retention size must be positive but was " + options.getRetentionBytes());
+        }
+        if (options.getIndexIntervalBytes() <= 0) {
+            throw new IllegalArgumentException("Index interval must be positive but was " + options.getIndexIntervalBytes());
+        }
+
+        this.directory = directory;
+        this.sync = options.isSync();
+        this.segmentBytes = options.getSegmentBytes();
+        this.retentionMillis = options.getRetentionMillis();
+        this.retentionBytes = options.getRetentionBytes();
+        this.indexIntervalBytes = options.getIndexIntervalBytes();
+        open();
+    }
+
+    /**
+     * Appends changes durably, in the given order.
+     *
+     * @param changes {@code [required]} The changes, usually computed by {@link EntryChanges}. Their offsets are ignored.
+     * @return The appended changes with their offsets.
+     * @throws NullPointerException     If the changes or any of them are null.
+     * @throws IllegalArgumentException If a username, series ID or field is too long to be stored.
+     * @throws IllegalStateException    If the log is closed.
+     * @throws UncheckedIOException     If the changes cannot be written.
+     */
+    public synchronized List<EntryChange> append(@NonNull final Collection<EntryChange> changes) {
+        ensureOpen();
+        List<EntryChange> appended = new ArrayList<>(changes.size());
+        List<byte[]> bodies = new ArrayList<>(changes.size());
+        long offset = nextOffset;
+        for (EntryChange change : changes) {
+            if (change == null) {
+                throw new NullPointerException("change");
+            }
+            EntryChange numbered = change.withOffset(offset++);
+            bodies.add(encode(numbered));
+            appended.add(numbered);
+        }
+        if (appended.isEmpty()) {
+            return appended;
+        }
+
+        boolean rolled = false;
+        try {
+            for (int i = 0; i < appended.size(); i++) {
+                byte[] body = bodies.get(i);
+                if (active.size > HEADER_SIZE && active.size + RECORD_HEADER_SIZE + body.length > segmentBytes) {
+                    roll(appended.get(i).getOffset());
+                    rolled = true;
+                }
+                active.append(appended.get(i), body);
+            }
+            if (sync) {
+                active.channel.force(false);
+            }
+        } catch (IOException e) {
+            // The offsets of the changes may have been written partially, the log has to be opened again
+            closed = true;
+            try {
+                release();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException("Appending to the change log " + directory + " failed.", e);
+        }
+        nextOffset = offset;
+        if (rolled) {
+            applyRetention();
+        }
+        return appended;
+    }
+
+    /**
+     * Appends the changes between two fetches of an anime list, see {@link EntryChanges#diffAnimeLists(String, AnimeList, AnimeList, long)}.
+     *
+     * @param username {@code [required]} The user whose list it is.
+     * @param before   {@code [optional]} The list fetched before, {@code null} if every entry is new.
+     * @param after    {@code [required]} The list fetched now.
+     * @return The appended changes with their offsets.
+     * @throws NullPointerException  If any of the required parameters are null.
+     * @throws IllegalStateException If the log is closed.
+     * @throws UncheckedIOException  If the changes cannot be written.
+     */
+    public List<EntryChange> recordAnimeList(
+            @NonNull final String username,
+            final AnimeList before,
+            @NonNull final AnimeList after) {
+
+        return append(EntryChanges.diffAnimeLists(username, before, after, System.currentTimeMillis()));
+    }
+
+    /**
+     * Appends the changes between two fetches of a manga list, see {@link EntryChanges#diffMangaLists(String, MangaList, MangaList, long)}.
+     *
+     * @param username {@code [required]} The user whose list it is.
+     * @param before   {@code [optional]} The list fetched before, {@code null} if every entry is new.
+     * @param after    {@code [required]} The list fetched now.
+     * @return The appended changes with their offsets.
+     * @throws NullPointerException  If any of the required parameters are null.
+     * @throws IllegalStateException If the log is closed.
+     * @throws UncheckedIOException  If the changes cannot be written.
+     */
+    public List<EntryChange> recordMangaList(
+            @NonNull final String username,
+            final MangaList before,
+            @NonNull final MangaList after) {
+
+        return append(EntryChanges.diffMangaLists(username, before, after, System.currentTimeMillis()));
+    }
+
+    /**
+     * Reads changes in the order they were appended.
+     *
+     * @param offset The offset of the first change to read. Changes deleted by retention are skipped.
+     * @param max    The maximum number of changes to read.
+     * @return The changes from the offset on, empty if there are none.
+     * @throws IllegalArgumentException If the offset is negative or the maximum is not positive.
+     * @throws IllegalStateException    If the log is closed.
+     * @throws UncheckedIOException     If the changes cannot be read.
+     */
+    public synchronized List<EntryChange> read(final long offset, final int max) {
+        ensureOpen();
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative but was " + offset);
+        }
+        if (max <= 0) {
+            throw new IllegalArgumentException("Maximum must be positive but was " + max);
+        }
+        List<EntryChange> changes = new ArrayList<>(Math.min(max, 1024));
+        long from = Math.max(offset, getStartOffset());
+        if (from >= nextOffset) {
+            return changes;
+        }
+        try {
+            for (Segment segment : segments.tailMap(segments.floorKey(from), true).values()) {
+                segment.read(from, max, changes);
+                if (changes.size() >= max) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the change log " + directory + " failed.", e);
+        }
+        return changes;
+    }
+
+    /**
+     * Returns a consumer of this log, starting at its committed position or at the oldest change if it never
+     * committed one. Only one consumer should be used per name at a time.
+     *
+     * @param name {@code [required]} The name the position is stored under, made of letters, digits, '.', '_' and '-'.
+     * @return The consumer.
+     * @throws NullPointerException     If the name is null.
+     * @throws IllegalArgumentException If the name contains other characters.
+     * @throws IllegalStateException    If the log is closed.
+     * @throws UncheckedIOException     If the committed position cannot be read.
+     */
+    public ChangeLogConsumer consumer(@NonNull final String name) {
+        ensureOpen();
+        if (!CONSUMER_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid consumer name " + name);
+        }
+        try {
+            return new ChangeLogConsumer(this, name, directory.resolve("consumers"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the position of consumer " + name + " failed.", e);
+        }
+    }
+
+    /**
+     * Deletes the oldest segments while they are older than the retention time or the log is larger than the
+     * retention size. The segment changes are appended to is never deleted. Runs whenever a new segment is started,
+     * call it to apply the retention time to a log that is not appended to.
+     *
+     * @throws IllegalStateException If the log is closed.
+     * @throws UncheckedIOException  If a segment cannot be deleted.
+     */
+    public synchronized void applyRetention() {
+        ensureOpen();
+        long expiry = System.currentTimeMillis() - retentionMillis;
+        long size = getSize();
+        try {
+            while (segments.size() > 1) {
+                Segment oldest = segments.firstEntry().getValue();
+                if (oldest.lastTimestamp >= expiry && size <= retentionBytes) {
+                    break;
+                }
+                segments.pollFirstEntry();
+                size -= oldest.size;
+                oldest.delete();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Deleting a segment of the change log " + directory + " failed.", e);
+        }
+    }
+
+    /**
+     * @return The offset of the oldest change kept.
+     */
+    public synchronized long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * @return The offset the next appended change gets.
+     */
+    public synchronized long getEndOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return The number of segment files.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return The number of bytes of all segment files.
+     */
+    public synchronized long getSize() {
+        long size = 0;
+        for (Segment segment : segments.values()) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Forces all changes to the storage device and closes the files. Consumers of the log cannot be used afterwards.
+     *
+     * @throws UncheckedIOException If the files cannot be closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            try {
+                active.channel.force(false);
+            } finally {
+                release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Closing the change log " + directory + " failed.", e);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The change log " + directory + " is used by another process.");
+        }
+
+        try {
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : stream) {
+                    if (!SEGMENT_NAME.matcher(file.getFileName().toString()).matches()) {
+                        throw new IOException("The file " + file + " is not a segment of a change log.");
+                    }
+                    files.add(file);
+                }
+            }
+            files.sort(null);
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = new Segment(file, baseOffset);
+                segments.put(baseOffset, segment);
+                segment.recover();
+                nextOffset = segment.nextOffset;
+            }
+            if (segments.isEmpty()) {
+                roll(0);
+            } else {
+                active = segments.lastEntry().getValue();
+            }
+            applyRetention();
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private void roll(long baseOffset) throws IOException {
+        if (active != null && sync) {
+            active.channel.force(false);
+        }
+        Path file = directory.resolve(String.format("%020d", baseOffset) + SEGMENT_SUFFIX);
+        Segment segment = new Segment(file, baseOffset);
+        segments.put(baseOffset, segment);
+        segment.recover();
+        active = segment;
+    }
+
+    private byte[] encode(EntryChange change) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(change.getOffset());
+            out.writeLong(change.getTimestamp());
+            out.writeByte(change.getType().getCode());
+            out.writeUTF(change.getUsername());
+            out.writeUTF(change.getSeriesId());
+            writeFields(out, change.getBefore());
+            writeFields(out, change.getAfter());
+        } catch (UTFDataFormatException e) {
+            throw new IllegalArgumentException("The change of series " + change.getSeriesId() + " is too large.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFields(DataOutputStream out, Map<String, String> fields) throws IOException {
+        if (fields.size() > 0xFFFF) {
+            throw new UTFDataFormatException("Too many fields.");
+        }
+        out.writeShort(fields.size());
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            out.writeUTF(field.getKey());
+            out.writeUTF(field.getValue());
+        }
+    }
+
+    private EntryChange decode(ByteBuffer body) throws IOException {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long offset = in.readLong();
+        long timestamp = in.readLong();
+        byte code = in.readByte();
+        EntryChangeType type = EntryChangeType.fromCode(code);
+        if (type == null) {
+            throw new IOException("Unknown change type " + code + " in change log " + directory + ".");
+        }
+        String username = in.readUTF();
+        String seriesId = in.readUTF();
+        Map<String, String> before = readFields(in);
+        Map<String, String> after = readFields(in);
+        return new EntryChange(offset, timestamp, type, username, seriesId, before, after);
+    }
+
+    private static Map<String, String> readFields(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Map<String, String> fields = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            fields.put(in.readUTF(), in.readUTF());
+        }
+        return fields;
+    }
+
+    private int checksum(ByteBuffer body) {
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private void release() throws IOException {
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            if (lock != null && lock.isValid()) {
+                lock.release();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The change log " + directory + " is closed.");
+        }
+    }
+
+    /**
+     * Called with every record of a segment, returns whether to continue.
+     */
+    private interface RecordVisitor {
+        boolean visit(long position, ByteBuffer body) throws IOException;
+    }
+
+    private class Segment {
+        private final Path file;
+        private final long baseOffset;
+        private final FileChannel channel;
+        // offset of a change to the position of its record
+        private final NavigableMap<Long, Long> index = new TreeMap<>();
+        private long size;
+        private long nextOffset;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long unindexedBytes;
+
+        Segment(Path file, long baseOffset) throws IOException {
+            this.file = file;
+            this.baseOffset = baseOffset;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.nextOffset = baseOffset;
+        }
+
+        void recover() throws IOException {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                // Created by a crash before the header was written
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putLong(baseOffset).flip();
+                channel.truncate(0);
+                writeFully(header, 0);
+                channel.force(false);
+                size = HEADER_SIZE;
+                return;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != baseOffset) {
+                throw new IOException("The file " + file + " is not a segment of a change log.");
+            }
+
+            size = fileSize;
+            long end = scan(HEADER_SIZE, (position, body) -> {
+                long offset = body.getLong(0);
+                if (offset != nextOffset) {
+                    return false;
+                }
+                indexRecord(offset, body.getLong(8), position, RECORD_HEADER_SIZE + body.remaining());
+                return true;
+            });
+            if (end < fileSize) {
+                // Torn by a crash while appending
+                channel.truncate(end);
+                size = end;
+            }
+        }
+
+        void append(EntryChange change, byte[] body) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + body.length);
+            record.putInt(body.length).putInt(checksum(ByteBuffer.wrap(body))).put(body).flip();
+            writeFully(record, size);
+            indexRecord(change.getOffset(), change.getTimestamp(), size, record.capacity());
+            size += record.capacity();
+        }
+
+        void read(long from, int max, List<EntryChange> changes) throws IOException {
+            Map.Entry<Long, Long> start = index.floorEntry(from);
+            long end = scan(start != null ? start.getValue() : HEADER_SIZE, (position, body) -> {
+                if (body.getLong(0) >= from) {
+                    changes.add(decode(body));
+                }
+                return changes.size() < max;
+            });
+            if (end < size && changes.size() < max) {
+                throw new IOException("The segment " + file + " is corrupt.");
+            }
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+
+        private void indexRecord(long offset, long timestamp, long position, int recordSize) {
+            if (index.isEmpty() || unindexedBytes >= indexIntervalBytes) {
+                index.put(offset, position);
+                unindexedBytes = 0;
+            }
+            unindexedBytes += recordSize;
+            nextOffset = offset + 1;
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+
+        /**
+         * Visits the valid records from a position on, reading ahead in large blocks.
+         *
+         * @return The position after the last record visited, before the first invalid one if there is one.
+         */
+        private long scan(long from, RecordVisitor visitor) throws IOException {
+            ByteBuffer block = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            long position = from;
+            while (position + RECORD_HEADER_SIZE <= size) {
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), size - position));
+                readFully(block, position);
+                block.flip();
+                while (block.remaining() >= RECORD_HEADER_SIZE) {
+                    int length = block.getInt(block.position());
+                    if (length <= 0 || length > size - position - RECORD_HEADER_SIZE) {
+                        return position;
+                    }
+                    if (block.remaining() < RECORD_HEADER_SIZE + length) {
+                        if (RECORD_HEADER_SIZE + length > block.capacity()) {
+                            block = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+                        }
+                        break;
+                    }
+                    ByteBuffer body = block.duplicate();
+                    body.position(block.position() + RECORD_HEADER_SIZE);
+                    body.limit(body.position() + length);
+                    body = body.slice();
+                    if (checksum(body.duplicate()) != block.getInt(block.position() + 4)) {
+                        return position;
+                    }
+                    if (!visitor.visit(position, body)) {
+                        return position;
+                    }
+                    block.position(block.position() + RECORD_HEADER_SIZE + length);
+                    position += RECORD_HEADER_SIZE + length;
+                }
+            }
+            return position;
+        }
+
+        private void readFully(ByteBuffer target, long position) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + file + ".");
+                }
+            }
+        }
+
+        private void writeFully(ByteBuffer source, long position) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source, position + source.position());
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Reads the changes of a {@link ChangeLog} in order, remembering its position under a name.
+ * <p>
+ * {@link #poll(int)} moves the position past the changes it returns, {@link #commit()} stores the position, so a
+ * consumer created with the same name later continues from there. Changes polled but not committed are read again
+ * after a restart, so handling them should be idempotent. A consumer is not thread-safe.
+ */
+public class ChangeLogConsumer {
+
+    private final ChangeLog log;
+    private final String name;
+    private final Path file;
+
+    private long position;
+    private long committed;
+
+    ChangeLogConsumer(ChangeLog log, String name, Path directory) throws IOException {
+        this.log = log;
+        this.name = name;
+        this.file = directory.resolve(name + ".offset");
+        if (Files.exists(file)) {
+            String stored = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            try {
+                committed = Long.parseLong(stored);
+            } catch (NumberFormatException e) {
+                throw new IOException("The position " + stored + " of consumer " + name + " is invalid.", e);
+            }
+        } else {
+            committed = log.getStartOffset();
+        }
+        position = committed;
+    }
+
+    /**
+     * Reads the next changes and moves the position past them. Changes deleted by retention before they were read
+     * are skipped.
+     *
+     * @param max The maximum number of changes to read.
+     * @return The changes, empty if there are no new ones.
+     * @throws IllegalArgumentException If the maximum is not positive.
+     * @throws IllegalStateException    If the log is closed.
+     * @throws UncheckedIOException     If the changes cannot be read.
+     */
+    public List<EntryChange> poll(final int max) {
+        List<EntryChange> changes = log.read(position, max);
+        if (!changes.isEmpty()) {
+            position = changes.get(changes.size() - 1).getOffset() + 1;
+        }
+        return changes;
+    }
+
+    /**
+     * Stores the position, replacing the stored one atomically.
+     *
+     * @throws UncheckedIOException If the position cannot be stored.
+     */
+    public void commit() {
+        if (position == committed && Files.exists(file)) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporary, Long.toString(position).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Storing the position of consumer " + name + " failed.", e);
+        }
+        committed = position;
+    }
+
+    /**
+     * Moves the position, for example to replay changes. Nothing is stored until {@link #commit()}.
+     *
+     * @param offset The offset of the next change to read.
+     * @throws IllegalArgumentException If the offset is negative.
+     */
+    public void seek(final long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative but was " + offset);
+        }
+        position = offset;
+    }
+
+    /**
+     * @return The name the position is stored under.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The offset of the next change to read.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return The stored position.
+     */
+    public long getCommittedPosition() {
+        return committed;
+    }
+
+    /**
+     * @return The number of changes kept that were not read yet.
+     */
+    public long getLag() {
+        return Math.max(0, log.getEndOffset() - Math.max(position, log.getStartOffset()));
+    }
+}
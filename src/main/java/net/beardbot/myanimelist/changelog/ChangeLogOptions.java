@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import lombok.Data;
+
+/**
+ * Controls the durability, segment size and retention of a change log.
+ */
+@Data
+public class ChangeLogOptions {
+    /**
+     * Whether appended changes are forced to the storage device before they are accepted. Without it, changes survive
+     * a crash of the process but may be lost if the operating system crashes.
+     */
+    private boolean sync = true;
+    /**
+     * The size in bytes from which a new segment file is started. A single change larger than this gets a segment
+     * of its own.
+     */
+    private long segmentBytes = 64L * 1024 * 1024;
+    /**
+     * How long changes are kept, in milliseconds. Segments are deleted as a whole once their newest change is older.
+     */
+    private long retentionMillis = 7L * 24 * 60 * 60 * 1000;
+    /**
+     * The size in bytes the log may take. The oldest segments are deleted as long as it is larger.
+     */
+    private long retentionBytes = Long.MAX_VALUE;
+    /**
+     * The number of bytes of changes between two positions kept in the index of a segment. Smaller values take more
+     * memory but read less to find an offset.
+     */
+    private int indexIntervalBytes = 4096;
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A change of a single list entry, see {@link EntryChanges}.
+ * <p>
+ * Fields are named like the values sent to MAL, for example {@code episode} or {@code date_start}, and hold their
+ * values as text. Additions only have values after the change, removals only values before it and updates the fields
+ * that changed.
+ */
+@Value
+public class EntryChange {
+    /**
+     * The position of the change in the {@link ChangeLog}, or {@code -1} if it was not appended yet.
+     */
+    private final long offset;
+    /**
+     * When the change was found, in milliseconds since the epoch.
+     */
+    private final long timestamp;
+    private final EntryChangeType type;
+    /**
+     * The user whose list changed.
+     */
+    private final String username;
+    /**
+     * The ID of the anime or manga of the entry.
+     */
+    private final String seriesId;
+    /**
+     * The values of the fields before the change.
+     */
+    private final Map<String, String> before;
+    /**
+     * The values of the fields after the change.
+     */
+    private final Map<String, String> after;
+
+    /**
+     * @param offset    The position in the log, {@code -1} if the change was not appended yet.
+     * @param timestamp When the change was found, in milliseconds since the epoch.
+     * @param type      {@code [required]} What changed.
+     * @param username  {@code [required]} The user whose list changed.
+     * @param seriesId  {@code [required]} The ID of the anime or manga.
+     * @param before    {@code [required]} The values of the fields before the change.
+     * @param after     {@code [required]} The values of the fields after the change.
+     * @throws NullPointerException If any of the required parameters are null.
+     */
+    public EntryChange(
+            final long offset,
+            final long timestamp,
+            @NonNull final EntryChangeType type,
+            @NonNull final String username,
+            @NonNull final String seriesId,
+            @NonNull final Map<String, String> before,
+            @NonNull final Map<String, String> after) {
+
+        this.offset = offset;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.username = username;
+        this.seriesId = seriesId;
+        this.before = Collections.unmodifiableMap(new LinkedHashMap<>(before));
+        this.after = Collections.unmodifiableMap(new LinkedHashMap<>(after));
+    }
+
+    EntryChange withOffset(long offset) {
+        return new EntryChange(offset, timestamp, type, username, seriesId, before, after);
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+/**
+ * The kinds of entry changes recorded by a {@link ChangeLog}.
+ */
+public enum EntryChangeType {
+    ANIME_ADDED(1),
+    ANIME_UPDATED(2),
+    ANIME_REMOVED(3),
+    MANGA_ADDED(4),
+    MANGA_UPDATED(5),
+    MANGA_REMOVED(6);
+
+    private final byte code;
+
+    EntryChangeType(int code) {
+        this.code = (byte) code;
+    }
+
+    byte getCode() {
+        return code;
+    }
+
+    static EntryChangeType fromCode(byte code) {
+        for (EntryChangeType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
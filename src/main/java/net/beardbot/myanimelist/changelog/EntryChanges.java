@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaList;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Computes the entry changes between two fetches of the same list.
+ * <p>
+ * Entries are compared by the fields the list shows (see {@link AnimeListEntryValues#fromEntry(AnimeListEntry)}).
+ * Statuses are written by name, dates as {@code yyyy-MM-dd} and tags separated by commas. Fields without a value are
+ * left out. Entries without a series ID are ignored.
+ */
+public final class EntryChanges {
+
+    private EntryChanges() {
+    }
+
+    /**
+     * Computes the changes of an anime list.
+     *
+     * @param username  {@code [required]} The user whose list it is.
+     * @param before    {@code [optional]} The list fetched before, {@code null} if every entry is new.
+     * @param after     {@code [required]} The list fetched now.
+     * @param timestamp When the list was fetched, in milliseconds since the epoch.
+     * @return The changes, not appended yet. Additions and updates in the order of the current list, then removals.
+     * @throws NullPointerException If any of the required parameters are null.
+     */
+    public static List<EntryChange> diffAnimeLists(
+            @NonNull final String username,
+            final AnimeList before,
+            @NonNull final AnimeList after,
+            final long timestamp) {
+
+        DateFormat dates = new SimpleDateFormat("yyyy-MM-dd");
+        Function<AnimeListEntry, Map<String, String>> fields = entry -> fields(AnimeListEntryValues.fromEntry(entry), dates);
+        List<AnimeListEntry> previousEntries = before != null ? before.getEntries() : null;
+        Map<String, Map<String, String>> previous = fieldsBySeries(previousEntries, AnimeListEntry::getSeriesId, fields);
+        Map<String, Map<String, String>> current = fieldsBySeries(after.getEntries(), AnimeListEntry::getSeriesId, fields);
+        return diff(username, previous, current, timestamp,
+                EntryChangeType.ANIME_ADDED, EntryChangeType.ANIME_UPDATED, EntryChangeType.ANIME_REMOVED);
+    }
+
+    /**
+     * Computes the changes of a manga list.
+     *
+     * @param username  {@code [required]} The user whose list it is.
+     * @param before    {@code [optional]} The list fetched before, {@code null} if every entry is new.
+     * @param after     {@code [required]} The list fetched now.
+     * @param timestamp When the list was fetched, in milliseconds since the epoch.
+     * @return The changes, not appended yet. Additions and updates in the order of the current list, then removals.
+     * @throws NullPointerException If any of the required parameters are null.
+     */
+    public static List<EntryChange> diffMangaLists(
+            @NonNull final String username,
+            final MangaList before,
+            @NonNull final MangaList after,
+            final long timestamp) {
+
+        DateFormat dates = new SimpleDateFormat("yyyy-MM-dd");
+        Function<MangaListEntry, Map<String, String>> fields = entry -> fields(MangaListEntryValues.fromEntry(entry), dates);
+        List<MangaListEntry> previousEntries = before != null ? before.getEntries() : null;
+        Map<String, Map<String, String>> previous = fieldsBySeries(previousEntries, MangaListEntry::getSeriesId, fields);
+        Map<String, Map<String, String>> current = fieldsBySeries(after.getEntries(), MangaListEntry::getSeriesId, fields);
+        return diff(username, previous, current, timestamp,
+                EntryChangeType.MANGA_ADDED, EntryChangeType.MANGA_UPDATED, EntryChangeType.MANGA_REMOVED);
+    }
+
+    private static <E> Map<String, Map<String, String>> fieldsBySeries(List<E> entries, Function<E, String> seriesId,
+                                                                   Function<E, Map<String, String>> fields) {
+        Map<String, Map<String, String>> bySeries = new LinkedHashMap<>();
+        if (entries == null) {
+            return bySeries;
+        }
+        for (E entry : entries) {
+            // Entries without a series ID cannot be matched between fetches or recorded, as in ListWatcher
+            String id = seriesId.apply(entry);
+            if (id != null) {
+                bySeries.put(id, fields.apply(entry));
+            }
+        }
+        return bySeries;
+    }
+
+    private static List<EntryChange> diff(String username, Map<String, Map<String, String>> previous,
+                                          Map<String, Map<String, String>> current, long timestamp,
+                                          EntryChangeType added, EntryChangeType updated, EntryChangeType removed) {
+        Map<String, String> none = Collections.emptyMap();
+        List<EntryChange> changes = new ArrayList<>();
+        current.forEach((id, after) -> {
+            Map<String, String> before = previous.get(id);
+            if (before == null) {
+                changes.add(new EntryChange(-1, timestamp, added, username, id, none, after));
+                return;
+            }
+            Map<String, String> changedBefore = new LinkedHashMap<>();
+            Map<String, String> changedAfter = new LinkedHashMap<>();
+            Set<String> fields = new LinkedHashSet<>(before.keySet());
+            fields.addAll(after.keySet());
+            for (String field : fields) {
+                String oldValue = before.get(field);
+                String newValue = after.get(field);
+                if (Objects.equals(oldValue, newValue)) {
+                    continue;
+                }
+                if (oldValue != null) {
+                    changedBefore.put(field, oldValue);
+                }
+                if (newValue != null) {
+                    changedAfter.put(field, newValue);
+                }
+            }
+            if (!changedBefore.isEmpty() || !changedAfter.isEmpty()) {
+                changes.add(new EntryChange(-1, timestamp, updated, username, id, changedBefore, changedAfter));
+            }
+        });
+        previous.forEach((id, before) -> {
+            if (!current.containsKey(id)) {
+                changes.add(new EntryChange(-1, timestamp, removed, username, id, before, none));
+            }
+        });
+        return changes;
+    }
+
+    private static Map<String, String> fields(AnimeListEntryValues values, DateFormat dates) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        put(fields, "episode", values.getEpisode(), dates);
+        put(fields, "score", values.getScore(), dates);
+        put(fields, "status", values.getStatus(), dates);
+        put(fields, "tags", values.getTags(), dates);
+        put(fields, "date_start", values.getDateStart(), dates);
+        put(fields, "date_finish", values.getDateFinish(), dates);
+        put(fields, "enable_rewatching", values.getEnableRewatching(), dates);
+        return fields;
+    }
+
+    private static Map<String, String> fields(MangaListEntryValues values, DateFormat dates) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        put(fields, "chapter", values.getChapter(), dates);
+        put(fields, "volume", values.getVolume(), dates);
+        put(fields, "score", values.getScore(), dates);
+        put(fields, "status", values.getStatus(), dates);
+        put(fields, "tags", values.getTags(), dates);
+        put(fields, "date_start", values.getDateStart(), dates);
+        put(fields, "date_finish", values.getDateFinish(), dates);
+        put(fields, "enable_rereading", values.getEnableRereading(), dates);
+        return fields;
+    }
+
+    private static void put(Map<String, String> fields, String field, Object value, DateFormat dates) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Date) {
+            fields.put(field, dates.format((Date) value));
+        } else if (value instanceof List) {
+            fields.put(field, String.join(",", ((List<?>) value).stream().map(String::valueOf).toArray(String[]::new)));
+        } else if (value instanceof Enum) {
+            fields.put(field, ((Enum<?>) value).name());
+        } else {
+            fields.put(field, value.toString());
+        }
+    }
+}
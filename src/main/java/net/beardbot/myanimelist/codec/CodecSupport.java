@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Conversions and stream navigation used by the generated {@link XmlCodec}s.
+ * <p>
+ * Values that cannot be converted are read as {@code null}, which is what JAXB does with its default event handler.
+ */
+public final class CodecSupport {
+
+    private CodecSupport() {
+    }
+
+    /**
+     * Moves the reader to the next child element of the current element.
+     *
+     * @return {@code true} if the reader is positioned on the {@code START_ELEMENT} of a child,
+     *         {@code false} if it reached the {@code END_ELEMENT} of the current element.
+     */
+    public static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT || event == XMLStreamConstants.END_DOCUMENT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Skips the element the reader is positioned on, including all of its children.
+     * The reader is left on the matching {@code END_ELEMENT}.
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the text of a text-only element. The reader is left on the matching {@code END_ELEMENT}.
+     * <p>
+     * Behaves like {@link XMLStreamReader#getElementText()}, but returns the text of elements with a single text
+     * event as is. The JDK's reader copies it into a new {@link StringBuffer} for every element.
+     */
+    public static String readText(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("Expected START_ELEMENT to read the element text", reader.getLocation());
+        }
+
+        String text = null;
+        StringBuilder sb = null;
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.END_ELEMENT:
+                    if (sb != null) {
+                        return sb.toString();
+                    }
+                    return text == null ? "" : text;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (text == null) {
+                        text = reader.getText();
+                    } else {
+                        if (sb == null) {
+                            sb = new StringBuilder(text);
+                        }
+                        sb.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                case XMLStreamConstants.COMMENT:
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    throw new XMLStreamException("Element text content may not contain START_ELEMENT", reader.getLocation());
+                default:
+                    throw new XMLStreamException("Unexpected event " + event + " while reading the element text", reader.getLocation());
+            }
+        }
+    }
+
+    public static Integer parseInteger(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.charAt(0) == '+' ? value.substring(1) : value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Long parseLong(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.charAt(0) == '+' ? value.substring(1) : value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Float parseFloat(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return DatatypeConverter.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Double parseDouble(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return DatatypeConverter.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Boolean parseBoolean(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        if ("true".equals(value) || "1".equals(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equals(value) || "0".equals(value)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    public static Date parseDateTime(String text) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return DatatypeConverter.parseDateTime(value).getTime();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static String printDateTime(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return DatatypeConverter.printDateTime(calendar);
+    }
+
+    public static String printFloat(Float value) {
+        return DatatypeConverter.printFloat(value);
+    }
+
+    public static String printDouble(Double value) {
+        return DatatypeConverter.printDouble(value);
+    }
+
+    public static <V, B> B unmarshal(XmlAdapter<V, B> adapter, V value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return adapter.unmarshal(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static <V, B> V marshal(XmlAdapter<V, B> adapter, B value) {
+        try {
+            return adapter.marshal(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a text-only element, or nothing if the text is {@code null}.
+     */
+    public static void writeElement(XMLStreamWriter writer, String name, String text) throws XMLStreamException {
+        if (text == null) {
+            return;
+        }
+        writer.writeStartElement(name);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private static String trimToNull(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+        return value.isEmpty() ? null : value;
+    }
+}
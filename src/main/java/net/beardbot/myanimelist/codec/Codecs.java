@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec;
+
+import lombok.NonNull;
+
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static net.beardbot.myanimelist.utils.XmlUtils.createXmlStreamReader;
+
+/**
+ * Looks up the generated {@link XmlCodec}s and reads and writes whole documents with them.
+ */
+public final class Codecs {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private Codecs() {
+    }
+
+    /**
+     * @param type {@code [required]} A model class.
+     * @return The generated codec of the class or {@code null} if the class has none.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> XmlCodec<T> forType(@NonNull final Class<T> type) {
+        return (XmlCodec<T>) GeneratedCodecs.CODECS.get(type);
+    }
+
+    /**
+     * @return The generated codecs of all model classes.
+     */
+    public static Collection<XmlCodec<?>> getCodecs() {
+        return GeneratedCodecs.CODECS.values();
+    }
+
+    /**
+     * Reads a document whose root element is bound to the codec's class.
+     *
+     * @return The read object.
+     * @throws XMLStreamException If the document is empty, malformed or its root element is not the codec's element.
+     */
+    public static <T> T readDocument(
+            @NonNull final XmlCodec<T> codec,
+            @NonNull final InputStream in,
+            final Unmarshaller.Listener listener) throws XMLStreamException {
+
+        XMLStreamReader reader = createXmlStreamReader(in);
+        try {
+            nextRootElement(reader);
+            if (!codec.getElementName().equals(reader.getLocalName())) {
+                throw new XMLStreamException("Unexpected element " + reader.getLocalName() + ", expected " + codec.getElementName(), reader.getLocation());
+            }
+            return codec.read(reader, listener, null);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads all children of the root element which are bound to the codec's class, ignoring the root element's name.
+     *
+     * @return The read objects. Can be empty but not {@code null}.
+     * @throws XMLStreamException If the document is empty or malformed.
+     */
+    public static <T> List<T> readList(
+            @NonNull final XmlCodec<T> codec,
+            @NonNull final InputStream in,
+            final Unmarshaller.Listener listener) throws XMLStreamException {
+
+        List<T> values = new ArrayList<>();
+        XMLStreamReader reader = createXmlStreamReader(in);
+        try {
+            nextRootElement(reader);
+            while (CodecSupport.nextChild(reader)) {
+                if (codec.getElementName().equals(reader.getLocalName())) {
+                    values.add(codec.read(reader, listener, null));
+                } else {
+                    CodecSupport.skipElement(reader);
+                }
+            }
+            return values;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes an object as standalone document, the same way a JAXB marshaller does.
+     */
+    public static <T> String toXml(
+            @NonNull final XmlCodec<T> codec,
+            @NonNull final T value) {
+
+        StringWriter sw = new StringWriter();
+        sw.write(XML_DECLARATION);
+
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(sw);
+            codec.write(writer, value);
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+
+        return sw.toString();
+    }
+
+    private static void nextRootElement(XMLStreamReader reader) throws XMLStreamException {
+        // The reader throws once it runs past the end of a document without root element.
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+        }
+    }
+}
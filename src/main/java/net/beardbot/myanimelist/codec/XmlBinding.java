@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec;
+
+/**
+ * The XML binding implementation used to read and write the model classes.
+ */
+public enum XmlBinding {
+    /**
+     * The {@link XmlCodec}s generated at compile time. They work without reflection.
+     */
+    GENERATED,
+    /**
+     * JAXB, driven by reflection over the model's annotations at runtime.
+     */
+    JAXB
+}
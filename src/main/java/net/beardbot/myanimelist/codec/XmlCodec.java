@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec;
+
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Reads and writes one model class directly from and to StAX streams.
+ *
+ * @param <T> The model class.
+ */
+public interface XmlCodec<T> {
+
+    Class<T> getType();
+
+    /**
+     * @return The name of the root element the model class is bound to.
+     */
+    String getElementName();
+
+    /**
+     * Reads an object from the element the reader is positioned on.
+     *
+     * @param reader   {@code [required]} A reader positioned on a {@code START_ELEMENT}. When the method returns it is positioned on the matching {@code END_ELEMENT}.
+     * @param listener {@code [optional]} Notified before and after each object is read, like by a JAXB unmarshaller.
+     * @param parent   {@code [optional]} The object containing the element, passed on to the listener.
+     * @return The read object.
+     */
+    T read(XMLStreamReader reader, Unmarshaller.Listener listener, Object parent) throws XMLStreamException;
+
+    /**
+     * Writes an object as element with the given name.
+     */
+    void write(XMLStreamWriter writer, T value, String elementName) throws XMLStreamException;
+
+    /**
+     * Writes an object as its root element.
+     */
+    default void write(XMLStreamWriter writer, T value) throws XMLStreamException {
+        write(writer, value, getElementName());
+    }
+}
@@ -0,0 +1,526 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates an {@code XmlCodec} for every class annotated with {@code @GenerateCodec}, plus the
+ * {@code GeneratedCodecs} registry listing all of them.
+ * <p>
+ * The codecs read with a {@code switch} over the element names and convert values without reflection:
+ * enums are mapped by their {@code @XmlEnumValue}s and {@code @XmlJavaTypeAdapter}s are instantiated once and called directly.
+ * <p>
+ * The processor only depends on the JDK, it is compiled before the rest of the module and registered
+ * with the compiler plugin explicitly.
+ */
+@SupportedAnnotationTypes(CodecProcessor.GENERATE_CODEC)
+public class CodecProcessor extends AbstractProcessor {
+
+    static final String GENERATE_CODEC = "net.beardbot.myanimelist.codec.GenerateCodec";
+
+    private static final String CODEC_PACKAGE = "net.beardbot.myanimelist.codec";
+    private static final String XML_ROOT_ELEMENT = "javax.xml.bind.annotation.XmlRootElement";
+    private static final String XML_ELEMENT = "javax.xml.bind.annotation.XmlElement";
+    private static final String XML_TRANSIENT = "javax.xml.bind.annotation.XmlTransient";
+    private static final String XML_ENUM_VALUE = "javax.xml.bind.annotation.XmlEnumValue";
+    private static final String XML_JAVA_TYPE_ADAPTER = "javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter";
+    private static final String XML_ADAPTER = "javax.xml.bind.annotation.adapters.XmlAdapter";
+    private static final String DEFAULT_NAME = "##default";
+
+    private boolean registryWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_CODEC);
+        if (annotation == null) {
+            return false;
+        }
+
+        List<TypeElement> types = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateCodec can only be used on classes");
+                continue;
+            }
+            types.add((TypeElement) element);
+        }
+
+        if (types.isEmpty()) {
+            return false;
+        }
+
+        try {
+            for (TypeElement type : types) {
+                writeCodec(type);
+            }
+            if (!registryWritten) {
+                writeRegistry(types);
+                registryWritten = true;
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write codec: " + e.getMessage());
+        } catch (CodecException e) {
+            error(e.element, e.getMessage());
+        }
+
+        return true;
+    }
+
+    /* Model analysis */
+
+    private enum Kind {
+        STRING, INTEGER, LONG, FLOAT, DOUBLE, BOOLEAN, DATE, ENUM, CODEC
+    }
+
+    private static final class Property {
+        private String fieldName;
+        private String xmlName;
+        private TypeMirror type;
+        private boolean list;
+        private TypeMirror valueType;
+        private Kind valueKind;
+        private DeclaredType adapter;
+    }
+
+    private List<Property> properties(TypeElement type) {
+        List<Property> properties = new ArrayList<>();
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            Set<Modifier> modifiers = member.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT) || annotation(member, XML_TRANSIENT) != null) {
+                continue;
+            }
+
+            Property property = new Property();
+            property.fieldName = member.getSimpleName().toString();
+            property.type = member.asType();
+
+            String xmlName = stringValue(annotation(member, XML_ELEMENT), "name");
+            property.xmlName = xmlName == null || DEFAULT_NAME.equals(xmlName) ? property.fieldName : xmlName;
+
+            AnnotationMirror adapter = annotation(member, XML_JAVA_TYPE_ADAPTER);
+            if (adapter != null) {
+                property.adapter = (DeclaredType) annotationValue(adapter, "value");
+                property.valueType = adapterValueType(member, property.adapter);
+            } else if (isList(property.type)) {
+                property.list = true;
+                property.valueType = ((DeclaredType) property.type).getTypeArguments().get(0);
+            } else {
+                property.valueType = property.type;
+            }
+            property.valueKind = kind(member, property.valueType);
+
+            properties.add(property);
+        }
+
+        return properties;
+    }
+
+    private Kind kind(Element member, TypeMirror type) {
+        switch (type.getKind()) {
+            case INT: return Kind.INTEGER;
+            case LONG: return Kind.LONG;
+            case FLOAT: return Kind.FLOAT;
+            case DOUBLE: return Kind.DOUBLE;
+            case BOOLEAN: return Kind.BOOLEAN;
+            case DECLARED: break;
+            default: throw new CodecException(member, "Unsupported type " + type);
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.String": return Kind.STRING;
+            case "java.lang.Integer": return Kind.INTEGER;
+            case "java.lang.Long": return Kind.LONG;
+            case "java.lang.Float": return Kind.FLOAT;
+            case "java.lang.Double": return Kind.DOUBLE;
+            case "java.lang.Boolean": return Kind.BOOLEAN;
+            case "java.util.Date": return Kind.DATE;
+            default: break;
+        }
+
+        if (element.getKind() == ElementKind.ENUM) {
+            return Kind.ENUM;
+        }
+        if (annotation(element, GENERATE_CODEC) != null) {
+            return Kind.CODEC;
+        }
+        throw new CodecException(member, "Unsupported type " + type + ", annotate it with @GenerateCodec");
+    }
+
+    private TypeMirror adapterValueType(Element member, DeclaredType adapter) {
+        TypeMirror current = adapter;
+        while (current.getKind() == TypeKind.DECLARED) {
+            DeclaredType declared = (DeclaredType) current;
+            TypeElement element = (TypeElement) declared.asElement();
+            if (element.getQualifiedName().contentEquals(XML_ADAPTER)) {
+                return declared.getTypeArguments().get(0);
+            }
+            current = element.getSuperclass();
+        }
+        throw new CodecException(member, adapter + " does not extend XmlAdapter");
+    }
+
+    private boolean isList(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.util.List");
+    }
+
+    /* Code generation */
+
+    private void writeCodec(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String codecName = typeName + "Codec";
+        List<Property> properties = properties(type);
+
+        String rootName = stringValue(annotation(type, XML_ROOT_ELEMENT), "name");
+        if (rootName == null || DEFAULT_NAME.equals(rootName)) {
+            rootName = Character.toLowerCase(typeName.charAt(0)) + typeName.substring(1);
+        }
+
+        Map<String, DeclaredType> adapters = new LinkedHashMap<>();
+        Map<String, TypeElement> enums = new LinkedHashMap<>();
+        for (Property property : properties) {
+            if (property.adapter != null) {
+                adapters.put(constantName(property.adapter.asElement().getSimpleName().toString()), property.adapter);
+            }
+            if (property.valueKind == Kind.ENUM) {
+                TypeElement element = (TypeElement) ((DeclaredType) property.valueType).asElement();
+                enums.put(element.getSimpleName().toString(), element);
+            }
+        }
+
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(packageName).append(";\n\n");
+        src.append("import ").append(CODEC_PACKAGE).append(".XmlCodec;\n");
+        src.append("import static ").append(CODEC_PACKAGE).append(".CodecSupport.*;\n\n");
+        src.append("/**\n * Generated by {@code CodecProcessor} from the JAXB annotations of {@link ").append(typeName).append("}. Do not edit.\n */\n");
+        src.append("public final class ").append(codecName).append(" implements XmlCodec<").append(typeName).append("> {\n\n");
+        src.append("    public static final ").append(codecName).append(" INSTANCE = new ").append(codecName).append("();\n\n");
+
+        for (Map.Entry<String, DeclaredType> adapter : adapters.entrySet()) {
+            String adapterType = qualifiedName(adapter.getValue());
+            src.append("    private static final ").append(adapterType).append(' ').append(adapter.getKey())
+               .append(" = new ").append(adapterType).append("();\n");
+        }
+        if (!adapters.isEmpty()) {
+            src.append('\n');
+        }
+
+        src.append("    private ").append(codecName).append("() {\n    }\n\n");
+        src.append("    @Override\n    public Class<").append(typeName).append("> getType() {\n");
+        src.append("        return ").append(typeName).append(".class;\n    }\n\n");
+        src.append("    @Override\n    public String getElementName() {\n");
+        src.append("        return \"").append(rootName).append("\";\n    }\n\n");
+
+        writeRead(src, typeName, properties);
+        writeWrite(src, typeName, properties);
+
+        for (TypeElement element : enums.values()) {
+            writeEnumMapping(src, element);
+        }
+
+        src.append("}\n");
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + codecName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(src.toString());
+        }
+    }
+
+    private void writeRead(StringBuilder src, String typeName, List<Property> properties) {
+        src.append("    @Override\n");
+        src.append("    public ").append(typeName).append(" read(javax.xml.stream.XMLStreamReader reader, javax.xml.bind.Unmarshaller.Listener listener, Object parent)\n");
+        src.append("            throws javax.xml.stream.XMLStreamException {\n\n");
+        src.append("        ").append(typeName).append(" value = new ").append(typeName).append("();\n");
+        src.append("        if (listener != null) {\n            listener.beforeUnmarshal(value, parent);\n        }\n\n");
+        src.append("        while (nextChild(reader)) {\n");
+        src.append("            switch (reader.getLocalName()) {\n");
+
+        for (Property property : properties) {
+            src.append("                case \"").append(property.xmlName).append("\": {\n");
+
+            String read;
+            if (property.valueKind == Kind.CODEC) {
+                read = qualifiedName(property.valueType) + "Codec.INSTANCE.read(reader, listener, value)";
+            } else {
+                read = parse(property, "readText(reader)");
+            }
+            if (property.adapter != null) {
+                read = "unmarshal(" + constantName(property.adapter.asElement().getSimpleName().toString()) + ", " + read + ")";
+            }
+
+            String accessor = capitalize(property.fieldName);
+            if (property.list) {
+                String listType = "java.util.List<" + boxedName(property.valueType) + ">";
+                src.append("                    ").append(listType).append(" list = value.get").append(accessor).append("();\n");
+                src.append("                    if (list == null) {\n");
+                src.append("                        list = new java.util.ArrayList<>();\n");
+                src.append("                        value.set").append(accessor).append("(list);\n");
+                src.append("                    }\n");
+                src.append("                    list.add(").append(read).append(");\n");
+            } else if (property.type.getKind().isPrimitive()) {
+                src.append("                    ").append(boxedName(property.type)).append(" read = ").append(read).append(";\n");
+                src.append("                    if (read != null) {\n");
+                src.append("                        value.set").append(accessor).append("(read);\n");
+                src.append("                    }\n");
+            } else {
+                src.append("                    value.set").append(accessor).append('(').append(read).append(");\n");
+            }
+            src.append("                    break;\n                }\n");
+        }
+
+        src.append("                default:\n");
+        src.append("                    skipElement(reader);\n");
+        src.append("            }\n");
+        src.append("        }\n\n");
+        src.append("        if (listener != null) {\n            listener.afterUnmarshal(value, parent);\n        }\n");
+        src.append("        return value;\n");
+        src.append("    }\n\n");
+    }
+
+    private void writeWrite(StringBuilder src, String typeName, List<Property> properties) {
+        src.append("    @Override\n");
+        src.append("    public void write(javax.xml.stream.XMLStreamWriter writer, ").append(typeName).append(" value, String elementName)\n");
+        src.append("            throws javax.xml.stream.XMLStreamException {\n\n");
+        src.append("        writer.writeStartElement(elementName);\n");
+
+        for (Property property : properties) {
+            String getter = (property.type.getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalize(property.fieldName) + "()";
+            String local = "_" + property.fieldName;
+
+            src.append("\n");
+            src.append("        ").append(property.type.getKind().isPrimitive() ? boxedName(property.type) : typeString(property.type))
+               .append(' ').append(local).append(" = value.").append(getter).append(";\n");
+            src.append("        if (").append(local).append(" != null) {\n");
+
+            if (property.adapter != null) {
+                String adapter = constantName(property.adapter.asElement().getSimpleName().toString());
+                String marshalled = local + "Marshalled";
+                src.append("            ").append(boxedName(property.valueType)).append(' ').append(marshalled)
+                   .append(" = marshal(").append(adapter).append(", ").append(local).append(");\n");
+                src.append("            if (").append(marshalled).append(" != null) {\n");
+                src.append("                ").append(writeValue(property, marshalled)).append(";\n");
+                src.append("            }\n");
+            } else if (property.list) {
+                src.append("            for (").append(boxedName(property.valueType)).append(" item : ").append(local).append(") {\n");
+                src.append("                if (item != null) {\n");
+                src.append("                    ").append(writeValue(property, "item")).append(";\n");
+                src.append("                }\n");
+                src.append("            }\n");
+            } else {
+                src.append("            ").append(writeValue(property, local)).append(";\n");
+            }
+            src.append("        }\n");
+        }
+
+        src.append("\n        writer.writeEndElement();\n");
+        src.append("    }\n\n");
+    }
+
+    private void writeEnumMapping(StringBuilder src, TypeElement element) {
+        String name = element.getSimpleName().toString();
+        String qualified = element.getQualifiedName().toString();
+
+        src.append("    private static ").append(qualified).append(" to").append(name).append("(String text) {\n");
+        src.append("        if (text == null) {\n            return null;\n        }\n");
+        src.append("        switch (text.trim()) {\n");
+        for (Element constant : element.getEnclosedElements()) {
+            if (constant.getKind() == ElementKind.ENUM_CONSTANT) {
+                src.append("            case \"").append(escape(enumValue(constant))).append("\": return ")
+                   .append(qualified).append('.').append(constant.getSimpleName()).append(";\n");
+            }
+        }
+        src.append("            default: return null;\n        }\n    }\n\n");
+
+        src.append("    private static String from").append(name).append('(').append(qualified).append(" value) {\n");
+        src.append("        switch (value) {\n");
+        for (Element constant : element.getEnclosedElements()) {
+            if (constant.getKind() == ElementKind.ENUM_CONSTANT) {
+                src.append("            case ").append(constant.getSimpleName()).append(": return \"")
+                   .append(escape(enumValue(constant))).append("\";\n");
+            }
+        }
+        src.append("            default: return null;\n        }\n    }\n\n");
+    }
+
+    private String parse(Property property, String text) {
+        switch (property.valueKind) {
+            case STRING: return text;
+            case INTEGER: return "parseInteger(" + text + ")";
+            case LONG: return "parseLong(" + text + ")";
+            case FLOAT: return "parseFloat(" + text + ")";
+            case DOUBLE: return "parseDouble(" + text + ")";
+            case BOOLEAN: return "parseBoolean(" + text + ")";
+            case DATE: return "parseDateTime(" + text + ")";
+            case ENUM: return "to" + ((DeclaredType) property.valueType).asElement().getSimpleName() + "(" + text + ")";
+            default: throw new IllegalStateException(property.valueKind.name());
+        }
+    }
+
+    private String writeValue(Property property, String value) {
+        String name = "\"" + property.xmlName + "\"";
+        switch (property.valueKind) {
+            case STRING: return "writeElement(writer, " + name + ", " + value + ")";
+            case INTEGER:
+            case LONG:
+            case BOOLEAN: return "writeElement(writer, " + name + ", String.valueOf(" + value + "))";
+            case FLOAT: return "writeElement(writer, " + name + ", printFloat(" + value + "))";
+            case DOUBLE: return "writeElement(writer, " + name + ", printDouble(" + value + "))";
+            case DATE: return "writeElement(writer, " + name + ", printDateTime(" + value + "))";
+            case ENUM: return "writeElement(writer, " + name + ", from" + ((DeclaredType) property.valueType).asElement().getSimpleName() + "(" + value + "))";
+            case CODEC: return qualifiedName(property.valueType) + "Codec.INSTANCE.write(writer, " + value + ", " + name + ")";
+            default: throw new IllegalStateException(property.valueKind.name());
+        }
+    }
+
+    private void writeRegistry(List<TypeElement> types) throws IOException {
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(CODEC_PACKAGE).append(";\n\n");
+        src.append("/**\n * Generated by {@code CodecProcessor}. Lists the codecs of all classes annotated with {@link GenerateCodec}.\n */\n");
+        src.append("final class GeneratedCodecs {\n\n");
+        src.append("    static final java.util.Map<Class<?>, XmlCodec<?>> CODECS;\n\n");
+        src.append("    static {\n");
+        src.append("        java.util.Map<Class<?>, XmlCodec<?>> codecs = new java.util.HashMap<>();\n");
+        for (TypeElement type : types) {
+            String name = type.getQualifiedName().toString();
+            src.append("        codecs.put(").append(name).append(".class, ").append(name).append("Codec.INSTANCE);\n");
+        }
+        src.append("        CODECS = java.util.Collections.unmodifiableMap(codecs);\n");
+        src.append("    }\n\n");
+        src.append("    private GeneratedCodecs() {\n    }\n");
+        src.append("}\n");
+
+        Element[] origins = types.toArray(new Element[0]);
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(CODEC_PACKAGE + ".GeneratedCodecs", origins);
+        try (Writer writer = file.openWriter()) {
+            writer.write(src.toString());
+        }
+    }
+
+    /* Helpers */
+
+    private String enumValue(Element constant) {
+        String value = stringValue(annotation(constant, XML_ENUM_VALUE), "value");
+        return value != null ? value : constant.getSimpleName().toString();
+    }
+
+    private String qualifiedName(TypeMirror type) {
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+
+    private String typeString(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return type.toString();
+        }
+        DeclaredType declared = (DeclaredType) type;
+        StringBuilder sb = new StringBuilder(qualifiedName(declared));
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        if (!arguments.isEmpty()) {
+            sb.append('<');
+            for (int i = 0; i < arguments.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(typeString(arguments.get(i)));
+            }
+            sb.append('>');
+        }
+        return sb.toString();
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return typeString(type);
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object annotationValue(AnnotationMirror mirror, String name) {
+        if (mirror == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror, String name) {
+        Object value = annotationValue(mirror, name);
+        return value == null ? null : value.toString();
+    }
+
+    private static String constantName(String simpleName) {
+        return simpleName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static final class CodecException extends RuntimeException {
+        private final Element element;
+
+        private CodecException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.hedge;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of search hedging. The counters are cumulative since the creation of the client.
+ */
+@Value
+public class HedgingMetrics {
+    /**
+     * Searches sent while hedging was enabled.
+     */
+    private final long requests;
+    /**
+     * Searches for which a second request was sent.
+     */
+    private final long hedgedRequests;
+    /**
+     * Hedged searches answered by the second request.
+     */
+    private final long hedgeWins;
+    /**
+     * Searches that were slow enough to be hedged, but not hedged because the budget was exhausted.
+     */
+    private final long budgetExhausted;
+    /**
+     * The current delay after which a search is hedged in milliseconds, {@code -1} while too few latencies have been observed.
+     */
+    private final long hedgeDelayMillis;
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.hedge;
+
+import lombok.Value;
+
+/**
+ * Controls when a search is hedged with a second, identical request.
+ */
+@Value
+public class HedgingOptions {
+    /**
+     * The percentile of the observed search latencies after which the second request is sent. Example: {@code 0.95}
+     */
+    private final double percentile;
+    /**
+     * The maximum share of searches that are hedged. Example: {@code 0.1} adds at most 10% requests.
+     */
+    private final double maxHedgeRatio;
+    /**
+     * The number of latencies that need to be observed before searches are hedged.
+     */
+    private final int minSamples;
+
+    /**
+     * @throws IllegalArgumentException If the percentile is not between 0 and 1, the ratio is not greater than 0 and
+     *                                  at most 1 or the number of samples is not positive.
+     */
+    public HedgingOptions(final double percentile, final double maxHedgeRatio, final int minSamples) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1 but was " + percentile);
+        }
+        if (maxHedgeRatio <= 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("Hedge ratio must be greater than 0 and at most 1 but was " + maxHedgeRatio);
+        }
+        if (minSamples <= 0) {
+            throw new IllegalArgumentException("Minimum number of samples must be positive but was " + minSamples);
+        }
+        this.percentile = percentile;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.minSamples = minSamples;
+    }
+}
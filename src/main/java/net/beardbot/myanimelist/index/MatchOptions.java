@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import lombok.Data;
+import net.beardbot.myanimelist.bulk.BulkFetchOptions;
+
+/**
+ * Controls how titles are matched to series.
+ */
+@Data
+public class MatchOptions {
+    /**
+     * The minimum score of a candidate, see {@link TitleCandidate#getScore()}.
+     */
+    private double minScore = 0.4;
+    /**
+     * The score from which the best candidate is taken to be the series meant by a title.
+     * Titles without such a candidate are searched on MAL.
+     */
+    private double resolvedScore = 0.85;
+    /**
+     * The maximum number of candidates per title.
+     */
+    private int maxCandidates = 5;
+    /**
+     * Whether MAL is searched for titles the known series do not resolve. Every distinct normalized title is
+     * searched only once.
+     */
+    private boolean searchUnresolved = true;
+    /**
+     * Concurrency, rate limit and priority of the searches for unresolved titles.
+     */
+    private BulkFetchOptions searchOptions = new BulkFetchOptions();
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+/**
+ * Where {@link net.beardbot.myanimelist.MALClient#searchForAnime(String)} and
+ * {@link net.beardbot.myanimelist.MALClient#searchForManga(String)} look for series.
+ */
+public enum SearchMode {
+    /**
+     * Every search is sent to MAL.
+     */
+    REMOTE,
+    /**
+     * Searches are answered by the {@link TitleIndex} of the client if it knows a matching series,
+     * otherwise they are sent to MAL. The answer only contains the series seen so far.
+     */
+    LOCAL_FIRST
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import lombok.Value;
+
+/**
+ * A series that may be the one meant by a title.
+ *
+ * @param <T> {@link net.beardbot.myanimelist.model.anime.Anime} or {@link net.beardbot.myanimelist.model.manga.Manga}.
+ */
+@Value
+public class TitleCandidate<T> {
+    /**
+     * The series.
+     */
+    private T series;
+    /**
+     * How similar the title is to the most similar title, English title or synonym of the series.
+     * {@code 1} if they are equal after normalization, {@code 0} if they have nothing in common.
+     */
+    private double score;
+}
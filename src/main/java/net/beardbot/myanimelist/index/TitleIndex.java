@@ -0,0 +1,283 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.Anime;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeStatus;
+import net.beardbot.myanimelist.model.anime.AnimeType;
+import net.beardbot.myanimelist.model.manga.Manga;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaStatus;
+import net.beardbot.myanimelist.model.manga.MangaType;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A concurrent in-memory full-text index of the titles, English titles and synonyms of anime and manga series.
+ * <p>
+ * The index is built incrementally from the search results and list entries it is given, e.g. by a
+ * {@link net.beardbot.myanimelist.MALClient} it is set on, and answers searches without asking MAL.
+ * A series found by a MAL search replaces what was indexed for it before. A series known only from list entries
+ * has no English title, score or synopsis and is replaced once it is found by a search.
+ * <p>
+ * Titles are matched after normalization: case, accents and punctuation are ignored, so {@code "fate kaleid"}
+ * finds {@code "Fate/kaleid liner Prisma☆Illya"}. The index is not bounded, it holds at most one series per ID.
+ */
+public class TitleIndex {
+
+    private final TrigramIndex<Anime> anime = new TrigramIndex<>();
+    private final TrigramIndex<Manga> manga = new TrigramIndex<>();
+
+    /**
+     * Adds an anime found by a search.
+     *
+     * @param anime {@code [required]} The anime to add. Anime without ID are ignored.
+     * @throws NullPointerException If the anime is not provided.
+     */
+    public void add(@NonNull final Anime anime) {
+        if (anime.getId() != null) {
+            this.anime.put(anime.getId(), copy(anime),
+                    Titles.normalizeAll(anime.getTitle(), anime.getEnglishTitle(), anime.getSynonyms()), true);
+        }
+    }
+
+    /**
+     * Adds a manga found by a search.
+     *
+     * @param manga {@code [required]} The manga to add. Manga without ID are ignored.
+     * @throws NullPointerException If the manga is not provided.
+     */
+    public void add(@NonNull final Manga manga) {
+        if (manga.getId() != null) {
+            this.manga.put(manga.getId(), copy(manga),
+                    Titles.normalizeAll(manga.getTitle(), manga.getEnglishTitle(), manga.getSynonyms()), true);
+        }
+    }
+
+    /**
+     * Adds the series of an anime list entry, unless it is already known from a search.
+     *
+     * @param entry {@code [required]} The entry whose series to add. Entries without series ID are ignored.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public void add(@NonNull final AnimeListEntry entry) {
+        if (entry.getSeriesId() != null) {
+            this.anime.put(entry.getSeriesId(), toAnime(entry),
+                    Titles.normalizeAll(entry.getSeriesTitle(), null, entry.getSeriesSynonyms()), false);
+        }
+    }
+
+    /**
+     * Adds the series of a manga list entry, unless it is already known from a search.
+     *
+     * @param entry {@code [required]} The entry whose series to add. Entries without series ID are ignored.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public void add(@NonNull final MangaListEntry entry) {
+        if (entry.getSeriesId() != null) {
+            this.manga.put(entry.getSeriesId(), toManga(entry),
+                    Titles.normalizeAll(entry.getSeriesTitle(), null, entry.getSeriesSynonyms()), false);
+        }
+    }
+
+    /**
+     * Searches the indexed anime.
+     * <p>
+     * Returns the anime with a title, English title or synonym that contains the query. Exact matches come first,
+     * followed by titles starting with the query, titles with a word starting with it and all other matches.
+     *
+     * @param query {@code [required]} The query. Example: "Fate Kaleid"
+     * @return Copies of the matching anime, best match first. Can be empty but not {@code null}.
+     * @throws NullPointerException If the query is not provided.
+     */
+    public List<Anime> searchAnime(@NonNull final String query) {
+        List<Anime> results = new ArrayList<>();
+        for (Anime result : anime.search(Titles.normalize(query))) {
+            results.add(copy(result));
+        }
+        return results;
+    }
+
+    /**
+     * Searches the indexed manga, like {@link #searchAnime(String)}.
+     *
+     * @param query {@code [required]} The query. Example: "Fate Zero"
+     * @return Copies of the matching manga, best match first. Can be empty but not {@code null}.
+     * @throws NullPointerException If the query is not provided.
+     */
+    public List<Manga> searchManga(@NonNull final String query) {
+        List<Manga> results = new ArrayList<>();
+        for (Manga result : manga.search(Titles.normalize(query))) {
+            results.add(copy(result));
+        }
+        return results;
+    }
+
+    /**
+     * Finds the indexed anime with the titles, English titles or synonyms most similar to a title, to resolve
+     * titles that are spelled differently than on MAL. See {@link TitleCandidate#getScore()}.
+     *
+     * @param title         {@code [required]} The title to match.
+     * @param maxCandidates The maximum number of candidates.
+     * @param minScore      The minimum score of a candidate.
+     * @return Copies of the matching anime, most similar first. Can be empty but not {@code null}.
+     * @throws NullPointerException If the title is not provided.
+     */
+    public List<TitleCandidate<Anime>> matchAnime(@NonNull final String title, final int maxCandidates, final double minScore) {
+        List<TitleCandidate<Anime>> candidates = new ArrayList<>();
+        for (TrigramIndex.Similar<Anime> similar : anime.similar(Titles.normalize(title), maxCandidates, minScore)) {
+            candidates.add(new TitleCandidate<>(copy(similar.value), similar.score));
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the indexed manga with the titles most similar to a title, like {@link #matchAnime(String, int, double)}.
+     *
+     * @param title         {@code [required]} The title to match.
+     * @param maxCandidates The maximum number of candidates.
+     * @param minScore      The minimum score of a candidate.
+     * @return Copies of the matching manga, most similar first. Can be empty but not {@code null}.
+     * @throws NullPointerException If the title is not provided.
+     */
+    public List<TitleCandidate<Manga>> matchManga(@NonNull final String title, final int maxCandidates, final double minScore) {
+        List<TitleCandidate<Manga>> candidates = new ArrayList<>();
+        for (TrigramIndex.Similar<Manga> similar : manga.similar(Titles.normalize(title), maxCandidates, minScore)) {
+            candidates.add(new TitleCandidate<>(copy(similar.value), similar.score));
+        }
+        return candidates;
+    }
+
+    /**
+     * Normalizes a title the way the index does before matching it: to lower case letters and digits separated
+     * by single spaces, without accents. Titles that normalize to the same string are matched the same.
+     *
+     * @param title {@code [required]} The title to normalize.
+     * @return The normalized title.
+     * @throws NullPointerException If the title is not provided.
+     */
+    public static String normalize(@NonNull final String title) {
+        return Titles.normalize(title);
+    }
+
+    /**
+     * @param id {@code [required]} The ID of the anime.
+     * @return A copy of the indexed anime or {@code null} if it is unknown.
+     */
+    public Anime getAnime(@NonNull final String id) {
+        Anime anime = this.anime.get(id);
+        return anime == null ? null : copy(anime);
+    }
+
+    /**
+     * @param id {@code [required]} The ID of the manga.
+     * @return A copy of the indexed manga or {@code null} if it is unknown.
+     */
+    public Manga getManga(@NonNull final String id) {
+        Manga manga = this.manga.get(id);
+        return manga == null ? null : copy(manga);
+    }
+
+    public int getAnimeCount() {
+        return anime.size();
+    }
+
+    public int getMangaCount() {
+        return manga.size();
+    }
+
+    public void clear() {
+        anime.clear();
+        manga.clear();
+    }
+
+    private static Anime toAnime(AnimeListEntry entry) {
+        Anime anime = new Anime();
+        anime.setId(entry.getSeriesId());
+        anime.setTitle(entry.getSeriesTitle());
+        anime.setSynonyms(copy(entry.getSeriesSynonyms()));
+        anime.setEpisodes(entry.getSeriesEpisodes());
+        anime.setType(entry.getSeriesType() == null ? null : AnimeType.valueOf(entry.getSeriesType().name()));
+        anime.setStatus(entry.getSeriesStatus() == null ? null : AnimeStatus.valueOf(entry.getSeriesStatus().name()));
+        anime.setStartDate(copy(entry.getSeriesStart()));
+        anime.setEndDate(copy(entry.getSeriesEnd()));
+        anime.setImageUrl(entry.getSeriesImageUrl());
+        return anime;
+    }
+
+    private static Manga toManga(MangaListEntry entry) {
+        Manga manga = new Manga();
+        manga.setId(entry.getSeriesId());
+        manga.setTitle(entry.getSeriesTitle());
+        manga.setSynonyms(copy(entry.getSeriesSynonyms()));
+        manga.setChapters(entry.getSeriesChapters());
+        manga.setVolumes(entry.getSeriesVolumes());
+        manga.setType(entry.getSeriesType() == null ? null : MangaType.valueOf(entry.getSeriesType().name()));
+        manga.setStatus(entry.getSeriesStatus() == null ? null : MangaStatus.valueOf(entry.getSeriesStatus().name()));
+        manga.setStartDate(copy(entry.getSeriesStart()));
+        manga.setEndDate(copy(entry.getSeriesEnd()));
+        manga.setImageUrl(entry.getSeriesImageUrl());
+        return manga;
+    }
+
+    private static Anime copy(Anime anime) {
+        Anime copy = new Anime();
+        copy.setId(anime.getId());
+        copy.setTitle(anime.getTitle());
+        copy.setEnglishTitle(anime.getEnglishTitle());
+        copy.setSynonyms(copy(anime.getSynonyms()));
+        copy.setEpisodes(anime.getEpisodes());
+        copy.setScore(anime.getScore());
+        copy.setType(anime.getType());
+        copy.setStatus(anime.getStatus());
+        copy.setStartDate(copy(anime.getStartDate()));
+        copy.setEndDate(copy(anime.getEndDate()));
+        copy.setSynopsis(anime.getSynopsis());
+        copy.setImageUrl(anime.getImageUrl());
+        return copy;
+    }
+
+    private static Manga copy(Manga manga) {
+        Manga copy = new Manga();
+        copy.setId(manga.getId());
+        copy.setTitle(manga.getTitle());
+        copy.setEnglishTitle(manga.getEnglishTitle());
+        copy.setSynonyms(copy(manga.getSynonyms()));
+        copy.setChapters(manga.getChapters());
+        copy.setVolumes(manga.getVolumes());
+        copy.setScore(manga.getScore());
+        copy.setType(manga.getType());
+        copy.setStatus(manga.getStatus());
+        copy.setStartDate(copy(manga.getStartDate()));
+        copy.setEndDate(copy(manga.getEndDate()));
+        copy.setSynopsis(manga.getSynopsis());
+        copy.setImageUrl(manga.getImageUrl());
+        return copy;
+    }
+
+    private static List<String> copy(List<String> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
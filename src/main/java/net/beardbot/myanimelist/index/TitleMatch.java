@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The series a title was matched to by {@link net.beardbot.myanimelist.MALClient#matchAnimeTitles(java.util.Collection, MatchOptions)}
+ * or {@link net.beardbot.myanimelist.MALClient#matchMangaTitles(java.util.Collection, MatchOptions)}.
+ *
+ * @param <T> {@link net.beardbot.myanimelist.model.anime.Anime} or {@link net.beardbot.myanimelist.model.manga.Manga}.
+ */
+@Value
+public class TitleMatch<T> {
+    /**
+     * The matched title.
+     */
+    private String title;
+    /**
+     * The series that may be meant by the title, most similar first. Can be empty but not {@code null}.
+     */
+    private List<TitleCandidate<T>> candidates;
+    /**
+     * Whether the most similar candidate reaches {@link MatchOptions#getResolvedScore()}.
+     */
+    private boolean resolved;
+    /**
+     * Whether MAL was searched for the title, because the known series did not resolve it.
+     */
+    private boolean searched;
+    /**
+     * The exception the search failed with or {@code null}.
+     */
+    private RuntimeException error;
+
+    /**
+     * @return The most similar candidate or {@code null} if there is none.
+     */
+    public TitleCandidate<T> getBest() {
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Normalizes titles for matching and splits them into trigrams.
+ */
+final class Titles {
+
+    private Titles() {
+    }
+
+    /**
+     * Folds a title to lower case letters and digits separated by single spaces,
+     * e.g. {@code "Fate/kaleid liner Prisma☆Illya"} to {@code "fate kaleid liner prisma illya"}.
+     * Accents are removed and every other character separates words.
+     *
+     * @return The normalized title, empty for {@code null}.
+     */
+    static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        String decomposed = isAscii(title) ? title : Normalizer.normalize(title, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean separate = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (separate && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(Character.toLowerCase(c));
+                separate = false;
+            } else {
+                separate = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The distinct, normalized and non-empty titles.
+     */
+    static String[] normalizeAll(String title, String englishTitle, Collection<String> synonyms) {
+        int size = 2 + (synonyms == null ? 0 : synonyms.size());
+        String[] titles = new String[size];
+        int count = 0;
+        count = addDistinct(titles, count, normalize(title));
+        count = addDistinct(titles, count, normalize(englishTitle));
+        if (synonyms != null) {
+            for (String synonym : synonyms) {
+                count = addDistinct(titles, count, normalize(synonym));
+            }
+        }
+        return count == size ? titles : Arrays.copyOf(titles, count);
+    }
+
+    private static int addDistinct(String[] titles, int count, String title) {
+        if (title.isEmpty()) {
+            return count;
+        }
+        for (int i = 0; i < count; i++) {
+            if (titles[i].equals(title)) {
+                return count;
+            }
+        }
+        titles[count] = title;
+        return count + 1;
+    }
+
+    /**
+     * The trigrams of a normalized title padded with a space on both ends, so words at its ends have trigrams of
+     * their own. Every trigram of a substring of the title is one of them.
+     *
+     * @return The distinct trigrams in ascending order, encoded by {@link #trigram(char, char, char)}.
+     */
+    static long[] trigrams(String normalized) {
+        return distinctTrigrams(" " + normalized + " ");
+    }
+
+    /**
+     * @return The distinct trigrams of a query without padding, so the title it is part of may continue on both ends.
+     */
+    static long[] substringTrigrams(String normalized) {
+        return distinctTrigrams(normalized);
+    }
+
+    private static long[] distinctTrigrams(String s) {
+        if (s.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[s.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(s.charAt(i), s.charAt(i + 1), s.charAt(i + 2));
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return distinct == trigrams.length ? trigrams : Arrays.copyOf(trigrams, distinct);
+    }
+
+    static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+}
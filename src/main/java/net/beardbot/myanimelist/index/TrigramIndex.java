@@ -0,0 +1,441 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index from the trigrams of normalized titles to the series with these titles.
+ * Series are numbered in the order they are first added, the postings of a trigram are sorted by these numbers.
+ *
+ * @param <T> The type of the indexed series.
+ */
+class TrigramIndex<T> {
+
+    private static final Comparator<Match<?>> BEST_FIRST = Comparator.<Match<?>>comparingInt(match -> match.rank)
+            .thenComparingInt(match -> match.length)
+            .thenComparingInt(match -> match.document.id.length())
+            .thenComparing(match -> match.document.id);
+
+    private static final Comparator<Similar<?>> MOST_SIMILAR_FIRST = Comparator.<Similar<?>>comparingDouble(similar -> -similar.score)
+            .thenComparingInt(similar -> similar.id.length())
+            .thenComparing(similar -> similar.id);
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final List<Document<T>> documents = new ArrayList<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Adds a series or replaces the indexed series with the same ID.
+     *
+     * @param titles        The normalized titles of the series, see {@link Titles#normalizeAll}.
+     * @param authoritative Whether the series comes from a complete source. A series that is not never replaces
+     *                      an authoritative one.
+     */
+    void put(String id, T value, String[] titles, boolean authoritative) {
+        Document<T> document = new Document<>(id, value, titles, authoritative);
+        lock.writeLock().lock();
+        try {
+            Integer number = numbers.get(id);
+            if (number == null) {
+                number = documents.size();
+                numbers.put(id, number);
+                documents.add(document);
+            } else {
+                Document<T> indexed = documents.get(number);
+                if (indexed.authoritative && !authoritative) {
+                    return;
+                }
+                documents.set(number, document);
+                if (Arrays.equals(indexed.titles, titles)) {
+                    return;
+                }
+                for (long trigram : trigrams(indexed.titles)) {
+                    Postings list = postings.get(trigram);
+                    if (list.remove(number) && list.size == 0) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+            for (long trigram : trigrams(titles)) {
+                postings.computeIfAbsent(trigram, t -> new Postings()).add(number);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    T get(String id) {
+        lock.readLock().lock();
+        try {
+            Integer number = numbers.get(id);
+            return number == null ? null : documents.get(number).value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            numbers.clear();
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the series with a title that contains a normalized query. Exact matches come first, followed by titles
+     * starting with the query, titles with a word starting with it and titles containing it anywhere.
+     * Shorter titles rank higher within each group.
+     */
+    List<T> search(String query) {
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Match<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] trigrams = Titles.substringTrigrams(query);
+            if (trigrams.length == 0) {
+                for (Document<T> document : documents) {
+                    match(document, query, matches);
+                }
+            } else {
+                int[] candidates = candidates(trigrams);
+                for (int number : candidates) {
+                    match(documents.get(number), query, matches);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(BEST_FIRST);
+        List<T> values = new ArrayList<>(matches.size());
+        for (Match<T> match : matches) {
+            values.add(match.document.value);
+        }
+        return values;
+    }
+
+    /**
+     * Finds the series with the titles most similar to a normalized title. The similarity of two titles is the
+     * Dice coefficient of their trigrams, {@code 1} for equal titles and {@code 0} for titles without common trigrams.
+     *
+     * @return The series with a similarity of at least {@code minScore}, most similar first.
+     */
+    List<Similar<T>> similar(String title, int max, double minScore) {
+        long[] trigrams = Titles.trigrams(title);
+        if (trigrams.length == 0 || max <= 0) {
+            return new ArrayList<>();
+        }
+        // A title with s of the n trigrams has a score of at most 2s / (n + s)
+        int minShared = Math.max(1, (int) Math.ceil(minScore * trigrams.length / (2 - minScore)));
+
+        List<Similar<T>> similar = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Counts counts = COUNTS.get();
+            counts.ensureCapacity(documents.size());
+            for (long trigram : trigrams) {
+                Postings list = postings.get(trigram);
+                if (list != null) {
+                    for (int i = 0; i < list.size; i++) {
+                        counts.increment(list.numbers[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < counts.touched; i++) {
+                int number = counts.numbers[i];
+                if (counts.shared[number] >= minShared) {
+                    Document<T> document = documents.get(number);
+                    double score = score(document.titles, trigrams);
+                    if (score >= minScore) {
+                        similar.add(new Similar<>(document.id, document.value, score));
+                    }
+                }
+            }
+            counts.reset();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        similar.sort(MOST_SIMILAR_FIRST);
+        return similar.size() > max ? new ArrayList<>(similar.subList(0, max)) : similar;
+    }
+
+    private static double score(String[] titles, long[] trigrams) {
+        double best = 0;
+        for (String title : titles) {
+            long[] other = Titles.trigrams(title);
+            int shared = 0;
+            int i = 0;
+            int j = 0;
+            while (i < trigrams.length && j < other.length) {
+                if (trigrams[i] < other[j]) {
+                    i++;
+                } else if (trigrams[i] > other[j]) {
+                    j++;
+                } else {
+                    shared++;
+                    i++;
+                    j++;
+                }
+            }
+            best = Math.max(best, 2.0 * shared / (trigrams.length + other.length));
+        }
+        return best;
+    }
+
+    // Guarded by lock
+    private int[] candidates(long[] trigrams) {
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].numbers, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = lists[i].retain(candidates, count);
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static <T> void match(Document<T> document, String query, List<Match<T>> matches) {
+        int bestRank = -1;
+        int bestLength = 0;
+        for (String title : document.titles) {
+            int rank = rank(title, query);
+            if (rank >= 0 && (bestRank < 0 || rank < bestRank || rank == bestRank && title.length() < bestLength)) {
+                bestRank = rank;
+                bestLength = title.length();
+            }
+        }
+        if (bestRank >= 0) {
+            matches.add(new Match<>(document, bestRank, bestLength));
+        }
+    }
+
+    private static int rank(String title, String query) {
+        int index = title.indexOf(query);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return title.length() == query.length() ? 0 : 1;
+        }
+        for (; index > 0; index = title.indexOf(query, index + 1)) {
+            if (title.charAt(index - 1) == ' ') {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    private static long[] trigrams(String[] titles) {
+        if (titles.length == 1) {
+            return Titles.trigrams(titles[0]);
+        }
+        long[] all = Titles.trigrams(titles[0]);
+        for (int i = 1; i < titles.length; i++) {
+            all = union(all, Titles.trigrams(titles[i]));
+        }
+        return all;
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] union = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                union[size++] = a[i++];
+            } else if (a[i] > b[j]) {
+                union[size++] = b[j++];
+            } else {
+                union[size++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            union[size++] = a[i++];
+        }
+        while (j < b.length) {
+            union[size++] = b[j++];
+        }
+        return Arrays.copyOf(union, size);
+    }
+
+    static final class Similar<T> {
+        private final String id;
+        final T value;
+        final double score;
+
+        private Similar(String id, T value, double score) {
+            this.id = id;
+            this.value = value;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The number of trigrams each series shares with a title, reused by the searches of a thread.
+     */
+    private static final class Counts {
+        private int[] shared = new int[0];
+        private int[] numbers = new int[16];
+        private int touched;
+
+        void ensureCapacity(int documents) {
+            if (shared.length < documents) {
+                shared = new int[Math.max(documents, shared.length * 2)];
+            }
+        }
+
+        void increment(int number) {
+            if (shared[number]++ == 0) {
+                if (touched == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, touched * 2);
+                }
+                numbers[touched++] = number;
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touched; i++) {
+                shared[numbers[i]] = 0;
+            }
+            touched = 0;
+        }
+    }
+
+    private static final class Document<T> {
+        private final String id;
+        private final T value;
+        private final String[] titles;
+        private final boolean authoritative;
+
+        private Document(String id, T value, String[] titles, boolean authoritative) {
+            this.id = id;
+            this.value = value;
+            this.titles = titles;
+            this.authoritative = authoritative;
+        }
+    }
+
+    private static final class Match<T> {
+        private final Document<T> document;
+        private final int rank;
+        private final int length;
+
+        private Match(Document<T> document, int rank, int length) {
+            this.document = document;
+            this.rank = rank;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The ascending numbers of the series with a trigram.
+     */
+    private static final class Postings {
+        private int[] numbers = new int[2];
+        private int size;
+
+        void add(int number) {
+            if (size > 0 && numbers[size - 1] >= number) {
+                int index = Arrays.binarySearch(numbers, 0, size, number);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, number);
+            } else {
+                insert(size, number);
+            }
+        }
+
+        private void insert(int index, int number) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            System.arraycopy(numbers, index, numbers, index + 1, size - index);
+            numbers[index] = number;
+            size++;
+        }
+
+        boolean remove(int number) {
+            int index = Arrays.binarySearch(numbers, 0, size, number);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(numbers, index + 1, numbers, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Keeps the ascending candidates that are in this list.
+         *
+         * @return The number of remaining candidates.
+         */
+        int retain(int[] candidates, int count) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < count && j < size; i++) {
+                int candidate = candidates[i];
+                while (j < size && numbers[j] < candidate) {
+                    j++;
+                }
+                if (j < size && numbers[j] == candidate) {
+                    candidates[kept++] = candidate;
+                }
+            }
+            return kept;
+        }
+    }
+}
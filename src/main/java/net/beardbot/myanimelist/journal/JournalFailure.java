@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import lombok.Value;
+
+/**
+ * A journaled change that MAL did not accept.
+ */
+@Value
+public class JournalFailure {
+    /**
+     * The change.
+     */
+    private final Mutation mutation;
+    /**
+     * The exception sending the change failed with.
+     */
+    private final RuntimeException error;
+    /**
+     * Whether the change stays in the journal and is sent again, because the failure may be temporary.
+     * Changes rejected for good (see {@link net.beardbot.myanimelist.utils.ClientErrors#isPermanent(RuntimeException)})
+     * are acknowledged and dropped.
+     */
+    private final boolean retried;
+}
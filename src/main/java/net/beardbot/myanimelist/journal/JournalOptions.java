@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import lombok.Data;
+import net.beardbot.myanimelist.lane.Priority;
+
+import java.util.function.Consumer;
+
+/**
+ * Controls the durability, size and sending of a journal.
+ */
+@Data
+public class JournalOptions {
+    /**
+     * Whether every change is forced to the storage device before it is accepted. Without it, changes survive a crash
+     * of the process but may be lost if the operating system crashes.
+     */
+    private boolean sync = true;
+    /**
+     * The initial size of the journal file in bytes. The file grows by doubling when it is full.
+     */
+    private int initialSize = 1024 * 1024;
+    /**
+     * The number of bytes taken by acknowledged changes from which the journal is compacted, provided they make up
+     * at least half of the file.
+     */
+    private int compactionThreshold = 4 * 1024 * 1024;
+    /**
+     * How long to wait before sending a change again after a failure that may be temporary, in milliseconds.
+     */
+    private long retryDelayMillis = 5000;
+    /**
+     * The priority of the requests. By default they do not compete with interactive requests.
+     */
+    private Priority priority = Priority.BACKGROUND;
+    /**
+     * {@code [optional]} Notified when a change fails. Called on the thread sending the changes.
+     * Exceptions thrown by the listener are ignored.
+     */
+    private Consumer<JournalFailure> failureListener;
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import net.beardbot.myanimelist.utils.ClientErrors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Sends list changes in the background after recording them in a {@link MutationJournal}.
+ * <p>
+ * The methods of this writer return as soon as the change is in the journal. The changes are then sent one after
+ * the other in the order they were made, on a dedicated thread, and acknowledged in the journal once MAL accepted
+ * them. Changes still pending in the journal when the writer is created, because the process stopped before they
+ * were sent, are sent first. A change is therefore sent at least once, but may be sent again if the process stops
+ * between sending and acknowledging it.
+ * <p>
+ * Changes rejected for good are dropped, see {@link ClientErrors#isPermanent(RuntimeException)}. Other failures, like
+ * an unavailable MAL, expired credentials or too many requests, stop the sending until the change is sent successfully
+ * after {@link JournalOptions#getRetryDelayMillis()}. The values of a change are copied, changing them after the
+ * method returned does not change what is sent. Failures are
+ * reported to {@link JournalOptions#getFailureListener()} instead of being thrown.
+ * <p>
+ * The writer is thread-safe.
+ */
+public class JournaledWriter implements AutoCloseable {
+
+    private static final AtomicInteger WRITER_COUNT = new AtomicInteger();
+
+    private final MutationJournal journal;
+    private final Consumer<Mutation> sender;
+    private final long retryDelayMillis;
+    private final Consumer<JournalFailure> failureListener;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Deque<Mutation> queue = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+
+    /**
+     * Creates a writer and starts sending the pending changes of the journal.
+     *
+     * @param journal {@code [required]} The journal to record the changes in. Closed with the writer.
+     * @param sender  {@code [required]} Sends a change to MAL.
+     * @param options {@code [required]} Controls retries and failure reporting.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the retry delay is negative.
+     */
+    public JournaledWriter(
+            @NonNull final MutationJournal journal,
+            @NonNull final Consumer<Mutation> sender,
+            @NonNull final JournalOptions options) {
+
+        if (options.getRetryDelayMillis() < 0) {
+            throw new IllegalArgumentException("Retry delay must not be negative but was " + options.getRetryDelayMillis());
+        }
+        if (options.getPriority() == null) {
+            throw new NullPointerException("priority");
+        }
+
+        this.journal = journal;
+        this.sender = sender;
+        this.retryDelayMillis = options.getRetryDelayMillis();
+        this.failureListener = options.getFailureListener();
+
+        String threadName = "mal-journal-" + WRITER_COUNT.incrementAndGet();
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+        synchronized (this) {
+            queue.addAll(journal.getPending());
+            startSending();
+        }
+    }
+
+    /**
+     * Adds an anime to the anime list in the background.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return The journaled change.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation addToAnimeList(@NonNull final String animeId, @NonNull final AnimeListEntryValues values) {
+        return submit(MutationType.ADD_ANIME, animeId, new AnimeListEntryValues().merge(values));
+    }
+
+    /**
+     * Updates an anime on the anime list in the background.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return The journaled change.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation updateAnimeList(@NonNull final String animeId, @NonNull final AnimeListEntryValues values) {
+        return submit(MutationType.UPDATE_ANIME, animeId, new AnimeListEntryValues().merge(values));
+    }
+
+    /**
+     * Removes an anime from the anime list in the background.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @return The journaled change.
+     * @throws NullPointerException  If the ID is null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation removeFromAnimeList(@NonNull final String animeId) {
+        return submit(MutationType.REMOVE_ANIME, animeId, null);
+    }
+
+    /**
+     * Adds a manga to the manga list in the background.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return The journaled change.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation addToMangaList(@NonNull final String mangaId, @NonNull final MangaListEntryValues values) {
+        return submit(MutationType.ADD_MANGA, mangaId, new MangaListEntryValues().merge(values));
+    }
+
+    /**
+     * Updates a manga on the manga list in the background.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return The journaled change.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation updateMangaList(@NonNull final String mangaId, @NonNull final MangaListEntryValues values) {
+        return submit(MutationType.UPDATE_MANGA, mangaId, new MangaListEntryValues().merge(values));
+    }
+
+    /**
+     * Removes a manga from the manga list in the background.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @return The journaled change.
+     * @throws NullPointerException  If the ID is null.
+     * @throws IllegalStateException If the writer is closed.
+     * @throws java.io.UncheckedIOException If the change cannot be journaled.
+     */
+    public Mutation removeFromMangaList(@NonNull final String mangaId) {
+        return submit(MutationType.REMOVE_MANGA, mangaId, null);
+    }
+
+    /**
+     * @return The number of changes that were not sent yet.
+     */
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Waits until all changes were sent.
+     *
+     * @return Whether all changes were sent before the timeout elapsed.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public synchronized boolean awaitSent(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long remaining;
+        while (!queue.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return queue.isEmpty();
+    }
+
+    /**
+     * Stops sending after the change in flight and closes the journal. Changes that were not sent stay in the journal
+     * and are sent by the next writer of the journal.
+     *
+     * @throws java.io.UncheckedIOException If the journal cannot be closed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private synchronized Mutation submit(MutationType type, String seriesId, Object values) {
+        if (closed) {
+            throw new IllegalStateException("The journaled writer is closed.");
+        }
+        Mutation mutation = journal.append(type, seriesId, values);
+        queue.add(mutation);
+        startSending();
+        return mutation;
+    }
+
+    private void startSending() {
+        if (!sending && !queue.isEmpty()) {
+            sending = true;
+            executor.execute(this::send);
+        }
+    }
+
+    private void send() {
+        boolean finished = false;
+        try {
+            finished = sendQueued();
+        } finally {
+            synchronized (this) {
+                if (finished || closed) {
+                    sending = false;
+                    notifyAll();
+                } else {
+                    // Also after an unexpected exception of the sender or the journal, so the sending never stops
+                    executor.schedule(this::send, retryDelayMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the queue is empty or the writer closed, {@code false} if a change has to be retried.
+     */
+    private boolean sendQueued() {
+        while (true) {
+            Mutation mutation;
+            synchronized (this) {
+                if (closed || queue.isEmpty()) {
+                    return true;
+                }
+                mutation = queue.peek();
+            }
+
+            try {
+                sender.accept(mutation);
+            } catch (RuntimeException e) {
+                boolean retried = !ClientErrors.isPermanent(e);
+                report(mutation, e, retried);
+                if (retried) {
+                    return false;
+                }
+            }
+
+            synchronized (this) {
+                journal.acknowledge(mutation.getSequence());
+                queue.poll();
+            }
+        }
+    }
+
+    private void report(Mutation mutation, RuntimeException error, boolean retried) {
+        if (failureListener == null) {
+            return;
+        }
+        try {
+            failureListener.accept(new JournalFailure(mutation, error, retried));
+        } catch (Throwable e) {
+            // A failing listener must not stop the sending
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import lombok.Value;
+
+/**
+ * A list change recorded by a {@link MutationJournal}.
+ */
+@Value
+public class Mutation {
+    /**
+     * The position of the change in the journal. Increases with every recorded change.
+     */
+    private final long sequence;
+    /**
+     * What is changed.
+     */
+    private final MutationType type;
+    /**
+     * The ID of the changed anime or manga.
+     */
+    private final String seriesId;
+    /**
+     * The {@link net.beardbot.myanimelist.model.anime.AnimeListEntryValues} or
+     * {@link net.beardbot.myanimelist.model.manga.MangaListEntryValues} of the change, see
+     * {@link MutationType#getValuesType()}. {@code null} for removals.
+     */
+    private final Object values;
+}
@@ -0,0 +1,437 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.codec.Codecs;
+import net.beardbot.myanimelist.codec.XmlCodec;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only, memory-mapped file of list changes that have not been confirmed by MAL yet.
+ * <p>
+ * Every change is appended with {@link #append(MutationType, String, Object)} before it is sent and marked as
+ * sent with {@link #acknowledge(long)} afterwards. Opening an existing journal restores the changes that were
+ * never acknowledged, so they can be sent again after a crash. Records are checksummed, a record torn by a crash
+ * ends the journal. Once acknowledged changes take up most of the file it is rewritten with the pending changes only.
+ * <p>
+ * A journal can only be opened by one process at a time. It is thread-safe.
+ */
+public class MutationJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D414C4A;
+    private static final int VERSION = 1;
+    // magic, version, first sequence
+    private static final int HEADER_SIZE = 16;
+    // length and checksum of the body
+    private static final int RECORD_HEADER_SIZE = 8;
+    // a zero length after the last record marks the end
+    private static final int END_MARK_SIZE = 4;
+    private static final byte ACK = 0;
+    private static final int ACK_SIZE = RECORD_HEADER_SIZE + 1 + 8;
+
+    private final Path file;
+    private final boolean sync;
+    private final int initialSize;
+    private final int compactionThreshold;
+    private final Map<Long, Record> pending = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long nextSequence;
+    private long reclaimable;
+    private boolean closed;
+
+    /**
+     * Opens a journal, creating the file if it does not exist.
+     *
+     * @param file    {@code [required]} The journal file.
+     * @param options {@code [required]} Durability and size of the journal.
+     * @throws NullPointerException     If any of the parameters are null.
+     * @throws IllegalArgumentException If the initial size or compaction threshold is not positive.
+     * @throws IOException              If the file cannot be read, is not a journal or is used by another process.
+     */
+    public MutationJournal(
+            @NonNull final Path file,
+            @NonNull final JournalOptions options) throws IOException {
+
+        if (options.getInitialSize() <= HEADER_SIZE + END_MARK_SIZE) {
+            throw new IllegalArgumentException("Initial size must be larger than " + (HEADER_SIZE + END_MARK_SIZE) + " but was " + options.getInitialSize());
+        }
+        if (options.getCompactionThreshold() <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive but was " + options.getCompactionThreshold());
+        }
+
+        this.file = file;
+        this.sync = options.isSync();
+        this.initialSize = options.getInitialSize();
+        this.compactionThreshold = options.getCompactionThreshold();
+        open();
+    }
+
+    /**
+     * Records a change durably before it is sent.
+     *
+     * @param type     {@code [required]} What is changed.
+     * @param seriesId {@code [required]} The ID of the changed anime or manga.
+     * @param values   The values of the change. Required unless the type has none, see {@link MutationType#getValuesType()}.
+     * @return The recorded change.
+     * @throws NullPointerException     If the type, ID or required values are null.
+     * @throws IllegalArgumentException If the values are not of the type's values class or the ID is too long.
+     * @throws IllegalStateException    If the journal is closed.
+     * @throws UncheckedIOException     If the change cannot be written.
+     */
+    public synchronized Mutation append(
+            @NonNull final MutationType type,
+            @NonNull final String seriesId,
+            final Object values) {
+
+        ensureOpen();
+        if (seriesId.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+            throw new IllegalArgumentException("Series ID is too long.");
+        }
+        byte[] xml = toXml(type, values);
+        Record record = new Record(new Mutation(nextSequence, type, seriesId, values), xml);
+        ensureCapacity(record.size);
+        position = write(buffer, position, record);
+        buffer.putInt(position, 0);
+        force();
+        nextSequence++;
+        pending.put(record.mutation.getSequence(), record);
+        return record.mutation;
+    }
+
+    /**
+     * Marks a change as sent, so it is not restored when the journal is opened again. Unknown or already
+     * acknowledged changes are ignored.
+     *
+     * @param sequence The sequence of the change, see {@link Mutation#getSequence()}.
+     * @throws IllegalStateException If the journal is closed.
+     * @throws UncheckedIOException  If the acknowledgement cannot be written.
+     */
+    public synchronized void acknowledge(final long sequence) {
+        ensureOpen();
+        Record record = pending.remove(sequence);
+        if (record == null) {
+            return;
+        }
+        ensureCapacity(ACK_SIZE);
+        ByteBuffer body = ByteBuffer.allocate(ACK_SIZE - RECORD_HEADER_SIZE);
+        body.put(ACK).putLong(sequence).flip();
+        position = writeRecord(buffer, position, body);
+        buffer.putInt(position, 0);
+        force();
+        reclaimable += record.size + ACK_SIZE;
+
+        if (reclaimable >= compactionThreshold && reclaimable * 2 >= position) {
+            compact();
+        }
+    }
+
+    /**
+     * @return The changes that were not acknowledged yet, in the order they were appended.
+     */
+    public synchronized List<Mutation> getPending() {
+        List<Mutation> mutations = new ArrayList<>(pending.size());
+        for (Record record : pending.values()) {
+            mutations.add(record.mutation);
+        }
+        return mutations;
+    }
+
+    /**
+     * @return The number of bytes of the file in use.
+     */
+    public synchronized int getSize() {
+        return position;
+    }
+
+    /**
+     * Rewrites the file with the pending changes only.
+     *
+     * @throws IllegalStateException If the journal is closed.
+     * @throws UncheckedIOException  If the file cannot be rewritten.
+     */
+    public synchronized void compact() {
+        ensureOpen();
+        int size = HEADER_SIZE + END_MARK_SIZE;
+        for (Record record : pending.values()) {
+            size += record.size;
+        }
+        long firstSequence = pending.isEmpty() ? nextSequence : pending.keySet().iterator().next();
+        ByteBuffer compacted = ByteBuffer.allocate(Math.max(size, initialSize));
+        writeHeader(compacted, firstSequence);
+        int end = HEADER_SIZE;
+        for (Record record : pending.values()) {
+            end = write(compacted, end, record);
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (compacted.hasRemaining()) {
+                    out.write(compacted);
+                }
+                out.force(true);
+            }
+            release();
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            open();
+        } catch (IOException e) {
+            closed = true;
+            throw new UncheckedIOException("Compacting the journal " + file + " failed.", e);
+        }
+    }
+
+    /**
+     * Forces all changes to the storage device and closes the file. Pending changes stay in the file.
+     *
+     * @throws UncheckedIOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        try {
+            release();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Closing the journal " + file + " failed.", e);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("The journal " + file + " is used by another process.");
+        }
+
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The journal " + file + " is too large.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max((int) size, initialSize));
+            if (size == 0) {
+                writeHeader(buffer, 1);
+                buffer.force();
+            }
+            recover();
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("The file " + file + " is not a journal.");
+        }
+        nextSequence = buffer.getLong(8);
+        pending.clear();
+        reclaimable = 0;
+
+        position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer body = slice(buffer, position + RECORD_HEADER_SIZE, length);
+            if (checksum(body.duplicate()) != buffer.getInt(position + 4)) {
+                // Torn by a crash while appending
+                break;
+            }
+            read(body, RECORD_HEADER_SIZE + length);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        buffer.putInt(position, 0);
+    }
+
+    private void read(ByteBuffer body, int size) throws IOException {
+        byte code = body.get();
+        long sequence = body.getLong();
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        if (code == ACK) {
+            Record record = pending.remove(sequence);
+            reclaimable += size + (record != null ? record.size : 0);
+            return;
+        }
+
+        MutationType type = MutationType.fromCode(code);
+        if (type == null) {
+            throw new IOException("Unknown record type " + code + " in journal " + file + ".");
+        }
+        byte[] id = new byte[body.getShort() & 0xFFFF];
+        body.get(id);
+        byte[] xml = new byte[body.getInt()];
+        body.get(xml);
+        Mutation mutation = new Mutation(sequence, type, new String(id, StandardCharsets.UTF_8), fromXml(type, xml));
+        pending.put(sequence, new Record(mutation, xml));
+    }
+
+    private int write(ByteBuffer target, int offset, Record record) {
+        ByteBuffer body = ByteBuffer.allocate(record.size - RECORD_HEADER_SIZE);
+        body.put(record.mutation.getType().getCode())
+            .putLong(record.mutation.getSequence())
+            .putShort((short) record.id.length)
+            .put(record.id)
+            .putInt(record.xml.length)
+            .put(record.xml)
+            .flip();
+        return writeRecord(target, offset, body);
+    }
+
+    private int writeRecord(ByteBuffer target, int offset, ByteBuffer body) {
+        int length = body.remaining();
+        int checksum = checksum(body.duplicate());
+        ByteBuffer out = target.duplicate();
+        out.position(offset + RECORD_HEADER_SIZE);
+        out.put(body);
+        // The length is written last, so the record only becomes visible once it is complete
+        target.putInt(offset + 4, checksum);
+        target.putInt(offset, length);
+        return offset + RECORD_HEADER_SIZE + length;
+    }
+
+    private static void writeHeader(ByteBuffer target, long firstSequence) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, VERSION);
+        target.putLong(8, firstSequence);
+    }
+
+    private void ensureCapacity(int recordSize) {
+        long required = (long) position + recordSize + END_MARK_SIZE;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The journal " + file + " is full.");
+        }
+        long capacity = Math.min(Math.max((long) buffer.capacity() * 2, required), Integer.MAX_VALUE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Growing the journal " + file + " failed.", e);
+        }
+    }
+
+    private void force() {
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    private int checksum(ByteBuffer body) {
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private void release() throws IOException {
+        try {
+            if (lock != null && lock.isValid()) {
+                lock.release();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The journal " + file + " is closed.");
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] toXml(MutationType type, Object values) {
+        if (type.getValuesType() == null) {
+            return new byte[0];
+        }
+        if (values == null) {
+            throw new NullPointerException("values");
+        }
+        if (!type.getValuesType().isInstance(values)) {
+            throw new IllegalArgumentException("Values of " + type + " must be " + type.getValuesType().getSimpleName() + " but were " + values.getClass().getSimpleName());
+        }
+        XmlCodec<Object> codec = (XmlCodec<Object>) Codecs.forType(type.getValuesType());
+        return Codecs.toXml(codec, values).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Object fromXml(MutationType type, byte[] xml) throws IOException {
+        if (type.getValuesType() == null) {
+            return null;
+        }
+        try {
+            return Codecs.readDocument(Codecs.forType(type.getValuesType()), new ByteArrayInputStream(xml), null);
+        } catch (XMLStreamException e) {
+            throw new IOException("Unreadable values in journal " + file + ".", e);
+        }
+    }
+
+    private static final class Record {
+        private final Mutation mutation;
+        private final byte[] id;
+        private final byte[] xml;
+        private final int size;
+
+        private Record(Mutation mutation, byte[] xml) {
+            this.mutation = mutation;
+            this.id = mutation.getSeriesId().getBytes(StandardCharsets.UTF_8);
+            this.xml = xml;
+            this.size = RECORD_HEADER_SIZE + 1 + 8 + 2 + id.length + 4 + xml.length;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+
+/**
+ * The list changes recorded by a {@link MutationJournal}.
+ */
+public enum MutationType {
+    ADD_ANIME(1, AnimeListEntryValues.class),
+    UPDATE_ANIME(2, AnimeListEntryValues.class),
+    REMOVE_ANIME(3, null),
+    ADD_MANGA(4, MangaListEntryValues.class),
+    UPDATE_MANGA(5, MangaListEntryValues.class),
+    REMOVE_MANGA(6, null);
+
+    private final byte code;
+    private final Class<?> valuesType;
+
+    MutationType(int code, Class<?> valuesType) {
+        this.code = (byte) code;
+        this.valuesType = valuesType;
+    }
+
+    /**
+     * @return The class of the values of mutations of this type or {@code null} if they have none.
+     */
+    public Class<?> getValuesType() {
+        return valuesType;
+    }
+
+    byte getCode() {
+        return code;
+    }
+
+    static MutationType fromCode(byte code) {
+        for (MutationType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
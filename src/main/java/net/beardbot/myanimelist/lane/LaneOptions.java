@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.lane;
+
+import lombok.Value;
+
+/**
+ * The capacity of the lane serving the requests of one {@link Priority}.
+ */
+@Value
+public class LaneOptions {
+    /**
+     * The number of connections the lane keeps to MAL.
+     */
+    private final int maxConnections;
+    /**
+     * The number of requests the lane sends at the same time. Further requests wait for a free slot.
+     */
+    private final int maxConcurrentRequests;
+
+    /**
+     * @throws IllegalArgumentException If any of the values is not positive.
+     */
+    public LaneOptions(final int maxConnections, final int maxConcurrentRequests) {
+        if (maxConnections <= 0 || maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Connections and concurrent requests must be positive but were "
+                    + maxConnections + " and " + maxConcurrentRequests);
+        }
+        this.maxConnections = maxConnections;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+}
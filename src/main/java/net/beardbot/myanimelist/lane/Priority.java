@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.lane;
+
+/**
+ * The priority of requests to MAL. Each priority is served by its own lane with dedicated connections and
+ * a dedicated budget of concurrent requests, so requests of one priority never wait for requests of another.
+ */
+public enum Priority {
+    /**
+     * Requests someone is waiting for. The default for all requests.
+     */
+    INTERACTIVE,
+    /**
+     * Bulk and batch work whose latency does not matter. The default for bulk fetches.
+     */
+    BACKGROUND
+}
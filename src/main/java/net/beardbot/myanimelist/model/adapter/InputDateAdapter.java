@@ -18,11 +18,13 @@ package net.beardbot.myanimelist.model.adapter;
 
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
 
 public class InputDateAdapter extends XmlAdapter<String, Date> {
 
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private final Calendar calendar = (Calendar) dateFormat.getCalendar().clone();
 
     @Override
     public String marshal(Date v) throws Exception {
@@ -31,11 +33,44 @@ public class InputDateAdapter extends XmlAdapter<String, Date> {
         }
     }
 
+    /**
+     * Dates in the usual form are set on a calendar directly, which gives the same (lenient) result as the format
+     * without its parsing overhead. MAL sends empty elements for unknown dates, those are read as {@code null}
+     * without failing the format first.
+     */
     @Override
     public Date unmarshal(String v) throws Exception {
+        if (v.isEmpty()) {
+            return null;
+        }
         synchronized (dateFormat) {
+            if (isPlainDate(v)) {
+                calendar.clear();
+                calendar.set(digits(v, 0, 4), digits(v, 5, 7) - 1, digits(v, 8, 10));
+                return calendar.getTime();
+            }
             return dateFormat.parse(v);
         }
     }
 
+    private static boolean isPlainDate(String v) {
+        if (v.length() != 10 || v.charAt(4) != '-' || v.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            if (i != 4 && i != 7 && (v.charAt(i) < '0' || v.charAt(i) > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String v, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (v.charAt(i) - '0');
+        }
+        return value;
+    }
+
 }
\ No newline at end of file
@@ -30,8 +30,50 @@ public class MarkdownAndHtmlRemovalAdapter extends XmlAdapter<String, String> {
     }
 
     private static String format(String v){
-        return v
-                .replaceAll("<.*?>","")
-                .replaceAll("\\[.*?]","");
+        return removeTags(removeTags(v, '<', '>'), '[', ']');
+    }
+
+    /**
+     * Removes everything from an opening character to the next closing character on the same line, like
+     * {@code replaceAll("<.*?>", "")} does. Texts without tags are returned as they are.
+     */
+    private static String removeTags(String v, char open, char close){
+        StringBuilder sb = null;
+        int copied = 0;
+        int start = v.indexOf(open);
+        while (start >= 0) {
+            int end = closingIndex(v, start + 1, close);
+            if (end < 0) {
+                start = v.indexOf(open, start + 1);
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(v.length());
+            }
+            sb.append(v, copied, start);
+            copied = end + 1;
+            start = v.indexOf(open, copied);
+        }
+        return sb == null ? v : sb.append(v, copied, v.length()).toString();
+    }
+
+    private static int closingIndex(String v, int from, char close){
+        for (int i = from; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == close) {
+                return i;
+            }
+            if (isLineTerminator(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The characters not matched by {@code .} in a regular expression.
+     */
+    private static boolean isLineTerminator(char c){
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 }
@@ -16,41 +16,17 @@
  */
 package net.beardbot.myanimelist.model.adapter;
 
-import org.apache.commons.lang3.StringUtils;
-
 import javax.xml.bind.annotation.adapters.XmlAdapter;
-import java.util.*;
+import java.util.List;
 
 public class SemicolonSeperatedListAdapter extends XmlAdapter<String,List<String>> {
     @Override
     public List<String> unmarshal(String v) throws Exception {
-        List<String> values = new ArrayList<>();
-
-        if (!StringUtils.isBlank(v)){
-            StringTokenizer tokenizer = new StringTokenizer(v,";");
-            while (tokenizer.hasMoreTokens()){
-                values.add(tokenizer.nextToken().trim());
-            }
-        }
-
-        return values;
+        return SeparatedValues.split(v, ';');
     }
 
     @Override
     public String marshal(List<String> v) throws Exception {
-        if(v == null){
-            return null;
-        }
-
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < v.size(); i++) {
-            sb.append(v.get(i));
-
-            if (i < v.size()-1){
-                sb.append("; ");
-            }
-        }
-
-        return sb.toString();
+        return SeparatedValues.join(v, "; ");
     }
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits and joins the separated values of tag and synonym fields.
+ * <p>
+ * Values are split like a {@link java.util.StringTokenizer} followed by {@link String#trim()} per token, but with one
+ * substring per value and a list of exactly the right size. The lists are mutable {@link ArrayList}s,
+ * so callers can add to the tags of an entry.
+ */
+final class SeparatedValues {
+
+    private SeparatedValues() {
+    }
+
+    static List<String> split(String value, char separator) {
+        if (value == null) {
+            return new ArrayList<>(0);
+        }
+
+        int length = value.length();
+        int count = 0;
+        boolean blank = true;
+        boolean inToken = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (blank && !Character.isWhitespace(c)) {
+                blank = false;
+            }
+            if (c == separator) {
+                inToken = false;
+            } else if (!inToken) {
+                count++;
+                inToken = true;
+            }
+        }
+        if (blank || count == 0) {
+            return new ArrayList<>(0);
+        }
+
+        List<String> values = new ArrayList<>(count);
+        int position = 0;
+        while (values.size() < count) {
+            while (value.charAt(position) == separator) {
+                position++;
+            }
+            int end = position;
+            while (end < length && value.charAt(end) != separator) {
+                end++;
+            }
+            values.add(trimmed(value, position, end));
+            position = end;
+        }
+        return values;
+    }
+
+    static String join(List<String> values, String separator) {
+        if (values == null) {
+            return null;
+        }
+
+        int size = values.size();
+        if (size == 0) {
+            return "";
+        }
+        if (size == 1) {
+            return String.valueOf(values.get(0));
+        }
+
+        int length = separator.length() * (size - 1);
+        for (int i = 0; i < size; i++) {
+            String value = values.get(i);
+            length += value == null ? 4 : value.length();
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(values.get(0));
+        for (int i = 1; i < size; i++) {
+            sb.append(separator).append(values.get(i));
+        }
+        return sb.toString();
+    }
+
+    // Same as value.substring(start, end).trim(), but without the intermediate substring.
+    private static String trimmed(String value, int start, int end) {
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+}
@@ -20,6 +20,7 @@ import lombok.Data;
 import net.beardbot.myanimelist.model.adapter.InputDateAdapter;
 import net.beardbot.myanimelist.model.adapter.SemicolonSeperatedListAdapter;
 import net.beardbot.myanimelist.model.adapter.MarkdownAndHtmlRemovalAdapter;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -30,6 +31,7 @@ import java.util.Date;
 import java.util.List;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "entry")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class Anime {
@@ -17,11 +17,13 @@
 package net.beardbot.myanimelist.model.anime;
 
 import lombok.Data;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.*;
 import java.util.List;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "myanimelist")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class AnimeList {
@@ -17,14 +17,21 @@
 package net.beardbot.myanimelist.model.anime;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import net.beardbot.myanimelist.model.adapter.*;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.*;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 @Data
+@EqualsAndHashCode(exclude = "series")
+@ToString(exclude = "series")
+@GenerateCodec
 @XmlRootElement(name = "anime")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class AnimeListEntry {
@@ -93,5 +100,135 @@ public class AnimeListEntry {
     @XmlJavaTypeAdapter(CommaSeperatedListAdapter.class)
     private List<String> tags;
 
-
-}
\ No newline at end of file
+    /**
+     * The shared series metadata, if the entry was resolved against a series catalog.
+     * While it is set, the {@code series*} fields of this entry are {@code null} and their accessors delegate to it.
+     */
+    @XmlTransient
+    private AnimeSeries series;
+
+    /**
+     * Lets this entry reference shared series metadata instead of holding its own copy.
+     *
+     * @param series {@code [optional]} The series of this entry or {@code null} to copy the series metadata back into the entry.
+     */
+    public void setSeries(AnimeSeries series) {
+        if (series == null) {
+            detachSeries();
+            return;
+        }
+
+        this.series = series;
+        this.seriesId = series.getId();
+        this.seriesTitle = null;
+        this.seriesSynonyms = null;
+        this.seriesType = null;
+        this.seriesEpisodes = null;
+        this.seriesStatus = null;
+        this.seriesStart = null;
+        this.seriesEnd = null;
+        this.seriesImageUrl = null;
+    }
+
+    public void setSeriesId(String seriesId) {
+        detachSeries();
+        this.seriesId = seriesId;
+    }
+
+    public String getSeriesTitle() {
+        return series != null ? series.getTitle() : seriesTitle;
+    }
+
+    public void setSeriesTitle(String seriesTitle) {
+        detachSeries();
+        this.seriesTitle = seriesTitle;
+    }
+
+    /**
+     * @return The synonyms of the series as a mutable list. While the entry references a shared {@link AnimeSeries},
+     * the list is a copy, so changes to it are not seen by other entries. Use {@link #setSeriesSynonyms(List)} to change them.
+     */
+    public List<String> getSeriesSynonyms() {
+        if (series != null) {
+            List<String> synonyms = series.getSynonyms();
+            return synonyms == null ? null : new ArrayList<>(synonyms);
+        }
+        return seriesSynonyms;
+    }
+
+    public void setSeriesSynonyms(List<String> seriesSynonyms) {
+        detachSeries();
+        this.seriesSynonyms = seriesSynonyms;
+    }
+
+    public AnimeListSeriesType getSeriesType() {
+        return series != null ? series.getType() : seriesType;
+    }
+
+    public void setSeriesType(AnimeListSeriesType seriesType) {
+        detachSeries();
+        this.seriesType = seriesType;
+    }
+
+    public Integer getSeriesEpisodes() {
+        return series != null ? series.getEpisodes() : seriesEpisodes;
+    }
+
+    public void setSeriesEpisodes(Integer seriesEpisodes) {
+        detachSeries();
+        this.seriesEpisodes = seriesEpisodes;
+    }
+
+    public AnimeListSeriesStatus getSeriesStatus() {
+        return series != null ? series.getStatus() : seriesStatus;
+    }
+
+    public void setSeriesStatus(AnimeListSeriesStatus seriesStatus) {
+        detachSeries();
+        this.seriesStatus = seriesStatus;
+    }
+
+    public Date getSeriesStart() {
+        return series != null ? series.getStartDate() : seriesStart;
+    }
+
+    public void setSeriesStart(Date seriesStart) {
+        detachSeries();
+        this.seriesStart = seriesStart;
+    }
+
+    public Date getSeriesEnd() {
+        return series != null ? series.getEndDate() : seriesEnd;
+    }
+
+    public void setSeriesEnd(Date seriesEnd) {
+        detachSeries();
+        this.seriesEnd = seriesEnd;
+    }
+
+    public String getSeriesImageUrl() {
+        return series != null ? series.getImageUrl() : seriesImageUrl;
+    }
+
+    public void setSeriesImageUrl(String seriesImageUrl) {
+        detachSeries();
+        this.seriesImageUrl = seriesImageUrl;
+    }
+
+    private void detachSeries() {
+        if (series == null) {
+            return;
+        }
+
+        AnimeSeries detached = series;
+        this.series = null;
+        this.seriesTitle = detached.getTitle();
+        this.seriesSynonyms = detached.getSynonyms() == null ? null : new ArrayList<>(detached.getSynonyms());
+        this.seriesType = detached.getType();
+        this.seriesEpisodes = detached.getEpisodes();
+        this.seriesStatus = detached.getStatus();
+        this.seriesStart = detached.getStartDate();
+        this.seriesEnd = detached.getEndDate();
+        this.seriesImageUrl = detached.getImageUrl();
+    }
+}
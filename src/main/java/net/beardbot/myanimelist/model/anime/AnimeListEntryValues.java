@@ -26,11 +26,14 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 import lombok.Data;
+import lombok.NonNull;
 import net.beardbot.myanimelist.model.adapter.BooleanAdapter;
 import net.beardbot.myanimelist.model.adapter.CommaSeperatedListAdapter;
 import net.beardbot.myanimelist.model.adapter.OutputDateAdapter;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "entry")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class AnimeListEntryValues {
@@ -105,4 +108,62 @@ public class AnimeListEntryValues {
 
         return values;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the fields of an entry that these values change, the reverse of {@link #fromEntry(AnimeListEntry)}.
+     * Fields that are {@code null} and values the entry does not show are ignored.
+     *
+     * @param entry {@code [required]} The {@link AnimeListEntry} to change.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public void applyTo(@NonNull AnimeListEntry entry){
+        if (episode != null) {
+            entry.setWatchedEpisodes(episode);
+        }
+        if (score != null) {
+            entry.setUserScore(score);
+        }
+        if (status != null) {
+            entry.setStatus(status);
+        }
+        if (tags != null) {
+            entry.setTags(tags);
+        }
+        if (dateStart != null) {
+            entry.setStartedWatching(dateStart);
+        }
+        if (dateFinish != null) {
+            entry.setFinishedWatching(dateFinish);
+        }
+        if (enableRewatching != null) {
+            entry.setRewatching(enableRewatching);
+        }
+    }
+
+    /**
+     * Combines these values with values set later, as if both had been sent one after the other.
+     *
+     * @param newer {@code [required]} The later values. Their fields override the fields of these values unless they are {@code null}.
+     * @return New {@link AnimeListEntryValues} with the fields of both. Neither of the values is changed.
+     * @throws NullPointerException If the newer values are not provided.
+     */
+    public AnimeListEntryValues merge(@NonNull AnimeListEntryValues newer){
+        AnimeListEntryValues merged = new AnimeListEntryValues();
+        merged.episode = newer.episode != null ? newer.episode : this.episode;
+        merged.status = newer.status != null ? newer.status : this.status;
+        merged.score = newer.score != null ? newer.score : this.score;
+        merged.storageType = newer.storageType != null ? newer.storageType : this.storageType;
+        merged.storageValue = newer.storageValue != null ? newer.storageValue : this.storageValue;
+        merged.timesRewatched = newer.timesRewatched != null ? newer.timesRewatched : this.timesRewatched;
+        merged.rewatchValue = newer.rewatchValue != null ? newer.rewatchValue : this.rewatchValue;
+        merged.dateStart = newer.dateStart != null ? newer.dateStart : this.dateStart;
+        merged.dateFinish = newer.dateFinish != null ? newer.dateFinish : this.dateFinish;
+        merged.priority = newer.priority != null ? newer.priority : this.priority;
+        merged.enableDiscussion = newer.enableDiscussion != null ? newer.enableDiscussion : this.enableDiscussion;
+        merged.enableRewatching = newer.enableRewatching != null ? newer.enableRewatching : this.enableRewatching;
+        merged.comments = newer.comments != null ? newer.comments : this.comments;
+        merged.fansubGroup = newer.fansubGroup != null ? newer.fansubGroup : this.fansubGroup;
+        merged.tags = newer.tags != null ? newer.tags : this.tags;
+        return merged;
+    }
+}
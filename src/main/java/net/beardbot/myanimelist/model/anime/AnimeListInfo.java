@@ -17,6 +17,7 @@
 package net.beardbot.myanimelist.model.anime;
 
 import lombok.Data;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -24,6 +25,7 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "myinfo")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class AnimeListInfo {
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.anime;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The immutable series metadata of an {@link AnimeListEntry}, which is the same for every user's list.
+ */
+@Value
+public class AnimeSeries {
+    private String id;
+    private String title;
+    private List<String> synonyms;
+    private AnimeListSeriesType type;
+    private Integer episodes;
+    private AnimeListSeriesStatus status;
+    private Date startDate;
+    private Date endDate;
+    private String imageUrl;
+
+    public AnimeSeries(String id, String title, List<String> synonyms, AnimeListSeriesType type, Integer episodes,
+                       AnimeListSeriesStatus status, Date startDate, Date endDate, String imageUrl) {
+        this.id = id;
+        this.title = title;
+        this.synonyms = synonyms == null ? null : Collections.unmodifiableList(new ArrayList<>(synonyms));
+        this.type = type;
+        this.episodes = episodes;
+        this.status = status;
+        this.startDate = copy(startDate);
+        this.endDate = copy(endDate);
+        this.imageUrl = imageUrl;
+    }
+
+    /**
+     * Creates an {@link AnimeSeries} from the series information of an {@link AnimeListEntry}.
+     *
+     * @param entry {@code [required]} A {@link AnimeListEntry} object containing information about the series.
+     * @return A {@link AnimeSeries} containing the series information of the given {@code entry}.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public static AnimeSeries fromEntry(AnimeListEntry entry) {
+        return new AnimeSeries(entry.getSeriesId(), entry.getSeriesTitle(), entry.getSeriesSynonyms(), entry.getSeriesType(),
+                               entry.getSeriesEpisodes(), entry.getSeriesStatus(), entry.getSeriesStart(), entry.getSeriesEnd(),
+                               entry.getSeriesImageUrl());
+    }
+
+    /**
+     * @param entry {@code [required]} A {@link AnimeListEntry} object containing information about the series.
+     * @return {@code true} if the series information of the given {@code entry} equals this series.
+     */
+    public boolean matches(AnimeListEntry entry) {
+        return Objects.equals(id, entry.getSeriesId())
+                && Objects.equals(title, entry.getSeriesTitle())
+                && Objects.equals(synonyms, entry.getSeriesSynonyms())
+                && type == entry.getSeriesType()
+                && Objects.equals(episodes, entry.getSeriesEpisodes())
+                && status == entry.getSeriesStatus()
+                && Objects.equals(startDate, entry.getSeriesStart())
+                && Objects.equals(endDate, entry.getSeriesEnd())
+                && Objects.equals(imageUrl, entry.getSeriesImageUrl());
+    }
+
+    public Date getStartDate() {
+        return copy(startDate);
+    }
+
+    public Date getEndDate() {
+        return copy(endDate);
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
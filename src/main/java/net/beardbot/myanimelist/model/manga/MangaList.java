@@ -17,6 +17,7 @@
 package net.beardbot.myanimelist.model.manga;
 
 import lombok.Data;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -25,6 +26,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import java.util.List;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "myanimelist")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class MangaList {
@@ -17,17 +17,25 @@
 package net.beardbot.myanimelist.model.manga;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import net.beardbot.myanimelist.model.adapter.*;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 @Data
+@EqualsAndHashCode(exclude = "series")
+@ToString(exclude = "series")
+@GenerateCodec
 @XmlRootElement(name = "manga")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class MangaListEntry {
@@ -102,5 +110,146 @@ public class MangaListEntry {
     @XmlJavaTypeAdapter(CommaSeperatedListAdapter.class)
     private List<String> tags;
 
-
-}
\ No newline at end of file
+    /**
+     * The shared series metadata, if the entry was resolved against a series catalog.
+     * While it is set, the {@code series*} fields of this entry are {@code null} and their accessors delegate to it.
+     */
+    @XmlTransient
+    private MangaSeries series;
+
+    /**
+     * Lets this entry reference shared series metadata instead of holding its own copy.
+     *
+     * @param series {@code [optional]} The series of this entry or {@code null} to copy the series metadata back into the entry.
+     */
+    public void setSeries(MangaSeries series) {
+        if (series == null) {
+            detachSeries();
+            return;
+        }
+
+        this.series = series;
+        this.seriesId = series.getId();
+        this.seriesTitle = null;
+        this.seriesSynonyms = null;
+        this.seriesType = null;
+        this.seriesChapters = null;
+        this.seriesVolumes = null;
+        this.seriesStatus = null;
+        this.seriesStart = null;
+        this.seriesEnd = null;
+        this.seriesImageUrl = null;
+    }
+
+    public void setSeriesId(String seriesId) {
+        detachSeries();
+        this.seriesId = seriesId;
+    }
+
+    public String getSeriesTitle() {
+        return series != null ? series.getTitle() : seriesTitle;
+    }
+
+    public void setSeriesTitle(String seriesTitle) {
+        detachSeries();
+        this.seriesTitle = seriesTitle;
+    }
+
+    /**
+     * @return The synonyms of the series as a mutable list. While the entry references a shared {@link MangaSeries},
+     * the list is a copy, so changes to it are not seen by other entries. Use {@link #setSeriesSynonyms(List)} to change them.
+     */
+    public List<String> getSeriesSynonyms() {
+        if (series != null) {
+            List<String> synonyms = series.getSynonyms();
+            return synonyms == null ? null : new ArrayList<>(synonyms);
+        }
+        return seriesSynonyms;
+    }
+
+    public void setSeriesSynonyms(List<String> seriesSynonyms) {
+        detachSeries();
+        this.seriesSynonyms = seriesSynonyms;
+    }
+
+    public MangaListSeriesType getSeriesType() {
+        return series != null ? series.getType() : seriesType;
+    }
+
+    public void setSeriesType(MangaListSeriesType seriesType) {
+        detachSeries();
+        this.seriesType = seriesType;
+    }
+
+    public Integer getSeriesChapters() {
+        return series != null ? series.getChapters() : seriesChapters;
+    }
+
+    public void setSeriesChapters(Integer seriesChapters) {
+        detachSeries();
+        this.seriesChapters = seriesChapters;
+    }
+
+    public Integer getSeriesVolumes() {
+        return series != null ? series.getVolumes() : seriesVolumes;
+    }
+
+    public void setSeriesVolumes(Integer seriesVolumes) {
+        detachSeries();
+        this.seriesVolumes = seriesVolumes;
+    }
+
+    public MangaListSeriesStatus getSeriesStatus() {
+        return series != null ? series.getStatus() : seriesStatus;
+    }
+
+    public void setSeriesStatus(MangaListSeriesStatus seriesStatus) {
+        detachSeries();
+        this.seriesStatus = seriesStatus;
+    }
+
+    public Date getSeriesStart() {
+        return series != null ? series.getStartDate() : seriesStart;
+    }
+
+    public void setSeriesStart(Date seriesStart) {
+        detachSeries();
+        this.seriesStart = seriesStart;
+    }
+
+    public Date getSeriesEnd() {
+        return series != null ? series.getEndDate() : seriesEnd;
+    }
+
+    public void setSeriesEnd(Date seriesEnd) {
+        detachSeries();
+        this.seriesEnd = seriesEnd;
+    }
+
+    public String getSeriesImageUrl() {
+        return series != null ? series.getImageUrl() : seriesImageUrl;
+    }
+
+    public void setSeriesImageUrl(String seriesImageUrl) {
+        detachSeries();
+        this.seriesImageUrl = seriesImageUrl;
+    }
+
+    private void detachSeries() {
+        if (series == null) {
+            return;
+        }
+
+        MangaSeries detached = series;
+        this.series = null;
+        this.seriesTitle = detached.getTitle();
+        this.seriesSynonyms = detached.getSynonyms() == null ? null : new ArrayList<>(detached.getSynonyms());
+        this.seriesType = detached.getType();
+        this.seriesChapters = detached.getChapters();
+        this.seriesVolumes = detached.getVolumes();
+        this.seriesStatus = detached.getStatus();
+        this.seriesStart = detached.getStartDate();
+        this.seriesEnd = detached.getEndDate();
+        this.seriesImageUrl = detached.getImageUrl();
+    }
+}
@@ -17,9 +17,11 @@
 package net.beardbot.myanimelist.model.manga;
 
 import lombok.Data;
+import lombok.NonNull;
 import net.beardbot.myanimelist.model.adapter.BooleanAdapter;
 import net.beardbot.myanimelist.model.adapter.CommaSeperatedListAdapter;
 import net.beardbot.myanimelist.model.adapter.OutputDateAdapter;
+import net.beardbot.myanimelist.codec.GenerateCodec;
 
 import javax.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -31,6 +33,7 @@ import java.util.Date;
 import java.util.List;
 
 @Data
+@GenerateCodec
 @XmlRootElement(name = "entry")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class MangaListEntryValues {
@@ -106,4 +109,65 @@ public class MangaListEntryValues {
 
         return values;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the fields of an entry that these values change, the reverse of {@link #fromEntry(MangaListEntry)}.
+     * Fields that are {@code null} and values the entry does not show are ignored.
+     *
+     * @param entry {@code [required]} The {@link MangaListEntry} to change.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public void applyTo(@NonNull MangaListEntry entry){
+        if (chapter != null) {
+            entry.setReadChapters(chapter);
+        }
+        if (volume != null) {
+            entry.setReadVolumes(volume);
+        }
+        if (score != null) {
+            entry.setUserScore(score);
+        }
+        if (status != null) {
+            entry.setStatus(status);
+        }
+        if (tags != null) {
+            entry.setTags(tags);
+        }
+        if (dateStart != null) {
+            entry.setStartedReading(dateStart);
+        }
+        if (dateFinish != null) {
+            entry.setFinishedReading(dateFinish);
+        }
+        if (enableRereading != null) {
+            entry.setRereading(enableRereading);
+        }
+    }
+
+    /**
+     * Combines these values with values set later, as if both had been sent one after the other.
+     *
+     * @param newer {@code [required]} The later values. Their fields override the fields of these values unless they are {@code null}.
+     * @return New {@link MangaListEntryValues} with the fields of both. Neither of the values is changed.
+     * @throws NullPointerException If the newer values are not provided.
+     */
+    public MangaListEntryValues merge(@NonNull MangaListEntryValues newer){
+        MangaListEntryValues merged = new MangaListEntryValues();
+        merged.chapter = newer.chapter != null ? newer.chapter : this.chapter;
+        merged.volume = newer.volume != null ? newer.volume : this.volume;
+        merged.status = newer.status != null ? newer.status : this.status;
+        merged.score = newer.score != null ? newer.score : this.score;
+        merged.timesReread = newer.timesReread != null ? newer.timesReread : this.timesReread;
+        merged.rereadValue = newer.rereadValue != null ? newer.rereadValue : this.rereadValue;
+        merged.dateStart = newer.dateStart != null ? newer.dateStart : this.dateStart;
+        merged.dateFinish = newer.dateFinish != null ? newer.dateFinish : this.dateFinish;
+        merged.priority = newer.priority != null ? newer.priority : this.priority;
+        merged.enableDiscussion = newer.enableDiscussion != null ? newer.enableDiscussion : this.enableDiscussion;
+        merged.enableRereading = newer.enableRereading != null ? newer.enableRereading : this.enableRereading;
+        merged.comments = newer.comments != null ? newer.comments : this.comments;
+        merged.scanGroup = newer.scanGroup != null ? newer.scanGroup : this.scanGroup;
+        merged.tags = newer.tags != null ? newer.tags : this.tags;
+        merged.retailVolumes = newer.retailVolumes != null ? newer.retailVolumes : this.retailVolumes;
+        return merged;
+    }
+}
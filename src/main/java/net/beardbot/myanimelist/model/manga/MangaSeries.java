@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.manga;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The immutable series metadata of a {@link MangaListEntry}, which is the same for every user's list.
+ */
+@Value
+public class MangaSeries {
+    private String id;
+    private String title;
+    private List<String> synonyms;
+    private MangaListSeriesType type;
+    private Integer chapters;
+    private Integer volumes;
+    private MangaListSeriesStatus status;
+    private Date startDate;
+    private Date endDate;
+    private String imageUrl;
+
+    public MangaSeries(String id, String title, List<String> synonyms, MangaListSeriesType type, Integer chapters, Integer volumes,
+                       MangaListSeriesStatus status, Date startDate, Date endDate, String imageUrl) {
+        this.id = id;
+        this.title = title;
+        this.synonyms = synonyms == null ? null : Collections.unmodifiableList(new ArrayList<>(synonyms));
+        this.type = type;
+        this.chapters = chapters;
+        this.volumes = volumes;
+        this.status = status;
+        this.startDate = copy(startDate);
+        this.endDate = copy(endDate);
+        this.imageUrl = imageUrl;
+    }
+
+    /**
+     * Creates a {@link MangaSeries} from the series information of a {@link MangaListEntry}.
+     *
+     * @param entry {@code [required]} A {@link MangaListEntry} object containing information about the series.
+     * @return A {@link MangaSeries} containing the series information of the given {@code entry}.
+     * @throws NullPointerException If the entry is not provided.
+     */
+    public static MangaSeries fromEntry(MangaListEntry entry) {
+        return new MangaSeries(entry.getSeriesId(), entry.getSeriesTitle(), entry.getSeriesSynonyms(), entry.getSeriesType(),
+                               entry.getSeriesChapters(), entry.getSeriesVolumes(), entry.getSeriesStatus(), entry.getSeriesStart(),
+                               entry.getSeriesEnd(), entry.getSeriesImageUrl());
+    }
+
+    /**
+     * @param entry {@code [required]} A {@link MangaListEntry} object containing information about the series.
+     * @return {@code true} if the series information of the given {@code entry} equals this series.
+     */
+    public boolean matches(MangaListEntry entry) {
+        return Objects.equals(id, entry.getSeriesId())
+                && Objects.equals(title, entry.getSeriesTitle())
+                && Objects.equals(synonyms, entry.getSeriesSynonyms())
+                && type == entry.getSeriesType()
+                && Objects.equals(chapters, entry.getSeriesChapters())
+                && Objects.equals(volumes, entry.getSeriesVolumes())
+                && status == entry.getSeriesStatus()
+                && Objects.equals(startDate, entry.getSeriesStart())
+                && Objects.equals(endDate, entry.getSeriesEnd())
+                && Objects.equals(imageUrl, entry.getSeriesImageUrl());
+    }
+
+    public Date getStartDate() {
+        return copy(startDate);
+    }
+
+    public Date getEndDate() {
+        return copy(endDate);
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.ordered;
+
+import lombok.Data;
+import net.beardbot.myanimelist.lane.Priority;
+
+/**
+ * Controls how an {@link OrderedWriter} schedules its requests.
+ */
+@Data
+public class OrderedWriteOptions {
+    /**
+     * The number of queues the series are spread over. Series sharing a queue are written one after the other,
+     * so more stripes mean fewer series waiting for unrelated ones.
+     */
+    private int stripes = 64;
+    /**
+     * The maximum number of requests in flight at the same time.
+     */
+    private int concurrency = 4;
+    /**
+     * The priority of the requests. By default they do not compete with interactive requests.
+     */
+    private Priority priority = Priority.BACKGROUND;
+}
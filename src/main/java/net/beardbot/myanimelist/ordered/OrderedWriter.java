@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.ordered;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.MALClient;
+import net.beardbot.myanimelist.lane.Priority;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends list changes concurrently, but the changes of each series in the order they were made.
+ * <p>
+ * Changes are run by a {@link StripedExecutor} keyed by the series, so a later change of an anime can never reach
+ * MAL before an earlier one, while changes of different series are sent in parallel. The methods return right away
+ * with a future of the request. Anime and manga with the same ID are different series.
+ * <p>
+ * The writer is thread-safe.
+ */
+public class OrderedWriter implements AutoCloseable {
+
+    private final MALClient client;
+    private final Priority priority;
+    private final StripedExecutor executor;
+
+    /**
+     * Creates a writer and its threads.
+     *
+     * @param client  {@code [required]} The client sending the changes.
+     * @param options {@code [required]} Stripes, concurrency and priority of the writer.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the number of stripes or the concurrency is not positive.
+     */
+    public OrderedWriter(
+            @NonNull final MALClient client,
+            @NonNull final OrderedWriteOptions options) {
+
+        if (options.getPriority() == null) {
+            throw new NullPointerException("priority");
+        }
+        this.client = client;
+        this.priority = options.getPriority();
+        this.executor = new StripedExecutor(options.getStripes(), options.getConcurrency());
+    }
+
+    /**
+     * Adds an anime to the anime list after all earlier changes of the anime, see {@link MALClient#addToAnimeList(String, AnimeListEntryValues)}.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If any of the parameters are null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> addToAnimeList(@NonNull final String animeId, @NonNull final AnimeListEntryValues values) {
+        return submit(animeKey(animeId), () -> client.addToAnimeList(animeId, values));
+    }
+
+    /**
+     * Updates an anime on the anime list after all earlier changes of the anime, see {@link MALClient#updateAnimeList(String, AnimeListEntryValues)}.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If any of the parameters are null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> updateAnimeList(@NonNull final String animeId, @NonNull final AnimeListEntryValues values) {
+        return submit(animeKey(animeId), () -> client.updateAnimeList(animeId, values));
+    }
+
+    /**
+     * Removes an anime from the anime list after all earlier changes of the anime, see {@link MALClient#removeFromAnimeList(String)}.
+     *
+     * @param animeId {@code [required]} The ID of the anime.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If the ID is null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> removeFromAnimeList(@NonNull final String animeId) {
+        return submit(animeKey(animeId), () -> client.removeFromAnimeList(animeId));
+    }
+
+    /**
+     * Adds a manga to the manga list after all earlier changes of the manga, see {@link MALClient#addToMangaList(String, MangaListEntryValues)}.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If any of the parameters are null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> addToMangaList(@NonNull final String mangaId, @NonNull final MangaListEntryValues values) {
+        return submit(mangaKey(mangaId), () -> client.addToMangaList(mangaId, values));
+    }
+
+    /**
+     * Updates a manga on the manga list after all earlier changes of the manga, see {@link MALClient#updateMangaList(String, MangaListEntryValues)}.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @param values  {@code [required]} The values of the list entry.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If any of the parameters are null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> updateMangaList(@NonNull final String mangaId, @NonNull final MangaListEntryValues values) {
+        return submit(mangaKey(mangaId), () -> client.updateMangaList(mangaId, values));
+    }
+
+    /**
+     * Removes a manga from the manga list after all earlier changes of the manga, see {@link MALClient#removeFromMangaList(String)}.
+     *
+     * @param mangaId {@code [required]} The ID of the manga.
+     * @return A future completed once MAL accepted the change or exceptionally with the exception of the request.
+     * @throws NullPointerException If the ID is null.
+     * @throws java.util.concurrent.RejectedExecutionException If the writer is closed.
+     */
+    public CompletableFuture<Void> removeFromMangaList(@NonNull final String mangaId) {
+        return submit(mangaKey(mangaId), () -> client.removeFromMangaList(mangaId));
+    }
+
+    /**
+     * @return A snapshot of the queues of the stripes.
+     */
+    public StripeMetrics getMetrics() {
+        return executor.getMetrics();
+    }
+
+    /**
+     * Waits until all changes were sent.
+     *
+     * @return Whether all changes were sent before the timeout elapsed.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitIdle(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        return executor.awaitIdle(timeout, unit);
+    }
+
+    /**
+     * Stops accepting changes and waits until the queued ones were sent.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private CompletableFuture<Void> submit(String key, Runnable change) {
+        Supplier<Void> call = () -> {
+            change.run();
+            return null;
+        };
+        return executor.submit(key, () -> client.withPriority(priority, call));
+    }
+
+    private static String animeKey(String animeId) {
+        return "anime/" + animeId;
+    }
+
+    private static String mangaKey(String mangaId) {
+        return "manga/" + mangaId;
+    }
+}
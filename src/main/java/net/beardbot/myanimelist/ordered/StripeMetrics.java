@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.ordered;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A snapshot of the queues of a {@link StripedExecutor}.
+ */
+@Value
+public class StripeMetrics {
+    /**
+     * The number of queued and running tasks of every stripe.
+     */
+    private final List<Integer> queueDepths;
+    /**
+     * The highest number of queued and running tasks any stripe had since the executor was created.
+     */
+    private final int peakQueueDepth;
+    /**
+     * The number of tasks that have finished, successfully or not.
+     */
+    private final long completed;
+
+    /**
+     * @return The number of queued and running tasks of all stripes.
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (int depth : queueDepths) {
+            queued += depth;
+        }
+        return queued;
+    }
+}
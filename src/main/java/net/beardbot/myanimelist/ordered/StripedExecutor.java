@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.ordered;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks in the order they were submitted per key, and tasks of different keys concurrently.
+ * <p>
+ * Keys are spread over a fixed number of stripes by their hash. Every stripe is a queue that runs one task at a
+ * time on a shared pool of threads, so tasks of the same key never overlap or overtake each other. Tasks of keys
+ * in different stripes run in parallel. There is no lock shared by the stripes: a stripe is scheduled on the pool
+ * by the task that makes its queue non-empty, and reschedules itself after each task while tasks are left, so busy
+ * stripes take turns with the others.
+ * <p>
+ * The executor is thread-safe.
+ */
+public class StripedExecutor implements AutoCloseable {
+
+    private static final AtomicInteger EXECUTOR_COUNT = new AtomicInteger();
+
+    private final Stripe[] stripes;
+    private final ExecutorService pool;
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates an executor and its threads.
+     *
+     * @param stripes     The number of stripes.
+     * @param concurrency The number of threads.
+     * @throws IllegalArgumentException If any of the numbers is not positive.
+     */
+    public StripedExecutor(final int stripes, final int concurrency) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive but was " + stripes);
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive but was " + concurrency);
+        }
+
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        int executorNumber = EXECUTOR_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "mal-ordered-" + executorNumber + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a task behind all tasks submitted with the same key before.
+     *
+     * @param key  {@code [required]} The key whose tasks run in order.
+     * @param task {@code [required]} The task.
+     * @return A future completed with the result of the task or exceptionally with its exception.
+     * @throws NullPointerException       If any of the parameters are null.
+     * @throws RejectedExecutionException If the executor is closed.
+     */
+    public <T> CompletableFuture<T> submit(
+            @NonNull final String key,
+            @NonNull final Supplier<T> task) {
+
+        if (closed) {
+            throw new RejectedExecutionException("The executor is closed.");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        stripes[stripe(key)].add(() -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            } finally {
+                completed.incrementAndGet();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return A snapshot of the queues.
+     */
+    public StripeMetrics getMetrics() {
+        List<Integer> depths = new ArrayList<>(stripes.length);
+        for (Stripe stripe : stripes) {
+            depths.add(stripe.depth.get());
+        }
+        return new StripeMetrics(depths, peakQueueDepth.get(), completed.get());
+    }
+
+    /**
+     * Waits until all queued tasks have finished.
+     *
+     * @return Whether the tasks finished before the timeout elapsed.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitIdle(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                long remaining;
+                while (stripe.depth.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(stripe, remaining);
+                }
+                if (stripe.depth.get() > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting tasks, waits until the queued ones have finished and stops the threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            awaitIdle(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+    }
+
+    int stripe(String key) {
+        int hash = key.hashCode();
+        // Spread the bits like HashMap, so keys differing only in high bits do not collide
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    private final class Stripe implements Runnable {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        void add(Runnable task) {
+            tasks.add(task);
+            int queued = depth.incrementAndGet();
+            peakQueueDepth.accumulateAndGet(queued, Math::max);
+            if (queued == 1) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            tasks.poll().run();
+            if (depth.decrementAndGet() > 0) {
+                pool.execute(this);
+            } else {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A change planned by a reconciliation.
+ *
+ * @param <V> {@link net.beardbot.myanimelist.model.anime.AnimeListEntryValues} or {@link net.beardbot.myanimelist.model.manga.MangaListEntryValues}.
+ */
+@Value
+public class ListOperation<V> {
+    /**
+     * What is changed.
+     */
+    private final OperationType type;
+    /**
+     * The ID of the anime or manga.
+     */
+    private final String seriesId;
+    /**
+     * The values sent to MAL. Updates only contain the fields that differ from the list and the fields the list
+     * does not show. {@code null} for removals.
+     */
+    private final V values;
+    /**
+     * The names of the fields of the values that differ from the list, like {@code episode}. Empty for removals.
+     */
+    private final List<String> changedFields;
+}
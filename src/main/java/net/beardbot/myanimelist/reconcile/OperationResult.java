@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import lombok.Value;
+
+/**
+ * The outcome of a planned change of a reconciliation.
+ *
+ * @param <V> {@link net.beardbot.myanimelist.model.anime.AnimeListEntryValues} or {@link net.beardbot.myanimelist.model.manga.MangaListEntryValues}.
+ */
+@Value
+public class OperationResult<V> {
+    /**
+     * The planned change.
+     */
+    private final ListOperation<V> operation;
+    /**
+     * Whether the change was sent to MAL. {@code false} in a dry run.
+     */
+    private final boolean executed;
+    /**
+     * The exception the change failed with or {@code null}.
+     */
+    private final RuntimeException error;
+
+    /**
+     * @return Whether the change did not fail.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
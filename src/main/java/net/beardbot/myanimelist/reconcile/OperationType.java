@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+/**
+ * The kinds of changes made to a list.
+ */
+public enum OperationType {
+    /**
+     * Adds a series that is not on the list yet.
+     */
+    ADD,
+    /**
+     * Changes the values of an entry of the list.
+     */
+    UPDATE,
+    /**
+     * Removes a series that is not desired.
+     */
+    REMOVE
+}
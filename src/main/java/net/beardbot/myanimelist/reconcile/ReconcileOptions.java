@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import lombok.Data;
+import net.beardbot.myanimelist.bulk.BulkFetchOptions;
+
+/**
+ * Controls what a reconciliation changes and how the changes are scheduled.
+ */
+@Data
+public class ReconcileOptions {
+    /**
+     * Whether the changes are only planned and reported, without sending them.
+     */
+    private boolean dryRun = false;
+    /**
+     * Whether entries of the list that are not desired are removed. Otherwise they are left alone.
+     */
+    private boolean removeMissing = true;
+    /**
+     * Concurrency, rate limit, priority and progress reporting of the changes.
+     */
+    private BulkFetchOptions executionOptions = new BulkFetchOptions();
+}
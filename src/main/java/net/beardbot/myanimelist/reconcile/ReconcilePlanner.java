@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Computes the changes that make a list match the desired entries.
+ * <p>
+ * Series missing on the list are added with all desired values. Entries of the list are compared field by field
+ * with the desired values, for the fields the list shows (see {@link AnimeListEntryValues#fromEntry(AnimeListEntry)}).
+ * An entry is only updated if one of them differs, sending the differing fields together with the desired fields the
+ * list does not show, like comments. Desired fields that are {@code null} are left as they are. Dates are compared by day.
+ */
+public final class ReconcilePlanner {
+
+    private ReconcilePlanner() {
+    }
+
+    /**
+     * Plans the changes of an anime list.
+     *
+     * @param current       {@code [required]} The entries of the list.
+     * @param desired       {@code [required]} The desired values by anime ID.
+     * @param removeMissing Whether entries of the list that are not desired are removed.
+     * @return The changes, additions and updates in the order of the desired values first, then removals.
+     * @throws NullPointerException If any of the parameters or desired values are null.
+     */
+    public static List<ListOperation<AnimeListEntryValues>> planAnimeList(
+            @NonNull final Collection<AnimeListEntry> current,
+            @NonNull final Map<String, AnimeListEntryValues> desired,
+            final boolean removeMissing) {
+
+        Map<String, AnimeListEntry> entries = new LinkedHashMap<>();
+        current.forEach(entry -> entries.put(entry.getSeriesId(), entry));
+
+        List<ListOperation<AnimeListEntryValues>> operations = new ArrayList<>();
+        desired.forEach((id, values) -> {
+            if (values == null) {
+                throw new NullPointerException("values");
+            }
+            AnimeListEntry entry = entries.get(id);
+            if (entry == null) {
+                operations.add(new ListOperation<>(OperationType.ADD, id, values, Collections.emptyList()));
+                return;
+            }
+            List<String> changed = new ArrayList<>();
+            AnimeListEntryValues update = changes(AnimeListEntryValues.fromEntry(entry), values, changed);
+            if (!changed.isEmpty()) {
+                operations.add(new ListOperation<>(OperationType.UPDATE, id, update, changed));
+            }
+        });
+        if (removeMissing) {
+            entries.keySet().stream()
+                   .filter(id -> !desired.containsKey(id))
+                   .forEach(id -> operations.add(new ListOperation<>(OperationType.REMOVE, id, null, Collections.emptyList())));
+        }
+        return operations;
+    }
+
+    /**
+     * Plans the changes of a manga list.
+     *
+     * @param current       {@code [required]} The entries of the list.
+     * @param desired       {@code [required]} The desired values by manga ID.
+     * @param removeMissing Whether entries of the list that are not desired are removed.
+     * @return The changes, additions and updates in the order of the desired values first, then removals.
+     * @throws NullPointerException If any of the parameters or desired values are null.
+     */
+    public static List<ListOperation<MangaListEntryValues>> planMangaList(
+            @NonNull final Collection<MangaListEntry> current,
+            @NonNull final Map<String, MangaListEntryValues> desired,
+            final boolean removeMissing) {
+
+        Map<String, MangaListEntry> entries = new LinkedHashMap<>();
+        current.forEach(entry -> entries.put(entry.getSeriesId(), entry));
+
+        List<ListOperation<MangaListEntryValues>> operations = new ArrayList<>();
+        desired.forEach((id, values) -> {
+            if (values == null) {
+                throw new NullPointerException("values");
+            }
+            MangaListEntry entry = entries.get(id);
+            if (entry == null) {
+                operations.add(new ListOperation<>(OperationType.ADD, id, values, Collections.emptyList()));
+                return;
+            }
+            List<String> changed = new ArrayList<>();
+            MangaListEntryValues update = changes(MangaListEntryValues.fromEntry(entry), values, changed);
+            if (!changed.isEmpty()) {
+                operations.add(new ListOperation<>(OperationType.UPDATE, id, update, changed));
+            }
+        });
+        if (removeMissing) {
+            entries.keySet().stream()
+                   .filter(id -> !desired.containsKey(id))
+                   .forEach(id -> operations.add(new ListOperation<>(OperationType.REMOVE, id, null, Collections.emptyList())));
+        }
+        return operations;
+    }
+
+    private static AnimeListEntryValues changes(AnimeListEntryValues current, AnimeListEntryValues desired, List<String> changed) {
+        AnimeListEntryValues update = new AnimeListEntryValues().merge(desired);
+        if (same("episode", current.getEpisode(), desired.getEpisode(), changed)) {
+            update.setEpisode(null);
+        }
+        if (same("score", current.getScore(), desired.getScore(), changed)) {
+            update.setScore(null);
+        }
+        if (same("status", current.getStatus(), desired.getStatus(), changed)) {
+            update.setStatus(null);
+        }
+        if (same("tags", current.getTags(), desired.getTags(), changed)) {
+            update.setTags(null);
+        }
+        if (same("date_start", current.getDateStart(), desired.getDateStart(), changed)) {
+            update.setDateStart(null);
+        }
+        if (same("date_finish", current.getDateFinish(), desired.getDateFinish(), changed)) {
+            update.setDateFinish(null);
+        }
+        if (same("enable_rewatching", current.getEnableRewatching(), desired.getEnableRewatching(), changed)) {
+            update.setEnableRewatching(null);
+        }
+        return update;
+    }
+
+    private static MangaListEntryValues changes(MangaListEntryValues current, MangaListEntryValues desired, List<String> changed) {
+        MangaListEntryValues update = new MangaListEntryValues().merge(desired);
+        if (same("chapter", current.getChapter(), desired.getChapter(), changed)) {
+            update.setChapter(null);
+        }
+        if (same("volume", current.getVolume(), desired.getVolume(), changed)) {
+            update.setVolume(null);
+        }
+        if (same("score", current.getScore(), desired.getScore(), changed)) {
+            update.setScore(null);
+        }
+        if (same("status", current.getStatus(), desired.getStatus(), changed)) {
+            update.setStatus(null);
+        }
+        if (same("tags", current.getTags(), desired.getTags(), changed)) {
+            update.setTags(null);
+        }
+        if (same("date_start", current.getDateStart(), desired.getDateStart(), changed)) {
+            update.setDateStart(null);
+        }
+        if (same("date_finish", current.getDateFinish(), desired.getDateFinish(), changed)) {
+            update.setDateFinish(null);
+        }
+        if (same("enable_rereading", current.getEnableRereading(), desired.getEnableRereading(), changed)) {
+            update.setEnableRereading(null);
+        }
+        return update;
+    }
+
+    private static boolean same(String field, Object current, Object desired, List<String> changed) {
+        boolean same;
+        if (desired == null) {
+            same = true;
+        } else if (desired instanceof Date && current instanceof Date) {
+            same = sameDay((Date) desired, (Date) current);
+        } else if (desired instanceof List && current == null) {
+            same = ((List<?>) desired).isEmpty();
+        } else {
+            same = Objects.equals(current, desired);
+        }
+        if (!same) {
+            changed.add(field);
+        }
+        return same;
+    }
+
+    private static boolean sameDay(Date a, Date b) {
+        Calendar first = Calendar.getInstance();
+        first.setTime(a);
+        Calendar second = Calendar.getInstance();
+        second.setTime(b);
+        return first.get(Calendar.YEAR) == second.get(Calendar.YEAR)
+                && first.get(Calendar.DAY_OF_YEAR) == second.get(Calendar.DAY_OF_YEAR);
+    }
+}
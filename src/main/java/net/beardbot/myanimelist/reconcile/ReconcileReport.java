@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a reconciliation.
+ *
+ * @param <V> {@link net.beardbot.myanimelist.model.anime.AnimeListEntryValues} or {@link net.beardbot.myanimelist.model.manga.MangaListEntryValues}.
+ */
+@Value
+public class ReconcileReport<V> {
+    /**
+     * Whether the changes were only planned, see {@link ReconcileOptions#isDryRun()}.
+     */
+    private final boolean dryRun;
+    /**
+     * The result of every planned change, additions and updates first. Empty if the list matched already.
+     */
+    private final List<OperationResult<V>> results;
+
+    /**
+     * @return The results of the changes that failed.
+     */
+    public List<OperationResult<V>> getFailures() {
+        List<OperationResult<V>> failures = new ArrayList<>();
+        for (OperationResult<V> result : results) {
+            if (!result.isSuccess()) {
+                failures.add(result);
+            }
+        }
+        return failures;
+    }
+}
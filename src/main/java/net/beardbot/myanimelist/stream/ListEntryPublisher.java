@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.stream;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.codec.XmlCodec;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.beardbot.myanimelist.utils.XmlUtils.createXmlStreamReader;
+import static net.beardbot.myanimelist.utils.XmlUtils.getContext;
+
+/**
+ * A cold {@link Publisher} emitting the entries of a {@code /malappinfo.php} list document one by one.
+ * <p>
+ * Every subscription opens its own response stream and parses exactly as many entries as the
+ * subscriber has requested, so the consumer controls how fast the document is read from the network.
+ * The complete list is never held in memory. Entries are delivered on the thread calling
+ * {@link Subscription#request(long)}.
+ *
+ * @param <T> The type of the list entries.
+ */
+public class ListEntryPublisher<T> implements Publisher<T> {
+
+    /**
+     * Opens the XML document to be streamed.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * @return The document as stream or {@code null} if there is no content.
+         */
+        InputStream open() throws Exception;
+    }
+
+    private final Source source;
+    private final String elementName;
+    private final Class<T> entryType;
+    private final Unmarshaller.Listener listener;
+    private final XmlCodec<T> codec;
+
+    /**
+     * @param source      {@code [required]} Opens the document for each new subscription.
+     * @param elementName {@code [required]} The name of the elements directly below the document root that represent an entry.
+     * @param entryType   {@code [required]} The JAXB annotated entry class.
+     * @throws NullPointerException If any of the parameters are null.
+     */
+    public ListEntryPublisher(
+            @NonNull final Source source,
+            @NonNull final String elementName,
+            @NonNull final Class<T> entryType) {
+
+        this(source, elementName, entryType, null);
+    }
+
+    /**
+     * @param source      {@code [required]} Opens the document for each new subscription.
+     * @param elementName {@code [required]} The name of the elements directly below the document root that represent an entry.
+     * @param entryType   {@code [required]} The JAXB annotated entry class.
+     * @param listener    {@code [optional]} A listener notified by the unmarshaller of each subscription.
+     * @throws NullPointerException If any of the required parameters are null.
+     */
+    public ListEntryPublisher(
+            @NonNull final Source source,
+            @NonNull final String elementName,
+            @NonNull final Class<T> entryType,
+            final Unmarshaller.Listener listener) {
+
+        this.source = source;
+        this.elementName = elementName;
+        this.entryType = entryType;
+        this.listener = listener;
+        this.codec = null;
+    }
+
+    /**
+     * Creates a publisher that reads the entries with a generated codec instead of JAXB.
+     *
+     * @param source   {@code [required]} Opens the document for each new subscription.
+     * @param codec    {@code [required]} The codec of the entry class. Its element name identifies the entries below the document root.
+     * @param listener {@code [optional]} A listener notified about each read entry.
+     * @throws NullPointerException If any of the required parameters are null.
+     */
+    public ListEntryPublisher(
+            @NonNull final Source source,
+            @NonNull final XmlCodec<T> codec,
+            final Unmarshaller.Listener listener) {
+
+        this.source = source;
+        this.elementName = codec.getElementName();
+        this.entryType = codec.getType();
+        this.listener = listener;
+        this.codec = codec;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        subscriber.onSubscribe(new EntrySubscription(subscriber));
+    }
+
+    private final class EntrySubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        private InputStream in;
+        private XMLStreamReader reader;
+        private Unmarshaller unmarshaller;
+        private int depth;
+        private boolean done;
+
+        private EntrySubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " entries, but the request must be positive.");
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                emit();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            while (!done) {
+                if (cancelled) {
+                    terminate();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    terminate();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+
+                T entry;
+                try {
+                    entry = next();
+                } catch (Exception e) {
+                    terminate();
+                    subscriber.onError(e);
+                    return;
+                }
+
+                if (entry == null) {
+                    terminate();
+                    subscriber.onComplete();
+                    return;
+                }
+
+                demand.decrementAndGet();
+                subscriber.onNext(entry);
+            }
+        }
+
+        private T next() throws Exception {
+            if (reader == null) {
+                in = source.open();
+                if (in == null) {
+                    return null;
+                }
+                reader = createXmlStreamReader(in);
+                if (codec == null) {
+                    unmarshaller = getContext(entryType).createUnmarshaller();
+                    unmarshaller.setListener(listener);
+                }
+            }
+
+            while (reader.hasNext()) {
+                int event = reader.getEventType();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == 1 && elementName.equals(reader.getLocalName())) {
+                        return unmarshal();
+                    }
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+                reader.next();
+            }
+
+            return null;
+        }
+
+        private T unmarshal() throws JAXBException, XMLStreamException {
+            // The reader is left on the event following the end tag, which lies on the root level again.
+            if (codec != null) {
+                T entry = codec.read(reader, listener, null);
+                reader.next();
+                return entry;
+            }
+            return unmarshaller.unmarshal(reader, entryType).getValue();
+        }
+
+        private void terminate() {
+            done = true;
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (XMLStreamException ignored) {
+            }
+            try {
+                if (in != null) {
+                    in.close();
+                }
+            } catch (IOException ignored) {
+            }
+            reader = null;
+            in = null;
+            unmarshaller = null;
+        }
+    }
+}
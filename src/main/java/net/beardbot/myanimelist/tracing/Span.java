@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing;
+
+/**
+ * A timed part of an operation, started by {@link Tracer#startSpan(String, Span)}.
+ * A span is only changed by one thread at a time, but may be the parent of spans started on other threads.
+ */
+public interface Span {
+
+    /**
+     * @param key   The name of the attribute, see {@link SpanAttributes}.
+     * @param value The value of the attribute.
+     */
+    void setAttribute(String key, String value);
+
+    /**
+     * @param key   The name of the attribute, see {@link SpanAttributes}.
+     * @param value The value of the attribute.
+     */
+    void setAttribute(String key, long value);
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param error The exception the work of the span failed with.
+     */
+    void setError(Throwable error);
+
+    /**
+     * Ends the span. Called exactly once for every started span.
+     */
+    void end();
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing;
+
+/**
+ * The names of the attributes set on spans.
+ */
+public final class SpanAttributes {
+
+    /**
+     * The {@link net.beardbot.myanimelist.breaker.Endpoint} of a client method's span.
+     */
+    public static final String ENDPOINT = "mal.endpoint";
+
+    /**
+     * The {@link net.beardbot.myanimelist.lane.Priority} of a client method's span.
+     */
+    public static final String PRIORITY = "mal.priority";
+
+    /**
+     * The HTTP method, set on the {@link SpanNames#NETWORK_WAIT} span.
+     */
+    public static final String HTTP_METHOD = "http.method";
+
+    /**
+     * The status code of MAL's response, set on the {@link SpanNames#NETWORK_WAIT} span.
+     */
+    public static final String HTTP_STATUS_CODE = "http.status_code";
+
+    /**
+     * The number of bytes of the response body, set on the {@link SpanNames#UNMARSHAL} span.
+     */
+    public static final String RESPONSE_BYTES = "mal.response_bytes";
+
+    private SpanAttributes() {
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing;
+
+/**
+ * The names of the spans of the phases of a request. They are children of the span of the client method.
+ */
+public final class SpanNames {
+
+    /**
+     * Waiting for a connection from the pool of the request's lane, including opening a new one.
+     */
+    public static final String CONNECTION_ACQUISITION = "mal.connection_acquisition";
+
+    /**
+     * Sending the request and waiting for the status and headers of the response.
+     */
+    public static final String NETWORK_WAIT = "mal.network_wait";
+
+    /**
+     * Reading the body of the response and unmarshalling it. Both happen together while the body is streamed.
+     */
+    public static final String UNMARSHAL = "mal.unmarshal";
+
+    private SpanNames() {
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing;
+
+/**
+ * Creates the spans of the operations of a {@link net.beardbot.myanimelist.MALClient}, to be implemented on top of
+ * a tracing library. See {@link net.beardbot.myanimelist.tracing.opentelemetry.OpenTelemetryTracer} for OpenTelemetry.
+ * <p>
+ * Every call of the client that talks to MAL gets a span named like the method, e.g. {@code getAnimeList}.
+ * Its children cover the phases of the requests sent by the call, see {@link SpanNames}.
+ */
+public interface Tracer {
+
+    /**
+     * Starts a span. Called on the thread doing the work the span covers.
+     *
+     * @param name   The name of the span, either the name of a client method or one of the {@link SpanNames}.
+     * @param parent The span the new span is part of. {@code null} for the span of a client method called outside of
+     *               any other span known to the client, which should then be part of the caller's current span, if any.
+     * @return The started span.
+     */
+    Span startSpan(String name, Span parent);
+
+    /**
+     * Returns the span the calling thread currently works on, if the tracing library keeps track of one.
+     * The client calls this on the calling thread before it continues an operation on other threads, e.g. for
+     * bulk fetches, and uses the span as parent of the spans started on those threads. The span is never ended by the client.
+     *
+     * @return The current span or {@code null}.
+     */
+    default Span currentSpan() {
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing.opentelemetry;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import lombok.NonNull;
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.Tracer;
+
+/**
+ * Reports the spans of a {@link net.beardbot.myanimelist.MALClient} to OpenTelemetry.
+ * <p>
+ * Requires {@code io.opentelemetry:opentelemetry-api} on the classpath, which is an optional dependency of this library.
+ * Operations called outside of any other span of the client are children of the {@link Context#current() current context}.
+ */
+public class OpenTelemetryTracer implements Tracer {
+
+    /**
+     * The name of the instrumentation scope of the spans.
+     */
+    public static final String INSTRUMENTATION_NAME = "net.beardbot.myanimelist";
+
+    private final io.opentelemetry.api.trace.Tracer tracer;
+
+    /**
+     * @param openTelemetry {@code [required]} The OpenTelemetry instance to get the tracer {@value #INSTRUMENTATION_NAME} from.
+     * @throws NullPointerException If the OpenTelemetry instance is not provided.
+     */
+    public OpenTelemetryTracer(@NonNull final OpenTelemetry openTelemetry) {
+        this(openTelemetry.getTracer(INSTRUMENTATION_NAME));
+    }
+
+    /**
+     * @param tracer {@code [required]} The tracer to create the spans with.
+     * @throws NullPointerException If the tracer is not provided.
+     */
+    public OpenTelemetryTracer(@NonNull final io.opentelemetry.api.trace.Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Span startSpan(String name, Span parent) {
+        Context context = Context.current();
+        if (parent instanceof OpenTelemetrySpan) {
+            context = context.with(((OpenTelemetrySpan) parent).span);
+        }
+        return new OpenTelemetrySpan(tracer.spanBuilder(name)
+                                           .setParent(context)
+                                           .setSpanKind(SpanKind.CLIENT)
+                                           .startSpan());
+    }
+
+    @Override
+    public Span currentSpan() {
+        io.opentelemetry.api.trace.Span span = io.opentelemetry.api.trace.Span.current();
+        return span.getSpanContext().isValid() ? new OpenTelemetrySpan(span) : null;
+    }
+
+    private static final class OpenTelemetrySpan implements Span {
+        private final io.opentelemetry.api.trace.Span span;
+
+        private OpenTelemetrySpan(io.opentelemetry.api.trace.Span span) {
+            this.span = span;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void setError(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void end() {
+            span.end();
+        }
+    }
+}
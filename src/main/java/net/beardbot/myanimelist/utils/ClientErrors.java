@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import javax.ws.rs.ClientErrorException;
+
+/**
+ * Tells rejected requests that fail the same way when sent again from those that may pass later.
+ */
+public final class ClientErrors {
+
+    private static final int UNAUTHORIZED = 401;
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private ClientErrors() {
+    }
+
+    /**
+     * @param error {@code [optional]} The exception a request failed with.
+     * @return Whether MAL rejected the request for good. That is the case for {@code 4xx} status codes, except for
+     * {@code 401} which passes once the credentials are renewed and {@code 408} and {@code 429} which pass later.
+     */
+    public static boolean isPermanent(final RuntimeException error) {
+        if (!(error instanceof ClientErrorException)) {
+            return false;
+        }
+        int status = ((ClientErrorException) error).getResponse().getStatus();
+        return status != UNAUTHORIZED && status != REQUEST_TIMEOUT && status != TOO_MANY_REQUESTS;
+    }
+}
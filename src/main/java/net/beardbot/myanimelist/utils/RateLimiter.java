@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out operations evenly so that no more than a given number of them start per second.
+ * <p>
+ * Every {@link #acquire()} reserves the next free time slot and waits for it. There is no burst capacity,
+ * so a limiter that was idle for a while does not allow a sudden spike of requests.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextSlot;
+
+    /**
+     * @param permitsPerSecond The maximum number of operations per second. A value of {@code 0} disables the limit.
+     * @throws IllegalArgumentException If the value is negative or not a number.
+     */
+    public RateLimiter(final double permitsPerSecond) {
+        if (!(permitsPerSecond >= 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("Permits per second must be zero or positive but was " + permitsPerSecond);
+        }
+        this.intervalNanos = permitsPerSecond == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextSlot = System.nanoTime();
+    }
+
+    /**
+     * Waits until the next operation may start.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+
+        long slot = reserve();
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = nextSlot - now > 0 ? nextSlot : now;
+        nextSlot = slot + intervalNanos;
+        return slot;
+    }
+}
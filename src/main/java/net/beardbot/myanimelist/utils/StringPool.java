@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free pool for deduplicating strings.
+ * <p>
+ * The pool is a fixed size hash table in which every slot holds the string that was most recently
+ * interned for that slot. A string that is already pooled is replaced by the pooled instance,
+ * any other string takes over its slot. Memory usage therefore never exceeds the capacity,
+ * frequently repeated strings stay pooled, and unlike {@link String#intern()} nothing is retained
+ * once the pool itself is no longer referenced.
+ * <p>
+ * Concurrent use is safe. Racing threads may occasionally miss a pooled instance, which only
+ * costs a duplicate and never affects correctness.
+ */
+public class StringPool {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final AtomicReferenceArray<String> table;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a pool with {@link #DEFAULT_CAPACITY} slots.
+     */
+    public StringPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The maximum number of pooled strings. Rounded up to the next power of two.
+     * @throws IllegalArgumentException If the capacity is not positive or larger than {@code 2^30}.
+     */
+    public StringPool(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but was " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param value The string to deduplicate. May be {@code null}.
+     * @return The pooled instance equal to {@code value}, or {@code value} itself if none is pooled.
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        String pooled = table.get(index);
+        if (pooled != null && pooled.equals(value)) {
+            hits.increment();
+            return pooled;
+        }
+
+        misses.increment();
+        table.lazySet(index, value);
+        return value;
+    }
+
+    /**
+     * Replaces every element of the given list with its pooled instance.
+     *
+     * @param values A modifiable list. May be {@code null}.
+     * @return The given list.
+     */
+    public List<String> internAll(final List<String> values) {
+        if (values != null) {
+            values.replaceAll(this::intern);
+        }
+        return values;
+    }
+
+    public int getCapacity() {
+        return table.length();
+    }
+
+    /**
+     * @return The number of {@link #intern(String)} calls that returned a pooled instance.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of {@link #intern(String)} calls with a non-null value that was not pooled.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
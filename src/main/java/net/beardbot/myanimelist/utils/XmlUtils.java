@@ -20,19 +20,53 @@ import lombok.NonNull;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class XmlUtils {
+    private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
     public static String objectToXml(@NonNull final Object o) {
         final Class clazz = o.getClass();
         final StringWriter sw = new StringWriter();
 
         try {
-            JAXBContext.newInstance(clazz).createMarshaller().marshal(o,sw);
+            getContext(clazz).createMarshaller().marshal(o,sw);
         } catch (JAXBException e) {
             throw new RuntimeException(e);
         }
 
         return sw.toString();
     }
+
+    /**
+     * Returns a {@link JAXBContext} for the given class. Contexts are expensive to create and thread-safe,
+     * so they are created once per class and shared.
+     */
+    public static JAXBContext getContext(@NonNull final Class<?> clazz) {
+        return CONTEXTS.computeIfAbsent(clazz, c -> {
+            try {
+                return JAXBContext.newInstance(c);
+            } catch (JAXBException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    public static XMLStreamReader createXmlStreamReader(@NonNull final InputStream in) throws XMLStreamException {
+        return INPUT_FACTORY.createXMLStreamReader(in);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The changes a {@link ListWatcher} found in the list of a user since the previous poll.
+ */
+@Value
+public class ListChange<E> {
+    /**
+     * The user whose list changed.
+     */
+    private final String username;
+    /**
+     * Entries that were not on the list before.
+     */
+    private final List<E> added;
+    /**
+     * Entries whose time of the last update changed.
+     */
+    private final List<E> updated;
+    /**
+     * The series IDs of the entries that were removed from the list.
+     */
+    private final List<String> removed;
+}
@@ -0,0 +1,401 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.utils.RateLimiter;
+
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Polls the lists of many users and reports the changes between two polls.
+ * <p>
+ * Each list is polled again after {@link WatchOptions#getLastChangeFactor()} of the time since it last changed, bounded
+ * by {@link WatchOptions#getMinIntervalMillis()} and {@link WatchOptions#getMaxIntervalMillis()}. The last change is the
+ * most recent update time of the entries or the last poll that found a change, whichever is later. Active users are
+ * polled often and users that have not touched their list for months rarely. Failed polls are retried after twice the
+ * previous interval.
+ * <p>
+ * The poll times are kept in a {@link TimingWheel}, so watching hundreds of thousands of users costs a few objects per
+ * user and constant time per poll. For each list only the series IDs and update times of the last poll are kept.
+ * Due polls are sent by {@link WatchOptions#getConcurrency()} threads, limited to
+ * {@link WatchOptions#getRequestsPerSecond()}.
+ * <p>
+ * The first poll of a user records the list without reporting it. The listener is called on the polling threads
+ * and must not throw exceptions. The watcher is thread-safe.
+ */
+public class ListWatcher<E> implements AutoCloseable {
+
+    private static final AtomicInteger WATCHER_COUNT = new AtomicInteger();
+
+    private final Function<String, List<E>> fetch;
+    private final Function<E, String> seriesId;
+    private final Function<E, Date> lastUpdated;
+    private final Consumer<ListChange<E>> listener;
+    private final Consumer<WatchFailure> failureListener;
+    private final double lastChangeFactor;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor pollers;
+
+    private final Map<String, Watched> watched = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final TimingWheel<Watched> wheel = new TimingWheel<>(0);
+    private boolean closed;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a watcher without users.
+     *
+     * @param fetch       {@code [required]} Fetches the entries of the list of a user, {@code null} if MAL returns no list.
+     * @param seriesId    {@code [required]} The series ID of an entry.
+     * @param lastUpdated {@code [required]} The time an entry was last updated.
+     * @param options     {@code [required]} Controls when the lists are polled.
+     * @param listener    {@code [required]} Notified about the changes of a list.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the factor, intervals, tick, concurrency or rate are not positive,
+     *                                  or the maximum interval is shorter than the minimum interval.
+     */
+    public ListWatcher(
+            @NonNull final Function<String, List<E>> fetch,
+            @NonNull final Function<E, String> seriesId,
+            @NonNull final Function<E, Date> lastUpdated,
+            @NonNull final WatchOptions options,
+            @NonNull final Consumer<ListChange<E>> listener) {
+
+        if (!(options.getLastChangeFactor() > 0)) {
+            throw new IllegalArgumentException("Last change factor must be positive but was " + options.getLastChangeFactor());
+        }
+        if (options.getMinIntervalMillis() <= 0 || options.getMaxIntervalMillis() < options.getMinIntervalMillis()) {
+            throw new IllegalArgumentException("Intervals must be positive and the maximum at least the minimum but were "
+                    + options.getMinIntervalMillis() + " and " + options.getMaxIntervalMillis());
+        }
+        if (options.getTickMillis() <= 0) {
+            throw new IllegalArgumentException("Tick must be positive but was " + options.getTickMillis());
+        }
+        if (options.getConcurrency() <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive but was " + options.getConcurrency());
+        }
+        if (options.getPriority() == null) {
+            throw new NullPointerException("priority");
+        }
+
+        this.fetch = fetch;
+        this.seriesId = seriesId;
+        this.lastUpdated = lastUpdated;
+        this.listener = listener;
+        this.failureListener = options.getFailureListener();
+        this.lastChangeFactor = options.getLastChangeFactor();
+        this.minIntervalMillis = options.getMinIntervalMillis();
+        this.maxIntervalMillis = options.getMaxIntervalMillis();
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(options.getTickMillis());
+        this.rateLimiter = new RateLimiter(options.getRequestsPerSecond());
+
+        int watcherNumber = WATCHER_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pollers = new ThreadPoolExecutor(options.getConcurrency(), options.getConcurrency(), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "mal-watch-" + watcherNumber + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mal-watch-" + watcherNumber);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts watching the list of a user. Its first poll is sent right away. Watching a user twice has no effect.
+     *
+     * @param username {@code [required]} The user whose list shall be watched.
+     * @throws NullPointerException  If the username is not provided.
+     * @throws IllegalStateException If the watcher is closed.
+     */
+    public void watch(
+            @NonNull final String username) {
+
+        Watched user;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The list watcher is closed.");
+            }
+            if (watched.containsKey(username)) {
+                return;
+            }
+            user = new Watched(username, System.currentTimeMillis());
+            watched.put(username, user);
+        }
+        submit(user);
+    }
+
+    /**
+     * Stops watching the list of a user. A poll in flight is not reported anymore.
+     *
+     * @param username {@code [required]} The user whose list shall not be watched anymore.
+     * @throws NullPointerException If the username is not provided.
+     */
+    public void unwatch(
+            @NonNull final String username) {
+
+        watched.remove(username);
+    }
+
+    /**
+     * @return The users currently watched.
+     */
+    public Set<String> getWatchedUsers() {
+        return Collections.unmodifiableSet(new HashSet<>(watched.keySet()));
+    }
+
+    /**
+     * @return A snapshot of the counters of this watcher.
+     */
+    public WatchMetrics getMetrics() {
+        return new WatchMetrics(watched.size(), polls.get(), changes.get(), failures.get(), pollers.getQueue().size());
+    }
+
+    /**
+     * Stops polling. Polls in flight are finished but not reported.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        ticker.shutdownNow();
+        pollers.shutdownNow();
+    }
+
+    /**
+     * The time until the next poll of a list, a share of the time since the list last changed within the bounds.
+     */
+    static long intervalMillis(double lastChangeFactor, long sinceLastChangeMillis, long minIntervalMillis, long maxIntervalMillis) {
+        double interval = lastChangeFactor * Math.max(0, sinceLastChangeMillis);
+        return (long) Math.max(minIntervalMillis, Math.min(maxIntervalMillis, interval));
+    }
+
+    private void tick() {
+        List<Watched> due = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            wheel.advanceTo(currentTick(), due::add);
+        }
+        for (Watched user : due) {
+            if (isWatched(user)) {
+                submit(user);
+            }
+        }
+    }
+
+    private void submit(Watched user) {
+        try {
+            pollers.execute(() -> poll(user));
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    private void poll(Watched user) {
+        if (!isWatched(user)) {
+            return;
+        }
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        ListChange<E> change = null;
+        WatchFailure failure = null;
+        long now = System.currentTimeMillis();
+        try {
+            List<E> entries = fetch.apply(user.username);
+            if (entries == null) {
+                throw new ProcessingException("MAL returned no list for " + user.username + ".");
+            }
+            polls.incrementAndGet();
+            change = user.update(entries, now);
+            user.intervalMillis = intervalMillis(lastChangeFactor, now - user.lastChangeMillis, minIntervalMillis, maxIntervalMillis);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            user.intervalMillis = Math.max(minIntervalMillis, Math.min(maxIntervalMillis, user.intervalMillis * 2));
+            failure = new WatchFailure(user.username, e);
+        }
+
+        // The next poll is scheduled before the listeners are called, so an exception thrown by them cannot stop it
+        if (!reschedule(user)) {
+            return;
+        }
+        if (failure != null && failureListener != null) {
+            failureListener.accept(failure);
+        }
+        if (change != null) {
+            changes.incrementAndGet();
+            listener.accept(change);
+        }
+    }
+
+    private synchronized boolean reschedule(Watched user) {
+        if (!isWatched(user)) {
+            return false;
+        }
+        long ticks = (TimeUnit.MILLISECONDS.toNanos(user.intervalMillis) + tickNanos - 1) / tickNanos;
+        wheel.schedule(user, currentTick() + ticks);
+        return true;
+    }
+
+    private boolean isWatched(Watched user) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+        }
+        return watched.get(user.username) == user;
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    private static int parse(String seriesId) {
+        if (seriesId == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(seriesId);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Polled by one thread at a time, the executor and the wheel hand it over between threads
+    private final class Watched {
+        private final String username;
+        private final long watchedSinceMillis;
+        private long lastChangeMillis;
+        private long intervalMillis;
+        // The list of the last poll, sorted by series ID, null before the first poll
+        private int[] seriesIds;
+        private long[] updateTimes;
+
+        private Watched(String username, long watchedSinceMillis) {
+            this.username = username;
+            this.watchedSinceMillis = watchedSinceMillis;
+            this.intervalMillis = minIntervalMillis;
+        }
+
+        /**
+         * Replaces the recorded list with the fetched entries.
+         *
+         * @return The changes since the previous poll or {@code null} if there are none or this is the first poll.
+         */
+        private ListChange<E> update(List<E> entries, long now) {
+            // Series ID and position of each entry in one long, so that sorting needs no boxing
+            long[] order = new long[entries.size()];
+            int count = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                int id = parse(seriesId.apply(entries.get(i)));
+                if (id >= 0) {
+                    order[count++] = (long) id << 32 | i;
+                }
+            }
+            Arrays.sort(order, 0, count);
+
+            int[] ids = new int[count];
+            long[] times = new long[count];
+            long newest = 0;
+            for (int k = 0; k < count; k++) {
+                ids[k] = (int) (order[k] >>> 32);
+                Date updated = lastUpdated.apply(entries.get((int) order[k]));
+                times[k] = updated != null ? updated.getTime() : 0;
+                newest = Math.max(newest, times[k]);
+            }
+
+            ListChange<E> change = seriesIds != null ? diff(entries, order, ids, times) : null;
+            seriesIds = ids;
+            updateTimes = times;
+
+            lastChangeMillis = Math.max(lastChangeMillis, newest);
+            if (change != null) {
+                lastChangeMillis = Math.max(lastChangeMillis, now);
+            } else if (lastChangeMillis == 0) {
+                lastChangeMillis = watchedSinceMillis;
+            }
+            return change;
+        }
+
+        private ListChange<E> diff(List<E> entries, long[] order, int[] ids, long[] times) {
+            List<E> added = new ArrayList<>();
+            List<E> updated = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            int before = 0;
+            int after = 0;
+            while (before < seriesIds.length || after < ids.length) {
+                if (after == ids.length || (before < seriesIds.length && seriesIds[before] < ids[after])) {
+                    removed.add(String.valueOf(seriesIds[before++]));
+                } else if (before == seriesIds.length || ids[after] < seriesIds[before]) {
+                    added.add(entries.get((int) order[after++]));
+                } else {
+                    if (times[after] != updateTimes[before]) {
+                        updated.add(entries.get((int) order[after]));
+                    }
+                    before++;
+                    after++;
+                }
+            }
+            if (added.isEmpty() && updated.isEmpty() && removed.isEmpty()) {
+                return null;
+            }
+            return new ListChange<>(username, added, updated, removed);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel of four levels with 64 slots each, holding items until a deadline tick.
+ * <p>
+ * Level 0 has one slot per tick, every higher level covers 64 times the span of the level below. An item is kept on the
+ * lowest level whose span reaches its deadline and moves down a level whenever the ticks reach its slot, so scheduling
+ * and expiring an item takes constant time regardless of the number of items. Deadlines beyond the span of the
+ * highest level, about 16.7 million ticks, are reinserted into it until they are in range.
+ * <p>
+ * Not thread-safe.
+ */
+class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final List<ArrayDeque<Timeout<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startTick) {
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Adds an item that expires with the given tick. Items with a deadline that has passed expire with the next tick.
+     */
+    void schedule(T item, long deadlineTick) {
+        insert(new Timeout<>(item, Math.max(deadlineTick, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward tick by tick and passes the expired items to the consumer in the order of their deadlines.
+     */
+    void advanceTo(long tick, Consumer<T> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Timeout<T>> slot = slot(0, currentTick);
+            Timeout<T> timeout;
+            while ((timeout = slot.poll()) != null) {
+                size--;
+                expired.accept(timeout.item);
+            }
+        }
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Moves the items of the higher level slots the current tick reached down, starting with the highest level
+    // so that items can move down several levels within one tick.
+    private void cascade() {
+        int level = 0;
+        while (level < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            ArrayDeque<Timeout<T>> slot = slot(level, currentTick);
+            int count = slot.size();
+            for (int i = 0; i < count; i++) {
+                insert(slot.poll());
+            }
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        long delta = timeout.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        slot(level, timeout.deadline).add(timeout);
+    }
+
+    private ArrayDeque<Timeout<T>> slot(int level, long tick) {
+        return slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    private static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
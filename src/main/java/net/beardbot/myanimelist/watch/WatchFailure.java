@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import lombok.Value;
+
+/**
+ * A poll of a {@link ListWatcher} that failed. The list is polled again after twice the previous interval.
+ */
+@Value
+public class WatchFailure {
+    /**
+     * The user whose list could not be fetched.
+     */
+    private final String username;
+    /**
+     * The reason, e.g. a {@link javax.ws.rs.ServerErrorException}.
+     */
+    private final RuntimeException error;
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of a {@link ListWatcher}. The counters are cumulative since its creation.
+ */
+@Value
+public class WatchMetrics {
+    /**
+     * Users currently watched.
+     */
+    private final int watchedUsers;
+    /**
+     * Lists fetched successfully.
+     */
+    private final long polls;
+    /**
+     * Polls that found changes.
+     */
+    private final long changes;
+    /**
+     * Polls that failed, see {@link WatchFailure}.
+     */
+    private final long failures;
+    /**
+     * Polls that are due and wait for the rate limit or a free polling thread.
+     */
+    private final int duePolls;
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import lombok.Data;
+import net.beardbot.myanimelist.lane.Priority;
+
+import java.util.function.Consumer;
+
+/**
+ * Controls how often a {@link ListWatcher} polls the lists of the watched users.
+ */
+@Data
+public class WatchOptions {
+    /**
+     * The share of the time since a list last changed that passes before it is polled again.
+     * Example: with {@code 0.1} a list unchanged for ten hours is polled again after one hour.
+     */
+    private double lastChangeFactor = 0.1;
+    /**
+     * The shortest time between two polls of a list in milliseconds, used right after a change.
+     */
+    private long minIntervalMillis = 60000;
+    /**
+     * The longest time between two polls of a list in milliseconds, used for lists that have not changed for a long time.
+     */
+    private long maxIntervalMillis = 86400000;
+    /**
+     * The precision of the poll times in milliseconds.
+     */
+    private long tickMillis = 1000;
+    /**
+     * The maximum number of polls in flight at the same time.
+     */
+    private int concurrency = 4;
+    /**
+     * The maximum number of polls started per second. {@code 0} means unlimited.
+     */
+    private double requestsPerSecond = 1;
+    /**
+     * The priority of the polls. By default they do not compete with interactive requests.
+     */
+    private Priority priority = Priority.BACKGROUND;
+    /**
+     * {@code [optional]} Notified when a poll fails. Called on the polling threads after the next poll of the user
+     * was scheduled, so an exception thrown by the listener does not stop the watching of the user.
+     */
+    private Consumer<WatchFailure> failureListener;
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.writebehind;
+
+import lombok.Value;
+
+/**
+ * An update of a {@link WriteBehindQueue} that MAL did not accept.
+ */
+@Value
+public class WriteBehindFailure {
+    /**
+     * The ID of the updated anime or manga.
+     */
+    private final String seriesId;
+    /**
+     * The {@link net.beardbot.myanimelist.model.anime.AnimeListEntryValues} or
+     * {@link net.beardbot.myanimelist.model.manga.MangaListEntryValues} that were sent.
+     */
+    private final Object values;
+    /**
+     * The exception the update failed with.
+     */
+    private final RuntimeException error;
+    /**
+     * Whether the update is queued again, because the failure may be temporary. Updates rejected for good
+     * (see {@link net.beardbot.myanimelist.utils.ClientErrors#isPermanent(RuntimeException)}), failing {@link WriteBehindOptions#getMaxAttempts()} times or still failing when the
+     * queue is closed are dropped.
+     */
+    private final boolean requeued;
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.writebehind;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the counters of a {@link WriteBehindQueue}. The counters are cumulative since its creation.
+ */
+@Value
+public class WriteBehindMetrics {
+    /**
+     * Updates passed to the queue.
+     */
+    private final long submitted;
+    /**
+     * Updates merged into an update of the same series that was still pending.
+     */
+    private final long coalesced;
+    /**
+     * Updates sent to MAL successfully.
+     */
+    private final long sent;
+    /**
+     * Updates MAL did not accept, see {@link WriteBehindFailure}.
+     */
+    private final long failed;
+    /**
+     * Updates waiting to be sent.
+     */
+    private final int pending;
+}
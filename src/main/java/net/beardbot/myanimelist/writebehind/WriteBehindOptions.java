@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.writebehind;
+
+import lombok.Data;
+import net.beardbot.myanimelist.lane.Priority;
+
+import java.util.function.Consumer;
+
+/**
+ * Controls how a {@link WriteBehindQueue} coalesces and sends list updates.
+ */
+@Data
+public class WriteBehindOptions {
+    /**
+     * How long an update waits for further changes to the same series in milliseconds. Measured from the first
+     * change that is still pending, so a series changed continuously is still sent once per window.
+     */
+    private long windowMillis = 30000;
+    /**
+     * The priority of the updates. By default they do not compete with interactive requests.
+     */
+    private Priority priority = Priority.BACKGROUND;
+    /**
+     * How often an update is sent before it is dropped when it keeps failing. Each retry waits twice as long
+     * as the previous one, starting with one window.
+     */
+    private int maxAttempts = 5;
+    /**
+     * {@code [optional]} Notified when an update fails. Called on the thread sending the updates.
+     * Exceptions thrown by the listener are ignored.
+     */
+    private Consumer<WriteBehindFailure> failureListener;
+}
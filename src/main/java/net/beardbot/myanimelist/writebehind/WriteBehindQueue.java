@@ -0,0 +1,291 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.writebehind;
+
+import lombok.NonNull;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import net.beardbot.myanimelist.utils.ClientErrors;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collects list updates and sends them after a delay, merging the updates of the same series in the meantime.
+ * <p>
+ * The first update of a series waits {@link WriteBehindOptions#getWindowMillis()} before it is sent. Further updates
+ * of that series within the window are merged into it field by field (see {@link AnimeListEntryValues#merge(AnimeListEntryValues)}),
+ * so MAL receives a single update with the final state instead of one request per change. All updates that are due
+ * together are sent as one batch on a dedicated thread, one after the other and in the order the series were
+ * first changed.
+ * <p>
+ * Updates rejected for good are dropped, see {@link ClientErrors#isPermanent(RuntimeException)}. Other failures, like
+ * an unavailable MAL or too many requests, are queued again beneath any newer changes and retried with an exponential
+ * backoff, starting with one window, until {@link WriteBehindOptions#getMaxAttempts()} is reached. Failures are reported to
+ * {@link WriteBehindOptions#getFailureListener()} instead of being thrown.
+ * <p>
+ * Closing the queue sends all pending updates. The queue is thread-safe.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    private static final AtomicInteger QUEUE_COUNT = new AtomicInteger();
+
+    private final Store<AnimeListEntryValues> anime;
+    private final Store<MangaListEntryValues> manga;
+    private final long windowNanos;
+    private final int maxAttempts;
+    private final Consumer<WriteBehindFailure> failureListener;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Object sendLock = new Object();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private boolean closed;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param animeWriter {@code [required]} Sends an anime update to MAL.
+     * @param mangaWriter {@code [required]} Sends a manga update to MAL.
+     * @param options     {@code [required]} Controls the window and failure reporting of the queue.
+     * @throws NullPointerException     If any of the parameters or the priority are null.
+     * @throws IllegalArgumentException If the window or the maximum number of attempts is not positive.
+     */
+    public WriteBehindQueue(
+            @NonNull final BiConsumer<String, AnimeListEntryValues> animeWriter,
+            @NonNull final BiConsumer<String, MangaListEntryValues> mangaWriter,
+            @NonNull final WriteBehindOptions options) {
+
+        if (options.getWindowMillis() <= 0) {
+            throw new IllegalArgumentException("Window must be positive but was " + options.getWindowMillis());
+        }
+        if (options.getMaxAttempts() <= 0) {
+            throw new IllegalArgumentException("Maximum attempts must be positive but was " + options.getMaxAttempts());
+        }
+        if (options.getPriority() == null) {
+            throw new NullPointerException("priority");
+        }
+
+        this.anime = new Store<>(AnimeListEntryValues::new, AnimeListEntryValues::merge, animeWriter);
+        this.manga = new Store<>(MangaListEntryValues::new, MangaListEntryValues::merge, mangaWriter);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(options.getWindowMillis());
+        this.maxAttempts = options.getMaxAttempts();
+        this.failureListener = options.getFailureListener();
+
+        String threadName = "mal-write-behind-" + QUEUE_COUNT.incrementAndGet();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Queues an update of an anime on the anime list.
+     *
+     * @param animeId {@code [required]} The ID of the anime to update.
+     * @param values  {@code [required]} The changed values. Fields that are {@code null} keep the values of earlier pending updates.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the queue is closed.
+     */
+    public void updateAnimeList(
+            @NonNull final String animeId,
+            @NonNull final AnimeListEntryValues values) {
+
+        submit(anime, animeId, values);
+    }
+
+    /**
+     * Queues an update of a manga on the manga list.
+     *
+     * @param mangaId {@code [required]} The ID of the manga to update.
+     * @param values  {@code [required]} The changed values. Fields that are {@code null} keep the values of earlier pending updates.
+     * @throws NullPointerException  If any of the parameters are null.
+     * @throws IllegalStateException If the queue is closed.
+     */
+    public void updateMangaList(
+            @NonNull final String mangaId,
+            @NonNull final MangaListEntryValues values) {
+
+        submit(manga, mangaId, values);
+    }
+
+    /**
+     * Sends all pending updates now, without waiting for their windows to end, and waits until they were sent.
+     */
+    public void flush() {
+        send(true);
+    }
+
+    /**
+     * @return A snapshot of the counters of this queue.
+     */
+    public WriteBehindMetrics getMetrics() {
+        int pending;
+        synchronized (this) {
+            pending = anime.entries.size() + manga.entries.size();
+        }
+        return new WriteBehindMetrics(submitted.get(), coalesced.get(), sent.get(), failed.get(), pending);
+    }
+
+    /**
+     * Stops accepting updates and sends all pending ones. Failing updates are not retried anymore.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduler.shutdown();
+        flush();
+    }
+
+    private <V> void submit(Store<V> store, String id, V values) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The write-behind queue is closed.");
+            }
+            submitted.incrementAndGet();
+            Entry<V> entry = store.entries.get(id);
+            if (entry != null) {
+                entry.values = store.merge.apply(entry.values, values);
+                coalesced.incrementAndGet();
+                return;
+            }
+            // The caller keeps its values object, changing it afterwards must not change the pending update
+            store.entries.put(id, new Entry<>(store.copy(values), System.nanoTime() + windowNanos, 0));
+            scheduler.schedule(() -> send(false), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void send(boolean all) {
+        // Batches are sent one at a time, so an update never overtakes an earlier update of the same series
+        synchronized (sendLock) {
+            send(anime, drain(anime, all));
+            send(manga, drain(manga, all));
+        }
+    }
+
+    private synchronized <V> List<Map.Entry<String, Entry<V>>> drain(Store<V> store, boolean all) {
+        List<Map.Entry<String, Entry<V>>> due = new ArrayList<>();
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Entry<V>>> entries = store.entries.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Entry<V>> entry = entries.next();
+            if (all || entry.getValue().due - now <= 0) {
+                due.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                entries.remove();
+            }
+        }
+        return due;
+    }
+
+    private <V> void send(Store<V> store, List<Map.Entry<String, Entry<V>>> batch) {
+        for (Map.Entry<String, Entry<V>> update : batch) {
+            String id = update.getKey();
+            Entry<V> entry = update.getValue();
+            try {
+                store.writer.accept(id, entry.values);
+                sent.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                boolean requeued = !ClientErrors.isPermanent(e) && requeue(store, id, entry.values, entry.attempts + 1);
+                notifyFailure(new WriteBehindFailure(id, entry.values, e, requeued));
+            }
+        }
+    }
+
+    private void notifyFailure(WriteBehindFailure failure) {
+        if (failureListener == null) {
+            return;
+        }
+        try {
+            failureListener.accept(failure);
+        } catch (Throwable e) {
+            // A failing listener must not cost the remaining updates of the batch
+        }
+    }
+
+    private synchronized <V> boolean requeue(Store<V> store, String id, V values, int attempts) {
+        if (closed || attempts >= maxAttempts) {
+            return false;
+        }
+        long backoffNanos = windowNanos << Math.min(attempts - 1, 16);
+        long due = System.nanoTime() + backoffNanos;
+        Entry<V> newer = store.entries.get(id);
+        if (newer != null) {
+            // The newer changes are sent together with the failed ones, so they wait for the backoff as well
+            newer.values = store.merge.apply(values, newer.values);
+            newer.attempts = Math.max(newer.attempts, attempts);
+            if (due - newer.due <= 0) {
+                return true;
+            }
+            newer.due = due;
+        } else {
+            store.entries.put(id, new Entry<>(values, due, attempts));
+        }
+        scheduler.schedule(() -> send(false), backoffNanos, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    private static final class Store<V> {
+        private final Map<String, Entry<V>> entries = new LinkedHashMap<>();
+        private final Supplier<V> empty;
+        private final BinaryOperator<V> merge;
+        private final BiConsumer<String, V> writer;
+
+        private Store(Supplier<V> empty, BinaryOperator<V> merge, BiConsumer<String, V> writer) {
+            this.empty = empty;
+            this.merge = merge;
+            this.writer = writer;
+        }
+
+        private V copy(V values) {
+            return merge.apply(empty.get(), values);
+        }
+    }
+
+    private static final class Entry<V> {
+        private V values;
+        private long due;
+        private int attempts;
+
+        private Entry(V values, long due, int attempts) {
+            this.values = values;
+            this.due = due;
+            this.attempts = attempts;
+        }
+    }
+}
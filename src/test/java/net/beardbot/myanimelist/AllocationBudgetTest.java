@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.codec.XmlBinding;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntryValues;
+import static net.beardbot.myanimelist.TestUtils.createTestMangaListEntryValues;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails when a request allocates more than its budget on the calling thread, measured against the {@link MalSimulator}
+ * after a warm-up. The budgets leave some room for other JVMs, but not for falling back to JAXB, creating JAXB contexts
+ * or connections per call and the like.
+ */
+public class AllocationBudgetTest {
+    private static final int WARMUP_CALLS = 300;
+    private static final int MEASURED_CALLS = 100;
+    private static final int LIST_ENTRIES = 100;
+
+    private static final long SEARCH_BUDGET = 150_000;
+    private static final long LIST_BUDGET = 420_000;
+    private static final long LIST_BUDGET_JAXB = 600_000;
+    private static final long LIST_WRITE_BUDGET = 105_000;
+    private static final long LIST_WRITE_BUDGET_JAXB = 125_000;
+    private static final long VERIFY_CREDENTIALS_BUDGET = 95_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static MalSimulator simulator;
+    private static MALClient client;
+    private static String animeId;
+    private static String mangaId;
+
+    @BeforeClass
+    public static void startSimulator() throws Exception {
+        SimulatorOptions options = new SimulatorOptions();
+        options.setUsers(10);
+        options.setSeriesCount(200);
+        options.setAnimeEntries(LIST_ENTRIES);
+        options.setMangaEntries(LIST_ENTRIES);
+        simulator = new MalSimulator(options);
+        client = new MALClient(simulator.getUsername(1), simulator.getPassword(), simulator.getUrl());
+        animeId = client.getAnimeList().getEntries().get(0).getSeriesId();
+        mangaId = client.getMangaList().getEntries().get(0).getSeriesId();
+    }
+
+    @AfterClass
+    public static void stopSimulator() {
+        client.close();
+        simulator.close();
+    }
+
+    @Before
+    public void requireAllocationCounting() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled());
+        client.setXmlBinding(XmlBinding.GENERATED);
+    }
+
+    @Test
+    public void searchForAnime_withinBudget() {
+        assertThat(allocatedPerCall(() -> client.searchForAnime("Fate")), lessThan(SEARCH_BUDGET));
+    }
+
+    @Test
+    public void searchForManga_withinBudget() {
+        assertThat(allocatedPerCall(() -> client.searchForManga("Fate")), lessThan(SEARCH_BUDGET));
+    }
+
+    @Test
+    public void getAnimeList_withinBudget() {
+        String username = simulator.getUsername(2);
+        assertThat(allocatedPerCall(() -> client.getAnimeList(username)), lessThan(LIST_BUDGET));
+    }
+
+    @Test
+    public void getMangaList_withinBudget() {
+        String username = simulator.getUsername(2);
+        assertThat(allocatedPerCall(() -> client.getMangaList(username)), lessThan(LIST_BUDGET));
+    }
+
+    @Test
+    public void getAnimeList_withJaxbBinding_withinBudget() {
+        client.setXmlBinding(XmlBinding.JAXB);
+        String username = simulator.getUsername(2);
+        assertThat(allocatedPerCall(() -> client.getAnimeList(username)), lessThan(LIST_BUDGET_JAXB));
+    }
+
+    @Test
+    public void updateAnimeList_withinBudget() {
+        assertThat(allocatedPerCall(() -> client.updateAnimeList(animeId, createTestAnimeListEntryValues())), lessThan(LIST_WRITE_BUDGET));
+    }
+
+    @Test
+    public void updateMangaList_withinBudget() {
+        assertThat(allocatedPerCall(() -> client.updateMangaList(mangaId, createTestMangaListEntryValues())), lessThan(LIST_WRITE_BUDGET));
+    }
+
+    @Test
+    public void updateAnimeList_withJaxbBinding_withinBudget() {
+        client.setXmlBinding(XmlBinding.JAXB);
+        assertThat(allocatedPerCall(() -> client.updateAnimeList(animeId, createTestAnimeListEntryValues())), lessThan(LIST_WRITE_BUDGET_JAXB));
+    }
+
+    @Test
+    public void verifyCredentials_withinBudget() {
+        assertThat(allocatedPerCall(client::verifyCredentials), lessThan(VERIFY_CREDENTIALS_BUDGET));
+    }
+
+    /**
+     * @return The bytes allocated by the current thread per call, on average.
+     */
+    private static long allocatedPerCall(Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        return (THREADS.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+    }
+}
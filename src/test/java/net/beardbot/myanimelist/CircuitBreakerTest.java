@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServerErrorException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private final AtomicBoolean available = new AtomicBoolean();
+    private final List<CircuitBreakerEvent> events = new CopyOnWriteArrayList<>();
+    private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        listeners.add(events::add);
+        breaker = new CircuitBreaker(Endpoint.SEARCH, new CircuitBreakerOptions(3, 20), available::get,
+                () -> scheduler, listeners);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void call_failuresBelowThreshold_staysClosed() {
+        failCalls(2);
+        breaker.call(() -> "ok");
+        failCalls(2);
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.CLOSED));
+        assertThat(breaker.getMetrics().getFailedCalls(), is(4L));
+        assertThat(breaker.getMetrics().getConsecutiveFailures(), is(2));
+    }
+
+    @Test
+    public void call_failuresReachThreshold_rejectsCalls() {
+        failCalls(3);
+
+        AtomicBoolean called = new AtomicBoolean();
+        try {
+            breaker.call(() -> called.getAndSet(true));
+            fail("Expected CircuitOpenException");
+        } catch (CircuitOpenException e) {
+            assertThat(e.getEndpoint(), is(Endpoint.SEARCH));
+            assertThat(e.getResponse().getStatus(), is(503));
+        }
+
+        assertThat(called.get(), is(false));
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.OPEN));
+        assertThat(breaker.getMetrics().getRejectedCalls(), is(1L));
+        assertThat(breaker.getMetrics().getTimesOpened(), is(1L));
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getFrom(), is(CircuitState.CLOSED));
+        assertThat(events.get(0).getTo(), is(CircuitState.OPEN));
+        assertThat(events.get(0).getCause(), is(instanceOf(ServerErrorException.class)));
+    }
+
+    @Test
+    public void call_processingExceptions_countAsFailures() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                breaker.call(() -> { throw new ProcessingException("timeout"); });
+            } catch (ProcessingException e) {
+                // expected
+            }
+        }
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.OPEN));
+    }
+
+    @Test
+    public void call_clientErrors_doNotCountAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            try {
+                breaker.call(() -> { throw new ClientErrorException(404); });
+            } catch (ClientErrorException e) {
+                // expected
+            }
+        }
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.CLOSED));
+        assertThat(breaker.getMetrics().getSuccessfulCalls(), is(5L));
+    }
+
+    @Test
+    public void probe_malAvailable_halfOpensAndSuccessfulTrialCloses() throws Exception {
+        failCalls(3);
+        available.set(true);
+        awaitState(CircuitState.HALF_OPEN);
+
+        assertThat(breaker.call(() -> "ok"), is("ok"));
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.CLOSED));
+        assertThat(transitions(), contains("CLOSED>OPEN", "OPEN>HALF_OPEN", "HALF_OPEN>CLOSED"));
+    }
+
+    @Test
+    public void probe_malUnavailable_staysOpen() throws Exception {
+        failCalls(3);
+        Thread.sleep(100);
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.OPEN));
+        assertThat(breaker.getMetrics().getFailedProbes() > 1, is(true));
+    }
+
+    @Test
+    public void call_failedTrial_opensAgain() throws Exception {
+        failCalls(3);
+        available.set(true);
+        awaitState(CircuitState.HALF_OPEN);
+        available.set(false);
+
+        failCalls(1);
+
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.OPEN));
+        assertThat(breaker.getMetrics().getTimesOpened(), is(2L));
+        assertThat(transitions(), contains("CLOSED>OPEN", "OPEN>HALF_OPEN", "HALF_OPEN>OPEN"));
+    }
+
+    @Test
+    public void call_halfOpen_allowsOneTrialAtATime() throws Exception {
+        failCalls(3);
+        available.set(true);
+        awaitState(CircuitState.HALF_OPEN);
+
+        CountDownLatch trialStarted = new CountDownLatch(1);
+        CountDownLatch trialMayFinish = new CountDownLatch(1);
+        Thread trial = new Thread(() -> breaker.call(() -> {
+            trialStarted.countDown();
+            try {
+                return trialMayFinish.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        trial.start();
+        trialStarted.await();
+
+        try {
+            breaker.call(() -> "second");
+            fail("Expected CircuitOpenException");
+        } catch (CircuitOpenException e) {
+            // expected
+        }
+
+        trialMayFinish.countDown();
+        trial.join();
+        assertThat(breaker.getMetrics().getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void call_faultyListener_isIgnored() {
+        listeners.add(0, event -> { throw new IllegalStateException("faulty"); });
+        ServerErrorException failure = new ServerErrorException(500);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                breaker.call(() -> { throw failure; });
+            } catch (ServerErrorException e) {
+                assertThat(e, is(sameInstance(failure)));
+            }
+        }
+
+        assertThat(events.size(), is(1));
+    }
+
+    private void failCalls(int times) {
+        for (int i = 0; i < times; i++) {
+            try {
+                breaker.call(() -> { throw new ServerErrorException(500); });
+            } catch (ServerErrorException e) {
+                // expected
+            }
+        }
+    }
+
+    private void awaitState(CircuitState state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (breaker.getMetrics().getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(breaker.getMetrics().getState(), is(state));
+    }
+
+    private List<String> transitions() {
+        List<String> transitions = new CopyOnWriteArrayList<>();
+        events.forEach(event -> transitions.add(event.getFrom() + ">" + event.getTo()));
+        return transitions;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.codec.Codecs;
+import net.beardbot.myanimelist.codec.XmlCodec;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import org.eclipse.persistence.jaxb.JAXBContextFactory;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated codecs with the JAXB reference implementation and with MOXy,
+ * reading a list of {@link #entries} entries and writing the values of a list update.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"10", "500"})
+    public int entries;
+
+    private byte[] list;
+    private AnimeListEntryValues values;
+
+    private XmlCodec<AnimeList> listCodec;
+    private XmlCodec<AnimeListEntryValues> valuesCodec;
+    private JAXBContext jaxb;
+    private JAXBContext moxy;
+
+    @Setup
+    public void setUp() throws JAXBException {
+        list = new SyntheticLists(42, 2000).animeListXml(1, entries).getBytes(StandardCharsets.UTF_8);
+        values = TestUtils.createTestAnimeListEntryValues();
+
+        listCodec = Codecs.forType(AnimeList.class);
+        valuesCodec = Codecs.forType(AnimeListEntryValues.class);
+        jaxb = JAXBContext.newInstance(AnimeList.class, AnimeListEntryValues.class);
+        moxy = JAXBContextFactory.createContext(new Class[]{AnimeList.class, AnimeListEntryValues.class}, null);
+    }
+
+    @Benchmark
+    public AnimeList readGenerated() throws Exception {
+        return Codecs.readDocument(listCodec, new ByteArrayInputStream(list), null);
+    }
+
+    @Benchmark
+    public Object readJaxb() throws Exception {
+        return jaxb.createUnmarshaller().unmarshal(new ByteArrayInputStream(list));
+    }
+
+    @Benchmark
+    public Object readMoxy() throws Exception {
+        return moxy.createUnmarshaller().unmarshal(new ByteArrayInputStream(list));
+    }
+
+    @Benchmark
+    public String writeGenerated() {
+        return Codecs.toXml(valuesCodec, values);
+    }
+
+    @Benchmark
+    public String writeJaxb() throws Exception {
+        StringWriter sw = new StringWriter();
+        jaxb.createMarshaller().marshal(values, sw);
+        return sw.toString();
+    }
+
+    @Benchmark
+    public String writeMoxy() throws Exception {
+        StringWriter sw = new StringWriter();
+        moxy.createMarshaller().marshal(values, sw);
+        return sw.toString();
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import lombok.Data;
+
+/**
+ * How an endpoint of a {@link MalSimulator} answers. Rates are probabilities between {@code 0} and {@code 1},
+ * injected failures are decided after the latency has passed.
+ */
+@Data
+public class EndpointBehavior {
+    private LatencyDistribution latency = LatencyDistribution.none();
+    /**
+     * The share of requests answered with {@link #errorStatus}.
+     */
+    private double errorRate = 0;
+    private int errorStatus = 500;
+    /**
+     * The share of requests answered with an empty {@code 204}, which MAL sends instead of some answers.
+     */
+    private double noContentRate = 0;
+    /**
+     * The share of requests answered with {@code 429 Too Many Requests}.
+     */
+    private double tooManyRequestsRate = 0;
+}
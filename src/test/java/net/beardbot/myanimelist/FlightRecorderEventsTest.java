@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.beardbot.myanimelist.catalog.SeriesCatalog;
+import net.beardbot.myanimelist.hedge.HedgingOptions;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FlightRecorderEventsTest {
+
+    private static final String REQUEST = "net.beardbot.myanimelist.Request";
+    private static final String PARSE = "net.beardbot.myanimelist.Parse";
+    private static final String HEDGE = "net.beardbot.myanimelist.Hedge";
+    private static final String CATALOG_LOOKUP = "net.beardbot.myanimelist.CatalogLookup";
+
+    private static MalSimulator simulator;
+
+    @BeforeClass
+    public static void startSimulator() throws Exception {
+        SimulatorOptions options = new SimulatorOptions();
+        options.setUsers(2);
+        options.setSeriesCount(200);
+        options.setAnimeEntries(40);
+        options.setMangaEntries(20);
+        simulator = new MalSimulator(options);
+    }
+
+    @AfterClass
+    public static void stopSimulator() {
+        simulator.close();
+    }
+
+    @Before
+    public void requireJfr() {
+        Assume.assumeTrue(JfrSupport.AVAILABLE);
+    }
+
+    @Test
+    public void getAnimeList_recordsRequestAndParse() throws Exception {
+        List<RecordedEvent> events;
+        try (MALClient client = client()) {
+            events = record(client::getAnimeList);
+        }
+
+        RecordedEvent request = only(events, REQUEST);
+        assertThat(request.getString("endpoint"), is("MALAPPINFO"));
+        assertThat(request.getString("method"), is("GET"));
+        assertThat(request.getString("path"), is("/malappinfo.php"));
+        assertThat(request.getInt("status"), is(200));
+        assertThat(request.getLong("responseBytes"), is(greaterThan(0L)));
+        RecordedEvent parse = only(events, PARSE);
+        assertThat(parse.getString("type"), is("AnimeList"));
+        assertThat(parse.getInt("entries"), is(40));
+    }
+
+    @Test
+    public void verifyCredentials_wrongPassword_recordsStatus() throws Exception {
+        List<RecordedEvent> events;
+        try (MALClient client = new MALClient(simulator.getUsername(1), "wrong", simulator.getUrl())) {
+            events = record(() -> {
+                try {
+                    client.verifyCredentials();
+                } catch (RuntimeException e) {
+                    // expected
+                }
+            });
+        }
+
+        RecordedEvent request = only(events, REQUEST);
+        assertThat(request.getString("endpoint"), is("VERIFY_CREDENTIALS"));
+        assertThat(request.getInt("status"), is(401));
+    }
+
+    @Test
+    public void getMangaList_withSeriesCatalog_recordsLookups() throws Exception {
+        List<RecordedEvent> events;
+        try (MALClient client = client()) {
+            client.setSeriesCatalog(new SeriesCatalog());
+            events = record(() -> {
+                client.getMangaList();
+                client.getMangaList();
+            });
+        }
+
+        List<RecordedEvent> lookups = all(events, CATALOG_LOOKUP);
+        assertThat(lookups.size(), is(40));
+        assertThat(lookups.stream().filter(event -> event.getBoolean("hit")).count(), is(20L));
+        assertThat(lookups.get(0).getString("kind"), is("manga"));
+    }
+
+    @Test
+    public void hedgedCall_recordsHedge() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Hedger hedger = new Hedger(() -> executor);
+        hedger.setOptions(new HedgingOptions(0.95, 1, 5));
+        for (int i = 0; i < 5; i++) {
+            hedger.call(() -> "fast");
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        List<RecordedEvent> events = record(() -> hedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    // cancelled
+                }
+            }
+            return "done";
+        }));
+        executor.shutdownNow();
+
+        RecordedEvent hedge = only(events, HEDGE);
+        assertThat(hedge.getBoolean("hedgeWon"), is(true));
+        assertThat(hedge.getLong("delay"), is(greaterThan(0L)));
+    }
+
+    private static MALClient client() {
+        return new MALClient(simulator.getUsername(1), simulator.getPassword(), simulator.getUrl());
+    }
+
+    private static List<RecordedEvent> record(Runnable work) throws Exception {
+        Path file = Files.createTempFile("mal", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(REQUEST);
+            recording.enable(PARSE);
+            recording.enable(HEDGE);
+            recording.enable(CATALOG_LOOKUP);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> all(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = all(events, name);
+        assertThat(matching.size(), is(1));
+        return matching.get(0);
+    }
+}
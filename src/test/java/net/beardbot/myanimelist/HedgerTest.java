@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.hedge.HedgingMetrics;
+import net.beardbot.myanimelist.hedge.HedgingOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.ServerErrorException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class HedgerTest {
+
+    private ExecutorService executor;
+    private Hedger hedger;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        hedger = new Hedger(() -> executor);
+        hedger.setOptions(new HedgingOptions(0.95, 1, 5));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void call_disabled_runsRequestOnCallingThread() {
+        hedger.setOptions(null);
+        Thread caller = Thread.currentThread();
+
+        assertThat(hedger.call(() -> Thread.currentThread() == caller), is(true));
+        assertThat(hedger.getMetrics().getRequests(), is(0L));
+    }
+
+    @Test
+    public void call_tooFewSamples_doesNotHedge() {
+        AtomicInteger calls = new AtomicInteger();
+
+        hedger.call(sleeping(calls, 100));
+
+        assertThat(calls.get(), is(1));
+        assertThat(hedger.getMetrics().getHedgeDelayMillis(), is(-1L));
+    }
+
+    @Test
+    public void call_slowRequest_hedgesAndReturnsFirstAnswer() throws Exception {
+        warmUp(5);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loserCancelled = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        String result = hedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    loserCancelled.countDown();
+                }
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        assertThat(result, is("hedge"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+        assertThat(loserCancelled.await(1, TimeUnit.SECONDS), is(true));
+        HedgingMetrics metrics = hedger.getMetrics();
+        assertThat(metrics.getHedgedRequests(), is(1L));
+        assertThat(metrics.getHedgeWins(), is(1L));
+    }
+
+    @Test
+    public void call_fastRequest_doesNotHedge() {
+        AtomicInteger warmUpCalls = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            hedger.call(sleeping(warmUpCalls, 50));
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        hedger.call(sleeping(calls, 0));
+
+        assertThat(calls.get(), is(1));
+        assertThat(hedger.getMetrics().getHedgedRequests(), is(0L));
+    }
+
+    @Test
+    public void call_budgetExhausted_doesNotHedge() {
+        hedger.setOptions(new HedgingOptions(0.5, 0.25, 8));
+        warmUp(8);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 8; i++) {
+            hedger.call(sleeping(calls, 30));
+        }
+
+        HedgingMetrics metrics = hedger.getMetrics();
+        // 16 requests earned 4 tokens, one per 4 requests
+        assertThat(metrics.getHedgedRequests(), is(4L));
+        assertThat(metrics.getBudgetExhausted(), is(4L));
+        assertThat(calls.get(), is(12));
+    }
+
+    @Test
+    public void call_failedAnswerFirst_returnsOtherAnswer() {
+        warmUp(5);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(300);
+                return "primary";
+            }
+            throw new ServerErrorException(500);
+        });
+
+        assertThat(result, is("primary"));
+        assertThat(hedger.getMetrics().getHedgeWins(), is(0L));
+    }
+
+    @Test(expected = ServerErrorException.class)
+    public void call_bothFail_throwsException() {
+        warmUp(5);
+        AtomicInteger calls = new AtomicInteger();
+
+        hedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(300);
+            }
+            throw new ServerErrorException(500);
+        });
+    }
+
+    private void warmUp(int requests) {
+        for (int i = 0; i < requests; i++) {
+            hedger.call(() -> "fast");
+        }
+    }
+
+    private static Supplier<String> sleeping(AtomicInteger calls, long millis) {
+        return () -> {
+            calls.incrementAndGet();
+            sleep(millis);
+            return "done";
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import java.util.Random;
+
+/**
+ * The distribution of the response latencies of a {@link MalSimulator} endpoint.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @return The latency of the next response in milliseconds.
+     */
+    long nextMillis(Random random);
+
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    static LatencyDistribution constant(long millis) {
+        return random -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * A long tailed distribution as observed for MAL. With a {@code sigma} of {@code 0.5}, the p99 is about three times the median.
+     */
+    static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        return random -> (long) (medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+}
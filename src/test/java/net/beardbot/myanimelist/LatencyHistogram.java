@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+/**
+ * Counts latencies in log-linear buckets with a precision of about 3%, without allocating while recording.
+ * Not thread-safe, use one histogram per thread and {@link #add(LatencyHistogram)} them afterwards.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private final long[] counts = new long[LINEAR + 64 * SUB_BUCKETS];
+    private long count;
+    private long maxMicros;
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts[index(micros)]++;
+        count++;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        maxMicros = Math.max(maxMicros, other.maxMicros);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros / 1000.0;
+    }
+
+    /**
+     * @param percentile Between 0 and 1. Example: {@code 0.999}
+     * @return The latency in milliseconds that the given share of the recorded latencies does not exceed, {@code 0} if empty.
+     */
+    public double getPercentileMillis(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(valueOf(i), maxMicros) / 1000.0;
+            }
+        }
+        return 0;
+    }
+
+    // Values below 64 have a bucket each, above that every power of two is split into 32 buckets.
+    static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return LINEAR + (exponent - 1) * SUB_BUCKETS + (int) (micros >> exponent) - SUB_BUCKETS;
+    }
+
+    // The middle of the bucket
+    static long valueOf(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return (subBucket << exponent) + (1L << (exponent - 1));
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void index_isContiguousAndValueWithinBucket() {
+        int previous = -1;
+        for (long micros = 0; micros < 1_000_000; micros++) {
+            int index = LatencyHistogram.index(micros);
+            assertThat(index == previous || index == previous + 1, is(true));
+            assertThat((double) LatencyHistogram.valueOf(index), is(closeTo(micros, Math.max(1, micros * 0.035))));
+            previous = index;
+        }
+    }
+
+    @Test
+    public void getPercentileMillis_uniformLatencies_returnsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertThat(histogram.getCount(), is(1000L));
+        assertThat(histogram.getPercentileMillis(0.5), is(closeTo(500, 500 * 0.035)));
+        assertThat(histogram.getPercentileMillis(0.99), is(closeTo(990, 990 * 0.035)));
+        assertThat(histogram.getPercentileMillis(0.999), is(closeTo(999, 999 * 0.035)));
+        assertThat(histogram.getMaxMillis(), is(1000.0));
+    }
+
+    @Test
+    public void add_mergesCounts() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(TimeUnit.MILLISECONDS.toNanos(1));
+        second.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+        first.add(second);
+
+        assertThat(first.getCount(), is(2L));
+        assertThat(first.getPercentileMillis(1), is(closeTo(100, 100 * 0.035)));
+    }
+
+    @Test
+    public void getPercentileMillis_empty_returnsZero() {
+        assertThat(new LatencyHistogram().getPercentileMillis(0.99), is(0.0));
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ListCacheTest {
+
+    private final ListCache<String> cache = new ListCache<>();
+
+    @Test
+    public void get_empty_returnsNull() {
+        assertThat(cache.get(60000), is(nullValue()));
+    }
+
+    @Test
+    public void get_afterPut_returnsList() {
+        cache.put("list", cache.generation());
+
+        assertThat(cache.get(60000), is("list"));
+    }
+
+    @Test
+    public void get_expired_returnsNull() throws Exception {
+        cache.put("list", cache.generation());
+        Thread.sleep(5);
+
+        assertThat(cache.get(1), is(nullValue()));
+    }
+
+    @Test
+    public void put_patchedDuringFetch_ignoresFetchedList() {
+        long generation = cache.generation();
+        cache.patch(list -> list + " patched");
+
+        cache.put("list", generation);
+
+        assertThat(cache.get(60000), is(nullValue()));
+    }
+
+    @Test
+    public void patch_appliesToCachedList() {
+        cache.put("list", cache.generation());
+
+        cache.patch(list -> list + " patched");
+
+        assertThat(cache.get(60000), is("list patched"));
+    }
+
+    @Test
+    public void patch_notApplicable_dropsList() {
+        cache.put("list", cache.generation());
+
+        cache.patch(list -> null);
+
+        assertThat(cache.get(60000), is(nullValue()));
+    }
+
+    @Test
+    public void invalidate_dropsListAndFetchesInProgress() {
+        long generation = cache.generation();
+        cache.invalidate();
+
+        cache.put("list", generation);
+
+        assertThat(cache.get(60000), is(nullValue()));
+    }
+}
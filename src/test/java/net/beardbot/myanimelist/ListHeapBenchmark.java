@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.catalog.SeriesCatalog;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.utils.StringPool;
+import net.beardbot.myanimelist.utils.XmlUtils;
+
+import javax.xml.bind.Unmarshaller;
+import java.io.StringReader;
+
+/**
+ * Measures the heap retained by the anime lists of 10k synthetic users with and without
+ * a {@link StringPool} and a {@link SeriesCatalog}.
+ * <p>
+ * Run with a fixed heap, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=net.beardbot.myanimelist.ListHeapBenchmark}
+ * and {@code MAVEN_OPTS=-Xmx2g}.
+ */
+public class ListHeapBenchmark {
+    private static final int USERS = 10_000;
+    private static final int SERIES = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        SyntheticLists lists = new SyntheticLists(42, SERIES);
+
+        long plain = measure(lists, null, null);
+        long pooled = measure(lists, new StringPool(), null);
+        long cataloged = measure(lists, null, new SeriesCatalog());
+        long both = measure(lists, new StringPool(), new SeriesCatalog());
+
+        System.out.printf("users: %d, series: %d%n", USERS, SERIES);
+        report("plain", plain, plain);
+        report("string pool", pooled, plain);
+        report("series catalog", cataloged, plain);
+        report("string pool + series catalog", both, plain);
+    }
+
+    private static void report(String name, long retained, long baseline) {
+        System.out.printf("%-30s %,14d bytes retained (%.1f%% less)%n", name, retained, 100.0 * (baseline - retained) / baseline);
+    }
+
+    private static long measure(SyntheticLists lists, StringPool pool, SeriesCatalog catalog) throws Exception {
+        UnmarshalListener listener = new UnmarshalListener();
+        listener.setStringPool(pool);
+        listener.setSeriesCatalog(catalog);
+
+        Unmarshaller unmarshaller = XmlUtils.getContext(AnimeList.class).createUnmarshaller();
+        unmarshaller.setListener(listener);
+
+        AnimeList[] retained = new AnimeList[USERS];
+        long before = usedHeap();
+
+        for (int user = 0; user < USERS; user++) {
+            String xml = lists.animeListXml(user, 10 + user % 50);
+            retained[user] = (AnimeList) unmarshaller.unmarshal(new StringReader(xml));
+        }
+
+        long after = usedHeap();
+        if (retained[USERS - 1].getEntries().isEmpty()) {
+            throw new IllegalStateException("Synthetic list is empty");
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
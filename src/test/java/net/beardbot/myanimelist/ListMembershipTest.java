@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ListMembershipTest {
+
+    private final ListMembership membership = new ListMembership();
+
+    @Test
+    public void contains_notFetched_returnsNull() {
+        membership.add("1");
+
+        assertThat(membership.contains("1"), is(nullValue()));
+    }
+
+    @Test
+    public void contains_fetched_returnsWhetherListed() {
+        membership.reset(Arrays.asList("1", "70000"), Function.identity());
+
+        assertThat(membership.contains("1"), is(true));
+        assertThat(membership.contains("70000"), is(true));
+        assertThat(membership.contains("2"), is(false));
+    }
+
+    @Test
+    public void contains_afterWrites_returnsWhetherListed() {
+        membership.reset(Collections.singletonList("1"), Function.identity());
+
+        membership.add("2");
+        membership.remove("1");
+
+        assertThat(membership.contains("1"), is(false));
+        assertThat(membership.contains("2"), is(true));
+    }
+
+    @Test
+    public void reset_replacesMembers() {
+        membership.reset(Collections.singletonList("1"), Function.identity());
+        membership.reset(Collections.singletonList("2"), Function.identity());
+
+        assertThat(membership.contains("1"), is(false));
+        assertThat(membership.contains("2"), is(true));
+    }
+
+    @Test
+    public void contains_invalidId_returnsNull() {
+        membership.reset(Arrays.asList("1", "abc", null), Function.identity());
+
+        assertThat(membership.contains("abc"), is(nullValue()));
+        assertThat(membership.contains("-1"), is(nullValue()));
+        assertThat(membership.contains("2000000000"), is(nullValue()));
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.model.anime.*;
+import net.beardbot.myanimelist.model.manga.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntry;
+import static net.beardbot.myanimelist.TestUtils.createTestMangaListEntry;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ListPatchesTest {
+
+    @Test
+    public void updateAnime_changesEntryInCopy() {
+        AnimeList list = animeList();
+        AnimeListEntry original = list.getEntries().get(0);
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(12);
+        values.setStatus(AnimeListEntryStatus.COMPLETED);
+
+        AnimeList patched = ListPatches.updateAnime(list, "1", values);
+
+        AnimeListEntry entry = patched.getEntries().get(0);
+        assertThat(entry.getWatchedEpisodes(), is(12));
+        assertThat(entry.getUserScore(), is(original.getUserScore()));
+        assertThat(entry.getSeriesTitle(), is(original.getSeriesTitle()));
+        assertThat(entry.getLastUpdated(), is(notNullValue()));
+        assertThat(patched.getEntries().get(1), is(sameInstance(list.getEntries().get(1))));
+        assertThat(patched.getListInfo().getWatching(), is(1));
+        assertThat(patched.getListInfo().getCompleted(), is(1));
+        assertThat(original.getWatchedEpisodes(), is(8));
+        assertThat(list.getListInfo().getWatching(), is(2));
+    }
+
+    @Test
+    public void updateAnime_seriesNotListed_returnsNull() {
+        assertThat(ListPatches.updateAnime(animeList(), "3", new AnimeListEntryValues()), is(nullValue()));
+    }
+
+    @Test
+    public void addAnime_appendsEntryAndCountsStatus() {
+        AnimeList list = animeList();
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setStatus(AnimeListEntryStatus.PLAN_TO_WATCH);
+
+        AnimeList patched = ListPatches.addAnime(list, "3", values);
+
+        assertThat(patched.getEntries().size(), is(3));
+        assertThat(patched.getEntries().get(2).getSeriesId(), is("3"));
+        assertThat(patched.getEntries().get(2).getStatus(), is(AnimeListEntryStatus.PLAN_TO_WATCH));
+        assertThat(patched.getListInfo().getPlanToWatch(), is(1));
+        assertThat(patched.getListInfo().getWatching(), is(2));
+        assertThat(list.getEntries().size(), is(2));
+    }
+
+    @Test
+    public void addAnime_emptyList_addsEntry() {
+        AnimeList list = new AnimeList();
+
+        AnimeList patched = ListPatches.addAnime(list, "3", new AnimeListEntryValues());
+
+        assertThat(patched.getEntries().size(), is(1));
+        assertThat(patched.getListInfo(), is(nullValue()));
+    }
+
+    @Test
+    public void removeAnime_removesEntryAndCount() {
+        AnimeList list = animeList();
+
+        AnimeList patched = ListPatches.removeAnime(list, "2");
+
+        assertThat(patched.getEntries().size(), is(1));
+        assertThat(patched.getEntries().get(0).getSeriesId(), is("1"));
+        assertThat(patched.getListInfo().getWatching(), is(1));
+        assertThat(ListPatches.removeAnime(patched, "2"), is(sameInstance(patched)));
+    }
+
+    @Test
+    public void updateManga_changesEntryAndCounters() {
+        MangaListEntry entry = createTestMangaListEntry();
+        entry.setSeriesId("1");
+        entry.setStatus(MangaListEntryStatus.READING);
+        MangaListInfo info = new MangaListInfo();
+        info.setReading(1);
+        info.setDropped(0);
+        MangaList list = new MangaList();
+        list.setListInfo(info);
+        list.setEntries(new ArrayList<>(Collections.singletonList(entry)));
+        MangaListEntryValues values = new MangaListEntryValues();
+        values.setChapter(40);
+        values.setStatus(MangaListEntryStatus.DROPPED);
+
+        MangaList patched = ListPatches.updateManga(list, "1", values);
+
+        assertThat(patched.getEntries().get(0).getReadChapters(), is(40));
+        assertThat(patched.getListInfo().getReading(), is(0));
+        assertThat(patched.getListInfo().getDropped(), is(1));
+        assertThat(ListPatches.removeManga(patched, "1").getEntries(), is(empty()));
+    }
+
+    private static AnimeList animeList() {
+        AnimeListEntry first = createTestAnimeListEntry();
+        first.setSeriesId("1");
+        first.setStatus(AnimeListEntryStatus.WATCHING);
+        AnimeListEntry second = createTestAnimeListEntry();
+        second.setSeriesId("2");
+        second.setStatus(AnimeListEntryStatus.WATCHING);
+        AnimeListInfo info = new AnimeListInfo();
+        info.setWatching(2);
+        info.setCompleted(0);
+        info.setPlanToWatch(0);
+        AnimeList list = new AnimeList();
+        list.setListInfo(info);
+        list.setEntries(new ArrayList<>(Arrays.asList(first, second)));
+        return list;
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.Endpoint;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drives one {@link MALClient} with 1 to 512 concurrent callers running a mix of list polls, searches and list updates
+ * against a {@link MalSimulator}, and reports throughput, latency percentiles, errors, allocation and GC per scenario.
+ * <p>
+ * Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=net.beardbot.myanimelist.LoadTest -Dexec.args="..."}
+ * where the arguments are {@code key=value} pairs, all optional:
+ * <ul>
+ * <li>{@code concurrency=1,8,64,512} The scenarios, one per number of callers.</li>
+ * <li>{@code warmup=3} and {@code duration=10} Seconds per scenario.</li>
+ * <li>{@code mix=70,20,10} Percentages of list polls, searches and updates.</li>
+ * <li>{@code latency=5} and {@code sigma=0.5} Median in milliseconds and spread of the simulated, log-normal MAL latency.</li>
+ * <li>{@code errors=0} Share of requests answered with {@code 500}.</li>
+ * <li>{@code users=1000} Users whose lists are polled.</li>
+ * <li>{@code output=target/load-test.csv} The results, one row per scenario and operation.</li>
+ * <li>{@code baseline=<csv>} Results of an earlier run, e.g. of the last release, to compare with.</li>
+ * </ul>
+ * Latencies are measured by the callers and include waiting for a free request slot of the client.
+ * Allocation is measured for the caller threads only, which excludes the simulator. GC time is JVM-wide.
+ */
+public class LoadTest {
+    private static final String[] QUERIES = {"Fate", "Zero", "Night", "Order", "Kara", "Illya", "Blade", "Lord"};
+    private static final String CSV_HEADER = "concurrency,operation,operations,errors,error_rate,throughput_per_s," +
+            "p50_ms,p99_ms,p999_ms,max_ms,alloc_mb_per_s,alloc_kb_per_op,gc_time_ms,gc_count";
+
+    enum Operation { LIST_POLL, SEARCH, UPDATE }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = parseArgs(args);
+        int[] concurrencies = Arrays.stream(config.getOrDefault("concurrency", "1,8,64,512").split(","))
+                                    .mapToInt(Integer::parseInt).toArray();
+        int warmup = Integer.parseInt(config.getOrDefault("warmup", "3"));
+        int duration = Integer.parseInt(config.getOrDefault("duration", "10"));
+        int[] mix = Arrays.stream(config.getOrDefault("mix", "70,20,10").split(",")).mapToInt(Integer::parseInt).toArray();
+        Path output = Paths.get(config.getOrDefault("output", "target/load-test.csv"));
+
+        SimulatorOptions options = new SimulatorOptions();
+        options.setUsers(Integer.parseInt(config.getOrDefault("users", "1000")));
+        options.setThreads(64);
+        EndpointBehavior behavior = new EndpointBehavior();
+        behavior.setLatency(LatencyDistribution.logNormal(Double.parseDouble(config.getOrDefault("latency", "5")),
+                Double.parseDouble(config.getOrDefault("sigma", "0.5"))));
+        behavior.setErrorRate(Double.parseDouble(config.getOrDefault("errors", "0")));
+        options.setBehavior(behavior);
+
+        List<String> rows = new ArrayList<>();
+        try (MalSimulator simulator = new MalSimulator(options);
+             MALClient client = new MALClient(simulator.getUsername(1), simulator.getPassword(), simulator.getUrl())) {
+
+            List<String> seriesIds = client.getAnimeList().getEntries().stream()
+                                           .map(AnimeListEntry::getSeriesId).collect(Collectors.toList());
+            Workload workload = new Workload(client, options.getUsers(), seriesIds, mix);
+
+            System.out.printf("%-11s %-9s %9s %9s %8s %8s %8s %8s %7s %10s %8s%n", "concurrency", "operation", "ops/s",
+                    "errors", "p50 ms", "p99 ms", "p999 ms", "max ms", "MB/s", "KB/op", "GC ms");
+            for (int concurrency : concurrencies) {
+                List<String> scenario = runScenario(workload, concurrency, warmup, duration);
+                scenario.forEach(LoadTest::print);
+                rows.addAll(scenario);
+            }
+            System.out.printf("requests received by the simulator: %s%n", Arrays.stream(Endpoint.values())
+                    .map(endpoint -> endpoint + "=" + simulator.getRequestCount(endpoint)).collect(Collectors.joining(", ")));
+        }
+
+        writeCsv(output, config, rows);
+        System.out.println("results written to " + output.toAbsolutePath());
+        if (config.containsKey("baseline")) {
+            compare(Paths.get(config.get("baseline")), rows);
+        }
+    }
+
+    private static List<String> runScenario(Workload workload, int concurrency, int warmup, int duration) throws InterruptedException {
+        Caller[] callers = new Caller[concurrency];
+        long[] threadIds = new long[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            callers[i] = new Caller(workload);
+            callers[i].setName("load-" + concurrency + "-" + i);
+            callers[i].setDaemon(true);
+            callers[i].start();
+            threadIds[i] = callers[i].getId();
+        }
+
+        TimeUnit.SECONDS.sleep(warmup);
+        long allocatedBefore = sum(allocatedBytes(threadIds));
+        long gcTimeBefore = gcTime();
+        long gcCountBefore = gcCount();
+        long start = System.nanoTime();
+        for (Caller caller : callers) {
+            caller.measuring = true;
+        }
+
+        TimeUnit.SECONDS.sleep(duration);
+        for (Caller caller : callers) {
+            caller.measuring = false;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = sum(allocatedBytes(threadIds)) - allocatedBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+        long gcCount = gcCount() - gcCountBefore;
+
+        for (Caller caller : callers) {
+            caller.running = false;
+        }
+        for (Caller caller : callers) {
+            caller.join();
+        }
+
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        LatencyHistogram allLatencies = new LatencyHistogram();
+        long allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            long errorCount = 0;
+            for (Caller caller : callers) {
+                histogram.add(caller.latencies.get(operation));
+                errorCount += caller.errors[operation.ordinal()];
+            }
+            latencies.put(operation, histogram);
+            errors.put(operation, errorCount);
+            allLatencies.add(histogram);
+            allErrors += errorCount;
+        }
+
+        double allocMbPerSecond = allocated / seconds / (1024 * 1024);
+        double allocKbPerOp = allLatencies.getCount() == 0 ? 0 : allocated / 1024.0 / allLatencies.getCount();
+        List<String> rows = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            rows.add(row(concurrency, operation.name(), latencies.get(operation), errors.get(operation), seconds,
+                    allocMbPerSecond, allocKbPerOp, gcTime, gcCount));
+        }
+        rows.add(row(concurrency, "ALL", allLatencies, allErrors, seconds, allocMbPerSecond, allocKbPerOp, gcTime, gcCount));
+        return rows;
+    }
+
+    private static String row(int concurrency, String operation, LatencyHistogram latencies, long errors, double seconds,
+                              double allocMbPerSecond, double allocKbPerOp, long gcTime, long gcCount) {
+        long operations = latencies.getCount();
+        return String.format(Locale.ROOT, "%d,%s,%d,%d,%.4f,%.1f,%.3f,%.3f,%.3f,%.3f,%.1f,%.1f,%d,%d",
+                concurrency, operation, operations, errors, operations == 0 ? 0 : (double) errors / operations,
+                operations / seconds, latencies.getPercentileMillis(0.5), latencies.getPercentileMillis(0.99),
+                latencies.getPercentileMillis(0.999), latencies.getMaxMillis(), allocMbPerSecond, allocKbPerOp, gcTime, gcCount);
+    }
+
+    private static void print(String row) {
+        String[] c = row.split(",");
+        System.out.printf("%-11s %-9s %9s %9s %8s %8s %8s %8s %7s %10s %8s%n",
+                c[0], c[1], c[5], c[3], c[6], c[7], c[8], c[9], c[10], c[11], c[12]);
+    }
+
+    private static void writeCsv(Path output, Map<String, String> config, List<String> rows) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            writer.printf("# java=%s vm=%s cpus=%d max_heap_mb=%d config=%s%n", System.getProperty("java.version"),
+                    System.getProperty("java.vm.name"), Runtime.getRuntime().availableProcessors(),
+                    Runtime.getRuntime().maxMemory() / (1024 * 1024), new TreeMap<>(config));
+            writer.println(CSV_HEADER);
+            rows.forEach(writer::println);
+        }
+    }
+
+    /**
+     * Prints the change of throughput and p99 latency per scenario and operation. Changes for the worse by more
+     * than 10% are marked.
+     */
+    private static void compare(Path baseline, List<String> rows) throws IOException {
+        Map<String, String[]> previous = new HashMap<>();
+        for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            if (!line.startsWith("#") && !line.equals(CSV_HEADER)) {
+                String[] c = line.split(",");
+                previous.put(c[0] + "," + c[1], c);
+            }
+        }
+
+        System.out.println("compared to " + baseline + ":");
+        for (String row : rows) {
+            String[] c = row.split(",");
+            String[] p = previous.get(c[0] + "," + c[1]);
+            if (p == null) {
+                continue;
+            }
+            double throughput = change(Double.parseDouble(p[5]), Double.parseDouble(c[5]));
+            double p99 = change(Double.parseDouble(p[7]), Double.parseDouble(c[7]));
+            System.out.printf(Locale.ROOT, "%-11s %-9s throughput %+7.1f%%  p99 %+7.1f%%%s%n", c[0], c[1], throughput, p99,
+                    throughput < -10 || p99 > 10 ? "  REGRESSION" : "");
+        }
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : 100 * (after - before) / before;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> config = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but was " + arg);
+            }
+            config.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return config;
+    }
+
+    private static long[] allocatedBytes(long[] threadIds) {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(threadIds);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += Math.max(value, 0);
+        }
+        return sum;
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    /**
+     * The operations of the callers and their mix.
+     */
+    private static final class Workload {
+        private final MALClient client;
+        private final int users;
+        private final List<String> seriesIds;
+        private final int[] mix;
+        private final int total;
+
+        Workload(MALClient client, int users, List<String> seriesIds, int[] mix) {
+            this.client = client;
+            this.users = users;
+            this.seriesIds = seriesIds;
+            this.mix = mix;
+            this.total = Arrays.stream(mix).sum();
+        }
+
+        Operation next(Random random) {
+            int r = random.nextInt(total);
+            for (Operation operation : Operation.values()) {
+                r -= mix[operation.ordinal()];
+                if (r < 0) {
+                    return operation;
+                }
+            }
+            return Operation.LIST_POLL;
+        }
+
+        void run(Operation operation, Random random) {
+            switch (operation) {
+                case LIST_POLL:
+                    client.getAnimeList("user" + (1 + random.nextInt(users)));
+                    break;
+                case SEARCH:
+                    client.searchForAnime(QUERIES[random.nextInt(QUERIES.length)]);
+                    break;
+                default:
+                    AnimeListEntryValues values = new AnimeListEntryValues();
+                    values.setEpisode(random.nextInt(12));
+                    client.updateAnimeList(seriesIds.get(random.nextInt(seriesIds.size())), values);
+            }
+        }
+    }
+
+    private static final class Caller extends Thread {
+        private final Workload workload;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final long[] errors = new long[Operation.values().length];
+
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+
+        Caller(Workload workload) {
+            this.workload = workload;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+        }
+
+        @Override
+        public void run() {
+            Random random = ThreadLocalRandom.current();
+            while (running) {
+                Operation operation = workload.next(random);
+                boolean failed = false;
+                long start = System.nanoTime();
+                try {
+                    workload.run(operation, random);
+                } catch (RuntimeException e) {
+                    failed = true;
+                }
+                long elapsed = System.nanoTime() - start;
+
+                // Only operations completed within the measurement count
+                if (measuring) {
+                    latencies.get(operation).record(elapsed);
+                    if (failed) {
+                        errors[operation.ordinal()]++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -16,27 +16,78 @@
  */
 package net.beardbot.myanimelist;
 
+import com.github.tomakehurst.wiremock.client.RequestPatternBuilder;
 import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.junit.WireMockClassRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import net.beardbot.myanimelist.breaker.*;
+import net.beardbot.myanimelist.bulk.BulkFetch;
+import net.beardbot.myanimelist.bulk.BulkFetchOptions;
+import net.beardbot.myanimelist.bulk.BulkResult;
+import net.beardbot.myanimelist.cache.ListCacheOptions;
+import net.beardbot.myanimelist.catalog.SeriesCatalog;
+import net.beardbot.myanimelist.codec.XmlBinding;
+import net.beardbot.myanimelist.hedge.HedgingOptions;
+import net.beardbot.myanimelist.index.MatchOptions;
+import net.beardbot.myanimelist.index.SearchMode;
+import net.beardbot.myanimelist.index.TitleIndex;
+import net.beardbot.myanimelist.index.TitleMatch;
+import net.beardbot.myanimelist.journal.JournalOptions;
+import net.beardbot.myanimelist.journal.JournaledWriter;
+import net.beardbot.myanimelist.journal.MutationJournal;
+import net.beardbot.myanimelist.journal.MutationType;
+import net.beardbot.myanimelist.lane.LaneOptions;
+import net.beardbot.myanimelist.lane.Priority;
+import net.beardbot.myanimelist.RecordingTracer.RecordedSpan;
 import net.beardbot.myanimelist.model.User;
 import net.beardbot.myanimelist.model.anime.*;
 import net.beardbot.myanimelist.model.manga.*;
+import net.beardbot.myanimelist.ordered.OrderedWriteOptions;
+import net.beardbot.myanimelist.ordered.OrderedWriter;
+import net.beardbot.myanimelist.reconcile.OperationResult;
+import net.beardbot.myanimelist.reconcile.OperationType;
+import net.beardbot.myanimelist.reconcile.ReconcileOptions;
+import net.beardbot.myanimelist.reconcile.ReconcileReport;
+import net.beardbot.myanimelist.tracing.SpanAttributes;
+import net.beardbot.myanimelist.tracing.SpanNames;
+import net.beardbot.myanimelist.utils.StringPool;
+import net.beardbot.myanimelist.watch.ListChange;
+import net.beardbot.myanimelist.watch.ListWatcher;
+import net.beardbot.myanimelist.watch.WatchOptions;
+import net.beardbot.myanimelist.writebehind.WriteBehindFailure;
+import net.beardbot.myanimelist.writebehind.WriteBehindOptions;
+import net.beardbot.myanimelist.writebehind.WriteBehindQueue;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.ServerErrorException;
 import javax.ws.rs.core.MediaType;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static me.alexpanov.net.FreePortFinder.findFreeLocalPort;
@@ -45,8 +96,16 @@ import static net.beardbot.myanimelist.MAL.PATH_MANGA_DELETE;
 import static net.beardbot.myanimelist.MAL.PATH_MANGA_UPDATE;
 import static net.beardbot.myanimelist.TestUtils.*;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class MALClientTest {
@@ -58,6 +117,8 @@ public class MALClientTest {
     
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     private MALClient client;
 
@@ -102,6 +163,33 @@ public class MALClientTest {
         new MALClient(username, password, null);
     }
 
+    /* warmUp */
+
+    @Test
+    public void warmUp_opensConnectionToMal() {
+        malService.stubFor(head(urlEqualTo("/")).willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+        client.warmUp();
+        malService.verify(new RequestPatternBuilder(RequestMethod.HEAD, urlEqualTo("/")));
+    }
+    @Test
+    public void warmUp_withJaxbBinding_readsResponsesWithPreparedContexts() throws Exception {
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(animeListEntryXmlBuilder().withDefaultValues().build());
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())));
+
+        client.setXmlBinding(XmlBinding.JAXB);
+        client.warmUp();
+
+        assertThat(client.getAnimeList(username).getEntries().size(),is(1));
+    }
+    @Test
+    public void warmUp_malUnreachable_throwsProcessingException() {
+        expectedException.expect(ProcessingException.class);
+        new MALClient(username, password, "http://localhost:" + findFreeLocalPort()).warmUp();
+    }
+
     /* searchForAnime */
 
     @Test
@@ -139,6 +227,16 @@ public class MALClientTest {
         assertThat(results.size(),is(0));
     }
 
+    @Test(timeout = 10000)
+    public void searchForAnime_repeated204_releasesConnection() {
+        client.setLaneOptions(Priority.INTERACTIVE, new LaneOptions(1, 1));
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_NO_CONTENT)));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.searchForAnime(query).size(),is(0));
+        }
+    }
+
     @Test
     public void searchForAnime_correctlyUnmarshallsObjects() throws Exception {
         AnimeXmlBuilder animeXml = animeXmlBuilder().withDefaultValues()
@@ -356,6 +454,588 @@ public class MALClientTest {
         assertThat(entry.getTags(),is(containsInAnyOrder("XXX","YYY")));
     }
 
+    @Test
+    public void getAnimeList_withStringPool_deduplicatesStrings() throws Exception {
+        AnimeListEntryXmlBuilder entryXml = animeListEntryXmlBuilder().withDefaultValues()
+                                                                      .withSeriesSynonyms("AAA; BBB")
+                                                                      .withMyTags("XXX, YYY");
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(entryXml.build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())));
+
+        client.setStringPool(new StringPool());
+        AnimeListEntry first = client.getAnimeList(username).getEntries().get(0);
+        AnimeListEntry second = client.getAnimeList(username).getEntries().get(0);
+
+        assertThat(second.getSeriesTitle(),is(sameInstance(first.getSeriesTitle())));
+        assertThat(second.getSeriesImageUrl(),is(sameInstance(first.getSeriesImageUrl())));
+        assertThat(second.getSeriesSynonyms().get(1),is(sameInstance(first.getSeriesSynonyms().get(1))));
+        assertThat(second.getTags().get(0),is(sameInstance(first.getTags().get(0))));
+        assertThat(second,is(first));
+    }
+    @Test
+    public void getAnimeList_withJaxbBinding_returnsSameListAsGeneratedCodecs() throws Exception {
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(animeListEntryXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(animeListEntryXmlBuilder().withDefaultValues().build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())));
+
+        assertThat(client.getXmlBinding(),is(XmlBinding.GENERATED));
+        AnimeList generated = client.getAnimeList(username);
+        client.setXmlBinding(XmlBinding.JAXB);
+        AnimeList jaxb = client.getAnimeList(username);
+
+        assertThat(generated.getEntries().size(),is(2));
+        assertThat(generated,is(jaxb));
+    }
+
+    /* getAnimeLists */
+
+    @Test
+    public void getAnimeLists_returnsResultOfEveryUser() throws Exception {
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(animeListEntryXmlBuilder().withDefaultValues().build());
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())));
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).withQueryParam("u", equalTo("broken"))
+                                                               .willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            usernames.add("user" + i);
+        }
+        usernames.add("broken");
+
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(8);
+        List<BulkResult<AnimeList>> results = new ArrayList<>();
+        try (BulkFetch<AnimeList> fetch = client.getAnimeLists(usernames, options)) {
+            fetch.forEachRemaining(results::add);
+        }
+
+        assertThat(results.size(),is(21));
+        for (BulkResult<AnimeList> result : results) {
+            if (result.getKey().equals("broken")) {
+                assertThat(result.getError(),is(instanceOf(ServerErrorException.class)));
+            } else {
+                assertThat(result.getValue().getEntries().size(),is(1));
+            }
+        }
+        malService.verify(21, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void getMangaLists_returnsResultOfEveryUser() throws Exception {
+        MangaListXmlBuilder mangaListXml = mangaListXmlBuilder().withMyInfo(mangaListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(mangaListEntryXmlBuilder().withDefaultValues().build());
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXml.build())));
+
+        List<BulkResult<MangaList>> results = new ArrayList<>();
+        try (BulkFetch<MangaList> fetch = client.getMangaLists(Arrays.asList("first", "second"))) {
+            fetch.forEachRemaining(results::add);
+        }
+
+        assertThat(results.size(),is(2));
+        assertThat(results.get(0).getValue().getEntries().size(),is(1));
+        assertThat(results.get(1).getValue().getEntries().size(),is(1));
+    }
+
+    @Test
+    public void getAnimeLists_204ForOneUser_doesNotAbortOtherFetches() throws Exception {
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(animeListEntryXmlBuilder().withDefaultValues().build());
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())
+                                                                                   .withFixedDelay(300)));
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).withQueryParam("u", equalTo("empty"))
+                                                               .willReturn(aResponse().withStatus(HttpStatus.SC_NO_CONTENT)));
+
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(8);
+        List<BulkResult<AnimeList>> results = new ArrayList<>();
+        try (BulkFetch<AnimeList> fetch = client.getAnimeLists(Arrays.asList("user1", "user2", "user3", "empty", "user4"), options)) {
+            fetch.forEachRemaining(results::add);
+        }
+
+        assertThat(results.size(),is(5));
+        for (BulkResult<AnimeList> result : results) {
+            assertThat(result.getError(),is(nullValue()));
+        }
+    }
+
+    /* Priority lanes */
+
+    @Test
+    public void getLaneOptions_returnsDefaults() {
+        assertThat(client.getLaneOptions(Priority.INTERACTIVE),is(new LaneOptions(8, 8)));
+        assertThat(client.getLaneOptions(Priority.BACKGROUND),is(new LaneOptions(12, 12)));
+    }
+    @Test
+    public void withPriority_busyBackgroundLane_doesNotDelayInteractiveRequests() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXmlBuilder().build())
+                                                                                   .withFixedDelay(600)));
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(animeSearchResultsXmlBuilder().build())));
+        client.setLaneOptions(Priority.BACKGROUND, new LaneOptions(1, 1));
+
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(2);
+        try (BulkFetch<AnimeList> fetch = client.getAnimeLists(Arrays.asList("a", "b"), options)) {
+            Thread.sleep(100);
+
+            long start = System.nanoTime();
+            client.searchForAnime(query);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),is(lessThan(300L)));
+
+            fetch.forEachRemaining(result -> assertThat(result.isSuccess(),is(true)));
+        }
+    }
+    @Test
+    public void withPriority_limitsConcurrentRequestsOfLane() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXmlBuilder().build())
+                                                                                   .withFixedDelay(200)));
+        client.setLaneOptions(Priority.BACKGROUND, new LaneOptions(4, 2));
+
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(4);
+        long start = System.nanoTime();
+        try (BulkFetch<AnimeList> fetch = client.getAnimeLists(Arrays.asList("a", "b", "c", "d"), options)) {
+            fetch.forEachRemaining(result -> assertThat(result.isSuccess(),is(true)));
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),is(greaterThanOrEqualTo(400L)));
+    }
+    @Test
+    public void withPriority_returnsResultOfCalls() {
+        assertThat(client.withPriority(Priority.BACKGROUND, () -> "result"),is("result"));
+    }
+
+    /* Circuit breakers */
+
+    @Test
+    public void getCircuitBreakerOptions_returnsDefaults() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            assertThat(client.getCircuitBreakerOptions(endpoint),is(new CircuitBreakerOptions(5, 5000)));
+            assertThat(client.getCircuitBreakerMetrics(endpoint).getState(),is(CircuitState.CLOSED));
+        }
+    }
+    @Test
+    public void searchForAnime_malUnavailable_failsFastOnceCircuitIsOpen() {
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+        malService.stubFor(head(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+        client.setCircuitBreakerOptions(Endpoint.SEARCH, new CircuitBreakerOptions(2, 60000));
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                client.searchForAnime(query);
+            } catch (ServerErrorException e) {
+                assertThat(e instanceof CircuitOpenException,is(i >= 2));
+            }
+        }
+
+        malService.verify(2, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)));
+        CircuitBreakerMetrics metrics = client.getCircuitBreakerMetrics(Endpoint.SEARCH);
+        assertThat(metrics.getState(),is(CircuitState.OPEN));
+        assertThat(metrics.getFailedCalls(),is(2L));
+        assertThat(metrics.getRejectedCalls(),is(2L));
+        assertThat(client.getCircuitBreakerMetrics(Endpoint.MALAPPINFO).getState(),is(CircuitState.CLOSED));
+        client.close();
+    }
+    @Test
+    public void searchForAnime_malRecovers_closesCircuitAfterProbe() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+        malService.stubFor(head(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+        client.setCircuitBreakerOptions(Endpoint.SEARCH, new CircuitBreakerOptions(1, 50));
+        List<CircuitBreakerEvent> events = new CopyOnWriteArrayList<>();
+        client.addCircuitBreakerListener(events::add);
+
+        try {
+            client.searchForAnime(query);
+        } catch (ServerErrorException e) {
+            assertThat(e instanceof CircuitOpenException,is(false));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getCircuitBreakerMetrics(Endpoint.SEARCH).getState() != CircuitState.HALF_OPEN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(animeSearchResultsXmlBuilder().build())));
+        client.searchForAnime(query);
+
+        malService.verify(1, new RequestPatternBuilder(RequestMethod.HEAD, urlPathEqualTo(PATH_ANIME_SEARCH)));
+        assertThat(client.getCircuitBreakerMetrics(Endpoint.SEARCH).getState(),is(CircuitState.CLOSED));
+        assertThat(events.size(),is(3));
+        assertThat(events.get(0).getTo(),is(CircuitState.OPEN));
+        assertThat(events.get(1).getTo(),is(CircuitState.HALF_OPEN));
+        assertThat(events.get(2).getTo(),is(CircuitState.CLOSED));
+        client.close();
+    }
+    @Test
+    public void searchForAnime_busyBackgroundLane_probesWithoutWaiting() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXmlBuilder().build())
+                                                                                   .withFixedDelay(3000)));
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+        malService.stubFor(head(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+        client.setLaneOptions(Priority.BACKGROUND, new LaneOptions(1, 1));
+        client.setCircuitBreakerOptions(Endpoint.SEARCH, new CircuitBreakerOptions(1, 50));
+
+        try (BulkFetch<AnimeList> crawl = client.getAnimeLists(Arrays.asList("slow"))) {
+            Thread.sleep(200);
+            try {
+                client.searchForAnime(query);
+            } catch (ServerErrorException e) {
+                assertThat(e instanceof CircuitOpenException,is(false));
+            }
+            long deadline = System.currentTimeMillis() + 2000;
+            while (client.getCircuitBreakerMetrics(Endpoint.SEARCH).getState() != CircuitState.HALF_OPEN && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(client.getCircuitBreakerMetrics(Endpoint.SEARCH).getState(),is(CircuitState.HALF_OPEN));
+            assertThat(crawl.isDone(),is(false));
+        }
+        client.close();
+    }
+    @Test
+    public void verifyCredentials_401_doesNotOpenCircuit() {
+        malService.stubFor(get(urlPathEqualTo(PATH_VERIFY_CREDENTIALS)).willReturn(aResponse().withStatus(HttpStatus.SC_UNAUTHORIZED)));
+        client.setCircuitBreakerOptions(Endpoint.VERIFY_CREDENTIALS, new CircuitBreakerOptions(1, 60000));
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.verifyCredentials();
+            } catch (NotAuthorizedException e) {
+                // expected
+            }
+        }
+
+        assertThat(client.getCircuitBreakerMetrics(Endpoint.VERIFY_CREDENTIALS).getState(),is(CircuitState.CLOSED));
+        malService.verify(3, getRequestedFor(urlPathEqualTo(PATH_VERIFY_CREDENTIALS)));
+    }
+
+    /* Hedging */
+
+    @Test
+    public void searchForAnime_slowAnswer_isHedged() throws Exception {
+        String results = animeSearchResultsXmlBuilder().withEntry(animeXmlBuilder().withDefaultValues().build()).build();
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).inScenario("tail").whenScenarioStateIs(Scenario.STARTED)
+                                                                 .willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(results)));
+        client.setHedgingOptions(new HedgingOptions(0.95, 1, 5));
+        for (int i = 0; i < 5; i++) {
+            client.searchForAnime(query);
+        }
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).inScenario("tail").whenScenarioStateIs(Scenario.STARTED)
+                                                                 .willSetStateTo("answered")
+                                                                 .willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(results)
+                                                                                     .withFixedDelay(800)));
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).inScenario("tail").whenScenarioStateIs("answered")
+                                                                 .willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(results)));
+
+        long start = System.nanoTime();
+        List<Anime> anime = client.searchForAnime(query);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),is(lessThan(600L)));
+        assertThat(anime.size(),is(1));
+        assertThat(client.getHedgingMetrics().getHedgedRequests(),is(1L));
+        assertThat(client.getHedgingMetrics().getHedgeWins(),is(1L));
+        malService.verify(7, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)));
+        // Let the cancelled request finish before the stubs are reset
+        Thread.sleep(800);
+        client.close();
+    }
+    @Test
+    public void searchForManga_hedgingDisabled_sendsOneRequest() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MANGA_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(mangaSearchResultsXmlBuilder().build())
+                                                                                     .withFixedDelay(100)));
+
+        client.searchForManga(query);
+
+        assertThat(client.getHedgingOptions(),is(nullValue()));
+        assertThat(client.getHedgingMetrics().getRequests(),is(0L));
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_MANGA_SEARCH)));
+    }
+
+    /* Tracing */
+
+    @Test
+    public void getAnimeList_withTracer_tracesOperationAndPhases() throws Exception {
+        String body = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                           .withEntry(animeListEntryXmlBuilder().withDefaultValues().build())
+                                           .build();
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(body)));
+        RecordingTracer tracer = new RecordingTracer();
+        client.setTracer(tracer);
+
+        client.getAnimeList();
+
+        assertThat(client.getTracer(),is(sameInstance(tracer)));
+        assertThat(tracer.getSpans().size(),is(4));
+        RecordedSpan operation = tracer.getSpans("getAnimeList").get(0);
+        assertThat(operation.parent,is(nullValue()));
+        assertThat(operation.attributes.get(SpanAttributes.ENDPOINT),is("MALAPPINFO"));
+        assertThat(operation.attributes.get(SpanAttributes.PRIORITY),is("INTERACTIVE"));
+        RecordedSpan networkWait = tracer.getSpans(SpanNames.NETWORK_WAIT).get(0);
+        assertThat(networkWait.attributes.get(SpanAttributes.HTTP_METHOD),is("GET"));
+        assertThat(networkWait.attributes.get(SpanAttributes.HTTP_STATUS_CODE),is(200L));
+        RecordedSpan unmarshal = tracer.getSpans(SpanNames.UNMARSHAL).get(0);
+        assertThat(unmarshal.attributes.get(SpanAttributes.RESPONSE_BYTES),is((long) body.getBytes(StandardCharsets.UTF_8).length));
+        assertThat(tracer.getSpans(SpanNames.CONNECTION_ACQUISITION).size(),is(1));
+        for (RecordedSpan span : tracer.getSpans()) {
+            assertThat(span.ends,is(1));
+            assertThat(span.error,is(nullValue()));
+            if (span != operation) {
+                assertThat(span.parent,is(sameInstance(operation)));
+            }
+        }
+    }
+
+    @Test
+    public void updateAnimeList_withTracer_recordsError() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+        RecordingTracer tracer = new RecordingTracer();
+        client.setTracer(tracer);
+
+        try {
+            client.updateAnimeList(id, createTestAnimeListEntryValues());
+        } catch (ServerErrorException e) {
+            // expected
+        }
+
+        RecordedSpan operation = tracer.getSpans("updateAnimeList").get(0);
+        assertThat(operation.error,is(instanceOf(ServerErrorException.class)));
+        assertThat(operation.attributes.get(SpanAttributes.ENDPOINT),is("LIST_WRITE"));
+        assertThat(operation.ends,is(1));
+        RecordedSpan networkWait = tracer.getSpans(SpanNames.NETWORK_WAIT).get(0);
+        assertThat(networkWait.attributes.get(SpanAttributes.HTTP_METHOD),is("POST"));
+        assertThat(networkWait.attributes.get(SpanAttributes.HTTP_STATUS_CODE),is(500L));
+    }
+
+    @Test
+    public void verifyCredentials_tracerRemoved_recordsNothing() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_VERIFY_CREDENTIALS)).willReturn(aResponse()
+                                                                                           .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                           .withBody(userXmlBuilder().withId("1").withUsername(username).build())));
+        RecordingTracer tracer = new RecordingTracer();
+        client.setTracer(tracer);
+        client.setTracer(null);
+
+        client.verifyCredentials();
+
+        assertThat(client.getTracer(),is(nullValue()));
+        assertThat(tracer.getSpans().size(),is(0));
+    }
+
+    @Test
+    public void searchForManga_hedgingEnabled_tracesAttemptsInOperation() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MANGA_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(mangaSearchResultsXmlBuilder().build())));
+        RecordingTracer tracer = new RecordingTracer();
+        client.setTracer(tracer);
+        client.setHedgingOptions(new HedgingOptions(0.95, 1, 5));
+
+        client.searchForManga(query);
+
+        RecordedSpan operation = tracer.getSpans("searchForManga").get(0);
+        RecordedSpan networkWait = tracer.getSpans(SpanNames.NETWORK_WAIT).get(0);
+        assertThat(networkWait.parent,is(sameInstance(operation)));
+        assertThat(networkWait.thread,is(not(sameInstance(operation.thread))));
+        client.close();
+    }
+
+    @Test
+    public void getMangaLists_withTracer_continuesCurrentSpan() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXmlBuilder().build())));
+        RecordingTracer tracer = new RecordingTracer();
+        RecordedSpan caller = new RecordedSpan("caller", null, Thread.currentThread());
+        tracer.setCurrentSpan(caller);
+        client.setTracer(tracer);
+
+        try (BulkFetch<MangaList> fetch = client.getMangaLists(Arrays.asList("first", "second"))) {
+            fetch.forEachRemaining(result -> assertThat(result.getError(),is(nullValue())));
+        }
+
+        List<RecordedSpan> operations = tracer.getSpans("getMangaList");
+        assertThat(operations.size(),is(2));
+        for (RecordedSpan operation : operations) {
+            assertThat(operation.parent,is(sameInstance(caller)));
+            assertThat(operation.attributes.get(SpanAttributes.PRIORITY),is("BACKGROUND"));
+            assertThat(operation.thread,is(not(sameInstance(Thread.currentThread()))));
+        }
+        assertThat(caller.ends,is(0));
+    }
+
+    /* Title index */
+
+    @Test
+    public void searchForAnime_withTitleIndex_indexesResults() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(animeSearchResultsXmlBuilder().withEntry(animeXmlBuilder().withDefaultValues().build()).build())));
+        TitleIndex index = new TitleIndex();
+        client.setTitleIndex(index);
+
+        List<Anime> results = client.searchForAnime(query);
+
+        assertThat(client.getTitleIndex(),is(sameInstance(index)));
+        assertThat(results.size(),is(1));
+        assertThat(index.searchAnime(results.get(0).getTitle()),is(results));
+    }
+
+    @Test
+    public void searchForAnime_localFirstWithMatch_doesNotAskMal() {
+        Anime anime = createTestAnime();
+        TitleIndex index = new TitleIndex();
+        index.add(anime);
+        client.setTitleIndex(index);
+        client.setSearchMode(SearchMode.LOCAL_FIRST);
+
+        List<Anime> results = client.searchForAnime(anime.getTitle());
+
+        assertThat(results,is(Arrays.asList(anime)));
+        assertThat(client.getSearchMode(),is(SearchMode.LOCAL_FIRST));
+        malService.verify(0, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)));
+    }
+
+    @Test
+    public void searchForManga_localFirstWithoutMatch_asksMal() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MANGA_SEARCH)).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(mangaSearchResultsXmlBuilder().withEntry(mangaXmlBuilder().withDefaultValues().build()).build())));
+        TitleIndex index = new TitleIndex();
+        index.add(createTestManga());
+        client.setTitleIndex(index);
+        client.setSearchMode(SearchMode.LOCAL_FIRST);
+
+        List<Manga> results = client.searchForManga(query);
+
+        assertThat(results.size(),is(1));
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_MANGA_SEARCH)));
+    }
+
+    @Test
+    public void getAnimeList_withTitleIndex_indexesSeriesOfEntries() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                                                                  .withEntry(animeListEntryXmlBuilder().withDefaultValues().build())
+                                                                                                                  .build())));
+        TitleIndex index = new TitleIndex();
+        client.setTitleIndex(index);
+
+        AnimeListEntry entry = client.getAnimeList().getEntries().get(0);
+
+        assertThat(index.getAnimeCount(),is(1));
+        assertThat(index.getAnime(entry.getSeriesId()).getTitle(),is(entry.getSeriesTitle()));
+    }
+
+    /* Title matching */
+
+    @Test
+    public void matchAnimeTitles_knownTitles_doesNotAskMal() {
+        Anime anime = createTestAnime();
+        anime.setTitle("Fullmetal Alchemist");
+        TitleIndex index = new TitleIndex();
+        index.add(anime);
+        client.setTitleIndex(index);
+
+        List<TitleMatch<Anime>> matches = client.matchAnimeTitles(Arrays.asList("fullmetal alchemist", "Fullmetal Alchemist!"));
+
+        assertThat(matches.size(),is(2));
+        for (TitleMatch<Anime> match : matches) {
+            assertThat(match.isResolved(),is(true));
+            assertThat(match.isSearched(),is(false));
+            assertThat(match.getBest().getSeries(),is(anime));
+        }
+        malService.verify(0, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)));
+    }
+
+    @Test
+    public void matchAnimeTitles_unresolvedTitles_searchesOncePerNormalizedTitle() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).withQueryParam("q",equalTo("Bebop")).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(animeSearchResultsXmlBuilder().withEntry(animeXmlBuilder().withDefaultValues().withId("1").withTitle("Bebop").build()).build())));
+        malService.stubFor(get(urlPathEqualTo(PATH_ANIME_SEARCH)).withQueryParam("q",equalTo("Unknown")).willReturn(aResponse()
+                                                                                     .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                     .withBody(animeSearchResultsXmlBuilder().build())));
+        TitleIndex index = new TitleIndex();
+        Anime known = createTestAnime();
+        known.setTitle("Trigun");
+        index.add(known);
+        client.setTitleIndex(index);
+
+        List<TitleMatch<Anime>> matches = client.matchAnimeTitles(Arrays.asList("Bebop", "Trigun", "BEBOP!", "Unknown"));
+
+        assertThat(matches.stream().map(TitleMatch::getTitle).collect(Collectors.toList()),is(Arrays.asList("Bebop", "Trigun", "BEBOP!", "Unknown")));
+        assertThat(matches.get(0).isResolved(),is(true));
+        assertThat(matches.get(0).isSearched(),is(true));
+        assertThat(matches.get(0).getBest().getSeries().getId(),is("1"));
+        assertThat(matches.get(1).isSearched(),is(false));
+        assertThat(matches.get(2).getBest().getSeries().getId(),is("1"));
+        assertThat(matches.get(3).isResolved(),is(false));
+        assertThat(matches.get(3).getCandidates().isEmpty(),is(true));
+        assertThat(index.getAnime("1").getTitle(),is("Bebop"));
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)).withQueryParam("q",equalTo("Bebop")));
+        malService.verify(2, getRequestedFor(urlPathEqualTo(PATH_ANIME_SEARCH)));
+    }
+
+    @Test
+    public void matchMangaTitles_failedSearch_reportsErrorPerTitle() {
+        malService.stubFor(get(urlPathEqualTo(PATH_MANGA_SEARCH)).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)));
+        MatchOptions options = new MatchOptions();
+        options.getSearchOptions().setConcurrency(1);
+
+        List<TitleMatch<Manga>> matches = client.matchMangaTitles(Arrays.asList("Berserk", "berserk"), options);
+
+        assertThat(matches.size(),is(2));
+        assertThat(matches.get(0).getError(),is(instanceOf(ClientErrorException.class)));
+        assertThat(matches.get(1).getError(),is(sameInstance(matches.get(0).getError())));
+        assertThat(matches.get(0).getBest(),is(nullValue()));
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_MANGA_SEARCH)));
+    }
+
+    @Test
+    public void matchMangaTitles_searchUnresolvedDisabled_doesNotAskMal() {
+        MatchOptions options = new MatchOptions();
+        options.setSearchUnresolved(false);
+
+        List<TitleMatch<Manga>> matches = client.matchMangaTitles(Arrays.asList("Berserk"), options);
+
+        assertThat(matches.get(0).isResolved(),is(false));
+        assertThat(matches.get(0).isSearched(),is(false));
+        malService.verify(0, getRequestedFor(urlPathEqualTo(PATH_MANGA_SEARCH)));
+    }
+
     /* getMangaList */
 
     @Test
@@ -474,6 +1154,25 @@ public class MALClientTest {
         assertThat(entry.getTags(),is(containsInAnyOrder("XXX","YYY")));
     }
 
+    @Test
+    public void getMangaList_withSeriesCatalog_sharesSeriesBetweenLists() throws Exception {
+        MangaListXmlBuilder mangaListXml = mangaListXmlBuilder().withMyInfo(mangaListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(mangaListEntryXmlBuilder().withDefaultValues().build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXml.build())));
+
+        SeriesCatalog catalog = new SeriesCatalog();
+        client.setSeriesCatalog(catalog);
+        MangaListEntry first = client.getMangaList(username).getEntries().get(0);
+        MangaListEntry second = client.getMangaList(username).getEntries().get(0);
+
+        assertThat(first.getSeries(),is(sameInstance(catalog.getManga(first.getSeriesId()))));
+        assertThat(second.getSeries(),is(sameInstance(first.getSeries())));
+        assertThat(second,is(first));
+    }
+
     /* addToAnimeList */
 
     @Test
@@ -628,6 +1327,18 @@ public class MALClientTest {
         malService.verify(postRequestedFor(urlEqualTo(PATH_ANIME_UPDATE.replace("%id",entry.getSeriesId()))));
     }
 
+    @Test(timeout = 10000)
+    public void updateAnimeList_repeatedly_releasesConnection() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(200).withBody("Updated")));
+
+        // more updates than the client has pooled connections
+        for (int i = 0; i < 25; i++) {
+            client.updateAnimeList(id, createTestAnimeListEntryValues());
+        }
+
+        malService.verify(25, postRequestedFor(urlEqualTo(PATH_ANIME_UPDATE.replace("%id",id))));
+    }
+
     @Test
     public void updateAnimeList_correctlyMarshallsObjects() throws Exception {
         List<String> body = new ArrayList<>();
@@ -707,6 +1418,436 @@ public class MALClientTest {
         assertThat(xml,is(expectedXml));
     }
 
+    /* Write-behind queue */
+
+    @Test
+    public void openWriteBehindQueue_rapidUpdates_sentOnceWithFinalState() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(200)));
+        try (WriteBehindQueue queue = client.openWriteBehindQueue(new WriteBehindOptions())) {
+            for (int episode = 1; episode <= 3; episode++) {
+                AnimeListEntryValues values = new AnimeListEntryValues();
+                values.setEpisode(episode);
+                queue.updateAnimeList(id, values);
+            }
+            malService.verify(0, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))));
+        }
+
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))));
+        malService.verify(postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).withRequestBody(containing("%3Cepisode%3E3%3C%2Fepisode%3E")));
+    }
+
+    @Test
+    public void openWriteBehindQueue_failedUpdate_reportedToListener() {
+        malService.stubFor(post(urlPathEqualTo(PATH_MANGA_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)));
+        List<WriteBehindFailure> failures = new CopyOnWriteArrayList<>();
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setFailureListener(failures::add);
+
+        try (WriteBehindQueue queue = client.openWriteBehindQueue(options)) {
+            queue.updateMangaList(id, createTestMangaListEntryValues());
+        }
+
+        assertThat(failures.size(),is(1));
+        assertThat(failures.get(0).getError(),is(instanceOf(ClientErrorException.class)));
+        assertThat(failures.get(0).isRequeued(),is(false));
+    }
+
+    /* Reconciliation */
+
+    @Test
+    public void reconcileAnimeList_dryRun_plansWithoutChanging() throws Exception {
+        stubAnimeListForReconciliation();
+        ReconcileOptions options = new ReconcileOptions();
+        options.setDryRun(true);
+
+        ReconcileReport<AnimeListEntryValues> report = client.reconcileAnimeList(desiredAnimeList(), options);
+
+        assertThat(report.isDryRun(),is(true));
+        assertThat(report.getResults().stream().map(r -> r.getOperation().getType()).collect(Collectors.toList()),
+                is(Arrays.asList(OperationType.ADD, OperationType.UPDATE, OperationType.REMOVE)));
+        assertThat(report.getResults().stream().anyMatch(OperationResult::isExecuted),is(false));
+        malService.verify(0, postRequestedFor(urlMatching("/api/animelist/.*")));
+        malService.verify(0, deleteRequestedFor(urlMatching("/api/animelist/.*")));
+    }
+
+    @Test
+    public void reconcileAnimeList_executesPlanAndReportsFailuresPerOperation() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","3"))).willReturn(aResponse().withStatus(201)));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+        malService.stubFor(delete(urlPathEqualTo(PATH_ANIME_DELETE.replace("%id","2"))).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+        ReconcileReport<AnimeListEntryValues> report = client.reconcileAnimeList(desiredAnimeList());
+
+        assertThat(report.getResults().size(),is(3));
+        assertThat(report.getResults().stream().allMatch(OperationResult::isExecuted),is(true));
+        assertThat(report.getFailures().size(),is(1));
+        assertThat(report.getFailures().get(0).getOperation().getSeriesId(),is("2"));
+        assertThat(report.getFailures().get(0).getError(),is(instanceOf(ServerErrorException.class)));
+        malService.verify(postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).withRequestBody(containing("%3Cepisode%3E5%3C%2Fepisode%3E")));
+        malService.verify(postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).withRequestBody(notMatching(".*score.*")));
+        malService.verify(postRequestedFor(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","3"))));
+    }
+
+    private void stubAnimeListForReconciliation() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                                                                  .withEntry(animeListEntryXmlBuilder().withDefaultValues().withSeriesId("1").withMyWatchedEpisodes("4").withMyScore("7").build())
+                                                                                                                  .withEntry(animeListEntryXmlBuilder().withDefaultValues().withSeriesId("2").build())
+                                                                                                                  .build())));
+    }
+
+    private static Map<String, AnimeListEntryValues> desiredAnimeList() {
+        AnimeListEntryValues watched = new AnimeListEntryValues();
+        watched.setEpisode(5);
+        watched.setScore(7);
+        Map<String, AnimeListEntryValues> desired = new LinkedHashMap<>();
+        desired.put("3", createTestAnimeListEntryValues());
+        desired.put("1", watched);
+        return desired;
+    }
+
+    /* Upsert */
+
+    @Test
+    public void upsertAnimeList_listNotFetched_addsFirstAndUpdatesIfListed() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)
+                                                                                                      .withBody("The anime (id: 1) is already in the list.")));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+
+        assertThat(client.upsertAnimeList("1", createTestAnimeListEntryValues()),is(OperationType.UPDATE));
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))));
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))));
+    }
+
+    @Test
+    public void upsertAnimeList_listedSeries_updatesOnly() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+        client.getAnimeList();
+
+        assertThat(client.upsertAnimeList("1", createTestAnimeListEntryValues()),is(OperationType.UPDATE));
+        malService.verify(0, postRequestedFor(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))));
+    }
+
+    @Test
+    public void upsertAnimeList_unlistedSeries_addsOnceAndUpdatesAfterwards() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","3"))).willReturn(aResponse().withStatus(201)));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","3"))).willReturn(aResponse().withStatus(200)));
+        client.getAnimeList();
+
+        assertThat(client.upsertAnimeList("3", createTestAnimeListEntryValues()),is(OperationType.ADD));
+        assertThat(client.upsertAnimeList("3", createTestAnimeListEntryValues()),is(OperationType.UPDATE));
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","3"))));
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","3"))));
+    }
+
+    @Test
+    public void upsertAnimeList_removedElsewhere_addsAfterRejectedUpdate() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)
+                                                                                                         .withBody("The anime (id: 1) is not in the list.")));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(201)));
+        client.getAnimeList();
+
+        assertThat(client.upsertAnimeList("1", createTestAnimeListEntryValues()),is(OperationType.ADD));
+    }
+
+    @Test
+    public void upsertAnimeList_removedThroughClient_adds() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(delete(urlPathEqualTo(PATH_ANIME_DELETE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(201)));
+        client.getAnimeList();
+        client.removeFromAnimeList("1");
+
+        assertThat(client.upsertAnimeList("1", createTestAnimeListEntryValues()),is(OperationType.ADD));
+        malService.verify(0, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))));
+    }
+
+    @Test
+    public void upsertAnimeList_notAuthorized_throwsWithoutOtherCall() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_UNAUTHORIZED)));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+        expectedException.expect(NotAuthorizedException.class);
+
+        client.upsertAnimeList("1", createTestAnimeListEntryValues());
+    }
+
+    @Test
+    public void upsertAnimeList_invalidValues_throwsWithoutOtherCall() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)
+                                                                                                      .withBody("Invalid score")));
+
+        try {
+            client.upsertAnimeList("1", createTestAnimeListEntryValues());
+            throw new AssertionError("Expected a ClientErrorException");
+        } catch (ClientErrorException e) {
+            assertThat(e.getMessage(),is("Invalid score"));
+        }
+        malService.verify(0, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))));
+    }
+
+    @Test
+    public void upsertAnimeList_otherCallFails_keepsFirstRejection() {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_BAD_REQUEST)
+                                                                                                      .withBody("The anime (id: 1) is already in the list.")));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+
+        try {
+            client.upsertAnimeList("1", createTestAnimeListEntryValues());
+            throw new AssertionError("Expected a ServerErrorException");
+        } catch (ServerErrorException e) {
+            assertThat(e.getSuppressed().length,is(1));
+            assertThat(e.getSuppressed()[0].getMessage(),is("The anime (id: 1) is already in the list."));
+        }
+    }
+
+    @Test
+    public void upsertMangaList_listedSeries_updatesOnly() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXmlBuilder().withMyInfo(mangaListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                                                                  .withEntry(mangaListEntryXmlBuilder().withDefaultValues().withSeriesId("5").build())
+                                                                                                                  .build())));
+        malService.stubFor(post(urlPathEqualTo(PATH_MANGA_UPDATE.replace("%id","5"))).willReturn(aResponse().withStatus(200)));
+        client.getMangaList();
+
+        assertThat(client.upsertMangaList("5", createTestMangaListEntryValues()),is(OperationType.UPDATE));
+        malService.verify(0, postRequestedFor(urlPathEqualTo(PATH_MANGA_ADD.replace("%id","5"))));
+    }
+
+    @Test
+    public void upsertAnimeList_otherUsersListFetched_addsFirst() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","1"))).willReturn(aResponse().withStatus(201)));
+        client.getAnimeList("someoneElse");
+
+        assertThat(client.upsertAnimeList("1", createTestAnimeListEntryValues()),is(OperationType.ADD));
+    }
+
+    /* List cache */
+
+    @Test
+    public void getAnimeList_cacheDisabled_fetchesEveryTime() throws Exception {
+        stubAnimeListForReconciliation();
+
+        client.getAnimeList();
+        client.getAnimeList();
+
+        malService.verify(2, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void getAnimeList_cached_servesChangesWithoutFetching() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(200)));
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id","3"))).willReturn(aResponse().withStatus(201)));
+        malService.stubFor(delete(urlPathEqualTo(PATH_ANIME_DELETE.replace("%id","2"))).willReturn(aResponse().withStatus(200)));
+        client.setListCacheOptions(new ListCacheOptions(60000));
+        AnimeList fetched = client.getAnimeList();
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(5);
+
+        client.updateAnimeList("1", values);
+        client.addToAnimeList("3", values);
+        client.removeFromAnimeList("2");
+        AnimeList cached = client.getAnimeList();
+
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+        assertThat(cached.getEntries().stream().map(AnimeListEntry::getSeriesId).collect(Collectors.toList()),is(Arrays.asList("1","3")));
+        assertThat(cached.getEntries().get(0).getWatchedEpisodes(),is(5));
+        assertThat(fetched.getEntries().size(),is(2));
+        assertThat(fetched.getEntries().get(0).getWatchedEpisodes(),is(4));
+    }
+
+    @Test
+    public void getAnimeList_failedChange_keepsCachedList() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","1"))).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+        client.setListCacheOptions(new ListCacheOptions(60000));
+        AnimeList fetched = client.getAnimeList();
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(5);
+
+        try {
+            client.updateAnimeList("1", values);
+        } catch (ServerErrorException e) {
+            // expected
+        }
+
+        assertThat(client.getAnimeList(),is(sameInstance(fetched)));
+    }
+
+    @Test
+    public void getAnimeList_updatedSeriesNotCached_fetchesAgain() throws Exception {
+        stubAnimeListForReconciliation();
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id","3"))).willReturn(aResponse().withStatus(200)));
+        client.setListCacheOptions(new ListCacheOptions(60000));
+        client.getAnimeList();
+
+        client.updateAnimeList("3", createTestAnimeListEntryValues());
+        client.getAnimeList();
+
+        malService.verify(2, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void getAnimeList_expiredOrInvalidated_fetchesAgain() throws Exception {
+        stubAnimeListForReconciliation();
+        client.setListCacheOptions(new ListCacheOptions(1));
+        client.getAnimeList();
+        Thread.sleep(5);
+        client.getAnimeList();
+        client.setListCacheOptions(new ListCacheOptions(60000));
+        client.invalidateListCache();
+        client.getAnimeList();
+
+        malService.verify(3, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void getAnimeList_otherUser_notCached() throws Exception {
+        stubAnimeListForReconciliation();
+        client.setListCacheOptions(new ListCacheOptions(60000));
+
+        client.getAnimeList("someoneElse");
+        client.getAnimeList("someoneElse");
+
+        malService.verify(2, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void getMangaList_cached_servesChangesWithoutFetching() throws Exception {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXmlBuilder().withMyInfo(mangaListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                                                                  .withEntry(mangaListEntryXmlBuilder().withDefaultValues().withSeriesId("5").build())
+                                                                                                                  .build())));
+        malService.stubFor(post(urlPathEqualTo(PATH_MANGA_UPDATE.replace("%id","5"))).willReturn(aResponse().withStatus(200)));
+        client.setListCacheOptions(new ListCacheOptions(60000));
+        client.getMangaList();
+        MangaListEntryValues values = new MangaListEntryValues();
+        values.setChapter(99);
+
+        client.updateMangaList("5", values);
+
+        assertThat(client.getMangaList().getEntries().get(0).getReadChapters(),is(99));
+        malService.verify(1, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    /* List watcher */
+
+    @Test
+    public void watchAnimeLists_listChanged_reportsAddedEntry() throws Exception {
+        stubAnimeListForReconciliation();
+        BlockingQueue<ListChange<AnimeListEntry>> changes = new LinkedBlockingQueue<>();
+        WatchOptions options = new WatchOptions();
+        options.setMinIntervalMillis(50);
+        options.setMaxIntervalMillis(100);
+        options.setTickMillis(10);
+
+        try (ListWatcher<AnimeListEntry> watcher = client.watchAnimeLists(options, changes::add)) {
+            watcher.watch("someone");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (watcher.getMetrics().getPolls() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                       .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                       .withBody(animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                                                                      .withEntry(animeListEntryXmlBuilder().withDefaultValues().withSeriesId("1").withMyWatchedEpisodes("4").withMyScore("7").build())
+                                                                                                                      .withEntry(animeListEntryXmlBuilder().withDefaultValues().withSeriesId("2").build())
+                                                                                                                      .withEntry(animeListEntryXmlBuilder().withDefaultValues().withSeriesId("3").build())
+                                                                                                                      .build())));
+
+            ListChange<AnimeListEntry> change = changes.poll(5, TimeUnit.SECONDS);
+
+            assertThat(change,is(notNullValue()));
+            assertThat(change.getUsername(),is("someone"));
+            assertThat(change.getAdded().size(),is(1));
+            assertThat(change.getAdded().get(0).getSeriesId(),is("3"));
+            assertThat(change.getRemoved(),is(empty()));
+        }
+        malService.verify(getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)).withQueryParam("u",equalTo("someone")));
+    }
+
+    /* Ordered writer */
+
+    @Test
+    public void openOrderedWriter_changesOfSeries_sentInOrder() throws Exception {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(200)));
+        malService.stubFor(delete(urlPathEqualTo(PATH_ANIME_DELETE.replace("%id",id))).willReturn(aResponse().withStatus(200)));
+        OrderedWriteOptions options = new OrderedWriteOptions();
+        options.setConcurrency(8);
+
+        try (OrderedWriter writer = client.openOrderedWriter(options)) {
+            for (int episode = 1; episode <= 5; episode++) {
+                AnimeListEntryValues values = new AnimeListEntryValues();
+                values.setEpisode(episode);
+                writer.updateAnimeList(id, values);
+            }
+            writer.removeFromAnimeList(id).get(5, TimeUnit.SECONDS);
+        }
+
+        List<LoggedRequest> requests = malService.findAll(new RequestPatternBuilder(RequestMethod.ANY, urlMatching(".*/" + id + "\\.xml")));
+        assertThat(requests.size(),is(6));
+        for (int episode = 1; episode <= 5; episode++) {
+            assertThat(requests.get(episode - 1).getBodyAsString(),containsString("%3Cepisode%3E" + episode + "%3C"));
+        }
+        assertThat(requests.get(5).getMethod(),is(RequestMethod.DELETE));
+    }
+
+    @Test
+    public void openOrderedWriter_failedChange_completesFutureExceptionally() throws Exception {
+        malService.stubFor(post(urlPathEqualTo(PATH_MANGA_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+        try (OrderedWriter writer = client.openOrderedWriter(new OrderedWriteOptions())) {
+            writer.updateMangaList(id, createTestMangaListEntryValues()).get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(),is(instanceOf(ServerErrorException.class)));
+        }
+    }
+
+    /* Journal */
+
+    @Test
+    public void openJournal_changes_sentAndAcknowledged() throws Exception {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_ADD.replace("%id",id))).willReturn(aResponse().withStatus(201)));
+        malService.stubFor(delete(urlPathEqualTo(PATH_MANGA_DELETE.replace("%id",id))).willReturn(aResponse().withStatus(200)));
+        Path file = folder.getRoot().toPath().resolve("mutations.journal");
+
+        try (JournaledWriter writer = client.openJournal(file)) {
+            writer.addToAnimeList(id, createTestAnimeListEntryValues());
+            writer.removeFromMangaList(id);
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS),is(true));
+        }
+
+        malService.verify(postRequestedFor(urlPathEqualTo(PATH_ANIME_ADD.replace("%id",id))));
+        malService.verify(deleteRequestedFor(urlPathEqualTo(PATH_MANGA_DELETE.replace("%id",id))));
+        try (MutationJournal journal = new MutationJournal(file, new JournalOptions())) {
+            assertThat(journal.getPending().isEmpty(),is(true));
+        }
+    }
+
+    @Test
+    public void openJournal_unsentChanges_sentOnNextOpen() throws Exception {
+        malService.stubFor(post(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))).willReturn(aResponse().withStatus(200)));
+        Path file = folder.getRoot().toPath().resolve("mutations.journal");
+        try (MutationJournal journal = new MutationJournal(file, new JournalOptions())) {
+            journal.append(MutationType.UPDATE_ANIME, id, createTestAnimeListEntryValues());
+        }
+
+        try (JournaledWriter writer = client.openJournal(file)) {
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS),is(true));
+        }
+
+        malService.verify(1, postRequestedFor(urlPathEqualTo(PATH_ANIME_UPDATE.replace("%id",id))));
+    }
+
     /* removeFromAnimeList */
 
     @Test
@@ -801,6 +1942,121 @@ public class MALClientTest {
         malService.verify(deleteRequestedFor(urlEqualTo(PATH_MANGA_DELETE.replace("%id",entry.getSeriesId()))));
     }
 
+    /* streamAnimeList */
+
+    @Test
+    public void streamAnimeList_parsesEntriesOnDemand() throws Exception {
+        AnimeListEntryXmlBuilder first = animeListEntryXmlBuilder().withDefaultValues();
+        AnimeListEntryXmlBuilder second = animeListEntryXmlBuilder().withDefaultValues();
+        AnimeListXmlBuilder animeListXml = animeListXmlBuilder().withMyInfo(animeListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(first.build())
+                                                                .withEntry(second.build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(animeListXml.build())));
+
+        RecordingSubscriber<AnimeListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamAnimeList(username).subscribe(subscriber);
+        assertThat(subscriber.getEntries().size(),is(0));
+
+        subscriber.request(1);
+        assertThat(subscriber.getEntries().size(),is(1));
+        assertThat(subscriber.getEntries().get(0).getSeriesId(),is(first.getSeriesId()));
+        assertThat(subscriber.isCompleted(),is(false));
+
+        subscriber.request(5);
+        assertThat(subscriber.getEntries().size(),is(2));
+        assertThat(subscriber.getEntries().get(1).getSeriesTitle(),is(second.getSeriesTitle()));
+        assertThat(subscriber.isCompleted(),is(true));
+        malService.verify(1, getRequestedFor(urlEqualTo(String.format("%s?u=%s&type=anime&status=all",PATH_MALAPPINFO,username))));
+    }
+
+    @Test
+    public void streamAnimeList_doesNotCallMalApi_beforeRequest() {
+        client.streamAnimeList(username).subscribe(new RecordingSubscriber<>());
+        malService.verify(0, getRequestedFor(urlPathEqualTo(PATH_MALAPPINFO)));
+    }
+
+    @Test
+    public void streamAnimeList_204_completesWithoutEntries() {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse().withStatus(HttpStatus.SC_NO_CONTENT)));
+
+        RecordingSubscriber<AnimeListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamAnimeList(username).subscribe(subscriber);
+        subscriber.request(1);
+
+        assertThat(subscriber.getEntries().size(),is(0));
+        assertThat(subscriber.isCompleted(),is(true));
+    }
+
+    @Test
+    public void streamAnimeList_500_signalsServerErrorException() {
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+        RecordingSubscriber<AnimeListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamAnimeList(username).subscribe(subscriber);
+        subscriber.request(1);
+
+        assertThat(subscriber.getError(),is(instanceOf(ServerErrorException.class)));
+    }
+
+    @Test
+    public void streamAnimeList_nonPositiveRequest_signalsIllegalArgumentException() {
+        RecordingSubscriber<AnimeListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamAnimeList(username).subscribe(subscriber);
+        subscriber.request(0);
+
+        assertThat(subscriber.getError(),is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    /* streamMangaList */
+
+    @Test
+    public void streamMangaList_parsesEntriesOnDemand() throws Exception {
+        MangaListEntryXmlBuilder first = mangaListEntryXmlBuilder().withDefaultValues();
+        MangaListEntryXmlBuilder second = mangaListEntryXmlBuilder().withDefaultValues();
+        MangaListXmlBuilder mangaListXml = mangaListXmlBuilder().withMyInfo(mangaListMyInfoXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(first.build())
+                                                                .withEntry(second.build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXml.build())));
+
+        RecordingSubscriber<MangaListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamMangaList().subscribe(subscriber);
+
+        subscriber.request(1);
+        assertThat(subscriber.getEntries().size(),is(1));
+        assertThat(subscriber.getEntries().get(0).getSeriesId(),is(first.getSeriesId()));
+
+        subscriber.request(Long.MAX_VALUE);
+        assertThat(subscriber.getEntries().size(),is(2));
+        assertThat(subscriber.isCompleted(),is(true));
+        malService.verify(getRequestedFor(urlEqualTo(String.format("%s?u=%s&type=manga&status=all",PATH_MALAPPINFO,username))));
+    }
+
+    @Test
+    public void streamMangaList_cancel_stopsEmitting() throws Exception {
+        MangaListXmlBuilder mangaListXml = mangaListXmlBuilder().withEntry(mangaListEntryXmlBuilder().withDefaultValues().build())
+                                                                .withEntry(mangaListEntryXmlBuilder().withDefaultValues().build());
+
+        malService.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                                                                                   .withHeader(HttpHeaders.CONTENT_TYPE,MediaType.APPLICATION_XML)
+                                                                                   .withBody(mangaListXml.build())));
+
+        RecordingSubscriber<MangaListEntry> subscriber = new RecordingSubscriber<>();
+        client.streamMangaList(username).subscribe(subscriber);
+
+        subscriber.request(1);
+        subscriber.cancel();
+        subscriber.request(1);
+
+        assertThat(subscriber.getEntries().size(),is(1));
+        assertThat(subscriber.isCompleted(),is(false));
+    }
+
     /* verifyCredentials */
 
     @Test
@@ -0,0 +1,698 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.beardbot.myanimelist.breaker.Endpoint;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static net.beardbot.myanimelist.MAL.*;
+
+/**
+ * A local stand-in for MAL serving the paths in {@link MAL} from generated data, for load tests and benchmarks.
+ * <p>
+ * The users {@code user1} to {@code userN} have lists generated by {@link SyntheticLists}. Adding, updating and removing
+ * entries changes them for the lifetime of the simulator. Latency and injected failures are configured per {@link Endpoint}
+ * and can be changed while requests are running. The server listens on the loopback interface only.
+ * <p>
+ * Lists are parsed and written with plain StAX instead of the client's own bindings, so the simulator can verify them.
+ */
+public class MalSimulator implements AutoCloseable {
+
+    private static final XMLInputFactory XML_INPUT = XMLInputFactory.newInstance();
+    private static final Pattern LIST_WRITE_PATH = Pattern.compile("/api/(anime|manga)list/(add|update|delete)/([^/]+)\\.xml");
+    private static final Pattern USERNAME = Pattern.compile("user([1-9][0-9]{0,8})");
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    static {
+        // The server writes headers and body separately. With Nagle's algorithm the body then waits for the delayed
+        // ACK of the client, which adds 40ms to every response. Read once, when the server classes are initialized.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final SimulatorOptions options;
+    private final SyntheticLists lists;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<Endpoint, EndpointBehavior> behaviors = new ConcurrentHashMap<>();
+    private final Map<Endpoint, LongAdder> requests = new EnumMap<>(Endpoint.class);
+    private final LongAdder injectedFailures = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+
+    private final Map<Kind, Map<String, Map<String, String>>> catalogs = new EnumMap<>(Kind.class);
+    private final Map<String, SimulatedList> userLists = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private long windowStart = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+    private int windowRequests;
+
+    /**
+     * Generates the series and starts the server.
+     *
+     * @throws IOException        If the server cannot be started.
+     * @throws XMLStreamException If the generated series cannot be read.
+     */
+    public MalSimulator(SimulatorOptions options) throws IOException, XMLStreamException {
+        this.options = options;
+        this.lists = new SyntheticLists(options.getSeed(), options.getSeriesCount());
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            behaviors.put(endpoint, options.getBehavior());
+            requests.put(endpoint, new LongAdder());
+        }
+        for (Kind kind : Kind.values()) {
+            Map<String, Map<String, String>> catalog = new HashMap<>();
+            for (Map<String, String> entry : parseEntries(kind, kind.listXml(lists, 0, options.getSeriesCount()))) {
+                entry.keySet().removeIf(field -> !field.startsWith("series_"));
+                catalog.put(entry.get(kind.idElement), entry);
+            }
+            catalogs.put(kind, catalog);
+        }
+
+        this.executor = Executors.newFixedThreadPool(options.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "mal-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public String getUsername(int user) {
+        return lists.username(user);
+    }
+
+    public String getPassword() {
+        return options.getPassword();
+    }
+
+    public void setBehavior(Endpoint endpoint, EndpointBehavior behavior) {
+        behaviors.put(endpoint, behavior);
+    }
+
+    public EndpointBehavior getBehavior(Endpoint endpoint) {
+        return behaviors.get(endpoint);
+    }
+
+    /**
+     * @return The number of requests received by the endpoint, including {@code HEAD} requests and failed ones.
+     */
+    public long getRequestCount(Endpoint endpoint) {
+        return requests.get(endpoint).sum();
+    }
+
+    public long getInjectedFailures() {
+        return injectedFailures.sum();
+    }
+
+    public long getThrottledRequests() {
+        return throttledRequests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Endpoint endpoint = endpointOf(path);
+            if (endpoint == null) {
+                send(exchange, 404, "Not Found");
+                return;
+            }
+            requests.get(endpoint).increment();
+
+            if (!acquireThroughput()) {
+                throttledRequests.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "Too Many Requests");
+                return;
+            }
+
+            EndpointBehavior behavior = behaviors.get(endpoint);
+            Random random = ThreadLocalRandom.current();
+            sleep(behavior.getLatency().nextMillis(random));
+            if (injectFailure(exchange, behavior, random)) {
+                return;
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                send(exchange, 200, (byte[]) null);
+                return;
+            }
+
+            switch (endpoint) {
+                case SEARCH:
+                    search(exchange, path);
+                    break;
+                case MALAPPINFO:
+                    malappinfo(exchange);
+                    break;
+                case LIST_WRITE:
+                    writeList(exchange, path);
+                    break;
+                default:
+                    verifyCredentials(exchange);
+            }
+        } catch (RuntimeException | XMLStreamException e) {
+            send(exchange, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Endpoint endpointOf(String path) {
+        if (PATH_ANIME_SEARCH.equals(path) || PATH_MANGA_SEARCH.equals(path)) {
+            return Endpoint.SEARCH;
+        }
+        if (PATH_MALAPPINFO.equals(path)) {
+            return Endpoint.MALAPPINFO;
+        }
+        if (PATH_VERIFY_CREDENTIALS.equals(path)) {
+            return Endpoint.VERIFY_CREDENTIALS;
+        }
+        if (LIST_WRITE_PATH.matcher(path).matches()) {
+            return Endpoint.LIST_WRITE;
+        }
+        return null;
+    }
+
+    private synchronized boolean acquireThroughput() {
+        int limit = options.getMaxRequestsPerSecond();
+        if (limit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            windowStart = now;
+            windowRequests = 0;
+        }
+        return ++windowRequests <= limit;
+    }
+
+    /**
+     * Failures are counted before they are sent, so a client that received one always sees it counted.
+     */
+    private boolean injectFailure(HttpExchange exchange, EndpointBehavior behavior, Random random) throws IOException {
+        double r = random.nextDouble();
+        if (r < behavior.getErrorRate()) {
+            injectedFailures.increment();
+            send(exchange, behavior.getErrorStatus(), "Injected error");
+            return true;
+        }
+        r -= behavior.getErrorRate();
+        if (r < behavior.getNoContentRate()) {
+            injectedFailures.increment();
+            send(exchange, 204, (byte[]) null);
+            return true;
+        }
+        r -= behavior.getNoContentRate();
+        if (r < behavior.getTooManyRequestsRate()) {
+            injectedFailures.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 429, "Too Many Requests");
+            return true;
+        }
+        return false;
+    }
+
+    private void search(HttpExchange exchange, String path) throws IOException {
+        if (authenticate(exchange) < 0) {
+            send(exchange, 401, "Invalid credentials");
+            return;
+        }
+        Kind kind = PATH_ANIME_SEARCH.equals(path) ? Kind.ANIME : Kind.MANGA;
+        String query = queryParams(exchange).getOrDefault("q", "").toLowerCase(Locale.ROOT);
+
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<").append(kind.element).append(">\n");
+        int results = 0;
+        for (Map<String, String> series : catalogs.get(kind).values()) {
+            if (results == MAX_SEARCH_RESULTS) {
+                break;
+            }
+            if (series.get("series_title").toLowerCase(Locale.ROOT).contains(query)) {
+                kind.appendSearchResult(sb, series);
+                results++;
+            }
+        }
+        sb.append("</").append(kind.element).append(">");
+
+        if (results == 0) {
+            // MAL answers searches without results with an empty 204
+            send(exchange, 204, (byte[]) null);
+            return;
+        }
+        sendXml(exchange, sb.toString());
+    }
+
+    private void malappinfo(HttpExchange exchange) throws IOException, XMLStreamException {
+        Map<String, String> params = queryParams(exchange);
+        Kind kind = Kind.of(params.get("type"));
+        if (kind == null) {
+            send(exchange, 400, "Invalid type");
+            return;
+        }
+        SimulatedList list = list(params.get("u"), kind);
+        if (list == null) {
+            sendXml(exchange, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<myanimelist><error>Invalid username</error></myanimelist>");
+            return;
+        }
+        send(exchange, 200, list.render());
+    }
+
+    private void writeList(HttpExchange exchange, String path) throws IOException, XMLStreamException {
+        int user = authenticate(exchange);
+        if (user < 0) {
+            send(exchange, 401, "Invalid credentials");
+            return;
+        }
+        Matcher matcher = LIST_WRITE_PATH.matcher(path);
+        matcher.matches();
+        Kind kind = Kind.of(matcher.group(1));
+        String action = matcher.group(2);
+        String id = matcher.group(3);
+
+        Map<String, String> series = catalogs.get(kind).get(id);
+        if (series == null) {
+            send(exchange, 400, "Invalid ID");
+            return;
+        }
+        String data = formParams(exchange).get("data");
+        Map<String, String> values = data == null ? Collections.emptyMap() : parseFields(data);
+
+        SimulatedList list = list(lists.username(user), kind);
+        switch (action) {
+            case "add":
+                if (!list.add(series, values)) {
+                    send(exchange, 400, "The " + kind.element + " (id: " + id + ") is already in the list.");
+                    return;
+                }
+                send(exchange, 201, "Created");
+                break;
+            case "update":
+                if (!list.update(id, values)) {
+                    send(exchange, 400, "The " + kind.element + " (id: " + id + ") is not in the list.");
+                    return;
+                }
+                send(exchange, 200, "Updated");
+                break;
+            default:
+                if (!list.remove(id)) {
+                    send(exchange, 400, "The " + kind.element + " (id: " + id + ") is not in the list.");
+                    return;
+                }
+                send(exchange, 200, "Deleted");
+        }
+    }
+
+    private void verifyCredentials(HttpExchange exchange) throws IOException {
+        int user = authenticate(exchange);
+        if (user < 0) {
+            send(exchange, 401, "Invalid credentials");
+            return;
+        }
+        sendXml(exchange, "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<user><id>" + user + "</id><username>"
+                + lists.username(user) + "</username></user>");
+    }
+
+    /**
+     * @return The number of the user of a valid {@code Basic} authorization, {@code -1} otherwise.
+     */
+    private int authenticate(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Basic ")) {
+            return -1;
+        }
+        String credentials = new String(Base64.getDecoder().decode(authorization.substring(6)), StandardCharsets.UTF_8);
+        int separator = credentials.indexOf(':');
+        if (separator < 0 || !credentials.substring(separator + 1).equals(options.getPassword())) {
+            return -1;
+        }
+        return userNumber(credentials.substring(0, separator));
+    }
+
+    private int userNumber(String username) {
+        if (username == null) {
+            return -1;
+        }
+        Matcher matcher = USERNAME.matcher(username);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        int user = Integer.parseInt(matcher.group(1));
+        return user <= options.getUsers() ? user : -1;
+    }
+
+    private SimulatedList list(String username, Kind kind) {
+        int user = userNumber(username);
+        if (user < 0) {
+            return null;
+        }
+        return userLists.computeIfAbsent(kind.element + "/" + user, key -> {
+            int entries = kind == Kind.ANIME ? options.getAnimeEntries() : options.getMangaEntries();
+            try {
+                return new SimulatedList(kind, user, username, parseEntries(kind, kind.listXml(lists, user, entries)));
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static List<Map<String, String>> parseEntries(Kind kind, String xml) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT.createXMLStreamReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        List<Map<String, String>> entries = new ArrayList<>();
+        reader.nextTag();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            boolean entry = kind.element.equals(reader.getLocalName());
+            Map<String, String> fields = readFields(reader);
+            if (entry) {
+                entries.add(fields);
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, String> parseFields(String xml) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT.createXMLStreamReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        reader.nextTag();
+        return readFields(reader);
+    }
+
+    private static Map<String, String> readFields(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            fields.put(name, reader.getElementText());
+        }
+        return fields;
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) throws UnsupportedEncodingException {
+        return decodeParams(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> formParams(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            Scanner scanner = new Scanner(body, StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+            return decodeParams(scanner.hasNext() ? scanner.next() : null);
+        }
+    }
+
+    private static Map<String, String> decodeParams(String raw) throws UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String param : raw.split("&")) {
+            int separator = param.indexOf('=');
+            String name = separator < 0 ? param : param.substring(0, separator);
+            String value = separator < 0 ? "" : param.substring(separator + 1);
+            params.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return params;
+    }
+
+    private static void sendXml(HttpExchange exchange, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=UTF-8");
+        send(exchange, 200, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        send(exchange, status, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || status == 204 || "HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=UTF-8");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * The differences between the anime and the manga parts of the API.
+     */
+    private enum Kind {
+        ANIME("anime", "series_animedb_id",
+                new String[]{"user_watching", "user_completed", "user_onhold", "user_dropped", null, "user_plantowatch"},
+                new String[]{"TV", "OVA", "Movie", "Special", "ONA", "Music"},
+                new String[]{"Currently Airing", "Finished Airing", "Not yet aired"},
+                fields("series_episodes", "episodes"),
+                fields("episode", "my_watched_episodes", "status", "my_status", "score", "my_score",
+                        "enable_rewatching", "my_rewatching", "tags", "my_tags"),
+                fields("my_id", "0", "my_watched_episodes", "0", "my_start_date", "0000-00-00", "my_finish_date", "0000-00-00",
+                        "my_score", "0", "my_status", "6", "my_rewatching", "0", "my_rewatching_ep", "0",
+                        "my_last_updated", "0", "my_tags", "")),
+        MANGA("manga", "series_mangadb_id",
+                new String[]{"user_reading", "user_completed", "user_onhold", "user_dropped", null, "user_plantoread"},
+                new String[]{"Manga", "Novel", "One-shot", "Doujinshi", "Manhwa", "Manhua"},
+                new String[]{"Publishing", "Finished", "Not yet published"},
+                fields("series_chapters", "chapters", "series_volumes", "volumes"),
+                fields("chapter", "my_read_chapters", "volume", "my_read_volumes", "status", "my_status", "score", "my_score",
+                        "enable_rereading", "my_rereadingg", "tags", "my_tags"),
+                fields("my_id", "0", "my_read_chapters", "0", "my_read_volumes", "0", "my_start_date", "0000-00-00",
+                        "my_finish_date", "0000-00-00", "my_score", "0", "my_status", "6", "my_rereadingg", "0",
+                        "my_rereading_chap", "0", "my_last_updated", "0", "my_tags", ""));
+
+        private final String element;
+        private final String idElement;
+        private final String[] statusCounters;
+        private final String[] types;
+        private final String[] statuses;
+        private final Map<String, String> searchUnits;
+        private final Map<String, String> valueFields;
+        private final Map<String, String> newEntry;
+
+        Kind(String element, String idElement, String[] statusCounters, String[] types, String[] statuses,
+             Map<String, String> searchUnits, Map<String, String> valueFields, Map<String, String> newEntry) {
+            this.element = element;
+            this.idElement = idElement;
+            this.statusCounters = statusCounters;
+            this.types = types;
+            this.statuses = statuses;
+            this.searchUnits = searchUnits;
+            this.valueFields = valueFields;
+            this.newEntry = newEntry;
+        }
+
+        static Kind of(String element) {
+            for (Kind kind : values()) {
+                if (kind.element.equals(element)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+
+        String listXml(SyntheticLists lists, int user, int entries) {
+            return this == ANIME ? lists.animeListXml(user, entries) : lists.mangaListXml(user, entries);
+        }
+
+        void appendSearchResult(StringBuilder sb, Map<String, String> series) {
+            String id = series.get(idElement);
+            sb.append("<entry><id>").append(id).append("</id>")
+              .append("<title>").append(escape(series.get("series_title"))).append("</title>")
+              .append("<english></english>")
+              .append("<synonyms>").append(escape(series.get("series_synonyms"))).append("</synonyms>");
+            searchUnits.forEach((field, element) ->
+                    sb.append('<').append(element).append('>').append(series.get(field)).append("</").append(element).append('>'));
+            sb.append("<score>").append(5 + (id.hashCode() & 0x1ff) / 100f).append("</score>")
+              .append("<type>").append(types[Integer.parseInt(series.get("series_type")) - 1]).append("</type>")
+              .append("<status>").append(statuses[Integer.parseInt(series.get("series_status")) - 1]).append("</status>")
+              .append("<start_date>").append(series.get("series_start")).append("</start_date>")
+              .append("<end_date>").append(series.get("series_end")).append("</end_date>")
+              .append("<synopsis>A generated [b]synopsis[/b] of ").append(escape(series.get("series_title"))).append(".</synopsis>")
+              .append("<image>").append(escape(series.get("series_image"))).append("</image></entry>\n");
+        }
+
+        void apply(Map<String, String> entry, Map<String, String> values) {
+            valueFields.forEach((value, field) -> {
+                if (values.containsKey(value)) {
+                    entry.put(field, values.get(value));
+                }
+            });
+            if (values.containsKey("date_start")) {
+                entry.put("my_start_date", date(values.get("date_start")));
+            }
+            if (values.containsKey("date_finish")) {
+                entry.put("my_finish_date", date(values.get("date_finish")));
+            }
+            entry.put("my_last_updated", String.valueOf(System.currentTimeMillis() / 1000));
+        }
+
+        // MMddyyyy as sent by the client to yyyy-MM-dd as returned by malappinfo.php
+        private static String date(String value) {
+            if (value.length() != 8) {
+                return "0000-00-00";
+            }
+            return value.substring(4) + "-" + value.substring(0, 2) + "-" + value.substring(2, 4);
+        }
+
+        private static Map<String, String> fields(String... pairs) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < pairs.length; i += 2) {
+                fields.put(pairs[i], pairs[i + 1]);
+            }
+            return Collections.unmodifiableMap(fields);
+        }
+    }
+
+    /**
+     * The list of one user, rendered once per change.
+     */
+    private static final class SimulatedList {
+        private final Kind kind;
+        private final int user;
+        private final String username;
+
+        // Guarded by this
+        private final Map<String, Map<String, String>> entries = new LinkedHashMap<>();
+        private byte[] rendered;
+
+        SimulatedList(Kind kind, int user, String username, List<Map<String, String>> entries) {
+            this.kind = kind;
+            this.user = user;
+            this.username = username;
+            for (Map<String, String> entry : entries) {
+                this.entries.put(entry.get(kind.idElement), entry);
+            }
+        }
+
+        synchronized boolean add(Map<String, String> series, Map<String, String> values) {
+            String id = series.get(kind.idElement);
+            if (entries.containsKey(id)) {
+                return false;
+            }
+            Map<String, String> entry = new LinkedHashMap<>(series);
+            entry.putAll(kind.newEntry);
+            kind.apply(entry, values);
+            entries.put(id, entry);
+            rendered = null;
+            return true;
+        }
+
+        synchronized boolean update(String id, Map<String, String> values) {
+            Map<String, String> entry = entries.get(id);
+            if (entry == null) {
+                return false;
+            }
+            kind.apply(entry, values);
+            rendered = null;
+            return true;
+        }
+
+        synchronized boolean remove(String id) {
+            if (entries.remove(id) == null) {
+                return false;
+            }
+            rendered = null;
+            return true;
+        }
+
+        synchronized byte[] render() {
+            if (rendered != null) {
+                return rendered;
+            }
+
+            int[] counts = new int[kind.statusCounters.length];
+            for (Map<String, String> entry : entries.values()) {
+                String status = entry.get("my_status");
+                if (status.length() == 1 && status.charAt(0) >= '1' && status.charAt(0) <= '6') {
+                    counts[status.charAt(0) - '1']++;
+                }
+            }
+
+            StringBuilder sb = new StringBuilder(entries.size() * 900 + 512);
+            sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<myanimelist>\n<myinfo><user_id>").append(user)
+              .append("</user_id><user_name>").append(username).append("</user_name>");
+            for (int i = 0; i < counts.length; i++) {
+                String counter = kind.statusCounters[i];
+                if (counter != null) {
+                    sb.append('<').append(counter).append('>').append(counts[i]).append("</").append(counter).append('>');
+                }
+            }
+            sb.append("<user_days_spent_watching>").append(entries.size() / 4f).append("</user_days_spent_watching></myinfo>\n");
+
+            for (Map<String, String> entry : entries.values()) {
+                sb.append('<').append(kind.element).append('>');
+                entry.forEach((field, value) ->
+                        sb.append('<').append(field).append('>').append(escape(value)).append("</").append(field).append('>'));
+                sb.append("</").append(kind.element).append(">\n");
+            }
+            sb.append("</myanimelist>");
+
+            rendered = sb.toString().getBytes(StandardCharsets.UTF_8);
+            return rendered;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.breaker.Endpoint;
+import net.beardbot.myanimelist.model.User;
+import net.beardbot.myanimelist.model.anime.*;
+import net.beardbot.myanimelist.model.manga.MangaList;
+import net.beardbot.myanimelist.model.manga.MangaListEntryStatus;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.ServerErrorException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MalSimulatorTest {
+
+    private static MalSimulator simulator;
+
+    @BeforeClass
+    public static void startSimulator() throws Exception {
+        SimulatorOptions options = new SimulatorOptions();
+        options.setUsers(10);
+        options.setSeriesCount(200);
+        options.setAnimeEntries(40);
+        options.setMangaEntries(20);
+        simulator = new MalSimulator(options);
+    }
+
+    @AfterClass
+    public static void stopSimulator() {
+        simulator.close();
+    }
+
+    @After
+    public void resetBehavior() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            simulator.setBehavior(endpoint, new EndpointBehavior());
+        }
+    }
+
+    @Test
+    public void getAnimeList_generatedUser_returnsListOfConfiguredSize() {
+        try (MALClient client = client(1)) {
+            AnimeList list = client.getAnimeList(simulator.getUsername(2));
+
+            assertThat(list.getEntries().size(), is(40));
+            assertThat(list.getListInfo().getUserName(), is("user2"));
+            assertThat(client.getMangaList(simulator.getUsername(2)).getEntries().size(), is(20));
+        }
+    }
+
+    @Test
+    public void getAnimeList_unknownUser_returnsNull() {
+        try (MALClient client = client(1)) {
+            assertThat(client.getAnimeList("user11"), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void listMutations_areVisibleInList() {
+        try (MALClient client = client(3)) {
+            AnimeList before = client.getAnimeList();
+            AnimeListEntry first = before.getEntries().get(0);
+            String added = firstSeriesNotIn(before);
+
+            AnimeListEntryValues values = new AnimeListEntryValues();
+            values.setEpisode(1);
+            values.setStatus(AnimeListEntryStatus.WATCHING);
+            values.setTags(Arrays.asList("simulated", "tag"));
+            client.addToAnimeList(added, values);
+            values.setStatus(AnimeListEntryStatus.DROPPED);
+            client.updateAnimeList(added, values);
+            client.removeFromAnimeList(first.getSeriesId());
+
+            AnimeList after = client.getAnimeList();
+            AnimeListEntry entry = entry(after, added);
+            assertThat(after.getEntries().size(), is(before.getEntries().size()));
+            assertThat(entry.getStatus(), is(AnimeListEntryStatus.DROPPED));
+            assertThat(entry.getWatchedEpisodes(), is(1));
+            assertThat(entry.getTags(), contains("simulated", "tag"));
+            assertThat(entry(after, first.getSeriesId()), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void updateMangaList_entryNotInList_throwsClientErrorException() {
+        try (MALClient client = client(4)) {
+            MangaList list = client.getMangaList();
+            MangaListEntryValues values = new MangaListEntryValues();
+            values.setStatus(MangaListEntryStatus.COMPLETED);
+            client.updateMangaList(list.getEntries().get(0).getSeriesId(), values);
+
+            try {
+                client.updateMangaList("100000", values);
+            } catch (ClientErrorException e) {
+                assertThat(e.getResponse().getStatus(), is(400));
+                return;
+            }
+            throw new AssertionError("Expected ClientErrorException");
+        }
+    }
+
+    @Test
+    public void searchForAnime_returnsMatchingSeries() {
+        try (MALClient client = client(1)) {
+            List<Anime> results = client.searchForAnime(" 12");
+
+            assertThat(results.isEmpty(), is(false));
+            results.forEach(anime -> assertThat(anime.getTitle(), containsString(" 12")));
+            assertThat(client.searchForAnime("no such title"), is(empty()));
+        }
+    }
+
+    @Test
+    public void verifyCredentials_validUser_returnsUser() {
+        try (MALClient client = client(5)) {
+            User user = client.verifyCredentials();
+
+            assertThat(user.getId(), is("5"));
+            assertThat(user.getUsername(), is("user5"));
+        }
+    }
+
+    @Test(expected = NotAuthorizedException.class)
+    public void verifyCredentials_wrongPassword_throwsNotAuthorizedException() {
+        try (MALClient client = new MALClient(simulator.getUsername(1), "wrong", simulator.getUrl())) {
+            client.verifyCredentials();
+        }
+    }
+
+    @Test
+    public void injectedFailures_areReturned() {
+        EndpointBehavior errors = new EndpointBehavior();
+        errors.setErrorRate(1);
+        simulator.setBehavior(Endpoint.VERIFY_CREDENTIALS, errors);
+        EndpointBehavior throttled = new EndpointBehavior();
+        throttled.setTooManyRequestsRate(1);
+        simulator.setBehavior(Endpoint.MALAPPINFO, throttled);
+        long injected = simulator.getInjectedFailures();
+
+        try (MALClient client = client(1)) {
+            try {
+                client.verifyCredentials();
+                throw new AssertionError("Expected ServerErrorException");
+            } catch (ServerErrorException e) {
+                assertThat(e.getResponse().getStatus(), is(500));
+            }
+            try {
+                client.getAnimeList();
+                throw new AssertionError("Expected ClientErrorException");
+            } catch (ClientErrorException e) {
+                assertThat(e.getResponse().getStatus(), is(429));
+            }
+        }
+        assertThat(simulator.getInjectedFailures() - injected, is(2L));
+    }
+
+    @Test
+    public void latency_delaysAnswers() {
+        EndpointBehavior slow = new EndpointBehavior();
+        slow.setLatency(LatencyDistribution.constant(200));
+        simulator.setBehavior(Endpoint.VERIFY_CREDENTIALS, slow);
+
+        try (MALClient client = client(1)) {
+            long start = System.nanoTime();
+            client.verifyCredentials();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(200L)));
+        }
+    }
+
+    @Test
+    public void throughputLimit_answersExcessRequestsWith429() throws Exception {
+        SimulatorOptions options = new SimulatorOptions();
+        options.setUsers(1);
+        options.setSeriesCount(10);
+        options.setMaxRequestsPerSecond(3);
+
+        try (MalSimulator limited = new MalSimulator(options);
+             MALClient client = new MALClient(limited.getUsername(1), limited.getPassword(), limited.getUrl())) {
+            int throttled = 0;
+            for (int i = 0; i < 5; i++) {
+                try {
+                    client.verifyCredentials();
+                } catch (ClientErrorException e) {
+                    throttled++;
+                }
+            }
+            assertThat(throttled, is(greaterThanOrEqualTo(2)));
+            assertThat(limited.getThrottledRequests(), is((long) throttled));
+        }
+    }
+
+    private static MALClient client(int user) {
+        return new MALClient(simulator.getUsername(user), simulator.getPassword(), simulator.getUrl());
+    }
+
+    private static String firstSeriesNotIn(AnimeList list) {
+        for (int id = 1; ; id++) {
+            if (entry(list, String.valueOf(id)) == null) {
+                return String.valueOf(id);
+            }
+        }
+    }
+
+    private static AnimeListEntry entry(AnimeList list, String seriesId) {
+        return list.getEntries().stream().filter(entry -> entry.getSeriesId().equals(seriesId)).findFirst().orElse(null);
+    }
+}
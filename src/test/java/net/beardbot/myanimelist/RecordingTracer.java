@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.Tracer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every started span in memory.
+ */
+class RecordingTracer implements Tracer {
+
+    private final List<RecordedSpan> spans = new CopyOnWriteArrayList<>();
+    private volatile Span currentSpan;
+
+    @Override
+    public Span startSpan(String name, Span parent) {
+        RecordedSpan span = new RecordedSpan(name, parent, Thread.currentThread());
+        spans.add(span);
+        return span;
+    }
+
+    @Override
+    public Span currentSpan() {
+        return currentSpan;
+    }
+
+    void setCurrentSpan(Span currentSpan) {
+        this.currentSpan = currentSpan;
+    }
+
+    List<RecordedSpan> getSpans() {
+        return spans;
+    }
+
+    List<RecordedSpan> getSpans(String name) {
+        return spans.stream().filter(span -> span.name.equals(name)).collect(Collectors.toList());
+    }
+
+    static class RecordedSpan implements Span {
+        final String name;
+        final Span parent;
+        final Thread thread;
+        final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        volatile Throwable error;
+        volatile int ends;
+
+        RecordedSpan(String name, Span parent, Thread thread) {
+            this.name = name;
+            this.parent = parent;
+            this.thread = thread;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void setError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public synchronized void end() {
+            ends++;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import net.beardbot.myanimelist.model.adapter.CommaSeperatedListAdapter;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the list adapters used for tags and synonyms with the {@link StringTokenizer} based implementation they replaced.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark="SeparatedListBenchmark -prof gc"}
+ * to include the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeparatedListBenchmark {
+
+    @Param({"", "Action", "Action, Comedy, Slice of Life"})
+    public String value;
+
+    private final CommaSeperatedListAdapter adapter = new CommaSeperatedListAdapter();
+    private List<String> values;
+
+    @Setup
+    public void setUp() throws Exception {
+        values = new ArrayList<>(adapter.unmarshal(value));
+    }
+
+    @Benchmark
+    public List<String> unmarshal() throws Exception {
+        return adapter.unmarshal(value);
+    }
+
+    @Benchmark
+    public List<String> unmarshalTokenizer() {
+        List<String> values = new ArrayList<>();
+        if (!StringUtils.isBlank(value)) {
+            StringTokenizer tokenizer = new StringTokenizer(value, ",");
+            while (tokenizer.hasMoreTokens()) {
+                values.add(tokenizer.nextToken().trim());
+            }
+        }
+        return values;
+    }
+
+    @Benchmark
+    public String marshal() throws Exception {
+        return adapter.marshal(values);
+    }
+
+    @Benchmark
+    public String marshalStringBuilder() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            sb.append(values.get(i));
+            if (i < values.size() - 1) {
+                sb.append(", ");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import lombok.Data;
+
+/**
+ * The data and capacity of a {@link MalSimulator}.
+ */
+@Data
+public class SimulatorOptions {
+    /**
+     * Seed of the generated series and lists. Lists are generated when a user is first requested.
+     */
+    private long seed = 42;
+    private int seriesCount = 2000;
+    /**
+     * The number of users, named {@code user1} to {@code userN}. All of them have the password {@link #password}.
+     */
+    private int users = 1000;
+    private int animeEntries = 100;
+    private int mangaEntries = 50;
+    private String password = "password";
+    /**
+     * The number of requests handled at the same time, including their latency.
+     */
+    private int threads = 32;
+    /**
+     * Requests beyond this number per second are answered with {@code 429}. {@code 0} means unlimited.
+     */
+    private int maxRequestsPerSecond = 0;
+    /**
+     * The initial behavior of all endpoints.
+     */
+    private EndpointBehavior behavior = new EndpointBehavior();
+}
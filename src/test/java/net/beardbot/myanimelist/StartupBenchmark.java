@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import net.beardbot.myanimelist.codec.XmlBinding;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static me.alexpanov.net.FreePortFinder.findFreeLocalPort;
+import static net.beardbot.myanimelist.MAL.PATH_MALAPPINFO;
+
+/**
+ * Measures the time to the first response of a new {@link MALClient} in a fresh JVM, as seen by short-lived processes.
+ * Every fork measures a single call, MAL is simulated by a local WireMock server started before the measurement.
+ * <p>
+ * {@code firstResponse} is the cold path, {@code warmUp} the cost of {@link MALClient#warmUp()} and
+ * {@code firstResponseAfterWarmUp} the remaining latency of the first request once the client is warm.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StartupBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mal {
+        @Param({"GENERATED", "JAXB"})
+        public XmlBinding binding;
+
+        private WireMockServer server;
+        private String url;
+
+        @Setup
+        public void setUp() {
+            int port = findFreeLocalPort();
+            server = new WireMockServer(port);
+            server.start();
+            server.stubFor(head(urlEqualTo("/")).willReturn(aResponse().withStatus(200)));
+            server.stubFor(get(urlPathEqualTo(PATH_MALAPPINFO)).willReturn(aResponse()
+                    .withHeader("Content-Type", "application/xml")
+                    .withBody(new SyntheticLists(42, 1000).animeListXml(1, 200))));
+            url = "http://localhost:" + port;
+        }
+
+        @TearDown
+        public void tearDown() {
+            server.stop();
+        }
+
+        MALClient newClient() {
+            MALClient client = new MALClient("user", "password", url);
+            client.setXmlBinding(binding);
+            return client;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmClient {
+        private MALClient client;
+
+        @Setup
+        public void setUp(Mal mal) {
+            client = mal.newClient();
+            client.warmUp();
+        }
+
+        @TearDown
+        public void tearDown() {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public AnimeList firstResponse(Mal mal) {
+        try (MALClient client = mal.newClient()) {
+            return client.getAnimeList();
+        }
+    }
+
+    @Benchmark
+    public void warmUp(Mal mal) {
+        try (MALClient client = mal.newClient()) {
+            client.warmUp();
+        }
+    }
+
+    @Benchmark
+    public AnimeList firstResponseAfterWarmUp(WarmClient warm) {
+        return warm.client.getAnimeList();
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates deterministic {@code /malappinfo.php} documents for benchmarks and load tests.
+ * <p>
+ * All users draw their entries from one shared catalog of series with a skewed popularity,
+ * so series metadata repeats across lists the same way it does for real users.
+ */
+public class SyntheticLists {
+    private static final String[] WORDS = {
+            "Fate", "Kaleid", "Liner", "Prisma", "Illya", "Zero", "Stay", "Night", "Unlimited", "Blade",
+            "Works", "Heaven", "Feel", "Apocrypha", "Extra", "Grand", "Order", "Carnival", "Phantasm", "Strange",
+            "Fake", "Lord", "El", "Melloi", "Case", "Files", "Kara", "no", "Kyoukai", "Tsukihime"};
+    private static final String[] TAGS = {
+            "action", "comedy", "drama", "fantasy", "magic", "mecha", "music", "romance", "school", "sci-fi",
+            "seinen", "shoujo", "shounen", "slice of life", "sports", "supernatural", "thriller", "rewatch", "favorite", "dropped later"};
+
+    private final long seed;
+    private final Series[] series;
+
+    public SyntheticLists(long seed, int seriesCount) {
+        this.seed = seed;
+        this.series = new Series[seriesCount];
+
+        Random random = new Random(seed);
+        for (int i = 0; i < seriesCount; i++) {
+            series[i] = new Series(i + 1, random);
+        }
+    }
+
+    public int getSeriesCount() {
+        return series.length;
+    }
+
+    public String username(int user) {
+        return "user" + user;
+    }
+
+    public String animeListXml(int user, int entries) {
+        Random random = new Random(seed ^ (user * 0x9E3779B97F4A7C15L));
+        StringBuilder sb = new StringBuilder(entries * 900);
+
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<myanimelist>\n");
+        sb.append("<myinfo><user_id>").append(user).append("</user_id><user_name>").append(username(user))
+          .append("</user_name><user_watching>0</user_watching><user_completed>").append(entries)
+          .append("</user_completed><user_onhold>0</user_onhold><user_dropped>0</user_dropped><user_plantowatch>0</user_plantowatch>")
+          .append("<user_days_spent_watching>").append(entries / 4f).append("</user_days_spent_watching></myinfo>\n");
+
+        for (Series s : pick(random, entries)) {
+            sb.append("<anime>")
+              .append("<series_animedb_id>").append(s.id).append("</series_animedb_id>")
+              .append("<series_title>").append(s.title).append("</series_title>")
+              .append("<series_synonyms>").append(s.synonyms).append("</series_synonyms>")
+              .append("<series_type>").append(s.type).append("</series_type>")
+              .append("<series_episodes>").append(s.units).append("</series_episodes>")
+              .append("<series_status>").append(s.status).append("</series_status>")
+              .append("<series_start>").append(s.start).append("</series_start>")
+              .append("<series_end>").append(s.end).append("</series_end>")
+              .append("<series_image>").append(s.image).append("</series_image>")
+              .append("<my_id>0</my_id>")
+              .append("<my_watched_episodes>").append(random.nextInt(s.units + 1)).append("</my_watched_episodes>")
+              .append("<my_start_date>2016-0").append(1 + random.nextInt(9)).append("-1").append(random.nextInt(10)).append("</my_start_date>")
+              .append("<my_finish_date>2017-0").append(1 + random.nextInt(9)).append("-2").append(random.nextInt(10)).append("</my_finish_date>")
+              .append("<my_score>").append(random.nextInt(11)).append("</my_score>")
+              .append("<my_status>").append(1 + random.nextInt(4)).append("</my_status>")
+              .append("<my_rewatching>").append(random.nextInt(10) == 0 ? 1 : 0).append("</my_rewatching>")
+              .append("<my_rewatching_ep>0</my_rewatching_ep>")
+              .append("<my_last_updated>").append(1500000000L + random.nextInt(50000000)).append("</my_last_updated>")
+              .append("<my_tags>").append(tags(random)).append("</my_tags>")
+              .append("</anime>\n");
+        }
+
+        return sb.append("</myanimelist>").toString();
+    }
+
+    public String mangaListXml(int user, int entries) {
+        Random random = new Random(seed ^ (user * 0xC2B2AE3D27D4EB4FL));
+        StringBuilder sb = new StringBuilder(entries * 900);
+
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<myanimelist>\n");
+        sb.append("<myinfo><user_id>").append(user).append("</user_id><user_name>").append(username(user))
+          .append("</user_name><user_reading>0</user_reading><user_completed>").append(entries)
+          .append("</user_completed><user_onhold>0</user_onhold><user_dropped>0</user_dropped><user_plantoread>0</user_plantoread>")
+          .append("<user_days_spent_watching>").append(entries / 4f).append("</user_days_spent_watching></myinfo>\n");
+
+        for (Series s : pick(random, entries)) {
+            sb.append("<manga>")
+              .append("<series_mangadb_id>").append(s.id).append("</series_mangadb_id>")
+              .append("<series_title>").append(s.title).append("</series_title>")
+              .append("<series_synonyms>").append(s.synonyms).append("</series_synonyms>")
+              .append("<series_type>").append(s.type).append("</series_type>")
+              .append("<series_chapters>").append(s.units).append("</series_chapters>")
+              .append("<series_volumes>").append(s.units / 8).append("</series_volumes>")
+              .append("<series_status>").append(s.status).append("</series_status>")
+              .append("<series_start>").append(s.start).append("</series_start>")
+              .append("<series_end>").append(s.end).append("</series_end>")
+              .append("<series_image>").append(s.image).append("</series_image>")
+              .append("<my_id>0</my_id>")
+              .append("<my_read_chapters>").append(random.nextInt(s.units + 1)).append("</my_read_chapters>")
+              .append("<my_read_volumes>0</my_read_volumes>")
+              .append("<my_start_date>2016-0").append(1 + random.nextInt(9)).append("-1").append(random.nextInt(10)).append("</my_start_date>")
+              .append("<my_finish_date>2017-0").append(1 + random.nextInt(9)).append("-2").append(random.nextInt(10)).append("</my_finish_date>")
+              .append("<my_score>").append(random.nextInt(11)).append("</my_score>")
+              .append("<my_status>").append(1 + random.nextInt(4)).append("</my_status>")
+              .append("<my_rereadingg>0</my_rereadingg>")
+              .append("<my_rereading_chap>0</my_rereading_chap>")
+              .append("<my_last_updated>").append(1500000000L + random.nextInt(50000000)).append("</my_last_updated>")
+              .append("<my_tags>").append(tags(random)).append("</my_tags>")
+              .append("</manga>\n");
+        }
+
+        return sb.append("</myanimelist>").toString();
+    }
+
+    private Set<Series> pick(Random random, int entries) {
+        Set<Series> picked = new LinkedHashSet<>();
+        int count = Math.min(entries, series.length);
+
+        while (picked.size() < count) {
+            double r = random.nextDouble();
+            picked.add(series[(int) (series.length * r * r)]);
+        }
+
+        return picked;
+    }
+
+    private static String tags(Random random) {
+        int count = random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(TAGS[random.nextInt(TAGS.length)]);
+        }
+
+        return sb.toString();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        return sb.toString();
+    }
+
+    private static final class Series {
+        private final int id;
+        private final String title;
+        private final String synonyms;
+        private final int type;
+        private final int units;
+        private final int status;
+        private final String start;
+        private final String end;
+        private final String image;
+
+        private Series(int id, Random random) {
+            this.id = id;
+            this.title = words(random, 2 + random.nextInt(4)) + " " + id;
+            this.synonyms = random.nextBoolean() ? "" : words(random, 2) + "; " + words(random, 3);
+            this.type = 1 + random.nextInt(6);
+            this.units = 1 + random.nextInt(50);
+            this.status = 1 + random.nextInt(3);
+            this.start = (1990 + random.nextInt(28)) + "-04-0" + (1 + random.nextInt(9));
+            this.end = (1990 + random.nextInt(28)) + "-09-2" + random.nextInt(10);
+            this.image = "https://myanimelist.cdn-dena.com/images/anime/" + random.nextInt(10) + "/" + (10000 + id) + ".jpg";
+        }
+    }
+}
@@ -21,6 +21,8 @@ import net.beardbot.myanimelist.model.anime.*;
 import net.beardbot.myanimelist.model.manga.*;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.RandomStringUtils;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -48,6 +50,37 @@ public class TestUtils {
 
     private static Map<String,String> templates = new HashMap<>();
 
+    @Getter
+    public static class RecordingSubscriber<T> implements Subscriber<T> {
+        private final List<T> entries = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+        @Override
+        public void onNext(T entry) {
+            entries.add(entry);
+        }
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+        public void request(long n){
+            subscription.request(n);
+        }
+        public void cancel(){
+            subscription.cancel();
+        }
+    }
+
     public static UserXmlBuilder userXmlBuilder(){
         return new UserXmlBuilder();
     }
@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.bulk;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class BulkFetchTest {
+
+    @Test
+    public void iteration_returnsResultOfEveryUser() {
+        List<String> usernames = usernames(50);
+
+        Set<String> fetched = new HashSet<>();
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames, String::toUpperCase, new BulkFetchOptions())) {
+            fetch.forEachRemaining(result -> {
+                assertThat(result.isSuccess(), is(true));
+                assertThat(result.getValue(), is(result.getKey().toUpperCase()));
+                fetched.add(result.getKey());
+            });
+            assertThat(fetch.getProgress(), is(new BulkProgress(50, 50, 0)));
+        }
+
+        assertThat(fetched, is(new HashSet<>(usernames)));
+    }
+
+    @Test
+    public void iteration_failingUser_reportsFailureAndContinues() {
+        RuntimeException error = new IllegalStateException("failed");
+        Function<String, String> fetchUser = username -> {
+            if (username.equals("user3")) {
+                throw error;
+            }
+            return username;
+        };
+
+        List<BulkResult<String>> results = new ArrayList<>();
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(10), fetchUser, new BulkFetchOptions())) {
+            fetch.forEachRemaining(results::add);
+            assertThat(fetch.getProgress(), is(new BulkProgress(10, 9, 1)));
+        }
+
+        assertThat(results.size(), is(10));
+        assertThat(results, hasItem(BulkResult.failure("user3", error)));
+    }
+
+    @Test(timeout = 10000)
+    public void iteration_fetchThrowsError_reportsFailureAndContinues() {
+        Function<String, String> fetchUser = username -> {
+            if (username.equals("user3")) {
+                throw new StackOverflowError();
+            }
+            return username;
+        };
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(1);
+
+        List<BulkResult<String>> results = new ArrayList<>();
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(10), fetchUser, options)) {
+            fetch.forEachRemaining(results::add);
+            assertThat(fetch.getProgress(), is(new BulkProgress(10, 9, 1)));
+        }
+
+        assertThat(results.size(), is(10));
+        BulkResult<String> failure = results.stream().filter(result -> !result.isSuccess()).findFirst().get();
+        assertThat(failure.getKey(), is("user3"));
+        assertThat(failure.getError().getCause(), is(instanceOf(StackOverflowError.class)));
+    }
+
+    @Test(timeout = 10000)
+    public void iteration_failingProgressListener_returnsEveryResult() {
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(1);
+        options.setProgressListener(progress -> {
+            throw new IllegalStateException("listener failed");
+        });
+
+        List<BulkResult<String>> results = new ArrayList<>();
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(5), Function.identity(), options)) {
+            fetch.forEachRemaining(results::add);
+        }
+
+        assertThat(results.size(), is(5));
+        assertThat(results.stream().allMatch(BulkResult::isSuccess), is(true));
+    }
+
+    @Test
+    public void fetching_neverExceedsConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Function<String, String> fetchUser = username -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(5);
+            inFlight.decrementAndGet();
+            return username;
+        };
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(3);
+
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(30), fetchUser, options)) {
+            fetch.forEachRemaining(result -> {});
+        }
+
+        assertThat(maxInFlight.get(), is(3));
+    }
+
+    @Test
+    public void fetching_withRateLimit_spacesOutRequests() {
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(8);
+        options.setRequestsPerSecond(100);
+
+        long start = System.nanoTime();
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(21), Function.identity(), options)) {
+            fetch.forEachRemaining(result -> {});
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(190L)));
+    }
+
+    @Test
+    public void fetching_reportsProgressAfterEachUser() {
+        Queue<BulkProgress> progress = new ConcurrentLinkedQueue<>();
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(1);
+        options.setProgressListener(progress::add);
+
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(5), Function.identity(), options)) {
+            fetch.forEachRemaining(result -> {});
+        }
+
+        assertThat(progress.stream().map(BulkProgress::getCompleted).toArray(), is(new Object[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    public void fetching_fullBuffer_pausesFetching() throws Exception {
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setBufferSize(2);
+        options.setConcurrency(1);
+
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(10), Function.identity(), options)) {
+            assertThat(fetch.awaitDone(200, TimeUnit.MILLISECONDS), is(false));
+            assertThat(fetch.getProgress().getCompleted(), is(3));
+        }
+    }
+
+    @Test
+    public void close_cancelsRemainingFetches() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger fetched = new AtomicInteger();
+        Function<String, String> fetchUser = username -> {
+            fetched.incrementAndGet();
+            started.countDown();
+            sleep(20);
+            return username;
+        };
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(1);
+
+        BulkFetch<String> fetch = new BulkFetch<>(usernames(100), fetchUser, options);
+        started.await();
+        fetch.close();
+
+        assertThat(fetch.awaitDone(1, TimeUnit.SECONDS), is(true));
+        assertThat(fetch.hasNext(), is(false));
+        assertThat(fetched.get(), is(lessThan(100)));
+    }
+
+    @Test
+    public void iteration_noUsers_endsImmediately() {
+        try (BulkFetch<String> fetch = new BulkFetch<>(Collections.emptyList(), Function.identity(), new BulkFetchOptions())) {
+            assertThat(fetch.hasNext(), is(false));
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void next_afterLastResult_throwsNoSuchElementException() {
+        try (BulkFetch<String> fetch = new BulkFetch<>(usernames(1), Function.identity(), new BulkFetchOptions())) {
+            fetch.next();
+            fetch.next();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_zeroConcurrency_throwsIllegalArgumentException() {
+        BulkFetchOptions options = new BulkFetchOptions();
+        options.setConcurrency(0);
+        new BulkFetch<>(usernames(1), Function.identity(), options);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructor_nullUsername_throwsNullPointerException() {
+        new BulkFetch<>(Arrays.asList("user", null), Function.identity(), new BulkFetchOptions());
+    }
+
+    private static List<String> usernames(int count) {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            usernames.add("user" + i);
+        }
+        return usernames;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.catalog;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeSeries;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaSeries;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntry;
+import static net.beardbot.myanimelist.TestUtils.createTestMangaListEntry;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SeriesCatalogTest {
+
+    @Test
+    public void resolve_sharesSeries_betweenEntriesOfSameSeries() {
+        SeriesCatalog catalog = new SeriesCatalog();
+        AnimeListEntry first = createTestAnimeListEntry();
+        AnimeListEntry second = copyOf(first);
+
+        AnimeSeries series = catalog.resolve(first);
+
+        assertThat(catalog.resolve(second),is(sameInstance(series)));
+        assertThat(first.getSeries(),is(sameInstance(series)));
+        assertThat(second.getSeries(),is(sameInstance(series)));
+        assertThat(catalog.getAnime(first.getSeriesId()),is(sameInstance(series)));
+        assertThat(catalog.getAnimeCount(),is(1));
+    }
+
+    @Test
+    public void resolve_keepsEntryValues() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+        AnimeListEntry expected = copyOf(entry);
+
+        new SeriesCatalog().resolve(entry);
+
+        assertThat(entry,is(expected));
+        assertThat(entry.getSeriesTitle(),is(expected.getSeriesTitle()));
+        assertThat(entry.getSeriesSynonyms(),is(expected.getSeriesSynonyms()));
+        assertThat(entry.getSeriesStart(),is(expected.getSeriesStart()));
+    }
+
+    @Test
+    public void resolve_replacesCatalogedSeries_whenMetadataChanged() {
+        SeriesCatalog catalog = new SeriesCatalog();
+        AnimeListEntry first = createTestAnimeListEntry();
+        AnimeListEntry second = copyOf(first);
+        second.setSeriesEpisodes(first.getSeriesEpisodes() + 1);
+
+        AnimeSeries old = catalog.resolve(first);
+        AnimeSeries updated = catalog.resolve(second);
+
+        assertThat(updated,is(not(sameInstance(old))));
+        assertThat(updated.getEpisodes(),is(second.getSeriesEpisodes()));
+        assertThat(catalog.getAnime(first.getSeriesId()),is(sameInstance(updated)));
+        assertThat(first.getSeries(),is(sameInstance(old)));
+    }
+
+    @Test
+    public void resolve_ignoresEntriesWithoutSeriesId() {
+        SeriesCatalog catalog = new SeriesCatalog();
+        MangaListEntry entry = createTestMangaListEntry();
+        entry.setSeriesId(null);
+
+        assertThat(catalog.resolve(entry),is(nullValue()));
+        assertThat(entry.getSeries(),is(nullValue()));
+        assertThat(catalog.getMangaCount(),is(0));
+    }
+
+    @Test
+    public void resolvedEntry_returnsMutableSynonyms() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+        AnimeSeries series = new SeriesCatalog().resolve(entry);
+
+        entry.getSeriesSynonyms().add("Another synonym");
+
+        assertThat(entry.getSeries(),is(sameInstance(series)));
+        assertThat(series.getSynonyms().contains("Another synonym"),is(false));
+    }
+
+    @Test
+    public void settingSeriesField_detachesEntryFromSharedSeries() {
+        SeriesCatalog catalog = new SeriesCatalog();
+        MangaListEntry first = createTestMangaListEntry();
+        MangaListEntry second = createTestMangaListEntry();
+        second.setSeriesId(first.getSeriesId());
+        second.setSeriesTitle(first.getSeriesTitle());
+        second.setSeriesSynonyms(first.getSeriesSynonyms());
+        second.setSeriesImageUrl(first.getSeriesImageUrl());
+
+        MangaSeries series = catalog.resolve(first);
+        catalog.resolve(second);
+        second.setSeriesTitle("Changed");
+        second.getSeriesSynonyms().add("Another synonym");
+
+        assertThat(second.getSeries(),is(nullValue()));
+        assertThat(second.getSeriesTitle(),is("Changed"));
+        assertThat(second.getSeriesChapters(),is(series.getChapters()));
+        assertThat(first.getSeriesTitle(),is(series.getTitle()));
+        assertThat(series.getSynonyms().contains("Another synonym"),is(false));
+    }
+
+    private static AnimeListEntry copyOf(AnimeListEntry entry) {
+        AnimeListEntry copy = new AnimeListEntry();
+        copy.setSeriesId(entry.getSeriesId());
+        copy.setSeriesTitle(entry.getSeriesTitle());
+        copy.setSeriesSynonyms(new ArrayList<>(entry.getSeriesSynonyms()));
+        copy.setSeriesType(entry.getSeriesType());
+        copy.setSeriesEpisodes(entry.getSeriesEpisodes());
+        copy.setSeriesStatus(entry.getSeriesStatus());
+        copy.setSeriesStart(entry.getSeriesStart());
+        copy.setSeriesEnd(entry.getSeriesEnd());
+        copy.setSeriesImageUrl(entry.getSeriesImageUrl());
+        copy.setEntryId(entry.getEntryId());
+        copy.setWatchedEpisodes(entry.getWatchedEpisodes());
+        copy.setStartedWatching(entry.getStartedWatching());
+        copy.setFinishedWatching(entry.getFinishedWatching());
+        copy.setUserScore(entry.getUserScore());
+        copy.setStatus(entry.getStatus());
+        copy.setRewatching(entry.getRewatching());
+        copy.setRewatchingEpisodes(entry.getRewatchingEpisodes());
+        copy.setLastUpdated(entry.getLastUpdated());
+        copy.setTags(entry.getTags());
+        return copy;
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.beardbot.myanimelist.changelog.ChangeLogTest.change;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ChangeLogConsumerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private ChangeLogOptions options;
+    private ChangeLog log;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath();
+        options = new ChangeLogOptions();
+        options.setSync(false);
+        log = new ChangeLog(directory, options);
+        log.append(Arrays.asList(change("1", 10), change("2", 20), change("3", 30)));
+    }
+
+    @After
+    public void tearDown() {
+        log.close();
+    }
+
+    @Test
+    public void poll_newConsumer_readsFromOldestChange() {
+        ChangeLogConsumer consumer = log.consumer("indexer");
+
+        assertThat(ids(consumer.poll(2)), is(Arrays.asList("1", "2")));
+        assertThat(ids(consumer.poll(2)), is(Collections.singletonList("3")));
+        assertThat(consumer.poll(2).isEmpty(), is(true));
+        assertThat(consumer.getPosition(), is(3L));
+        assertThat(consumer.getLag(), is(0L));
+    }
+
+    @Test
+    public void commit_reopenedLog_continuesFromCommittedPosition() throws IOException {
+        ChangeLogConsumer consumer = log.consumer("indexer");
+        consumer.poll(2);
+        consumer.commit();
+        consumer.poll(1);
+        log.close();
+
+        log = new ChangeLog(directory, options);
+        ChangeLogConsumer restarted = log.consumer("indexer");
+
+        assertThat(restarted.getCommittedPosition(), is(2L));
+        assertThat(restarted.getLag(), is(1L));
+        assertThat(ids(restarted.poll(10)), is(Collections.singletonList("3")));
+    }
+
+    @Test
+    public void poll_consumers_havePositionsOfTheirOwn() {
+        ChangeLogConsumer first = log.consumer("first");
+        ChangeLogConsumer second = log.consumer("second");
+        first.poll(3);
+        first.commit();
+
+        assertThat(ids(second.poll(1)), is(Collections.singletonList("1")));
+        assertThat(log.consumer("first").getPosition(), is(3L));
+        assertThat(log.consumer("second").getPosition(), is(0L));
+    }
+
+    @Test
+    public void seek_earlierOffset_replaysChanges() {
+        ChangeLogConsumer consumer = log.consumer("indexer");
+        consumer.poll(3);
+
+        consumer.seek(1);
+
+        assertThat(ids(consumer.poll(10)), is(Arrays.asList("2", "3")));
+    }
+
+    @Test
+    public void poll_positionDeletedByRetention_continuesWithOldestChange() throws IOException {
+        log.close();
+        folder.delete();
+        folder.create();
+        options.setSegmentBytes(128);
+        options.setRetentionMillis(60000);
+        log = new ChangeLog(directory, options);
+        ChangeLogConsumer consumer = log.consumer("indexer");
+        log.append(Arrays.asList(change("1", 0), change("2", 0), change("3", System.currentTimeMillis())));
+
+        assertThat(ids(consumer.poll(10)), is(Collections.singletonList("3")));
+        assertThat(consumer.getPosition(), is(3L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void consumer_nameWithPathSeparator_throwsException() {
+        log.consumer("../indexer");
+    }
+
+    private static List<String> ids(List<EntryChange> changes) {
+        return changes.stream().map(EntryChange::getSeriesId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntryStatus;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.beardbot.myanimelist.changelog.EntryChangesTest.anime;
+import static net.beardbot.myanimelist.changelog.EntryChangesTest.animeList;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ChangeLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private ChangeLogOptions options;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath().resolve("changes");
+        options = new ChangeLogOptions();
+        options.setSync(false);
+    }
+
+    @Test
+    public void append_assignsOffsetsInOrder() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            List<EntryChange> appended = log.append(Arrays.asList(change("1", 10), change("2", 20), change("3", 30)));
+
+            assertThat(appended.stream().map(EntryChange::getOffset).collect(Collectors.toList()), is(Arrays.asList(0L, 1L, 2L)));
+            assertThat(log.read(0, 10), is(appended));
+            assertThat(log.read(1, 1), is(appended.subList(1, 2)));
+            assertThat(log.read(3, 10).isEmpty(), is(true));
+            assertThat(log.getEndOffset(), is(3L));
+        }
+    }
+
+    @Test
+    public void open_existingLog_continuesAfterLastChange() throws IOException {
+        List<EntryChange> appended;
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            appended = log.append(Arrays.asList(change("1", 10), change("2", 20)));
+        }
+
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            assertThat(log.read(0, 10), is(appended));
+            assertThat(log.append(Collections.singletonList(change("3", 30))).get(0).getOffset(), is(2L));
+        }
+    }
+
+    @Test
+    public void append_segmentFull_startsNewSegment() throws IOException {
+        options.setSegmentBytes(512);
+        options.setIndexIntervalBytes(100);
+        List<EntryChange> appended = new ArrayList<>();
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            for (int i = 0; i < 50; i++) {
+                appended.addAll(log.append(Collections.singletonList(change(Integer.toString(i), System.currentTimeMillis()))));
+            }
+
+            assertThat(log.getSegmentCount(), is(greaterThan(3)));
+            assertThat(log.read(0, 100), is(appended));
+            for (int offset = 0; offset < 50; offset += 7) {
+                assertThat(log.read(offset, 3), is(appended.subList(offset, Math.min(offset + 3, 50))));
+            }
+        }
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            assertThat(log.read(17, 100), is(appended.subList(17, 50)));
+        }
+    }
+
+    @Test
+    public void open_tornRecord_endsLog() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            log.append(Arrays.asList(change("1", 10), change("2", 20), change("3", 30)));
+        }
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            assertThat(log.read(0, 10).size(), is(2));
+            assertThat(log.append(Collections.singletonList(change("4", 40))).get(0).getOffset(), is(2L));
+            assertThat(log.read(2, 10).get(0).getSeriesId(), is("4"));
+        }
+    }
+
+    @Test
+    public void applyRetention_expiredSegments_deletesOldestSegments() throws IOException {
+        // one change per segment
+        options.setSegmentBytes(100);
+        options.setRetentionMillis(60000);
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(Collections.singletonList(change(Integer.toString(i), 0)));
+            }
+            log.append(Collections.singletonList(change("new", System.currentTimeMillis())));
+            log.applyRetention();
+
+            assertThat(log.getSegmentCount(), is(1));
+            assertThat(log.getStartOffset(), is(10L));
+            assertThat(log.read(0, 10).get(0).getSeriesId(), is("new"));
+            assertThat(segments().size(), is(1));
+        }
+    }
+
+    @Test
+    public void append_logLargerThanRetentionSize_deletesOldestSegments() throws IOException {
+        options.setSegmentBytes(256);
+        options.setRetentionBytes(600);
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            for (int i = 0; i < 30; i++) {
+                log.append(Collections.singletonList(change(Integer.toString(i), System.currentTimeMillis())));
+            }
+
+            // the segment appended to grows beyond the retention size until the next one is started
+            assertThat(log.getSize(), is(lessThanOrEqualTo(600L + 256L)));
+            assertThat(log.getSegmentCount(), is(lessThanOrEqualTo(4)));
+            assertThat(log.getStartOffset(), is(greaterThan(0L)));
+            assertThat(log.read(0, 100).get(0).getOffset(), is(log.getStartOffset()));
+            assertThat(log.read(0, 100).get(log.read(0, 100).size() - 1).getSeriesId(), is("29"));
+        }
+    }
+
+    @Test
+    public void recordAnimeList_appendsEntryChanges() throws IOException {
+        try (ChangeLog log = new ChangeLog(directory, options)) {
+            log.recordAnimeList("user", null, animeList(anime("1", 1, AnimeListEntryStatus.WATCHING)));
+            log.recordAnimeList("user", animeList(anime("1", 1, AnimeListEntryStatus.WATCHING)), animeList(anime("1", 2, AnimeListEntryStatus.WATCHING)));
+
+            List<EntryChange> changes = log.read(0, 10);
+            assertThat(changes.stream().map(EntryChange::getType).collect(Collectors.toList()),
+                    is(Arrays.asList(EntryChangeType.ANIME_ADDED, EntryChangeType.ANIME_UPDATED)));
+            assertThat(changes.get(1).getAfter(), is(Collections.singletonMap("episode", "2")));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_logAlreadyOpen_throwsException() throws IOException {
+        try (ChangeLog ignored = new ChangeLog(directory, options)) {
+            new ChangeLog(directory, options);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void read_closedLog_throwsException() throws IOException {
+        ChangeLog log = new ChangeLog(directory, options);
+        log.close();
+        log.read(0, 1);
+    }
+
+    static EntryChange change(String seriesId, long timestamp) {
+        return new EntryChange(-1, timestamp, EntryChangeType.ANIME_UPDATED, "user", seriesId,
+                Collections.singletonMap("episode", "1"), Collections.singletonMap("episode", "2"));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+    }
+}
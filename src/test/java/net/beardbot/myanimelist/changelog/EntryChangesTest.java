@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.changelog;
+
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryStatus;
+import net.beardbot.myanimelist.model.manga.MangaList;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaListEntryStatus;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class EntryChangesTest {
+
+    @Test
+    public void diffAnimeLists_noPreviousList_addsEveryEntry() {
+        AnimeListEntry entry = anime("1", 4, AnimeListEntryStatus.WATCHING);
+        entry.setTags(Arrays.asList("a", "b"));
+        entry.setStartedWatching(new GregorianCalendar(2018, Calendar.MARCH, 5).getTime());
+
+        List<EntryChange> changes = EntryChanges.diffAnimeLists("user", null, animeList(entry), 42);
+
+        assertThat(changes.size(), is(1));
+        EntryChange change = changes.get(0);
+        assertThat(change.getType(), is(EntryChangeType.ANIME_ADDED));
+        assertThat(change.getOffset(), is(-1L));
+        assertThat(change.getTimestamp(), is(42L));
+        assertThat(change.getUsername(), is("user"));
+        assertThat(change.getSeriesId(), is("1"));
+        assertThat(change.getBefore().isEmpty(), is(true));
+        assertThat(change.getAfter(), allOf(
+                hasEntry("episode", "4"),
+                hasEntry("status", "WATCHING"),
+                hasEntry("tags", "a,b"),
+                hasEntry("date_start", "2018-03-05")));
+        assertThat(change.getAfter(), not(hasKey("score")));
+    }
+
+    @Test
+    public void diffAnimeLists_changedEntry_recordsChangedFieldsOnly() {
+        AnimeListEntry before = anime("1", 4, AnimeListEntryStatus.WATCHING);
+        AnimeListEntry after = anime("1", 12, AnimeListEntryStatus.COMPLETED);
+        after.setUserScore(8);
+
+        List<EntryChange> changes = EntryChanges.diffAnimeLists("user", animeList(before), animeList(after), 0);
+
+        assertThat(changes.size(), is(1));
+        assertThat(changes.get(0).getType(), is(EntryChangeType.ANIME_UPDATED));
+        assertThat(changes.get(0).getBefore().size(), is(2));
+        assertThat(changes.get(0).getBefore(), allOf(hasEntry("episode", "4"), hasEntry("status", "WATCHING")));
+        assertThat(changes.get(0).getAfter().size(), is(3));
+        assertThat(changes.get(0).getAfter(), allOf(hasEntry("episode", "12"), hasEntry("status", "COMPLETED"), hasEntry("score", "8")));
+    }
+
+    @Test
+    public void diffAnimeLists_unchangedAndRemovedEntries_recordsRemovalsLast() {
+        AnimeList before = animeList(anime("1", 4, AnimeListEntryStatus.WATCHING), anime("2", 1, AnimeListEntryStatus.DROPPED));
+        AnimeList after = animeList(anime("3", 0, AnimeListEntryStatus.PLAN_TO_WATCH), anime("1", 4, AnimeListEntryStatus.WATCHING));
+
+        List<EntryChange> changes = EntryChanges.diffAnimeLists("user", before, after, 0);
+
+        assertThat(changes.size(), is(2));
+        assertThat(changes.get(0).getType(), is(EntryChangeType.ANIME_ADDED));
+        assertThat(changes.get(0).getSeriesId(), is("3"));
+        assertThat(changes.get(1).getType(), is(EntryChangeType.ANIME_REMOVED));
+        assertThat(changes.get(1).getSeriesId(), is("2"));
+        assertThat(changes.get(1).getBefore(), hasEntry("status", "DROPPED"));
+        assertThat(changes.get(1).getAfter().isEmpty(), is(true));
+    }
+
+    @Test
+    public void diffAnimeLists_entriesWithoutSeriesId_ignored() {
+        AnimeList before = animeList(anime(null, 1, AnimeListEntryStatus.WATCHING), anime("1", 4, AnimeListEntryStatus.WATCHING));
+        AnimeList after = animeList(anime("1", 5, AnimeListEntryStatus.WATCHING), anime(null, 2, AnimeListEntryStatus.WATCHING));
+
+        List<EntryChange> changes = EntryChanges.diffAnimeLists("user", before, after, 0);
+
+        assertThat(changes.size(), is(1));
+        assertThat(changes.get(0).getType(), is(EntryChangeType.ANIME_UPDATED));
+        assertThat(changes.get(0).getSeriesId(), is("1"));
+    }
+
+    @Test
+    public void diffMangaLists_changedEntry_usesMangaFields() {
+        MangaListEntry before = new MangaListEntry();
+        before.setSeriesId("7");
+        before.setReadChapters(10);
+        before.setStatus(MangaListEntryStatus.READING);
+        MangaListEntry after = new MangaListEntry();
+        after.setSeriesId("7");
+        after.setReadChapters(11);
+        after.setStatus(MangaListEntryStatus.READING);
+        after.setRereading(true);
+
+        List<EntryChange> changes = EntryChanges.diffMangaLists("user", mangaList(before), mangaList(after), 0);
+
+        assertThat(changes.size(), is(1));
+        assertThat(changes.get(0).getType(), is(EntryChangeType.MANGA_UPDATED));
+        assertThat(changes.get(0).getBefore(), is(Collections.singletonMap("chapter", "10")));
+        assertThat(changes.get(0).getAfter().size(), is(2));
+        assertThat(changes.get(0).getAfter(), allOf(hasEntry("chapter", "11"), hasEntry("enable_rereading", "true")));
+    }
+
+    static AnimeListEntry anime(String id, int episodes, AnimeListEntryStatus status) {
+        AnimeListEntry entry = new AnimeListEntry();
+        entry.setSeriesId(id);
+        entry.setWatchedEpisodes(episodes);
+        entry.setStatus(status);
+        return entry;
+    }
+
+    static AnimeList animeList(AnimeListEntry... entries) {
+        AnimeList list = new AnimeList();
+        list.setEntries(Arrays.asList(entries));
+        return list;
+    }
+
+    private static MangaList mangaList(MangaListEntry... entries) {
+        MangaList list = new MangaList();
+        list.setEntries(Arrays.asList(entries));
+        return list;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.codec;
+
+import net.beardbot.myanimelist.SyntheticLists;
+import net.beardbot.myanimelist.model.User;
+import net.beardbot.myanimelist.model.anime.Anime;
+import net.beardbot.myanimelist.model.anime.AnimeList;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.Manga;
+import net.beardbot.myanimelist.model.manga.MangaList;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import net.beardbot.myanimelist.utils.XmlUtils;
+import org.junit.Test;
+
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.beardbot.myanimelist.TestUtils.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CodecsTest {
+
+    private final SyntheticLists lists = new SyntheticLists(42, 500);
+
+    @Test
+    public void readDocument_animeList_equalsJaxb() throws Exception {
+        String xml = lists.animeListXml(7, 300);
+
+        AnimeList expected = jaxb(AnimeList.class, xml);
+        AnimeList actual = Codecs.readDocument(Codecs.forType(AnimeList.class), stream(xml), null);
+
+        assertThat(actual.getEntries().size(), is(300));
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void readDocument_mangaList_equalsJaxb() throws Exception {
+        String xml = lists.mangaListXml(7, 300);
+
+        MangaList expected = jaxb(MangaList.class, xml);
+        MangaList actual = Codecs.readDocument(Codecs.forType(MangaList.class), stream(xml), null);
+
+        assertThat(actual.getEntries().size(), is(300));
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void readDocument_user_equalsJaxb() throws Exception {
+        String xml = userXmlBuilder().withId("123").withUsername("someone").build();
+
+        assertThat(Codecs.readDocument(Codecs.forType(User.class), stream(xml), null), is(jaxb(User.class, xml)));
+    }
+
+    @Test
+    public void readList_searchResults_equalsJaxb() throws Exception {
+        String anime = animeXmlBuilder().withDefaultValues().build();
+        String manga = mangaXmlBuilder().withDefaultValues().build();
+
+        List<Anime> animeResults = Codecs.readList(Codecs.forType(Anime.class),
+                stream(animeSearchResultsXmlBuilder().withEntry(anime).withEntry(anime).build()), null);
+        List<Manga> mangaResults = Codecs.readList(Codecs.forType(Manga.class),
+                stream(mangaSearchResultsXmlBuilder().withEntry(manga).build()), null);
+
+        assertThat(animeResults.size(), is(2));
+        assertThat(animeResults.get(0), is(jaxb(Anime.class, anime)));
+        assertThat(mangaResults.size(), is(1));
+        assertThat(mangaResults.get(0), is(jaxb(Manga.class, manga)));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void readDocument_emptyDocument_throwsException() throws Exception {
+        Codecs.readDocument(Codecs.forType(User.class), stream(""), null);
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void readDocument_unexpectedRootElement_throwsException() throws Exception {
+        Codecs.readDocument(Codecs.forType(User.class), stream("<anime/>"), null);
+    }
+
+    @Test
+    public void readDocument_withListener_notifiesListenerLikeJaxb() throws Exception {
+        String xml = lists.animeListXml(3, 5);
+        List<Object> notified = new ArrayList<>();
+        Unmarshaller.Listener listener = new Unmarshaller.Listener() {
+            @Override
+            public void afterUnmarshal(Object target, Object parent) {
+                if (target instanceof AnimeListEntry) {
+                    assertThat(parent, is(instanceOf(AnimeList.class)));
+                }
+                notified.add(target);
+            }
+        };
+
+        AnimeList list = Codecs.readDocument(Codecs.forType(AnimeList.class), stream(xml), listener);
+
+        assertThat(notified.size(), is(7));
+        assertThat(notified.get(notified.size() - 1), is(sameInstance(list)));
+    }
+
+    @Test
+    public void toXml_listEntryValues_equalsJaxb() throws Exception {
+        AnimeListEntryValues animeValues = createTestAnimeListEntryValues();
+        MangaListEntryValues mangaValues = createTestMangaListEntryValues();
+
+        assertThat(Codecs.toXml(Codecs.forType(AnimeListEntryValues.class), animeValues), is(XmlUtils.objectToXml(animeValues)));
+        assertThat(Codecs.toXml(Codecs.forType(MangaListEntryValues.class), mangaValues), is(XmlUtils.objectToXml(mangaValues)));
+    }
+
+    @Test
+    public void readText_sameAsGetElementText() throws Exception {
+        String xml = "<a><b>text</b><b></b><b/><b>one &amp; two</b><b><![CDATA[<x>]]> y</b><b>c<!-- comment -->d</b></a>";
+        XMLStreamReader expected = XmlUtils.createXmlStreamReader(stream(xml));
+        XMLStreamReader actual = XmlUtils.createXmlStreamReader(stream(xml));
+        expected.nextTag();
+        actual.nextTag();
+
+        while (CodecSupport.nextChild(expected)) {
+            assertThat(CodecSupport.nextChild(actual), is(true));
+            assertThat(CodecSupport.readText(actual), is(expected.getElementText()));
+            assertThat(actual.getEventType(), is(XMLStreamConstants.END_ELEMENT));
+        }
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void readText_elementWithChildren_throwsException() throws Exception {
+        XMLStreamReader reader = XmlUtils.createXmlStreamReader(stream("<a><b/></a>"));
+        reader.nextTag();
+        CodecSupport.readText(reader);
+    }
+
+    @Test
+    public void forType_classWithoutCodec_returnsNull() {
+        assertThat(Codecs.forType(String.class), is(nullValue()));
+    }
+
+    private static <T> T jaxb(Class<T> type, String xml) throws Exception {
+        return type.cast(XmlUtils.getContext(type).createUnmarshaller().unmarshal(new StringReader(xml)));
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.index;
+
+import net.beardbot.myanimelist.model.anime.Anime;
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListSeriesType;
+import net.beardbot.myanimelist.model.anime.AnimeType;
+import net.beardbot.myanimelist.model.manga.Manga;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TitleIndexTest {
+
+    private final TitleIndex index = new TitleIndex();
+
+    @Test
+    public void searchAnime_ignoresCaseAccentsAndPunctuation() {
+        index.add(anime("1", "Fate/kaleid liner Prisma☆Illya"));
+        index.add(anime("2", "Pokémon"));
+
+        assertThat(ids(index.searchAnime("fate KALEID")), is(Arrays.asList("1")));
+        assertThat(ids(index.searchAnime("pokemon")), is(Arrays.asList("2")));
+        assertThat(ids(index.searchAnime("liner prisma")), is(Arrays.asList("1")));
+        assertThat(index.searchAnime("kaleid prisma").isEmpty(), is(true));
+    }
+
+    @Test
+    public void searchAnime_matchesEnglishTitlesAndSynonyms() {
+        Anime anime = anime("1", "Shingeki no Kyojin");
+        anime.setEnglishTitle("Attack on Titan");
+        anime.setSynonyms(Arrays.asList("AoT", "SnK"));
+        index.add(anime);
+
+        assertThat(ids(index.searchAnime("attack on")), is(Arrays.asList("1")));
+        assertThat(ids(index.searchAnime("snk")), is(Arrays.asList("1")));
+        assertThat(ids(index.searchAnime("kyojin")), is(Arrays.asList("1")));
+    }
+
+    @Test
+    public void searchAnime_ranksExactBeforePrefixBeforeWordBeforeSubstring() {
+        index.add(anime("1", "Bakemonogatari"));
+        index.add(anime("2", "Monogatari Series: Second Season"));
+        index.add(anime("3", "Owarimonogatari"));
+        index.add(anime("4", "Monogatari"));
+        index.add(anime("5", "The Monogatari"));
+        index.add(anime("6", "Monogatari Season"));
+
+        assertThat(ids(index.searchAnime("monogatari")), is(Arrays.asList("4", "6", "2", "5", "1", "3")));
+    }
+
+    @Test
+    public void searchAnime_shortQuery_scansAllTitles() {
+        index.add(anime("1", "K"));
+        index.add(anime("2", "K-On!"));
+        index.add(anime("3", "Akira"));
+
+        assertThat(ids(index.searchAnime("k")), is(Arrays.asList("1", "2", "3")));
+        assertThat(index.searchAnime("  ").isEmpty(), is(true));
+    }
+
+    @Test
+    public void matchAnime_misspelledTitles_rankedBySimilarity() {
+        index.add(anime("1", "Fullmetal Alchemist"));
+        index.add(anime("2", "Fullmetal Alchemist: Brotherhood"));
+        index.add(anime("3", "Cowboy Bebop"));
+
+        List<TitleCandidate<Anime>> candidates = index.matchAnime("Full Metal Alchemist", 5, 0.3);
+
+        assertThat(candidates.stream().map(c -> c.getSeries().getId()).collect(Collectors.toList()), is(Arrays.asList("1", "2")));
+        assertThat(candidates.get(0).getScore() > candidates.get(1).getScore(), is(true));
+        assertThat(candidates.get(0).getScore() < 1, is(true));
+    }
+
+    @Test
+    public void matchAnime_equalAfterNormalization_scoresOneAgainstSynonyms() {
+        Anime anime = anime("1", "Shingeki no Kyojin");
+        anime.setSynonyms(Arrays.asList("Attack on Titan"));
+        index.add(anime);
+
+        List<TitleCandidate<Anime>> candidates = index.matchAnime("ATTACK ON TITAN!", 5, 0.3);
+
+        assertThat(candidates.size(), is(1));
+        assertThat(candidates.get(0).getScore(), is(1.0));
+        assertThat(candidates.get(0).getSeries(), is(anime));
+    }
+
+    @Test
+    public void matchAnime_limitsCandidatesAndScore() {
+        index.add(anime("1", "Monogatari"));
+        index.add(anime("2", "Monogatari Second Season"));
+        index.add(anime("3", "Bakemonogatari"));
+
+        assertThat(index.matchAnime("Monogatari", 1, 0.3).size(), is(1));
+        assertThat(index.matchAnime("Monogatari", 5, 0.99).size(), is(1));
+        assertThat(index.matchAnime("Naruto", 5, 0.3).isEmpty(), is(true));
+        assertThat(index.matchAnime("?!", 5, 0).isEmpty(), is(true));
+    }
+
+    @Test
+    public void matchManga_findsMangaOnly() {
+        index.add(anime("1", "Berserk"));
+        Manga manga = new Manga();
+        manga.setId("2");
+        manga.setTitle("Berserk");
+        index.add(manga);
+
+        List<TitleCandidate<Manga>> candidates = index.matchManga("berserk", 5, 0.3);
+
+        assertThat(candidates.size(), is(1));
+        assertThat(candidates.get(0).getSeries().getId(), is("2"));
+    }
+
+    @Test
+    public void add_sameId_replacesTitles() {
+        index.add(anime("1", "Old Title"));
+        index.add(anime("1", "New Title"));
+
+        assertThat(index.searchAnime("old").isEmpty(), is(true));
+        assertThat(ids(index.searchAnime("new")), is(Arrays.asList("1")));
+        assertThat(index.getAnimeCount(), is(1));
+    }
+
+    @Test
+    public void add_listEntry_doesNotReplaceSearchResult() {
+        Anime anime = anime("1", "Searched");
+        anime.setSynopsis("Synopsis");
+        index.add(anime);
+        AnimeListEntry entry = new AnimeListEntry();
+        entry.setSeriesId("1");
+        entry.setSeriesTitle("Listed");
+        index.add(entry);
+
+        assertThat(index.searchAnime("listed").isEmpty(), is(true));
+        assertThat(index.getAnime("1").getSynopsis(), is("Synopsis"));
+    }
+
+    @Test
+    public void add_listEntry_isConvertedAndReplacedBySearchResult() {
+        AnimeListEntry entry = new AnimeListEntry();
+        entry.setSeriesId("1");
+        entry.setSeriesTitle("Listed");
+        entry.setSeriesSynonyms(Arrays.asList("Other Name"));
+        entry.setSeriesType(AnimeListSeriesType.MOVIE);
+        entry.setSeriesEpisodes(1);
+        index.add(entry);
+
+        Anime listed = index.searchAnime("other name").get(0);
+        assertThat(listed.getTitle(), is("Listed"));
+        assertThat(listed.getType(), is(AnimeType.MOVIE));
+        assertThat(listed.getEpisodes(), is(1));
+
+        index.add(anime("1", "Searched"));
+        assertThat(index.searchAnime("listed").isEmpty(), is(true));
+        assertThat(ids(index.searchAnime("searched")), is(Arrays.asList("1")));
+    }
+
+    @Test
+    public void searchManga_findsMangaOfListEntries() {
+        MangaListEntry entry = new MangaListEntry();
+        entry.setSeriesId("2");
+        entry.setSeriesTitle("Berserk");
+        index.add(entry);
+        Manga manga = new Manga();
+        manga.setId("999");
+        manga.setTitle(entry.getSeriesTitle() + " Gaiden");
+        index.add(manga);
+
+        List<Manga> results = index.searchManga(entry.getSeriesTitle());
+
+        assertThat(ids(results), is(Arrays.asList("2", "999")));
+        assertThat(index.getMangaCount(), is(2));
+        assertThat(index.searchAnime(entry.getSeriesTitle()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void searchAnime_returnsCopies() {
+        index.add(anime("1", "Title"));
+
+        index.searchAnime("title").get(0).setTitle("Changed");
+
+        assertThat(index.getAnime("1").getTitle(), is("Title"));
+    }
+
+    @Test
+    public void clear_removesEverything() {
+        index.add(anime("1", "Title"));
+        index.clear();
+
+        assertThat(index.searchAnime("title").isEmpty(), is(true));
+        assertThat(index.getAnimeCount(), is(0));
+    }
+
+    private static Anime anime(String id, String title) {
+        Anime anime = new Anime();
+        anime.setId(id);
+        anime.setTitle(title);
+        return anime;
+    }
+
+    private static List<String> ids(List<?> series) {
+        return series.stream()
+                     .map(s -> s instanceof Anime ? ((Anime) s).getId() : ((Manga) s).getId())
+                     .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.ServiceUnavailableException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntryValues;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JournaledWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Mutation> sent = new CopyOnWriteArrayList<>();
+    private final List<JournalFailure> failures = new CopyOnWriteArrayList<>();
+    private Path file;
+    private JournalOptions options;
+
+    @Before
+    public void setUp() {
+        file = folder.getRoot().toPath().resolve("mutations.journal");
+        options = new JournalOptions();
+        options.setRetryDelayMillis(10);
+        options.setFailureListener(failures::add);
+    }
+
+    @Test
+    public void changes_sentInOrderAndAcknowledged() throws Exception {
+        AnimeListEntryValues values = createTestAnimeListEntryValues();
+        try (JournaledWriter writer = writer(sent::add)) {
+            writer.addToAnimeList("1", values);
+            writer.updateMangaList("2", new MangaListEntryValues());
+            writer.removeFromAnimeList("1");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+            assertThat(writer.getPendingCount(), is(0));
+        }
+
+        assertThat(types(sent), is(Arrays.asList(MutationType.ADD_ANIME, MutationType.UPDATE_MANGA, MutationType.REMOVE_ANIME)));
+        assertThat(sent.get(0).getValues(), is(values));
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(journal.getPending().isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    public void open_changesNotSentBefore_sentAgain() throws Exception {
+        try (JournaledWriter writer = writer(mutation -> {
+            throw new ServiceUnavailableException();
+        })) {
+            writer.removeFromAnimeList("1");
+            writer.removeFromMangaList("2");
+        }
+
+        try (JournaledWriter writer = writer(sent::add)) {
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(types(sent), is(Arrays.asList(MutationType.REMOVE_ANIME, MutationType.REMOVE_MANGA)));
+    }
+
+    @Test
+    public void failure_temporary_retriedWithoutReordering() throws Exception {
+        try (JournaledWriter writer = writer(mutation -> {
+            if (mutation.getSeriesId().equals("1") && failures.size() < 2) {
+                throw new ServiceUnavailableException();
+            }
+            sent.add(mutation);
+        })) {
+            writer.removeFromAnimeList("1");
+            writer.removeFromAnimeList("2");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(sent.stream().map(Mutation::getSeriesId).collect(Collectors.toList()), is(Arrays.asList("1", "2")));
+        assertThat(failures.size(), is(2));
+        assertThat(failures.get(0).isRetried(), is(true));
+    }
+
+    @Test
+    public void failure_clientError_dropped() throws Exception {
+        try (JournaledWriter writer = writer(mutation -> {
+            throw new BadRequestException();
+        })) {
+            writer.removeFromAnimeList("1");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).isRetried(), is(false));
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(journal.getPending().isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    public void failure_tooManyRequests_retried() throws Exception {
+        try (JournaledWriter writer = writer(mutation -> {
+            if (failures.isEmpty()) {
+                throw new ClientErrorException(429);
+            }
+            sent.add(mutation);
+        })) {
+            writer.removeFromAnimeList("1");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(types(sent), is(Arrays.asList(MutationType.REMOVE_ANIME)));
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).isRetried(), is(true));
+    }
+
+    @Test
+    public void failure_throwingListener_keepsSending() throws Exception {
+        options.setFailureListener(failure -> {
+            throw new IllegalStateException("listener");
+        });
+        try (JournaledWriter writer = writer(mutation -> {
+            if (mutation.getSeriesId().equals("1")) {
+                throw new BadRequestException();
+            }
+            sent.add(mutation);
+        })) {
+            writer.removeFromAnimeList("1");
+            writer.removeFromAnimeList("2");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(sent.stream().map(Mutation::getSeriesId).collect(Collectors.toList()), is(Arrays.asList("2")));
+    }
+
+    @Test
+    public void failure_unexpectedError_retried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        try (JournaledWriter writer = writer(mutation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new AssertionError("unexpected");
+            }
+            sent.add(mutation);
+        })) {
+            writer.removeFromAnimeList("1");
+
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(attempts.get(), is(2));
+        assertThat(types(sent), is(Arrays.asList(MutationType.REMOVE_ANIME)));
+    }
+
+    @Test
+    public void submit_valuesChangedAfterwards_sentAsJournaled() throws Exception {
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(1);
+        try (JournaledWriter writer = writer(sent::add)) {
+            Mutation mutation = writer.updateAnimeList("1", values);
+            values.setEpisode(2);
+
+            assertThat(mutation.getValues(), is(not(sameInstance(values))));
+            assertThat(writer.awaitSent(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(((AnimeListEntryValues) sent.get(0).getValues()).getEpisode(), is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void submit_closedWriter_throwsException() throws Exception {
+        JournaledWriter writer = writer(sent::add);
+        writer.close();
+        writer.removeFromAnimeList("1");
+    }
+
+    private JournaledWriter writer(Consumer<Mutation> sender) throws IOException {
+        return new JournaledWriter(new MutationJournal(file, options), sender, options);
+    }
+
+    private static List<MutationType> types(List<Mutation> mutations) {
+        return mutations.stream().map(Mutation::getType).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.journal;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntryValues;
+import static net.beardbot.myanimelist.TestUtils.createTestMangaListEntryValues;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MutationJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private JournalOptions options;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("mutations.journal");
+        options = new JournalOptions();
+        options.setInitialSize(4096);
+    }
+
+    @Test
+    public void open_existingJournal_restoresUnacknowledgedMutations() throws IOException {
+        AnimeListEntryValues anime = createTestAnimeListEntryValues();
+        MangaListEntryValues manga = createTestMangaListEntryValues();
+        Mutation added;
+        Mutation updated;
+        Mutation removed;
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            added = journal.append(MutationType.ADD_ANIME, "1", anime);
+            Mutation acknowledged = journal.append(MutationType.UPDATE_ANIME, "1", anime);
+            updated = journal.append(MutationType.UPDATE_MANGA, "2", manga);
+            removed = journal.append(MutationType.REMOVE_MANGA, "3", null);
+            journal.acknowledge(acknowledged.getSequence());
+        }
+
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            List<Mutation> pending = journal.getPending();
+
+            assertThat(pending, is(Arrays.asList(added, updated, removed)));
+            assertThat(pending.get(0).getValues(), is(anime));
+            assertThat(pending.get(2).getValues(), is(nullValue()));
+            assertThat(journal.append(MutationType.REMOVE_ANIME, "1", null).getSequence(), is(removed.getSequence() + 1));
+        }
+    }
+
+    @Test
+    public void open_tornRecord_endsJournal() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            journal.append(MutationType.REMOVE_ANIME, "1", null);
+            journal.append(MutationType.REMOVE_ANIME, "2", null);
+        }
+        int secondRecordEnd;
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            secondRecordEnd = journal.getSize();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(secondRecordEnd - 1);
+            int last = raf.read();
+            raf.seek(secondRecordEnd - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(ids(journal.getPending()), is(Arrays.asList("1")));
+            journal.append(MutationType.REMOVE_ANIME, "3", null);
+        }
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(ids(journal.getPending()), is(Arrays.asList("1", "3")));
+        }
+    }
+
+    @Test
+    public void append_beyondInitialSize_growsFile() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            for (int i = 0; i < 200; i++) {
+                journal.append(MutationType.UPDATE_ANIME, String.valueOf(i), createTestAnimeListEntryValues());
+            }
+        }
+
+        assertThat(Files.size(file), is(greaterThan(4096L)));
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(journal.getPending().size(), is(200));
+        }
+    }
+
+    @Test
+    public void acknowledge_beyondCompactionThreshold_compactsFile() throws IOException {
+        options.setCompactionThreshold(2048);
+        Mutation last;
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            journal.append(MutationType.ADD_ANIME, "kept", createTestAnimeListEntryValues());
+            for (int i = 0; i < 100; i++) {
+                Mutation mutation = journal.append(MutationType.REMOVE_ANIME, String.valueOf(i), null);
+                journal.acknowledge(mutation.getSequence());
+                assertThat(journal.getSize(), is(lessThan(2048 + 1024)));
+            }
+            last = journal.append(MutationType.REMOVE_ANIME, "last", null);
+        }
+
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(ids(journal.getPending()), is(Arrays.asList("kept", "last")));
+            assertThat(journal.append(MutationType.REMOVE_ANIME, "next", null).getSequence(), is(last.getSequence() + 1));
+        }
+    }
+
+    @Test
+    public void compact_withoutPendingMutations_keepsSequence() throws IOException {
+        Mutation mutation;
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            mutation = journal.append(MutationType.REMOVE_MANGA, "1", null);
+            journal.acknowledge(mutation.getSequence());
+            journal.compact();
+            assertThat(journal.getPending().isEmpty(), is(true));
+        }
+
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            assertThat(journal.getSize(), is(16));
+            assertThat(journal.append(MutationType.REMOVE_MANGA, "2", null).getSequence(), is(mutation.getSequence() + 1));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_journalInUse_throwsException() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            new MutationJournal(file, options);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_otherFile_throwsException() throws IOException {
+        Files.write(file, "not a journal".getBytes());
+        new MutationJournal(file, options);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_valuesOfOtherType_throwsException() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, options)) {
+            journal.append(MutationType.UPDATE_ANIME, "1", createTestMangaListEntryValues());
+        }
+    }
+
+    private static List<String> ids(List<Mutation> mutations) {
+        return mutations.stream().map(Mutation::getSeriesId).collect(Collectors.toList());
+    }
+}
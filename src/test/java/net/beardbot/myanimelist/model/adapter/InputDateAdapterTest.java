@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.adapter;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class InputDateAdapterTest {
+
+    private final InputDateAdapter adapter = new InputDateAdapter();
+
+    @Test
+    public void unmarshal_sameAsSimpleDateFormat() throws Exception {
+        List<String> inputs = new ArrayList<>(Arrays.asList("2016-01-15", "0000-00-00", "2017-13-45", "1999-02-29",
+                "2016-1-5", "2016-01-15 "));
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            inputs.add(String.format("%04d-%02d-%02d", random.nextInt(10000), random.nextInt(100), random.nextInt(100)));
+        }
+
+        for (String input : inputs) {
+            assertThat(input, adapter.unmarshal(input), is(new SimpleDateFormat("yyyy-MM-dd").parse(input)));
+        }
+    }
+
+    @Test
+    public void unmarshal_empty_returnsNull() throws Exception {
+        assertThat(adapter.unmarshal(""), is(nullValue()));
+    }
+
+    @Test(expected = ParseException.class)
+    public void unmarshal_noDate_throwsException() throws Exception {
+        adapter.unmarshal("unknown");
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.adapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MarkdownAndHtmlRemovalAdapterTest {
+
+    private final MarkdownAndHtmlRemovalAdapter adapter = new MarkdownAndHtmlRemovalAdapter();
+
+    @Test
+    public void unmarshal_sameAsRegularExpressions() throws Exception {
+        List<String> inputs = new ArrayList<>(Arrays.asList("", "plain", "a<br />b", "<b>bold</b> [i]text[/i]",
+                "[Written by MAL Rewrite]", "a < b > c", "<a\nb>", "[<]>]", "<[>]", "1 < 2", "[unclosed"));
+        Random random = new Random(42);
+        char[] alphabet = {'a', ' ', '<', '>', '[', ']', '\n', '\r', ' '};
+        for (int i = 0; i < 5000; i++) {
+            char[] chars = new char[random.nextInt(16)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            inputs.add(new String(chars));
+        }
+
+        for (String input : inputs) {
+            String expected = input.replaceAll("<.*?>", "").replaceAll("\\[.*?]", "");
+            assertThat(input, adapter.unmarshal(input), is(expected));
+        }
+    }
+
+    @Test
+    public void unmarshal_noTags_returnsSameInstance() throws Exception {
+        String text = "A text without tags.";
+        assertThat(adapter.unmarshal(text), is(sameInstance(text)));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.model.adapter;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class SeparatedValuesTest {
+
+    @Test
+    public void split_sameAsStringTokenizerAndTrim() {
+        List<String> inputs = new ArrayList<>(Arrays.asList("", " ", "a", " a ", "a,b", "a, b", ",a,,b,", " , a", "a ,\t,b",
+                "\u2003", "\u2003,a", ",,", "Action, Comedy, Slice of Life"));
+        Random random = new Random(42);
+        char[] alphabet = {'a', 'B', ' ', '\t', ',', ';', '\u2003'};
+        for (int i = 0; i < 1000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            inputs.add(new String(chars));
+        }
+
+        for (String input : inputs) {
+            assertThat(input, SeparatedValues.split(input, ','), is(tokenize(input, ",")));
+            assertThat(input, SeparatedValues.split(input, ';'), is(tokenize(input, ";")));
+        }
+    }
+
+    @Test
+    public void split_noValues_returnsEmptyList() {
+        assertThat(SeparatedValues.split(null, ','), is(Collections.<String>emptyList()));
+        assertThat(SeparatedValues.split(" \t", ','), is(Collections.<String>emptyList()));
+        assertThat(SeparatedValues.split(",,", ','), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void split_singleValueWithoutWhitespace_returnsInput() {
+        String input = "Action";
+
+        assertThat(SeparatedValues.split(input, ',').get(0), is(sameInstance(input)));
+    }
+
+    @Test
+    public void split_listsAreMutable() {
+        List<String> values = SeparatedValues.split("a, b", ',');
+        List<String> empty = SeparatedValues.split("", ',');
+
+        values.add("c");
+        empty.add("a");
+
+        assertThat(values, is(Arrays.asList("a", "b", "c")));
+        assertThat(empty, is(Collections.singletonList("a")));
+    }
+
+    @Test
+    public void split_elementsCanBeReplaced() {
+        List<String> values = SeparatedValues.split("a, b", ',');
+
+        values.replaceAll(String::toUpperCase);
+
+        assertThat(values, is(Arrays.asList("A", "B")));
+    }
+
+    @Test
+    public void join_sameAsPreviousImplementation() {
+        assertThat(SeparatedValues.join(null, ", "), is((String) null));
+        assertThat(SeparatedValues.join(Collections.emptyList(), ", "), is(""));
+        assertThat(SeparatedValues.join(Collections.singletonList("a"), ", "), is("a"));
+        assertThat(SeparatedValues.join(Arrays.asList("a", null, "c"), "; "), is("a; null; c"));
+        assertThat(SeparatedValues.join(Arrays.asList("Action", "Comedy", ""), ", "), is("Action, Comedy, "));
+    }
+
+    private static List<String> tokenize(String input, String separator) {
+        List<String> values = new ArrayList<>();
+        if (!StringUtils.isBlank(input)) {
+            StringTokenizer tokenizer = new StringTokenizer(input, separator);
+            while (tokenizer.hasMoreTokens()) {
+                values.add(tokenizer.nextToken().trim());
+            }
+        }
+        return values;
+    }
+}
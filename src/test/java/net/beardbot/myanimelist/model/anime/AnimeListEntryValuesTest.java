@@ -21,6 +21,7 @@ import org.junit.Test;
 
 import static net.beardbot.myanimelist.TestUtils.createTestAnimeListEntry;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class AnimeListEntryValuesTest {
@@ -38,4 +39,39 @@ public class AnimeListEntryValuesTest {
         assertThat(values.getDateFinish(),is(entry.getFinishedWatching()));
         assertThat(values.getEnableRewatching(),is(entry.getRewatching()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void merge_newerFieldsOverrideOlderUnlessNull() {
+        AnimeListEntryValues older = new AnimeListEntryValues();
+        older.setEpisode(1);
+        older.setStatus(AnimeListEntryStatus.WATCHING);
+        older.setComments("old");
+        AnimeListEntryValues newer = new AnimeListEntryValues();
+        newer.setEpisode(2);
+        newer.setComments("new");
+
+        AnimeListEntryValues merged = older.merge(newer);
+
+        assertThat(merged.getEpisode(),is(2));
+        assertThat(merged.getStatus(),is(AnimeListEntryStatus.WATCHING));
+        assertThat(merged.getComments(),is("new"));
+        assertThat(older.getEpisode(),is(1));
+        assertThat(newer.getStatus(),is(nullValue()));
+    }
+
+    @Test
+    public void applyTo_setsFieldsOfEntryUnlessNull() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(12);
+        values.setStatus(AnimeListEntryStatus.COMPLETED);
+        Integer score = entry.getUserScore();
+
+        values.applyTo(entry);
+
+        assertThat(entry.getWatchedEpisodes(),is(12));
+        assertThat(entry.getStatus(),is(AnimeListEntryStatus.COMPLETED));
+        assertThat(entry.getUserScore(),is(score));
+        assertThat(AnimeListEntryValues.fromEntry(entry).getEpisode(),is(12));
+    }
+}
@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import static net.beardbot.myanimelist.TestUtils.createTestMangaListEntry;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class MangaListEntryValuesTest {
@@ -37,4 +38,38 @@ public class MangaListEntryValuesTest {
         assertThat(values.getDateFinish(),is(entry.getFinishedReading()));
         assertThat(values.getEnableRereading(),is(entry.getRereading()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void merge_newerFieldsOverrideOlderUnlessNull() {
+        MangaListEntryValues older = new MangaListEntryValues();
+        older.setChapter(1);
+        older.setStatus(MangaListEntryStatus.READING);
+        older.setComments("old");
+        MangaListEntryValues newer = new MangaListEntryValues();
+        newer.setChapter(2);
+        newer.setComments("new");
+
+        MangaListEntryValues merged = older.merge(newer);
+
+        assertThat(merged.getChapter(),is(2));
+        assertThat(merged.getStatus(),is(MangaListEntryStatus.READING));
+        assertThat(merged.getComments(),is("new"));
+        assertThat(older.getChapter(),is(1));
+        assertThat(newer.getStatus(),is(nullValue()));
+    }
+
+    @Test
+    public void applyTo_setsFieldsOfEntryUnlessNull() {
+        MangaListEntry entry = createTestMangaListEntry();
+        MangaListEntryValues values = new MangaListEntryValues();
+        values.setChapter(40);
+        values.setStatus(MangaListEntryStatus.ON_HOLD);
+        Integer volumes = entry.getReadVolumes();
+
+        values.applyTo(entry);
+
+        assertThat(entry.getReadChapters(),is(40));
+        assertThat(entry.getStatus(),is(MangaListEntryStatus.ON_HOLD));
+        assertThat(entry.getReadVolumes(),is(volumes));
+    }
+}
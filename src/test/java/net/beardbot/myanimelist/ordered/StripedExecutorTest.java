@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.ordered;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class StripedExecutorTest {
+
+    private StripedExecutor executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void submit_sameKey_runsInOrderWithoutOverlap() throws Exception {
+        executor = new StripedExecutor(8, 8);
+        Map<String, List<Integer>> runs = new ConcurrentHashMap<>();
+        AtomicInteger overlapping = new AtomicInteger();
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < 200; i++) {
+            int number = i;
+            String key = "series" + (i % 10);
+            executor.submit(key, () -> {
+                if (running.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                    overlapping.incrementAndGet();
+                }
+                runs.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(number);
+                running.get(key).decrementAndGet();
+                return null;
+            });
+        }
+
+        assertThat(executor.awaitIdle(5, TimeUnit.SECONDS), is(true));
+        assertThat(overlapping.get(), is(0));
+        for (int k = 0; k < 10; k++) {
+            int first = k;
+            List<Integer> expected = IntStream.range(0, 20).map(i -> first + i * 10).boxed().collect(Collectors.toList());
+            assertThat(runs.get("series" + k), is(expected));
+        }
+    }
+
+    @Test
+    public void submit_differentStripes_runConcurrently() throws Exception {
+        executor = new StripedExecutor(16, 2);
+        String first = "a";
+        String second = keyInOtherStripe(first);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> a = executor.submit(first, () -> await(bothRunning));
+        CompletableFuture<Boolean> b = executor.submit(second, () -> await(bothRunning));
+
+        assertThat(a.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(b.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void metrics_reportQueueDepthPerStripe() throws Exception {
+        executor = new StripedExecutor(4, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("a", () -> block(release));
+        executor.submit("a", () -> null);
+        executor.submit("a", () -> null);
+
+        StripeMetrics metrics = executor.getMetrics();
+        assertThat(metrics.getQueueDepths().size(), is(4));
+        assertThat(metrics.getQueueDepths().get(executor.stripe("a")), is(3));
+        assertThat(metrics.getQueued(), is(3));
+        assertThat(metrics.getPeakQueueDepth(), is(3));
+
+        release.countDown();
+        assertThat(executor.awaitIdle(5, TimeUnit.SECONDS), is(true));
+        assertThat(executor.getMetrics().getQueued(), is(0));
+        assertThat(executor.getMetrics().getCompleted(), is(3L));
+    }
+
+    @Test
+    public void submit_failingTask_completesExceptionallyAndContinues() throws Exception {
+        executor = new StripedExecutor(1, 1);
+        RuntimeException error = new IllegalStateException("failed");
+
+        CompletableFuture<Object> failed = executor.submit("a", () -> {
+            throw error;
+        });
+        CompletableFuture<String> next = executor.submit("a", () -> "next");
+
+        assertThat(next.get(5, TimeUnit.SECONDS), is("next"));
+        try {
+            failed.get();
+            throw new AssertionError("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(sameInstance(error)));
+        }
+    }
+
+    @Test
+    public void close_runsQueuedTasksAndRejectsNewOnes() {
+        executor = new StripedExecutor(2, 1);
+        List<Integer> runs = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int number = i;
+            executor.submit("a", () -> runs.add(number));
+        }
+
+        executor.close();
+
+        assertThat(runs.size(), is(10));
+        try {
+            executor.submit("a", () -> null);
+            throw new AssertionError("Expected a RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(runs.size(), is(10));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_noStripes_throwsException() {
+        new StripedExecutor(0, 1);
+    }
+
+    private String keyInOtherStripe(String key) {
+        int i = 0;
+        while (executor.stripe("k" + i) == executor.stripe(key)) {
+            i++;
+        }
+        return "k" + i;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        return block(latch);
+    }
+
+    private static boolean block(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.reconcile;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryStatus;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntry;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.beardbot.myanimelist.TestUtils.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ReconcilePlannerTest {
+
+    @Test
+    public void planAnimeList_matchingList_plansNothing() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+        Map<String, AnimeListEntryValues> desired = Collections.singletonMap(entry.getSeriesId(), AnimeListEntryValues.fromEntry(entry));
+
+        assertThat(ReconcilePlanner.planAnimeList(Arrays.asList(entry), desired, true).isEmpty(), is(true));
+    }
+
+    @Test
+    public void planAnimeList_plansAdditionsUpdatesAndRemovals() {
+        AnimeListEntry unchanged = createTestAnimeListEntry();
+        AnimeListEntry changed = createTestAnimeListEntry();
+        AnimeListEntry undesired = createTestAnimeListEntry();
+        AnimeListEntryValues added = createTestAnimeListEntryValues();
+        AnimeListEntryValues update = new AnimeListEntryValues();
+        update.setEpisode(changed.getWatchedEpisodes() + 1);
+        update.setScore(changed.getUserScore());
+        update.setComments("rewatch soon");
+        Map<String, AnimeListEntryValues> desired = new LinkedHashMap<>();
+        desired.put("new", added);
+        desired.put(unchanged.getSeriesId(), AnimeListEntryValues.fromEntry(unchanged));
+        desired.put(changed.getSeriesId(), update);
+
+        List<ListOperation<AnimeListEntryValues>> plan = ReconcilePlanner.planAnimeList(Arrays.asList(unchanged, changed, undesired), desired, true);
+
+        assertThat(plan.size(), is(3));
+        assertThat(plan.get(0), is(new ListOperation<>(OperationType.ADD, "new", added, Collections.emptyList())));
+        ListOperation<AnimeListEntryValues> updated = plan.get(1);
+        assertThat(updated.getType(), is(OperationType.UPDATE));
+        assertThat(updated.getChangedFields(), is(Arrays.asList("episode")));
+        assertThat(updated.getValues().getEpisode(), is(changed.getWatchedEpisodes() + 1));
+        assertThat(updated.getValues().getScore(), is(nullValue()));
+        assertThat(updated.getValues().getComments(), is("rewatch soon"));
+        assertThat(plan.get(2), is(new ListOperation<AnimeListEntryValues>(OperationType.REMOVE, undesired.getSeriesId(), null, Collections.emptyList())));
+    }
+
+    @Test
+    public void planAnimeList_removeMissingDisabled_keepsUndesiredEntries() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+
+        assertThat(ReconcilePlanner.planAnimeList(Arrays.asList(entry), Collections.emptyMap(), false).isEmpty(), is(true));
+    }
+
+    @Test
+    public void planAnimeList_comparesDatesByDayAndIgnoresUnsetFields() {
+        AnimeListEntry entry = createTestAnimeListEntry();
+        AnimeListEntryValues desired = new AnimeListEntryValues();
+        desired.setDateStart(new Date(entry.getStartedWatching().getTime() + 3600 * 1000));
+        desired.setStatus(AnimeListEntryStatus.COMPLETED);
+        desired.setTags(entry.getTags());
+
+        List<ListOperation<AnimeListEntryValues>> plan = ReconcilePlanner.planAnimeList(Arrays.asList(entry), Collections.singletonMap(entry.getSeriesId(), desired), true);
+
+        assertThat(plan.size(), is(1));
+        assertThat(plan.get(0).getChangedFields(), is(Arrays.asList("status")));
+        assertThat(plan.get(0).getValues().getDateStart(), is(nullValue()));
+    }
+
+    @Test
+    public void planMangaList_plansFieldLevelUpdates() {
+        MangaListEntry entry = createTestMangaListEntry();
+        MangaListEntryValues desired = MangaListEntryValues.fromEntry(entry);
+        desired.setChapter(entry.getReadChapters() + 2);
+        desired.setVolume(entry.getReadVolumes() + 1);
+
+        List<ListOperation<MangaListEntryValues>> plan = ReconcilePlanner.planMangaList(Arrays.asList(entry), Collections.singletonMap(entry.getSeriesId(), desired), true);
+
+        assertThat(plan.size(), is(1));
+        assertThat(plan.get(0).getChangedFields(), is(Arrays.asList("chapter", "volume")));
+        assertThat(plan.get(0).getValues().getScore(), is(nullValue()));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.tracing.opentelemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import net.beardbot.myanimelist.tracing.Span;
+import net.beardbot.myanimelist.tracing.SpanAttributes;
+import net.beardbot.myanimelist.tracing.SpanNames;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class OpenTelemetryTracerTest {
+
+    private InMemorySpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private OpenTelemetryTracer tracer;
+
+    @Before
+    public void setUp() {
+        exporter = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        tracer = new OpenTelemetryTracer(tracerProvider.get(OpenTelemetryTracer.INSTRUMENTATION_NAME));
+    }
+
+    @After
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    public void startSpan_withParent_exportsChildOfParent() {
+        Span operation = tracer.startSpan("getAnimeList", null);
+        operation.setAttribute(SpanAttributes.ENDPOINT, "MALAPPINFO");
+        Span unmarshal = tracer.startSpan(SpanNames.UNMARSHAL, operation);
+        unmarshal.setAttribute(SpanAttributes.RESPONSE_BYTES, 42);
+        unmarshal.end();
+        operation.end();
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans.size(), is(2));
+        SpanData child = spans.get(0);
+        SpanData parent = spans.get(1);
+        assertThat(parent.getName(), is("getAnimeList"));
+        assertThat(parent.getParentSpanContext().isValid(), is(false));
+        assertThat(parent.getAttributes().get(AttributeKey.stringKey(SpanAttributes.ENDPOINT)), is("MALAPPINFO"));
+        assertThat(child.getName(), is(SpanNames.UNMARSHAL));
+        assertThat(child.getParentSpanId(), is(parent.getSpanId()));
+        assertThat(child.getTraceId(), is(parent.getTraceId()));
+        assertThat(child.getAttributes().get(AttributeKey.longKey(SpanAttributes.RESPONSE_BYTES)), is(42L));
+    }
+
+    @Test
+    public void startSpan_withoutParent_isChildOfCurrentContext() {
+        io.opentelemetry.api.trace.Span caller = tracerProvider.get("caller").spanBuilder("caller").startSpan();
+        try (Scope ignored = caller.makeCurrent()) {
+            tracer.startSpan("getMangaList", null).end();
+        }
+        caller.end();
+
+        SpanData operation = exporter.getFinishedSpanItems().get(0);
+        assertThat(operation.getParentSpanId(), is(caller.getSpanContext().getSpanId()));
+    }
+
+    @Test
+    public void currentSpan_continuesCurrentContextOnOtherThreads() throws Exception {
+        assertThat(tracer.currentSpan(), is(nullValue()));
+
+        io.opentelemetry.api.trace.Span caller = tracerProvider.get("caller").spanBuilder("caller").startSpan();
+        Span current;
+        try (Scope ignored = caller.makeCurrent()) {
+            current = tracer.currentSpan();
+        }
+        assertThat(current, is(notNullValue()));
+
+        Thread thread = new Thread(() -> tracer.startSpan("getAnimeList", current).end());
+        thread.start();
+        thread.join();
+        caller.end();
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans.size(), is(2));
+        assertThat(spans.get(0).getParentSpanId(), is(caller.getSpanContext().getSpanId()));
+    }
+
+    @Test
+    public void setError_recordsExceptionAndStatus() {
+        Span span = tracer.startSpan("updateMangaList", null);
+        span.setError(new IllegalStateException("failed"));
+        span.end();
+
+        SpanData data = exporter.getFinishedSpanItems().get(0);
+        assertThat(data.getStatus().getStatusCode(), is(StatusCode.ERROR));
+        assertThat(data.getEvents().get(0).getName(), is("exception"));
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import org.junit.Test;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.ServiceUnavailableException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ClientErrorsTest {
+
+    @Test
+    public void isPermanent_clientErrors_trueUnlessTheyMayPassLater() {
+        assertThat(ClientErrors.isPermanent(new BadRequestException()),is(true));
+        assertThat(ClientErrors.isPermanent(new ClientErrorException(404)),is(true));
+        assertThat(ClientErrors.isPermanent(new NotAuthorizedException("Basic")),is(false));
+        assertThat(ClientErrors.isPermanent(new ClientErrorException(408)),is(false));
+        assertThat(ClientErrors.isPermanent(new ClientErrorException(429)),is(false));
+    }
+
+    @Test
+    public void isPermanent_otherFailures_false() {
+        assertThat(ClientErrors.isPermanent(new ServiceUnavailableException()),is(false));
+        assertThat(ClientErrors.isPermanent(new IllegalStateException()),is(false));
+        assertThat(ClientErrors.isPermanent(null),is(false));
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RateLimiterTest {
+
+    @Test
+    public void acquire_spacesOutPermits() throws Exception {
+        RateLimiter limiter = new RateLimiter(50);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++) {
+            limiter.acquire();
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(195L)));
+    }
+
+    @Test
+    public void acquire_afterIdlePeriod_allowsNoBurst() throws Exception {
+        RateLimiter limiter = new RateLimiter(20);
+        limiter.acquire();
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(45L)));
+    }
+
+    @Test
+    public void acquire_zeroRate_neverWaits() throws Exception {
+        RateLimiter limiter = new RateLimiter(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire();
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(100L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_negativeRate_throwsIllegalArgumentException() {
+        new RateLimiter(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_nanRate_throwsIllegalArgumentException() {
+        new RateLimiter(Double.NaN);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StringPoolTest {
+
+    @Test
+    public void intern_returnsPooledInstance_forEqualString() {
+        StringPool pool = new StringPool();
+        String first = new String("Fate/kaleid liner");
+        String second = new String("Fate/kaleid liner");
+
+        assertThat(pool.intern(first),is(sameInstance(first)));
+        assertThat(pool.intern(second),is(sameInstance(first)));
+        assertThat(pool.getHits(),is(1L));
+        assertThat(pool.getMisses(),is(1L));
+    }
+
+    @Test
+    public void intern_null_returnsNull() {
+        assertThat(new StringPool().intern(null),is(nullValue()));
+    }
+
+    @Test
+    public void intern_neverHoldsMoreThanCapacity() {
+        StringPool pool = new StringPool(1);
+        String first = new String("AAA");
+        String second = new String("BBB");
+
+        pool.intern(first);
+        pool.intern(second);
+
+        assertThat(pool.getCapacity(),is(1));
+        assertThat(pool.intern(new String("BBB")),is(sameInstance(second)));
+        assertThat(pool.intern(new String("AAA")),is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void constructor_roundsCapacityUpToPowerOfTwo() {
+        assertThat(new StringPool(1000).getCapacity(),is(1024));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_throwsIllegalArgumentException_whenCapacityIsNotPositive() {
+        new StringPool(0);
+    }
+
+    @Test
+    public void internAll_replacesElementsInPlace() {
+        StringPool pool = new StringPool();
+        String tag = new String("Comedy");
+        pool.intern(tag);
+
+        List<String> tags = new ArrayList<>(Arrays.asList(new String("Comedy"), "Drama"));
+        pool.internAll(tags);
+
+        assertThat(tags.get(0),is(sameInstance(tag)));
+        assertThat(tags.get(1),is("Drama"));
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntry;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.ServerErrorException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ListWatcherTest {
+
+    private final Map<String, List<AnimeListEntry>> lists = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+    private final BlockingQueue<ListChange<AnimeListEntry>> changes = new LinkedBlockingQueue<>();
+    private ListWatcher<AnimeListEntry> watcher;
+
+    @After
+    public void tearDown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void watch_listChanges_reportsChanges() throws Exception {
+        long now = System.currentTimeMillis();
+        lists.put("user", Arrays.asList(entry("1", now), entry("2", now), entry("3", now)));
+        watcher = watcher(options(), changes::add);
+
+        watcher.watch("user");
+        awaitFetches("user", 1);
+        lists.put("user", Arrays.asList(entry("4", now), entry("1", now + 1000), entry("3", now)));
+
+        ListChange<AnimeListEntry> change = changes.poll(5, TimeUnit.SECONDS);
+        assertThat(change, is(notNullValue()));
+        assertThat(change.getUsername(), is("user"));
+        assertThat(ids(change.getAdded()), is(Collections.singletonList("4")));
+        assertThat(ids(change.getUpdated()), is(Collections.singletonList("1")));
+        assertThat(change.getRemoved(), is(Collections.singletonList("2")));
+        assertThat(watcher.getMetrics().getChanges(), is(1L));
+    }
+
+    @Test
+    public void watch_listUnchanged_reportsNothing() throws Exception {
+        lists.put("user", Collections.singletonList(entry("1", System.currentTimeMillis())));
+        watcher = watcher(options(), changes::add);
+
+        watcher.watch("user");
+        awaitFetches("user", 3);
+
+        assertThat(changes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void watch_recentlyActiveUser_polledMoreOftenThanInactiveUser() throws Exception {
+        long now = System.currentTimeMillis();
+        lists.put("active", Collections.singletonList(entry("1", now)));
+        lists.put("inactive", Collections.singletonList(entry("1", now - TimeUnit.DAYS.toMillis(365))));
+        WatchOptions options = options();
+        options.setMaxIntervalMillis(60000);
+        watcher = watcher(options, changes::add);
+
+        watcher.watch("active");
+        watcher.watch("inactive");
+        Thread.sleep(500);
+
+        assertThat(fetches.get("active").get(), is(greaterThanOrEqualTo(5)));
+        assertThat(fetches.get("inactive").get(), is(1));
+    }
+
+    @Test
+    public void watch_fetchFails_reportsFailureAndRetries() throws Exception {
+        lists.put("user", Collections.singletonList(entry("1", System.currentTimeMillis())));
+        BlockingQueue<WatchFailure> failures = new LinkedBlockingQueue<>();
+        WatchOptions options = options();
+        options.setFailureListener(failures::add);
+        AtomicInteger calls = new AtomicInteger();
+        watcher = new ListWatcher<>(user -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ServerErrorException(503);
+            }
+            return fetch(user);
+        }, AnimeListEntry::getSeriesId, AnimeListEntry::getLastUpdated, options, changes::add);
+
+        watcher.watch("user");
+
+        WatchFailure failure = failures.poll(5, TimeUnit.SECONDS);
+        assertThat(failure, is(notNullValue()));
+        assertThat(failure.getUsername(), is("user"));
+        assertThat(failure.getError(), is(instanceOf(ServerErrorException.class)));
+        awaitFetches("user", 1);
+        assertThat(watcher.getMetrics().getFailures(), is(1L));
+    }
+
+    @Test
+    public void unwatch_stopsPolling() throws Exception {
+        lists.put("user", Collections.singletonList(entry("1", System.currentTimeMillis())));
+        watcher = watcher(options(), changes::add);
+        watcher.watch("user");
+        awaitFetches("user", 2);
+
+        watcher.unwatch("user");
+        int polled = fetches.get("user").get();
+        Thread.sleep(200);
+
+        assertThat(fetches.get("user").get(), is(lessThanOrEqualTo(polled + 1)));
+        assertThat(watcher.getWatchedUsers(), is(empty()));
+        assertThat(watcher.getMetrics().getWatchedUsers(), is(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void watch_closed_throwsException() {
+        watcher = watcher(options(), changes::add);
+        watcher.close();
+
+        watcher.watch("user");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_maxIntervalBelowMin_throwsException() {
+        WatchOptions options = options();
+        options.setMaxIntervalMillis(options.getMinIntervalMillis() - 1);
+
+        watcher(options, changes::add);
+    }
+
+    @Test
+    public void intervalMillis_shareOfTimeSinceLastChangeWithinBounds() {
+        assertThat(ListWatcher.intervalMillis(0.1, 10000000, 60000, 86400000), is(1000000L));
+        assertThat(ListWatcher.intervalMillis(0.1, 1000, 60000, 86400000), is(60000L));
+        assertThat(ListWatcher.intervalMillis(0.1, -1000, 60000, 86400000), is(60000L));
+        assertThat(ListWatcher.intervalMillis(0.1, TimeUnit.DAYS.toMillis(3650), 60000, 86400000), is(86400000L));
+    }
+
+    @Test
+    public void watch_failureListenerThrows_keepsPolling() throws Exception {
+        lists.put("user", Collections.singletonList(entry("1", System.currentTimeMillis())));
+        WatchOptions options = options();
+        options.setFailureListener(failure -> {
+            throw new IllegalStateException("listener");
+        });
+        AtomicInteger calls = new AtomicInteger();
+        watcher = new ListWatcher<>(user -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ServerErrorException(503);
+            }
+            return fetch(user);
+        }, AnimeListEntry::getSeriesId, AnimeListEntry::getLastUpdated, options, changes::add);
+
+        watcher.watch("user");
+
+        awaitFetches("user", 2);
+        assertThat(watcher.getMetrics().getFailures(), is(1L));
+    }
+
+    private ListWatcher<AnimeListEntry> watcher(WatchOptions options, Consumer<ListChange<AnimeListEntry>> listener) {
+        return new ListWatcher<>(this::fetch, AnimeListEntry::getSeriesId, AnimeListEntry::getLastUpdated, options, listener);
+    }
+
+    private List<AnimeListEntry> fetch(String user) {
+        fetches.computeIfAbsent(user, u -> new AtomicInteger()).incrementAndGet();
+        return lists.get(user);
+    }
+
+    private static WatchOptions options() {
+        WatchOptions options = new WatchOptions();
+        options.setMinIntervalMillis(20);
+        options.setMaxIntervalMillis(100);
+        options.setTickMillis(5);
+        options.setRequestsPerSecond(0);
+        return options;
+    }
+
+    private void awaitFetches(String user, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fetches.getOrDefault(user, new AtomicInteger()).get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(fetches.get(user).get(), is(greaterThanOrEqualTo(count)));
+    }
+
+    private static AnimeListEntry entry(String seriesId, long lastUpdated) {
+        AnimeListEntry entry = new AnimeListEntry();
+        entry.setSeriesId(seriesId);
+        entry.setLastUpdated(new Date(lastUpdated));
+        return entry;
+    }
+
+    private static List<String> ids(List<AnimeListEntry> entries) {
+        return entries.stream().map(AnimeListEntry::getSeriesId).collect(Collectors.toList());
+    }
+}
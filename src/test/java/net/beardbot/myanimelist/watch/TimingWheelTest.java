@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.watch;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TimingWheelTest {
+
+    @Test
+    public void advanceTo_itemsOnAllLevels_expireAtDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(0);
+        long[] deadlines = {1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 262145, 300000, 16777215, 16777216, 20000000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        Map<Long, Long> expiredAt = new HashMap<>();
+
+        wheel.advanceTo(20000000, item -> expiredAt.put(item, wheel.getCurrentTick()));
+
+        for (long deadline : deadlines) {
+            assertThat(expiredAt.get(deadline), is(deadline));
+        }
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    public void advanceTo_manyRandomItems_expireAtDeadline() {
+        long start = 123456;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long item = 0; item < 100000; item++) {
+            long deadline = start + 1 + random.nextInt(1000000);
+            deadlines.put(item, deadline);
+            wheel.schedule(item, deadline);
+        }
+        assertThat(wheel.size(), is(100000));
+        Map<Long, Long> expiredAt = new HashMap<>();
+
+        wheel.advanceTo(start + 500000, item -> expiredAt.put(item, wheel.getCurrentTick()));
+        wheel.advanceTo(start + 1000000, item -> expiredAt.put(item, wheel.getCurrentTick()));
+
+        assertThat(expiredAt, is(deadlines));
+    }
+
+    @Test
+    public void schedule_deadlinePassed_expiresWithNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        wheel.schedule("late", 50);
+        wheel.schedule("now", 100);
+        Map<String, Long> expiredAt = new HashMap<>();
+
+        wheel.advanceTo(101, item -> expiredAt.put(item, wheel.getCurrentTick()));
+
+        assertThat(expiredAt.get("late"), is(101L));
+        assertThat(expiredAt.get("now"), is(101L));
+    }
+
+    @Test
+    public void schedule_whileAdvancing_expiresAtDeadline() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(0);
+        wheel.schedule(1, 10);
+        Map<Integer, Long> expiredAt = new HashMap<>();
+
+        wheel.advanceTo(10, item -> expiredAt.put(item, wheel.getCurrentTick()));
+        wheel.schedule(2, 10 + 5000);
+        wheel.advanceTo(6000, item -> expiredAt.put(item, wheel.getCurrentTick()));
+
+        assertThat(expiredAt.get(1), is(10L));
+        assertThat(expiredAt.get(2), is(5010L));
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2018 Joscha Düringer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.beardbot.myanimelist.writebehind;
+
+import net.beardbot.myanimelist.model.anime.AnimeListEntryStatus;
+import net.beardbot.myanimelist.model.anime.AnimeListEntryValues;
+import net.beardbot.myanimelist.model.manga.MangaListEntryValues;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.ServiceUnavailableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class WriteBehindQueueTest {
+
+    private final List<String> sentAnime = new CopyOnWriteArrayList<>();
+    private final Map<String, AnimeListEntryValues> animeValues = new ConcurrentHashMap<>();
+    private final List<String> sentManga = new CopyOnWriteArrayList<>();
+    private final List<WriteBehindFailure> failures = new CopyOnWriteArrayList<>();
+    private BiConsumer<String, AnimeListEntryValues> animeWriter = (id, values) -> {
+        sentAnime.add(id);
+        animeValues.put(id, values);
+    };
+    private WriteBehindQueue queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Test
+    public void updates_sameSeriesWithinWindow_sentOnceWithMergedValues() {
+        queue = queue(60000);
+
+        queue.updateAnimeList("1", episode(1));
+        queue.updateAnimeList("2", episode(7));
+        queue.updateAnimeList("1", episode(2));
+        AnimeListEntryValues completed = new AnimeListEntryValues();
+        completed.setStatus(AnimeListEntryStatus.COMPLETED);
+        queue.updateAnimeList("1", completed);
+        queue.updateMangaList("1", new MangaListEntryValues());
+
+        assertThat(sentAnime.isEmpty(), is(true));
+        assertThat(queue.getMetrics(), is(new WriteBehindMetrics(5, 2, 0, 0, 3)));
+
+        queue.flush();
+
+        assertThat(sentAnime, is(list("1", "2")));
+        assertThat(sentManga, is(list("1")));
+        assertThat(animeValues.get("1").getEpisode(), is(2));
+        assertThat(animeValues.get("1").getStatus(), is(AnimeListEntryStatus.COMPLETED));
+        assertThat(queue.getMetrics(), is(new WriteBehindMetrics(5, 2, 3, 0, 0)));
+    }
+
+    @Test
+    public void updates_sentAfterWindow() throws Exception {
+        queue = queue(50);
+
+        queue.updateAnimeList("1", episode(1));
+        queue.updateAnimeList("1", episode(2));
+
+        awaitSent(1);
+        assertThat(sentAnime, is(list("1")));
+        assertThat(animeValues.get("1").getEpisode(), is(2));
+
+        queue.updateAnimeList("1", episode(3));
+        awaitSent(2);
+        assertThat(animeValues.get("1").getEpisode(), is(3));
+    }
+
+    @Test
+    public void close_sendsPendingUpdatesAndRejectsNewOnes() {
+        queue = queue(60000);
+        queue.updateAnimeList("1", episode(1));
+
+        queue.close();
+
+        assertThat(sentAnime, is(list("1")));
+        try {
+            queue.updateAnimeList("1", episode(2));
+            throw new AssertionError("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(sentAnime, is(list("1")));
+        }
+    }
+
+    @Test
+    public void failure_temporary_requeuedBeneathNewerChanges() {
+        List<AnimeListEntryValues> attempts = new ArrayList<>();
+        animeWriter = (id, values) -> {
+            attempts.add(values);
+            if (attempts.size() == 1) {
+                queue.updateAnimeList(id, episode(5));
+                throw new ServiceUnavailableException();
+            }
+        };
+        queue = queue(60000);
+        AnimeListEntryValues first = episode(4);
+        first.setScore(8);
+        queue.updateAnimeList("1", first);
+
+        queue.flush();
+        queue.flush();
+
+        assertThat(attempts.size(), is(2));
+        assertThat(attempts.get(1).getEpisode(), is(5));
+        assertThat(attempts.get(1).getScore(), is(8));
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).isRequeued(), is(true));
+        assertThat(failures.get(0).getError(), is(instanceOf(ServiceUnavailableException.class)));
+        assertThat(queue.getMetrics(), is(new WriteBehindMetrics(2, 0, 1, 1, 0)));
+    }
+
+    @Test
+    public void failure_clientError_dropped() {
+        animeWriter = (id, values) -> {
+            throw new BadRequestException();
+        };
+        queue = queue(60000);
+        queue.updateAnimeList("1", episode(1));
+
+        queue.flush();
+
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).isRequeued(), is(false));
+        assertThat(failures.get(0).getSeriesId(), is("1"));
+        assertThat(queue.getMetrics().getPending(), is(0));
+    }
+
+    @Test
+    public void failure_tooManyRequests_requeued() {
+        List<AnimeListEntryValues> attempts = new ArrayList<>();
+        animeWriter = (id, values) -> {
+            attempts.add(values);
+            if (attempts.size() == 1) {
+                throw new ClientErrorException(429);
+            }
+        };
+        queue = queue(60000);
+        queue.updateAnimeList("1", episode(1));
+
+        queue.flush();
+        queue.flush();
+
+        assertThat(attempts.size(), is(2));
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).isRequeued(), is(true));
+        assertThat(queue.getMetrics(), is(new WriteBehindMetrics(1, 0, 1, 1, 0)));
+    }
+
+    @Test
+    public void failure_keepsFailing_droppedAfterMaxAttempts() {
+        animeWriter = (id, values) -> {
+            throw new ServiceUnavailableException();
+        };
+        WriteBehindOptions options = options(60000);
+        options.setMaxAttempts(3);
+        queue = new WriteBehindQueue((id, values) -> animeWriter.accept(id, values), (id, values) -> {}, options);
+        queue.updateAnimeList("1", episode(1));
+
+        for (int i = 0; i < 5; i++) {
+            queue.flush();
+        }
+
+        assertThat(failures.size(), is(3));
+        assertThat(failures.get(1).isRequeued(), is(true));
+        assertThat(failures.get(2).isRequeued(), is(false));
+        assertThat(queue.getMetrics().getPending(), is(0));
+    }
+
+    @Test
+    public void failure_throwingListener_remainingUpdatesSent() {
+        animeWriter = (id, values) -> {
+            if (id.equals("1")) {
+                throw new BadRequestException();
+            }
+            sentAnime.add(id);
+        };
+        WriteBehindOptions options = options(60000);
+        options.setFailureListener(failure -> {
+            throw new IllegalStateException("listener");
+        });
+        queue = new WriteBehindQueue((id, values) -> animeWriter.accept(id, values), (id, values) -> sentManga.add(id), options);
+        queue.updateAnimeList("1", episode(1));
+        queue.updateAnimeList("2", episode(1));
+        queue.updateMangaList("3", new MangaListEntryValues());
+
+        queue.flush();
+
+        assertThat(sentAnime, is(list("2")));
+        assertThat(sentManga, is(list("3")));
+    }
+
+    @Test
+    public void updates_valuesChangedAfterSubmit_sentAsSubmitted() {
+        queue = queue(60000);
+        AnimeListEntryValues values = episode(1);
+
+        queue.updateAnimeList("1", values);
+        values.setEpisode(2);
+        queue.flush();
+
+        assertThat(animeValues.get("1").getEpisode(), is(1));
+        assertThat(animeValues.get("1"), is(not(sameInstance(values))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_maxAttemptsNotPositive_throwsException() {
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setMaxAttempts(0);
+        new WriteBehindQueue(animeWriter, (id, values) -> {}, options);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_windowNotPositive_throwsException() {
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setWindowMillis(0);
+        new WriteBehindQueue(animeWriter, (id, values) -> {}, options);
+    }
+
+    private WriteBehindQueue queue(long windowMillis) {
+        return new WriteBehindQueue((id, values) -> animeWriter.accept(id, values), (id, values) -> sentManga.add(id), options(windowMillis));
+    }
+
+    private WriteBehindOptions options(long windowMillis) {
+        WriteBehindOptions options = new WriteBehindOptions();
+        options.setWindowMillis(windowMillis);
+        options.setFailureListener(failures::add);
+        return options;
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sentAnime.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sentAnime.size(), is(count));
+    }
+
+    private static AnimeListEntryValues episode(int episode) {
+        AnimeListEntryValues values = new AnimeListEntryValues();
+        values.setEpisode(episode);
+        return values;
+    }
+
+    private static List<String> list(String... ids) {
+        return Arrays.asList(ids);
+    }
+}